@@ -28,6 +28,7 @@
  */
 package org.pdes.rcp.actions;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -39,7 +40,12 @@ import java.util.stream.IntStream;
 import org.pdes.rcp.actions.base.AbstractSimulationAction;
 import org.pdes.rcp.model.ProjectDiagram;
 import org.pdes.simulator.PDES_BasicSimulator_TaskPerformedBySingleTaskWorker;
+import org.pdes.simulator.base.ReplicationSampling;
+import org.pdes.simulator.base.SimulationContext;
+import org.pdes.simulator.base.SimulationResultCache;
 import org.pdes.simulator.model.ProjectInfo;
+import org.pdes.simulator.model.base.BaseProjectInfo;
+import org.pdes.simulator.model.base.ReplicationRandom.Mode;
 
 /**
  * This is the Action class for running PDES_BasicSimulator considering rework of error tolerance at many times.<br>
@@ -68,13 +74,58 @@ public class MultiRunPDES_BasicSimulator_TaskPerformedBySingleTaskWorker_Conside
 			return null;
 		}
 		
+		//Set the sampling mode of random numbers
+		Mode samplingMode = this.setSamplingMode();
+		if(samplingMode == null) {
+			this.aggregateMode = false;
+			return null;
+		}
+		
+		//Set the sampling of errors of components
+		Boolean geometricErrorSampling = this.setGeometricErrorSampling();
+		if(geometricErrorSampling == null) {
+			this.aggregateMode = false;
+			return null;
+		}
+		
+		//Set the seed of random numbers
+		Long seed = this.setSeed();
+		if(seed == null) {
+			this.aggregateMode = false;
+			return null;
+		}
+		msgStream.println("Seed of random numbers: " + seed);
+		ReplicationSampling sampling = new ReplicationSampling(samplingMode, seed, Math.max(2, numOfSimulation / 10));
+		String modelHash = SimulationResultCache.getModelHash(new ProjectInfo(diagram, 1));
+		double[][] values = new double[3][numOfSimulation]; // cost, duration and total work amount of each run
+		
 		long start = System.currentTimeMillis();
 		ExecutorService service = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
 		List<Future<String>> resultList = new ArrayList<Future<String>>();
+		ThreadLocal<SimulationContext<PDES_BasicSimulator_TaskPerformedBySingleTaskWorker>> contextHolder = SimulationContext.perThread(
+				() -> new ProjectInfo(diagram, workflowCount),
+				project -> {
+					PDES_BasicSimulator_TaskPerformedBySingleTaskWorker sim = new PDES_BasicSimulator_TaskPerformedBySingleTaskWorker(project);
+					sim.setConsiderReworkOfErrorTorelance(true);
+					sim.setGeometricErrorSampling(geometricErrorSampling);
+					return sim;
+				});
 		IntStream.range(0,numOfSimulation).forEach(i ->{
-			resultList.add(service.submit(new BasicSimulationTask(i, diagram, workflowCount, outputDir)));
+			resultList.add(service.submit(new BasicSimulationTask(i, contextHolder, sampling, modelHash, values, outputDir)));
 		});
 		service.shutdown();
+		
+		//Report the variance reduction by the sampling mode
+		if(samplingMode != Mode.MONTE_CARLO) {
+			try {
+				for(Future<String> result : resultList) result.get();
+				msgStream.println(sampling.getVarianceReductionReport("Cost", values[0]));
+				msgStream.println(sampling.getVarianceReductionReport("Duration", values[1]));
+				msgStream.println(sampling.getVarianceReductionReport("Total work amount", values[2]));
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
 		long end = System.currentTimeMillis();
 		msgStream.println("Processing time: " + ((end - start)) + " [millisec]");
 		return resultList;
@@ -82,25 +133,35 @@ public class MultiRunPDES_BasicSimulator_TaskPerformedBySingleTaskWorker_Conside
 	
 	/**
 	 * This is the concurrent callable class for doing simulation by another thread.<br>
+	 * The project model and the simulator are reused by the context of each thread.
+	 * If the same run was simulated before, the result is got from the result cache.
+	 * A run stopped by the watchdog is flagged as "Stopped" in the aggregate.
 	 * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
 	 */
 	private class BasicSimulationTask implements Callable<String>{
 		
 		private final int no;
-		private final ProjectDiagram diagram;
-		private final int numOfWorkflow;
+		private final ThreadLocal<SimulationContext<PDES_BasicSimulator_TaskPerformedBySingleTaskWorker>> contextHolder;
+		private final ReplicationSampling sampling;
+		private final String modelHash;
+		private final double[][] values;
 		private final String outputDirectoryPath;
 		
 		/**
 		 * This is the constructor.
 		 * @param no
-		 * @param diagram
-		 * @param numOfWorkflow
+		 * @param contextHolder
+		 * @param sampling
+		 * @param modelHash hash of the model for the result cache
+		 * @param values array for saving cost, duration and total work amount of this run
+		 * @param outputDirectoryPath
 		 */
-		public BasicSimulationTask(int no, ProjectDiagram diagram, int numOfWorkflow, String outputDirectoryPath) {
+		public BasicSimulationTask(int no, ThreadLocal<SimulationContext<PDES_BasicSimulator_TaskPerformedBySingleTaskWorker>> contextHolder, ReplicationSampling sampling, String modelHash, double[][] values, String outputDirectoryPath) {
 			this.no = no;
-			this.diagram = diagram;
-			this.numOfWorkflow = numOfWorkflow;
+			this.contextHolder = contextHolder;
+			this.sampling = sampling;
+			this.modelHash = modelHash;
+			this.values = values;
 			this.outputDirectoryPath = outputDirectoryPath;
 		}
 
@@ -109,12 +170,23 @@ public class MultiRunPDES_BasicSimulator_TaskPerformedBySingleTaskWorker_Conside
 		 */
 		@Override
 		public String call() throws Exception {
-			ProjectInfo project = new ProjectInfo(diagram, numOfWorkflow);
-			PDES_BasicSimulator_TaskPerformedBySingleTaskWorker sim = new PDES_BasicSimulator_TaskPerformedBySingleTaskWorker(project);
-			sim.setConsiderReworkOfErrorTorelance(true);
-			sim.execute();
-			sim.saveResultFilesInDirectory(outputDirectoryPath, String.valueOf(no));
-			return String.format("%d,%f,%d,%f", no, project.getTotalCost(), project.getDuration(),project.getTotalActualWorkAmount());
+			SimulationContext<PDES_BasicSimulator_TaskPerformedBySingleTaskWorker> context = contextHolder.get();
+			BaseProjectInfo project = context.getProject();
+			SimulationResultCache resultCache = getResultCache();
+			String key = SimulationResultCache.getKey(modelHash, context.getSimulator(), sampling.getRunKey(no));
+			double[] result = resultCache.get(key);
+			if(result == null || result.length < 4 || !resultCache.copyGanttFile(key, new File(outputDirectoryPath, no + ".csv"))) {
+				sampling.setUp(project, no);
+				PDES_BasicSimulator_TaskPerformedBySingleTaskWorker sim = context.run();
+				result = new double[]{project.getTotalCost(), project.getDuration(), project.getTotalActualWorkAmount(), sim.getWatchdog().isStopped() ? 1 : 0};
+				if(sim.getWatchdog().isStopped()) msgStream.println(String.format("No.%d: %s", no, sim.getWatchdog().getStopMessage()));
+				sim.saveResultFilesInDirectory(outputDirectoryPath, String.valueOf(no));
+				resultCache.put(key, result, new File(outputDirectoryPath, no + ".csv"));
+			}
+			values[0][no] = result[0];
+			values[1][no] = result[1];
+			values[2][no] = result[2];
+			return String.format("%d,%f,%d,%f,%s", no, result[0], (int) result[1], result[2], result[3] != 0 ? "Stopped" : "");
 		}
 	}
 	
@@ -101,6 +101,7 @@ public class OneRunPDES_BasicSimulator_TaskPerformedBySingleTaskWorkerAction ext
 			BaseProjectInfo project = new ProjectInfo(diagram, numOfWorkflow);
 			PDES_BasicSimulator_TaskPerformedBySingleTaskWorker sim = new PDES_BasicSimulator_TaskPerformedBySingleTaskWorker(project);
 			sim.execute();
+			if(sim.getWatchdog().isStopped()) msgStream.println(String.format("No.%d: %s", no, sim.getWatchdog().getStopMessage()));
 			sim.saveResultFilesInDirectory(outputDirectoryPath, String.valueOf(no));
 			return String.format("%d,%f,%d,%f", no, project.getTotalCost(), project.getDuration(),project.getTotalActualWorkAmount());
 		}
@@ -79,7 +79,7 @@ public class OpenProjectFileAction extends Action {
 	private String openFileDialog() {
 		FileDialog dialog = new FileDialog(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell(),SWT.OPEN);
 		dialog.setText("Select project file.");
-		dialog.setFilterExtensions(new String[]{"*.pdm"});
+		dialog.setFilterExtensions(new String[]{"*.pdm","*.pdm.gz"});
 		return dialog.open();
 	}
 }
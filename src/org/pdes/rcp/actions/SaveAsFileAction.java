@@ -63,7 +63,7 @@ public class SaveAsFileAction extends Action {
 		if(editor instanceof ProjectEditor){
 			ProjectEditor pe = (ProjectEditor)editor;
 			FileDialog dialog = new FileDialog(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell(),SWT.SAVE);
-			dialog.setFilterExtensions(new String[]{"*.pdm","*.xml"});
+			dialog.setFilterExtensions(new String[]{"*.pdm","*.pdm.gz","*.xml"});
 			dialog.setText("Save file");
 			String filePath = dialog.open();
 			if(filePath != null){
@@ -65,7 +65,7 @@ public class SaveFileAction extends Action {
 			String filePath = pe.getFilePath();
 			if(filePath.equals("New Project")){
 				FileDialog dialog = new FileDialog(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell(),SWT.SAVE);
-				dialog.setFilterExtensions(new String[]{"*.pdm","*.xml"});
+				dialog.setFilterExtensions(new String[]{"*.pdm","*.pdm.gz","*.xml"});
 				dialog.setText("Save file");
 				filePath = dialog.open();
 			}
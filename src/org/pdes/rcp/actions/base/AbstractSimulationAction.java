@@ -37,8 +37,8 @@ import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.Future;
-import java.util.stream.Collectors;
 
 import org.apache.commons.io.FilenameUtils;
 import org.eclipse.jface.action.Action;
@@ -52,9 +52,11 @@ import org.pdes.rcp.core.Activator;
 import org.pdes.rcp.dialog.InputSimpleTextDialog;
 import org.pdes.rcp.model.ProjectDiagram;
 import org.pdes.rcp.view.editor.ProjectEditor;
+import org.pdes.simulator.base.ProjectValidator;
+import org.pdes.simulator.base.SimulationResultCache;
 import org.pdes.simulator.model.ProjectInfo;
 import org.pdes.simulator.model.base.BaseProjectInfo;
-import org.pdes.simulator.model.base.BaseTask;
+import org.pdes.simulator.model.base.ReplicationRandom.Mode;
 
 /**
  * This is the abstract One Run Simulation Action.<br>
@@ -63,6 +65,8 @@ import org.pdes.simulator.model.base.BaseTask;
  */
 public abstract class AbstractSimulationAction extends Action {
 	
+	private static SimulationResultCache resultCache = null; // shared by all simulation actions
+	
 	protected final MessageConsoleStream msgStream = Activator.getDefault().getMsgStream();
 	
 	protected boolean aggregateMode = false;
@@ -82,19 +86,13 @@ public abstract class AbstractSimulationAction extends Action {
 			return;
 		}
 		
-		//1. Check whether Project will be finished or not by checking workers skill.
-		boolean skillCheckResult = true;
+		//1. Check whether Project will be finished or not by validating the model.
 		ProjectDiagram pd = (ProjectDiagram)pe.getDiagram();
 		BaseProjectInfo project = new ProjectInfo(pd, 1);
-		List<BaseTask> taskList = project.getWorkflowList().stream().flatMap(w -> w.getTaskList().stream()).collect(Collectors.toList());
-		for(BaseTask task : taskList){
-			if(!project.getOrganization().getWorkerList().stream().filter(worker -> worker.hasSkill(task)==true).findFirst().isPresent()) {
-				msgStream.println(String.format("\"%s\" cannot be done because of skill information. Exit.", task.getName()));
-				skillCheckResult = false;
-			}
-		}
-		if(!skillCheckResult) {
-			MessageDialog.openError(ib.getActiveWorkbenchWindow().getShell(), "Error", "Simulation will not be finished because of skill loss.");
+		List<String> errorMessageList = new ProjectValidator(project).validate();
+		if(!errorMessageList.isEmpty()) {
+			errorMessageList.forEach(message -> msgStream.println(message + " Exit."));
+			MessageDialog.openError(ib.getActiveWorkbenchWindow().getShell(), "Error", "Simulation will not be finished because of the problems of this project.");
 			return;
 		}
 		
@@ -169,7 +167,7 @@ public abstract class AbstractSimulationAction extends Action {
 			
 			// header
 			pw.println(FilenameUtils.getBaseName(resultFile.toString()));
-			pw.println(String.join(",", "No", "Cost", "Duration", "Total Work amount"));
+			pw.println(String.join(",", "No", "Cost", "Duration", "Total Work amount", "Stopped"));
 			
 			try {
 				resultList.forEach(result -> {
@@ -227,4 +225,77 @@ public abstract class AbstractSimulationAction extends Action {
 		}
 		return numOfSimulation;
 	}
+	
+	/**
+	 * Set the sampling mode of random numbers of replications.
+	 * @return the mode, or null if the input is canceled or invalid
+	 */
+	public Mode setSamplingMode(){
+		Mode[] modes = Mode.values();
+		InputSimpleTextDialog samplingModeTextDialog = new InputSimpleTextDialog(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell());
+		samplingModeTextDialog.setTitleAndMessage("The sampling mode of random numbers", "Enter 0 (Monte Carlo), 1 (Antithetic pairs) or 2 (Latin hypercube).");
+		if (samplingModeTextDialog.open() != Window.OK) {
+			msgStream.println("The sampling mode is not entered. Exit.");
+			return null;
+		}
+		String text = samplingModeTextDialog.getTextString();
+		try {
+			int index = Integer.valueOf(text);
+			if (index >= 0 && index < modes.length) return modes[index];
+		} catch (NumberFormatException e) {
+			// not integer value
+		}
+		msgStream.println(String.format("\"%s\" is not a sampling mode. Exit.", text));
+		return null;
+	}
+	
+	/**
+	 * Set whether the errors of components are sampled by geometric skip counts or not.<br>
+	 * The results of geometric sampling are different from the default per-tick sampling even for the same seed.
+	 * @return TRUE for geometric sampling, FALSE for per-tick sampling (if nothing is entered), or null if the input is canceled or invalid
+	 */
+	public Boolean setGeometricErrorSampling(){
+		InputSimpleTextDialog errorSamplingTextDialog = new InputSimpleTextDialog(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell());
+		errorSamplingTextDialog.setTitleAndMessage("The sampling of errors of components", "Enter 0 or nothing (check errors at each tick) or 1 (sample the ticks before the next error).");
+		if (errorSamplingTextDialog.open() != Window.OK) {
+			msgStream.println("The sampling of errors is not entered. Exit.");
+			return null;
+		}
+		String text = errorSamplingTextDialog.getTextString();
+		if (text == null || text.trim().isEmpty() || text.trim().equals("0")) return false;
+		if (text.trim().equals("1")) return true;
+		msgStream.println(String.format("\"%s\" is not a sampling of errors. Exit.", text));
+		return null;
+	}
+	
+	/**
+	 * Set the seed of random numbers.<br>
+	 * The results of the same seed are reproduced, so they are got from the result cache instead of simulating again.
+	 * @return the seed (a new seed if nothing is entered), or null if the input is canceled or invalid
+	 */
+	public Long setSeed(){
+		InputSimpleTextDialog seedTextDialog = new InputSimpleTextDialog(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell());
+		seedTextDialog.setTitleAndMessage("The seed of random numbers", "Enter an integer seed for reproducing the results, or nothing for a new seed.");
+		if (seedTextDialog.open() != Window.OK) {
+			msgStream.println("The seed is not entered. Exit.");
+			return null;
+		}
+		String text = seedTextDialog.getTextString();
+		if (text == null || text.trim().isEmpty()) return new Random().nextLong();
+		try {
+			return Long.valueOf(text.trim());
+		} catch (NumberFormatException e) {
+			msgStream.println(String.format("\"%s\" is not integer value. Exit.", text));
+			return null;
+		}
+	}
+	
+	/**
+	 * Get the cache of simulation results in the default directory.
+	 * @return
+	 */
+	protected static synchronized SimulationResultCache getResultCache(){
+		if (resultCache == null) resultCache = new SimulationResultCache(SimulationResultCache.getDefaultDirectory(), SimulationResultCache.DEFAULT_MAX_SIZE);
+		return resultCache;
+	}
 }
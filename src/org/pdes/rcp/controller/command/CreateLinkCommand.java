@@ -32,6 +32,7 @@ import org.eclipse.gef.commands.Command;
 import org.pdes.rcp.model.AllocationLink;
 import org.pdes.rcp.model.ComponentHierarchyLink;
 import org.pdes.rcp.model.ComponentNode;
+import org.pdes.rcp.model.ProjectDiagram;
 import org.pdes.rcp.model.SubWorkflowNode;
 import org.pdes.rcp.model.TargetComponentLink;
 import org.pdes.rcp.model.TaskDependencyLink;
@@ -106,6 +107,7 @@ public class CreateLinkCommand extends Command {
 			if(this.hasSomeLinkBetweenNodeElement()) return false;//IF a link has existed in the same place THEN wrong.
 			if(!(source instanceof TaskNode || source instanceof SubWorkflowNode)) return false; // source or target have to be Task or SubWorkflow
 			if(!(target instanceof TaskNode || target instanceof SubWorkflowNode)) return false;
+			if(this.makesCycleOfTaskDependency()) return false;//IF this link makes a cycle of tasks THEN wrong.
 			return true;
 		}else if(link instanceof TeamLink){
 			if(this.hasSomeLinkBetweenNodeElement()) return false;//IF a link has existed in the same place THEN wrong.
@@ -166,6 +168,16 @@ public class CreateLinkCommand extends Command {
 		return false;
 	}
 	
+	/**
+	 * Check whether a TaskDependencyLink from source to target makes a cycle.<br>
+	 * "link" itself is ignored because it may be the existing link to be reconnected.
+	 * @return
+	 */
+	private boolean makesCycleOfTaskDependency(){
+		if(!(source.getParentDiagram() instanceof ProjectDiagram)) return false;
+		return ((ProjectDiagram) source.getParentDiagram()).getTaskDependencyOrder().makesCycle(source, target, link);
+	}
+	
 	/**
 	 * Check whether a same type of link has existed in the same place.<br>
 	 * @param linktype
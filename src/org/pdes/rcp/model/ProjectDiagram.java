@@ -28,30 +28,22 @@
  */
 package org.pdes.rcp.model;
 
-import java.io.BufferedWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileWriter;
-import java.io.PrintWriter;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLStreamException;
 
-import org.eclipse.draw2d.geometry.Point;
 import org.pdes.rcp.model.base.Diagram;
-import org.pdes.rcp.model.base.Link;
 import org.pdes.rcp.model.base.NodeElement;
-import org.pdes.rcp.model.base.ResourceElement;
-import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * This is the Project Diagram class.
@@ -61,8 +53,13 @@ public class ProjectDiagram extends Diagram {
 
 	private static final long serialVersionUID = 5579324532129810803L;
 	
+	private static final int FILE_BUFFER_SIZE = 1 << 16;
+	
 	private int concurrencyLimitOfWorkflow; //Concurrency Limit of workflow in this diagram.
 	
+	//Other
+	private transient TaskDependencyOrder taskDependencyOrder; // null until it is needed
+	
 	/**
 	 * This is the constructor.
 	 */
@@ -72,118 +69,44 @@ public class ProjectDiagram extends Diagram {
 	}
 
 	/**
-	 * Save the Project file in the "filePath".
+	 * Get the topological order of TaskDependencyLinks in this diagram.<br>
+	 * It is created when it is needed first, and updated incrementally after that.
+	 * @return
+	 */
+	public TaskDependencyOrder getTaskDependencyOrder(){
+		if(taskDependencyOrder == null) taskDependencyOrder = new TaskDependencyOrder(this);
+		return taskDependencyOrder;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.pdes.rcp.model.base.Diagram#setNodeElementList(java.util.List)
+	 */
+	@Override
+	public void setNodeElementList(List<NodeElement> nodeElementList){
+		super.setNodeElementList(nodeElementList);
+		taskDependencyOrder = null; // rebuilt from the new list when it is needed
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.pdes.rcp.model.base.Diagram#incomingLinkChanged(org.pdes.rcp.model.base.NodeElement)
+	 */
+	@Override
+	protected void incomingLinkChanged(NodeElement node){
+		super.incomingLinkChanged(node);
+		if(taskDependencyOrder != null) taskDependencyOrder.markChanged(node);
+	}
+
+	/**
+	 * Save the Project file in the "filePath".<br>
+	 * If "filePath" ends with ".gz", Project file is compressed by gzip.
 	 * @param filePath
 	 * @return
 	 */
 	public boolean saveProjectFile(String filePath) {
-		try{
-			PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(filePath)));
-			pw.println("<?xml version=\"1.0\"?>");
-			pw.println("<!--Project Diagram-->");
-			pw.println("<ProjectDiagram>");
-			
-			// Concurrency Limit of Workflow
-			pw.println("	<ConcurrencyLimit>" + this.concurrencyLimitOfWorkflow + "</ConcurrencyLimit>");
-			
-			List<Link> linkList = new ArrayList<Link>();
-			
-			//1. NodeElement
-			pw.println("	<NodeElementList>");
-			for(NodeElement node : this.getNodeElementList()){
-				linkList.addAll(node.getIncomingLinkList());//register all Link for processing after NodeElement.
-				
-				if(node instanceof TeamNode){
-					TeamNode team = (TeamNode)node;
-					pw.println("		<TeamNode id=\""+team.getId()+"\" Left=\""+((NodeElement) node).getX()+"\" Top=\""+((NodeElement) node).getY()+"\" Width=\""+((NodeElement) node).getWidth()+"\" Height=\""+((NodeElement) node).getHeight()+"\">");
-					pw.println("			<Name>"+this.xmlEscape(team.getName())+"</Name>");
-					
-					//Worker
-					List<WorkerElement> workerList = team.getWorkerList();
-					if(workerList.size()==0) pw.println("			<WorkerList/>");
-					else{
-						pw.println("			<WorkerList>");
-						for(WorkerElement worker:workerList){
-							pw.println("				<Worker>");
-							pw.println("					<Name>"+this.xmlEscape(worker.getName())+"</Name>");
-							pw.println("					<Cost>"+worker.getCost()+"</Cost>");
-							Map<String,Double> workAmountSkillMap = worker.getWorkAmountSkillMap();
-							for(Iterator<Entry<String, Double>> it = workAmountSkillMap.entrySet().iterator();it.hasNext();){
-								Entry<String, Double> entry = (Map.Entry<String, Double>)it.next();
-								pw.println("					<WorkAmountSkill name=\""+this.xmlEscape(entry.getKey())+"\" value=\""+entry.getValue()+"\"/>");
-							}
-							Map<String,Double> qualitySkillMap = worker.getQualitySkillMap();
-							for(Iterator<Entry<String, Double>> it = qualitySkillMap.entrySet().iterator();it.hasNext();){
-								Entry<String, Double> entry = (Map.Entry<String, Double>)it.next();
-								pw.println("					<QualitySkill name=\""+this.xmlEscape(entry.getKey())+"\" value=\""+entry.getValue()+"\"/>");
-							}
-							pw.println("				</Worker>");
-						}
-						pw.println("			</WorkerList>");
-					}
-					
-					//Facility
-					List<FacilityElement> facilityList = team.getFacilityList();
-					if(facilityList.size()==0) pw.println("			<FacilityList/>");
-					else{
-						pw.println("			<FacilityList>");
-						for(FacilityElement facility:facilityList){
-							pw.println("				<Facility>");
-							pw.println("					<Name>"+this.xmlEscape(facility.getName())+"</Name>");
-							pw.println("					<Cost>"+facility.getCost()+"</Cost>");
-							Map<String,Double> workAmountSkillMap = facility.getWorkAmountSkillMap();
-							for(Iterator<Entry<String, Double>> it = workAmountSkillMap.entrySet().iterator();it.hasNext();){
-								Entry<String, Double> entry = (Map.Entry<String, Double>)it.next();
-								pw.println("					<WorkAmountSkill name=\""+this.xmlEscape(entry.getKey())+"\" value=\""+entry.getValue()+"\"/>");
-							}
-							Map<String,Double> qualitySkillMap = facility.getQualitySkillMap();
-							for(Iterator<Entry<String, Double>> it = qualitySkillMap.entrySet().iterator();it.hasNext();){
-								Entry<String, Double> entry = (Map.Entry<String, Double>)it.next();
-								pw.println("					<QualitySkill name=\""+this.xmlEscape(entry.getKey())+"\" value=\""+entry.getValue()+"\"/>");
-							}
-							pw.println("				</Facility>");
-						}
-						pw.println("			</FacilityList>");
-					}
-					pw.println("		</TeamNode>");
-					
-				}else if(node instanceof TaskNode){
-					TaskNode task = (TaskNode) node;
-					pw.println("		<TaskNode id=\""+task.getId()+"\" Left=\""+((NodeElement) node).getX()+"\" Top=\""+((NodeElement) node).getY()+"\" Width=\""+((NodeElement) node).getWidth()+"\" Height=\""+((NodeElement) node).getHeight()+"\">");
-					pw.println("			<Name>"+this.xmlEscape((task.getName()).toString())+"</Name>");
-					pw.println("			<WorkAmount>"+task.getWorkAmount()+"</WorkAmount>");
-					pw.println("			<Progress>"+task.getProgress()+"</Progress>");
-					pw.println("			<AdditionalWorkAmount>"+task.getAdditionalWorkAmount()+"</AdditionalWorkAmount>");
-					pw.println("			<NeedFacility>"+task.isNeedFacility()+"</NeedFacility>");
-					pw.println("		</TaskNode>");
-				}else if(node instanceof ComponentNode){
-					ComponentNode component = (ComponentNode) node;
-					pw.println("		<ComponentNode id=\""+component.getId()+"\" Left=\""+((NodeElement) node).getX()+"\" Top=\""+((NodeElement) node).getY()+"\" Width=\""+((NodeElement) node).getWidth()+"\" Height=\""+((NodeElement) node).getHeight()+"\">");
-					pw.println("			<Name>"+this.xmlEscape((component.getName()).toString())+"</Name>");
-					pw.println("			<ErrorTolerance>"+component.getErrorTolerance()+"</ErrorTolerance>");
-					pw.println("		</ComponentNode>");
-				}else if(node instanceof SubWorkflowNode){
-					SubWorkflowNode subWorkflow = (SubWorkflowNode) node;
-					pw.println("		<SubWorkflowNode id=\""+subWorkflow.getId()+"\" Left=\""+((NodeElement) node).getX()+"\" Top=\""+((NodeElement) node).getY()+"\" Width=\""+((NodeElement) node).getWidth()+"\" Height=\""+((NodeElement) node).getHeight()+"\">");
-					pw.println("			<Name>"+this.xmlEscape((subWorkflow.getName()).toString())+"</Name>");
-					pw.println("			<Filename>"+subWorkflow.getFilename()+"</Filename>");
-					pw.println("		</SubWorkflowNode>");
-				}
-			}
-			pw.println("	</NodeElementList>");
-			
-			//2. Link
-			pw.println("	<LinkList>");
-			for(Link link : linkList){
-				String linkType = link.getLinkTypeName();
-				pw.println("		<Link type=\""+linkType+"\" org=\""+link.getOriginNode().getId()+"\" dst=\""+link.getDestinationNode().getId()+"\">");
-				link.getBendPoints().forEach(p -> pw.println("			<Point X=\""+p.x+"\" Y=\""+p.y+"\"/>"));
-				pw.println("		</Link>");
-			}
-			pw.println("	</LinkList>");
-			
-			pw.println("</ProjectDiagram>");
-			pw.close();
+		try(OutputStream out = openOutputStream(filePath)){
+			new ProjectFileWriter(out).write(this);
 		}catch(Exception e){
 			e.printStackTrace();
 			return false;
@@ -191,199 +114,30 @@ public class ProjectDiagram extends Diagram {
 		return true;
 	}
 	
-	
 	/**
-	 * Read Project file on "filePath".
+	 * Read Project file on "filePath".<br>
+	 * If "filePath" ends with ".gz", Project file is decompressed by gzip.
+	 * If the valid snapshot of Project file exists, this diagram is read from it instead of Project file.
+	 * The snapshot is never written by this method (see writeSnapshot()).
 	 * @param filePath
 	 * @return
 	 */
 	public boolean readProjectFile(String filePath) {
-		Document xml = null;
-		try{
-			DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-			xml = builder.parse(new FileInputStream(new File(filePath)));
-			
-			// Concurrency Limit of workflow
-			NodeList nodeList = xml.getElementsByTagName("ConcurrencyLimit");
-			concurrencyLimitOfWorkflow = Integer.parseInt(nodeList.item(0).getFirstChild().getNodeValue());
-			
-			/////////////TeamNode///////////////////////
-			nodeList = xml.getElementsByTagName("TeamNode");
-			for(int i=0;i<nodeList.getLength();i++){
-				
-				TeamNode team = new TeamNode();
-				Node node = nodeList.item(i);
-				NamedNodeMap attrs = node.getAttributes();
-				if(attrs!=null){
-					team.setId(attrs.getNamedItem("id").getNodeValue());
-					team.setX(Integer.parseInt(attrs.getNamedItem("Left").getNodeValue()));
-					team.setY(Integer.parseInt(attrs.getNamedItem("Top").getNodeValue()));
-					team.setWidth(Integer.parseInt(attrs.getNamedItem("Width").getNodeValue()));
-					team.setHeight(Integer.parseInt(attrs.getNamedItem("Height").getNodeValue()));
-				}
-				
-				NodeList childNodeList = node.getChildNodes();
-				for(int j=0;j<childNodeList.getLength();j++){
-					Node childNode = childNodeList.item(j);
-					if(childNode.getNodeName()==null||childNode.getNodeName().equals("#text")){
-					}else{
-						String tagName = childNode.getNodeName();
-						if(childNode.getFirstChild() != null){
-							String value = childNode.getFirstChild().getNodeValue();
-							if(tagName.equals("Name")) team.setName(value);
-							else if(tagName.equals("WorkerList")||tagName.equals("FacilityList")){
-								setResourceListInTeamNode(team,childNode.getChildNodes());
-							}
-						}
-					}
-				}
-				
-				
-				this.addNodeElement(team);
-			}
-			///////////////////////////////
-			
-			/////////////TaskNode///////////////////////
-			nodeList = xml.getElementsByTagName("TaskNode");
-			for(int i=0;i<nodeList.getLength();i++){
-				
-				TaskNode task = new TaskNode();
-				Node node = nodeList.item(i);
-				NamedNodeMap attrs = node.getAttributes();
-				if(attrs!=null){
-					task.setId(attrs.getNamedItem("id").getNodeValue());
-					task.setX(Integer.parseInt(attrs.getNamedItem("Left").getNodeValue()));
-					task.setY(Integer.parseInt(attrs.getNamedItem("Top").getNodeValue()));
-					task.setWidth(Integer.parseInt(attrs.getNamedItem("Width").getNodeValue()));
-					task.setHeight(Integer.parseInt(attrs.getNamedItem("Height").getNodeValue()));
-				}
-				NodeList tags = node.getChildNodes();
-				for(int j=0;j<tags.getLength();j++){
-					Node tag = tags.item(j);
-					if(tag.getNodeName()==null||tag.getNodeName().equals("#text")){
-					}else{
-						String tagName = tag.getNodeName();
-						String value = tag.getFirstChild().getNodeValue();
-						if(tagName.equals("Name")) task.setName(value);
-						else if(tagName.equals("WorkAmount")) task.setWorkAmount(Integer.parseInt(value));
-						else if(tagName.equals("Progress")) task.setProgress(Double.parseDouble(value));
-						else if(tagName.equals("AdditionalWorkAmount")) task.setAdditionalWorkAmount(Integer.parseInt(value));
-						else if(tagName.equals("NeedFacility")) task.setNeedFacility(Boolean.parseBoolean(value));
-					}
-				}
-				this.addNodeElement(task);
-			}
-			///////////////////////////////
-			
-			/////////////ComponentNode///////////////////////
-			nodeList = xml.getElementsByTagName("ComponentNode");
-			for(int i=0;i<nodeList.getLength();i++){
-				
-				ComponentNode component = new ComponentNode();
-				Node node = nodeList.item(i);
-				NamedNodeMap attrs = node.getAttributes();
-				if(attrs!=null){
-					component.setId(attrs.getNamedItem("id").getNodeValue());
-					component.setX(Integer.parseInt(attrs.getNamedItem("Left").getNodeValue()));
-					component.setY(Integer.parseInt(attrs.getNamedItem("Top").getNodeValue()));
-					component.setWidth(Integer.parseInt(attrs.getNamedItem("Width").getNodeValue()));
-					component.setHeight(Integer.parseInt(attrs.getNamedItem("Height").getNodeValue()));
-				}
-				NodeList tags = node.getChildNodes();
-				for(int j=0;j<tags.getLength();j++){
-					Node tag = tags.item(j);
-					if(tag.getNodeName()==null||tag.getNodeName().equals("#text")){
-					}else{
-						String tagName = tag.getNodeName();
-						String value = tag.getFirstChild().getNodeValue();
-						if(tagName.equals("Name")) component.setName(value);
-						else if(tagName.equals("ErrorTolerance")) component.setErrorTolerance(Double.parseDouble(value));
-					}
-				}
-				this.addNodeElement(component);
-			}
-			///////////////////////////////
-			
-			/////////////SubWorkflowNode///////////////////////
-			nodeList = xml.getElementsByTagName("SubWorkflowNode");
-			for(int i=0;i<nodeList.getLength();i++){
-				
-				SubWorkflowNode subWorkflow = new SubWorkflowNode();
-				Node node = nodeList.item(i);
-				NamedNodeMap attrs = node.getAttributes();
-				if(attrs!=null){
-					subWorkflow.setId(attrs.getNamedItem("id").getNodeValue());
-					subWorkflow.setX(Integer.parseInt(attrs.getNamedItem("Left").getNodeValue()));
-					subWorkflow.setY(Integer.parseInt(attrs.getNamedItem("Top").getNodeValue()));
-					subWorkflow.setWidth(Integer.parseInt(attrs.getNamedItem("Width").getNodeValue()));
-					subWorkflow.setHeight(Integer.parseInt(attrs.getNamedItem("Height").getNodeValue()));
-				}
-				NodeList tags = node.getChildNodes();
-				for(int j=0;j<tags.getLength();j++){
-					Node tag = tags.item(j);
-					if(tag.getNodeName()==null||tag.getNodeName().equals("#text")){
-					}else{
-						String tagName = tag.getNodeName();
-						String value = tag.getFirstChild().getNodeValue();
-						if(tagName.equals("Name")) subWorkflow.setName(value);
-						else if(tagName.equals("Filename")) subWorkflow.setFilename(value);
-					}
-				}
-				this.addNodeElement(subWorkflow);
+		boolean isEmpty = this.getNodeElementList().isEmpty();
+		ProjectSnapshot snapshot = new ProjectSnapshot(new File(filePath));
+		if(isEmpty && snapshot.isValid()){
+			try{
+				snapshot.read();
+				concurrencyLimitOfWorkflow = snapshot.getConcurrencyLimitOfWorkflow();
+				snapshot.getNodeElementList().forEach(node -> this.addNodeElement(node));
+				return true;
+			}catch(IOException e){
+				e.printStackTrace();//read Project file instead
 			}
-			///////////////////////////////
-			
-			/////////////Link///////////////////////
-			nodeList = xml.getElementsByTagName("Link");
-			for(int i=0;i<nodeList.getLength();i++){
-				Node node = nodeList.item(i);
-				NamedNodeMap attrs = node.getAttributes();
-				if(attrs!=null){
-					Link link = null;
-					String linkType = attrs.getNamedItem("type").getNodeValue();
-					if(linkType.equals("TeamLink")) link = new TeamLink();
-					else if(linkType.equals("TaskLink")) link = new TaskDependencyLink();
-					else if(linkType.equals("AllocationLink")) link = new AllocationLink();
-					else if(linkType.equals("ComponentLink")) link = new ComponentHierarchyLink();
-					else if(linkType.equals("TargetComponentLink")) link = new TargetComponentLink();
-					
-					if(link != null){
-						NodeElement originNode = this.getNodeElement(attrs.getNamedItem("org").getNodeValue());
-						NodeElement destinationNode = this.getNodeElement(attrs.getNamedItem("dst").getNodeValue());
-						link.setOriginNode(originNode);
-						originNode.addOutgoingLink(link);
-						link.setDestinationNode(destinationNode);
-						destinationNode.addIncomingLink(link);
-					}
-					
-					List<Point> bendPoints = new ArrayList<Point>();
-					
-					NodeList tags = node.getChildNodes();
-					for(int j=0;j<tags.getLength();j++){
-						Node tag = tags.item(j);
-						if(tag.getNodeName()==null||tag.getNodeName().equals("#text")){
-						}else{
-							String tagName = tag.getNodeName();
-							if(tagName.equals("Point")){
-								NamedNodeMap attrs2 = tag.getAttributes();
-								//Attributes
-								if (attrs2!=null){
-									Node attr;
-									attr = attrs2.getNamedItem("X");
-									int x=Integer.parseInt(attr.getNodeValue());
-									attr = attrs2.getNamedItem("Y");
-									int y=Integer.parseInt(attr.getNodeValue());
-									Point bendPoint = new Point(x,y);
-									bendPoints.add(bendPoint);
-								}
-							}
-						}
-					}
-					
-					if (link != null) link.setBendPoints(bendPoints);
-				}
-			}
-			
+		}
+		
+		try{
+			readFromProjectFile(filePath);
 		}catch(Exception e){
 			e.printStackTrace();
 			return false;
@@ -391,51 +145,79 @@ public class ProjectDiagram extends Diagram {
 		return true;
 	}
 	
+	/**
+	 * Write the snapshot of Project file on "filePath" for reading it quickly by readProjectFile() next time (see ProjectSnapshot).<br>
+	 * Project file is read again for the snapshot, so this has to be called explicitly (e.g. by a batch runner) only for large Project files.
+	 * @param filePath
+	 * @throws IOException if Project file cannot be read or the snapshot cannot be written
+	 */
+	public static void writeSnapshot(String filePath) throws IOException {
+		ProjectDiagram diagram = new ProjectDiagram();
+		try{
+			ProjectFileReader reader = diagram.readFromProjectFile(filePath);
+			new ProjectSnapshot(new File(filePath)).write(diagram, reader.getLinkList());
+		}catch(XMLStreamException e){
+			throw new IOException(e);
+		}
+	}
 	
 	/**
-	 * Set Resource(Worker, Facility) list in TeamNode.
-	 * @param team
-	 * @param resourceType
-	 * @param nodes
+	 * Read Project file on "filePath" to this diagram without the snapshot.
+	 * @param filePath
+	 * @return the reader which has the Links in the order of Project file
+	 * @throws IOException
+	 * @throws XMLStreamException if Project file is not valid
 	 */
-	private void setResourceListInTeamNode(TeamNode team, NodeList nodes) {
-		for(int i=0;i<nodes.getLength();i++){
-			Node tag = nodes.item(i);
-			if(tag.getNodeName()==null||tag.getNodeName().equals("#text")){
-			}else{
-				String tagName = tag.getNodeName();
-				ResourceElement resource = null;
-				if(tagName.equals("Worker")) {
-					resource = new WorkerElement();
-					team.addWorker((WorkerElement) resource);
-				}else if(tagName.equals("Facility")){
-					resource = new FacilityElement();
-					team.addFacility((FacilityElement) resource);
-				}
-				NodeList childNodeList = tag.getChildNodes();
-				for(int j=0;j<childNodeList.getLength();j++){
-					Node childTag = childNodeList.item(j);
-					if(childTag.getNodeName()==null||childTag.getNodeName().equals("#text")){
-					}else{
-						String childTagName = childTag.getNodeName();
-						if(childTagName.equals("Name")) resource.setName(childTag.getFirstChild().getNodeValue());
-						else if(childTagName.equals("Cost")) resource.setCost(Double.valueOf(childTag.getFirstChild().getNodeValue()));
-						else if(childTagName.equals("WorkAmountSkill")) resource.addSkillInWorkAmountSkillMap(childTag.getAttributes().getNamedItem("name").getNodeValue(), Double.valueOf(childTag.getAttributes().getNamedItem("value").getNodeValue()));
-						else if(childTagName.equals("QualitySkill")) resource.addSkillInQualitySkillMap(childTag.getAttributes().getNamedItem("name").getNodeValue(), Double.valueOf(childTag.getAttributes().getNamedItem("value").getNodeValue()));
-					}
-				}
-			}
+	private ProjectFileReader readFromProjectFile(String filePath) throws IOException, XMLStreamException {
+		ProjectFileReader reader = new ProjectFileReader(this.getNodeElementList());
+		try(InputStream in = openInputStream(filePath)){
+			reader.read(in);
 		}
+		concurrencyLimitOfWorkflow = reader.getConcurrencyLimitOfWorkflow();
+		reader.getNodeElementList().forEach(node -> this.addNodeElement(node));
+		return reader;
 	}
-
-
+	
+	/**
+	 * Open the buffered output stream to "filePath".
+	 * @param filePath
+	 * @return
+	 * @throws IOException
+	 */
+	private OutputStream openOutputStream(String filePath) throws IOException {
+		OutputStream out = new FileOutputStream(new File(filePath));
+		if(isCompressedFile(filePath)) return new GZIPOutputStream(out, FILE_BUFFER_SIZE);
+		return new BufferedOutputStream(out, FILE_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Open the buffered input stream from "filePath".
+	 * @param filePath
+	 * @return
+	 * @throws IOException
+	 */
+	private InputStream openInputStream(String filePath) throws IOException {
+		InputStream in = new FileInputStream(new File(filePath));
+		if(isCompressedFile(filePath)) return new GZIPInputStream(in, FILE_BUFFER_SIZE);
+		return new BufferedInputStream(in, FILE_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Check whether "filePath" is gzip-compressed Project file (.gz) or not.
+	 * @param filePath
+	 * @return
+	 */
+	private boolean isCompressedFile(String filePath) {
+		return filePath.toLowerCase().endsWith(".gz");
+	}
+	
 	/**
 	 * Check whether TaskNode which has the name of "taskNodeName" is existed in this Diagram or not.<br>
 	 * @param taskNodeName
 	 * @return
 	 */
 	public boolean hasTaskNode(String taskNodeName) {
-		if(this.getNodeElementList().stream().filter(node -> node instanceof TaskNode).anyMatch(node -> ((TaskNode)node).getName().equals(taskNodeName))) return true;
+		if(this.getTaskNodeList().stream().anyMatch(node -> node.getName().equals(taskNodeName))) return true;
 		return false;
 	}
 	
@@ -444,7 +226,7 @@ public class ProjectDiagram extends Diagram {
 	 * @return
 	 */
 	public List<TaskNode> getTaskNodeList(){
-		return this.getNodeElementList().stream().filter(node -> node instanceof TaskNode).map(node -> (TaskNode)node).collect(Collectors.toList());
+		return this.getNodeElementList(TaskNode.class);
 	}
 	
 	/**
@@ -452,7 +234,7 @@ public class ProjectDiagram extends Diagram {
 	 * @return
 	 */
 	public List<TaskDependencyLink> getTaskLinkList(){
-		return this.getLinkList().stream().filter(link -> link instanceof TaskDependencyLink).map(link -> (TaskDependencyLink)link).collect(Collectors.toList());
+		return this.getLinkList(TaskDependencyLink.class);
 	}
 	
 	/**
@@ -460,7 +242,7 @@ public class ProjectDiagram extends Diagram {
 	 * @return
 	 */
 	public List<TeamLink> getTeamLinkList(){
-		return this.getLinkList().stream().filter(link -> link instanceof TeamLink).map(link -> (TeamLink)link).collect(Collectors.toList());
+		return this.getLinkList(TeamLink.class);
 	}
 	
 	/**
@@ -468,7 +250,7 @@ public class ProjectDiagram extends Diagram {
 	 * @return
 	 */
 	public List<AllocationLink> getAllocationLinkList(){
-		return this.getLinkList().stream().filter(link -> link instanceof AllocationLink).map(link -> (AllocationLink)link).collect(Collectors.toList());
+		return this.getLinkList(AllocationLink.class);
 	}
 	
 	/**
@@ -476,7 +258,7 @@ public class ProjectDiagram extends Diagram {
 	 * @return
 	 */
 	public List<TeamNode> getTeamNodeList(){
-		return this.getNodeElementList().stream().filter(node -> node instanceof TeamNode).map(node -> (TeamNode)node).collect(Collectors.toList());
+		return this.getNodeElementList(TeamNode.class);
 	}
 	
 	/**
@@ -484,7 +266,7 @@ public class ProjectDiagram extends Diagram {
 	 * @return
 	 */
 	public List<ComponentNode> getComponentNodeList(){
-		return this.getNodeElementList().stream().filter(node -> node instanceof ComponentNode).map(node -> (ComponentNode)node).collect(Collectors.toList());
+		return this.getNodeElementList(ComponentNode.class);
 	}
 	
 	/**
@@ -492,7 +274,7 @@ public class ProjectDiagram extends Diagram {
 	 * @return
 	 */
 	public List<SubWorkflowNode> getSubWorkflowNodeList(){
-		return this.getNodeElementList().stream().filter(node -> node instanceof SubWorkflowNode).map(node -> (SubWorkflowNode)node).collect(Collectors.toList());
+		return this.getNodeElementList(SubWorkflowNode.class);
 	}
 	
 	/**
@@ -500,7 +282,7 @@ public class ProjectDiagram extends Diagram {
 	 * @return
 	 */
 	public List<ComponentHierarchyLink> getComponentLinkList(){
-		return this.getLinkList().stream().filter(link -> link instanceof ComponentHierarchyLink).map(link -> (ComponentHierarchyLink)link).collect(Collectors.toList());
+		return this.getLinkList(ComponentHierarchyLink.class);
 	}
 	
 	/**
@@ -508,7 +290,7 @@ public class ProjectDiagram extends Diagram {
 	 * @return
 	 */
 	public List<TargetComponentLink> getTargetComponentLinkList(){
-		return this.getLinkList().stream().filter(link -> link instanceof TargetComponentLink).map(link -> (TargetComponentLink)link).collect(Collectors.toList());
+		return this.getLinkList(TargetComponentLink.class);
 	}
 
 	/**
@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.rcp.model;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.draw2d.geometry.Point;
+import org.pdes.rcp.model.base.Link;
+import org.pdes.rcp.model.base.NodeElement;
+import org.pdes.rcp.model.base.ResourceElement;
+
+/**
+ * This is the reader of Project file (.pdm) by StAX.<br>
+ * Project file is read in a single pass, and each Link is connected by the map of NodeElement ID after reading all NodeElements.
+ * NodeElements are listed in the order of TeamNode, TaskNode, ComponentNode and SubWorkflowNode,
+ * and Links are connected in the order of Project file, as well as the former DOM reader.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+class ProjectFileReader {
+	
+	private final List<NodeElement> existingNodeElementList;
+	private int concurrencyLimitOfWorkflow;
+	private boolean concurrencyLimitFound = false;
+	private final List<TeamNode> teamNodeList = new ArrayList<TeamNode>();
+	private final List<TaskNode> taskNodeList = new ArrayList<TaskNode>();
+	private final List<ComponentNode> componentNodeList = new ArrayList<ComponentNode>();
+	private final List<SubWorkflowNode> subWorkflowNodeList = new ArrayList<SubWorkflowNode>();
+	private final List<LinkInformation> linkInformationList = new ArrayList<LinkInformation>();
+	private final List<NodeElement> nodeElementList = new ArrayList<NodeElement>();
+	
+	/**
+	 * This is the constructor.
+	 * @param existingNodeElementList NodeElements which are already in the diagram. Links can be also connected to them.
+	 */
+	ProjectFileReader(List<NodeElement> existingNodeElementList) {
+		this.existingNodeElementList = existingNodeElementList;
+	}
+	
+	/**
+	 * Read Project file from "in", and connect all Links.
+	 * @param in
+	 * @throws XMLStreamException if Project file is not valid
+	 */
+	void read(InputStream in) throws XMLStreamException {
+		XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+		try {
+			while (reader.hasNext()) {
+				if (reader.next() != XMLStreamConstants.START_ELEMENT) continue;
+				String tagName = reader.getLocalName();
+				if (tagName.equals("ConcurrencyLimit")) {
+					if (concurrencyLimitFound) continue;
+					concurrencyLimitOfWorkflow = Integer.parseInt(getRequiredText(reader));
+					concurrencyLimitFound = true;
+				}
+				else if (tagName.equals("TeamNode")) readTeamNode(reader);
+				else if (tagName.equals("TaskNode")) readTaskNode(reader);
+				else if (tagName.equals("ComponentNode")) readComponentNode(reader);
+				else if (tagName.equals("SubWorkflowNode")) readSubWorkflowNode(reader);
+				else if (tagName.equals("Link")) readLink(reader);
+			}
+		} finally {
+			reader.close();
+		}
+		if (!concurrencyLimitFound) throw new XMLStreamException("ConcurrencyLimit is not found.");
+		
+		nodeElementList.addAll(teamNodeList);
+		nodeElementList.addAll(taskNodeList);
+		nodeElementList.addAll(componentNodeList);
+		nodeElementList.addAll(subWorkflowNodeList);
+		connectLinks();
+	}
+	
+	/**
+	 * Get concurrency limit of workflow.
+	 * @return
+	 */
+	int getConcurrencyLimitOfWorkflow() {
+		return concurrencyLimitOfWorkflow;
+	}
+	
+	/**
+	 * Get the list of read NodeElements.
+	 * @return
+	 */
+	List<NodeElement> getNodeElementList() {
+		return nodeElementList;
+	}
+	
+	/**
+	 * Get the list of read Links in the order of Project file.
+	 * @return
+	 */
+	List<Link> getLinkList() {
+		return linkInformationList.stream().map(info -> info.link).collect(Collectors.toList());
+	}
+	
+	/**
+	 * Read TeamNode.
+	 * @param reader
+	 * @throws XMLStreamException
+	 */
+	private void readTeamNode(XMLStreamReader reader) throws XMLStreamException {
+		TeamNode team = new TeamNode();
+		readNodeAttributes(reader, team);
+		while (nextChildElement(reader)) {
+			String tagName = reader.getLocalName();
+			if (tagName.equals("Name")) {
+				String value = reader.getElementText();
+				if (!value.isEmpty()) team.setName(value);
+			} else if (tagName.equals("WorkerList") || tagName.equals("FacilityList")) {
+				readResourceList(reader, team);
+			} else {
+				skipElement(reader);
+			}
+		}
+		teamNodeList.add(team);
+	}
+	
+	/**
+	 * Read Resource(Worker, Facility) list in TeamNode.
+	 * @param reader
+	 * @param team
+	 * @throws XMLStreamException
+	 */
+	private void readResourceList(XMLStreamReader reader, TeamNode team) throws XMLStreamException {
+		while (nextChildElement(reader)) {
+			String tagName = reader.getLocalName();
+			ResourceElement resource = null;
+			if (tagName.equals("Worker")) {
+				resource = new WorkerElement();
+				team.addWorker((WorkerElement) resource);
+			} else if (tagName.equals("Facility")) {
+				resource = new FacilityElement();
+				team.addFacility((FacilityElement) resource);
+			} else {
+				skipElement(reader);
+				continue;
+			}
+			while (nextChildElement(reader)) {
+				String childTagName = reader.getLocalName();
+				if (childTagName.equals("Name")) resource.setName(getRequiredText(reader));
+				else if (childTagName.equals("Cost")) resource.setCost(Double.valueOf(getRequiredText(reader)));
+				else if (childTagName.equals("WorkAmountSkill")) {
+					resource.addSkillInWorkAmountSkillMap(getRequiredAttribute(reader, "name"), Double.valueOf(getRequiredAttribute(reader, "value")));
+					skipElement(reader);
+				} else if (childTagName.equals("QualitySkill")) {
+					resource.addSkillInQualitySkillMap(getRequiredAttribute(reader, "name"), Double.valueOf(getRequiredAttribute(reader, "value")));
+					skipElement(reader);
+				} else {
+					skipElement(reader);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Read TaskNode.
+	 * @param reader
+	 * @throws XMLStreamException
+	 */
+	private void readTaskNode(XMLStreamReader reader) throws XMLStreamException {
+		TaskNode task = new TaskNode();
+		readNodeAttributes(reader, task);
+		while (nextChildElement(reader)) {
+			String tagName = reader.getLocalName();
+			if (tagName.equals("WorkAmountDistribution")) {
+				task.setWorkAmountDistribution(readWorkAmountDistribution(reader));
+				continue;
+			} else if (tagName.equals("AdditionalWorkAmountDistribution")) {
+				task.setAdditionalWorkAmountDistribution(readWorkAmountDistribution(reader));
+				continue;
+			}
+			String value = getRequiredText(reader);
+			if (tagName.equals("Name")) task.setName(value);
+			else if (tagName.equals("WorkAmount")) task.setWorkAmount(Integer.parseInt(value));
+			else if (tagName.equals("Progress")) task.setProgress(Double.parseDouble(value));
+			else if (tagName.equals("AdditionalWorkAmount")) task.setAdditionalWorkAmount(Integer.parseInt(value));
+			else if (tagName.equals("NeedFacility")) task.setNeedFacility(Boolean.parseBoolean(value));
+		}
+		taskNodeList.add(task);
+	}
+	
+	/**
+	 * Read WorkAmountDistribution from the attributes of current element.
+	 * @param reader
+	 * @return
+	 * @throws XMLStreamException if the type or parameters are invalid
+	 */
+	private WorkAmountDistribution readWorkAmountDistribution(XMLStreamReader reader) throws XMLStreamException {
+		String type = getRequiredAttribute(reader, "type");
+		WorkAmountDistribution distribution;
+		try {
+			if (type.equals(WorkAmountDistribution.Type.LOGNORMAL.toString())) {
+				distribution = WorkAmountDistribution.create(type,
+						Double.parseDouble(getRequiredAttribute(reader, "mean")),
+						Double.parseDouble(getRequiredAttribute(reader, "sd")));
+			} else {
+				distribution = WorkAmountDistribution.create(type,
+						Double.parseDouble(getRequiredAttribute(reader, "min")),
+						Double.parseDouble(getRequiredAttribute(reader, "mode")),
+						Double.parseDouble(getRequiredAttribute(reader, "max")));
+			}
+		} catch (IllegalArgumentException e) {
+			throw new XMLStreamException("Distribution \"" + type + "\" is invalid in <" + reader.getLocalName() + ">.", reader.getLocation());
+		}
+		skipElement(reader);
+		return distribution;
+	}
+	
+	/**
+	 * Read ComponentNode.
+	 * @param reader
+	 * @throws XMLStreamException
+	 */
+	private void readComponentNode(XMLStreamReader reader) throws XMLStreamException {
+		ComponentNode component = new ComponentNode();
+		readNodeAttributes(reader, component);
+		while (nextChildElement(reader)) {
+			String tagName = reader.getLocalName();
+			String value = getRequiredText(reader);
+			if (tagName.equals("Name")) component.setName(value);
+			else if (tagName.equals("ErrorTolerance")) component.setErrorTolerance(Double.parseDouble(value));
+		}
+		componentNodeList.add(component);
+	}
+	
+	/**
+	 * Read SubWorkflowNode.
+	 * @param reader
+	 * @throws XMLStreamException
+	 */
+	private void readSubWorkflowNode(XMLStreamReader reader) throws XMLStreamException {
+		SubWorkflowNode subWorkflow = new SubWorkflowNode();
+		readNodeAttributes(reader, subWorkflow);
+		while (nextChildElement(reader)) {
+			String tagName = reader.getLocalName();
+			String value = getRequiredText(reader);
+			if (tagName.equals("Name")) subWorkflow.setName(value);
+			else if (tagName.equals("Filename")) subWorkflow.setFilename(value);
+		}
+		subWorkflowNodeList.add(subWorkflow);
+	}
+	
+	/**
+	 * Read Link. Origin and destination NodeElements are connected after reading all NodeElements.
+	 * @param reader
+	 * @throws XMLStreamException
+	 */
+	private void readLink(XMLStreamReader reader) throws XMLStreamException {
+		Link link = null;
+		String linkType = getRequiredAttribute(reader, "type");
+		if(linkType.equals("TeamLink")) link = new TeamLink();
+		else if(linkType.equals("TaskLink")) link = new TaskDependencyLink();
+		else if(linkType.equals("AllocationLink")) link = new AllocationLink();
+		else if(linkType.equals("ComponentLink")) link = new ComponentHierarchyLink();
+		else if(linkType.equals("TargetComponentLink")) link = new TargetComponentLink();
+		
+		if (link == null) {
+			skipElement(reader);
+			return;
+		}
+		LinkInformation info = new LinkInformation(link, getRequiredAttribute(reader, "org"), getRequiredAttribute(reader, "dst"));
+		while (nextChildElement(reader)) {
+			if (reader.getLocalName().equals("Point")) {
+				int x = Integer.parseInt(getRequiredAttribute(reader, "X"));
+				int y = Integer.parseInt(getRequiredAttribute(reader, "Y"));
+				info.bendPoints.add(new Point(x, y));
+			}
+			skipElement(reader);
+		}
+		linkInformationList.add(info);
+	}
+	
+	/**
+	 * Connect all read Links to their origin and destination NodeElements.<br>
+	 * If some NodeElements have the same ID, the first one in the diagram is used.
+	 * @throws XMLStreamException if the origin or destination NodeElement is not found
+	 */
+	private void connectLinks() throws XMLStreamException {
+		Map<String, NodeElement> nodeElementMap = new HashMap<String, NodeElement>();
+		existingNodeElementList.forEach(node -> nodeElementMap.putIfAbsent(node.getId(), node));
+		nodeElementList.forEach(node -> nodeElementMap.putIfAbsent(node.getId(), node));
+		for (LinkInformation info : linkInformationList) {
+			NodeElement originNode = nodeElementMap.get(info.originId);
+			NodeElement destinationNode = nodeElementMap.get(info.destinationId);
+			if (originNode == null || destinationNode == null) throw new XMLStreamException("NodeElement of Link is not found.");
+			info.link.setOriginNode(originNode);
+			originNode.addOutgoingLink(info.link);
+			info.link.setDestinationNode(destinationNode);
+			destinationNode.addIncomingLink(info.link);
+			info.link.setBendPoints(info.bendPoints);
+		}
+	}
+	
+	/**
+	 * Read ID and layout attributes of NodeElement.
+	 * @param reader
+	 * @param node
+	 * @throws XMLStreamException
+	 */
+	private void readNodeAttributes(XMLStreamReader reader, NodeElement node) throws XMLStreamException {
+		node.setId(getRequiredAttribute(reader, "id"));
+		node.setX(Integer.parseInt(getRequiredAttribute(reader, "Left")));
+		node.setY(Integer.parseInt(getRequiredAttribute(reader, "Top")));
+		node.setWidth(Integer.parseInt(getRequiredAttribute(reader, "Width")));
+		node.setHeight(Integer.parseInt(getRequiredAttribute(reader, "Height")));
+	}
+	
+	/**
+	 * Move to the next child element of current element.
+	 * @param reader
+	 * @return FALSE if the end of current element is reached
+	 * @throws XMLStreamException
+	 */
+	private boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) return true;
+			if (event == XMLStreamConstants.END_ELEMENT) return false;
+		}
+		return false;
+	}
+	
+	/**
+	 * Skip current element including its children.
+	 * @param reader
+	 * @throws XMLStreamException
+	 */
+	private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0 && reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) depth++;
+			else if (event == XMLStreamConstants.END_ELEMENT) depth--;
+		}
+	}
+	
+	/**
+	 * Get the text of current element which must not be empty.
+	 * @param reader
+	 * @return
+	 * @throws XMLStreamException if the text is empty
+	 */
+	private String getRequiredText(XMLStreamReader reader) throws XMLStreamException {
+		String value = reader.getElementText();
+		if (value.isEmpty()) throw new XMLStreamException("Element <" + reader.getLocalName() + "> has no value.", reader.getLocation());
+		return value;
+	}
+	
+	/**
+	 * Get the value of attribute "name" of current element which must exist.
+	 * @param reader
+	 * @param name
+	 * @return
+	 * @throws XMLStreamException if the attribute is not found
+	 */
+	private String getRequiredAttribute(XMLStreamReader reader, String name) throws XMLStreamException {
+		String value = reader.getAttributeValue(null, name);
+		if (value == null) throw new XMLStreamException("Attribute \"" + name + "\" is not found in <" + reader.getLocalName() + ">.", reader.getLocation());
+		return value;
+	}
+	
+	/**
+	 * This is the information of Link which is not connected yet.
+	 */
+	private static class LinkInformation {
+		private final Link link;
+		private final String originId;
+		private final String destinationId;
+		private final List<Point> bendPoints = new ArrayList<Point>();
+		
+		/**
+		 * This is the constructor.
+		 * @param link
+		 * @param originId
+		 * @param destinationId
+		 */
+		private LinkInformation(Link link, String originId, String destinationId) {
+			this.link = link;
+			this.originId = originId;
+			this.destinationId = destinationId;
+		}
+	}
+}
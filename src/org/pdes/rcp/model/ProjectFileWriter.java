@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.rcp.model;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.eclipse.draw2d.geometry.Point;
+import org.pdes.rcp.model.base.Link;
+import org.pdes.rcp.model.base.NodeElement;
+import org.pdes.rcp.model.base.ResourceElement;
+
+/**
+ * This is the writer of Project file (.pdm) by StAX.<br>
+ * Each element is written to the stream directly in UTF-8, and the layout of Project file is the same as before.
+ * Links are written by following incoming Links of each NodeElement without collecting them.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+class ProjectFileWriter {
+	
+	static final String ENCODING = "UTF-8";
+	
+	private final XMLStreamWriter writer;
+	
+	/**
+	 * This is the constructor.
+	 * @param out buffered output stream
+	 * @throws XMLStreamException
+	 */
+	ProjectFileWriter(OutputStream out) throws XMLStreamException {
+		this.writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, ENCODING);
+	}
+	
+	/**
+	 * Write "diagram" as Project file.
+	 * @param diagram
+	 * @throws XMLStreamException
+	 */
+	void write(ProjectDiagram diagram) throws XMLStreamException {
+		writer.writeStartDocument(ENCODING, "1.0");
+		newLine(0);
+		writer.writeComment("Project Diagram");
+		newLine(0);
+		writer.writeStartElement("ProjectDiagram");
+		
+		// Concurrency Limit of Workflow
+		writeTextElement(1, "ConcurrencyLimit", String.valueOf(diagram.getConcurrencyLimitOfWorkflow()));
+		
+		//1. NodeElement
+		newLine(1);
+		writer.writeStartElement("NodeElementList");
+		for(NodeElement node : diagram.getNodeElementList()){
+			if(node instanceof TeamNode) writeTeamNode((TeamNode) node);
+			else if(node instanceof TaskNode) writeTaskNode((TaskNode) node);
+			else if(node instanceof ComponentNode) writeComponentNode((ComponentNode) node);
+			else if(node instanceof SubWorkflowNode) writeSubWorkflowNode((SubWorkflowNode) node);
+		}
+		newLine(1);
+		writer.writeEndElement();
+		
+		//2. Link
+		newLine(1);
+		writer.writeStartElement("LinkList");
+		for(NodeElement node : diagram.getNodeElementList()){
+			for(Link link : node.getIncomingLinkList()) writeLink(link);
+		}
+		newLine(1);
+		writer.writeEndElement();
+		
+		newLine(0);
+		writer.writeEndElement();
+		newLine(0);
+		writer.writeEndDocument();
+		writer.flush();
+		writer.close();
+	}
+	
+	/**
+	 * Write TeamNode.
+	 * @param team
+	 * @throws XMLStreamException
+	 */
+	private void writeTeamNode(TeamNode team) throws XMLStreamException {
+		writeNodeStartElement("TeamNode", team);
+		writeTextElement(3, "Name", team.getName());
+		writeResourceList("WorkerList", "Worker", team.getWorkerList());
+		writeResourceList("FacilityList", "Facility", team.getFacilityList());
+		newLine(2);
+		writer.writeEndElement();
+	}
+	
+	/**
+	 * Write Resource(Worker, Facility) list in TeamNode.
+	 * @param listTagName
+	 * @param tagName
+	 * @param resourceList
+	 * @throws XMLStreamException
+	 */
+	private void writeResourceList(String listTagName, String tagName, List<? extends ResourceElement> resourceList) throws XMLStreamException {
+		newLine(3);
+		if(resourceList.size()==0){
+			writer.writeEmptyElement(listTagName);
+			return;
+		}
+		writer.writeStartElement(listTagName);
+		for(ResourceElement resource : resourceList){
+			newLine(4);
+			writer.writeStartElement(tagName);
+			writeTextElement(5, "Name", resource.getName());
+			writeTextElement(5, "Cost", String.valueOf(resource.getCost()));
+			writeSkillMap("WorkAmountSkill", resource.getWorkAmountSkillMap());
+			writeSkillMap("QualitySkill", resource.getQualitySkillMap());
+			newLine(4);
+			writer.writeEndElement();
+		}
+		newLine(3);
+		writer.writeEndElement();
+	}
+	
+	/**
+	 * Write skill map of Resource.
+	 * @param tagName
+	 * @param skillMap
+	 * @throws XMLStreamException
+	 */
+	private void writeSkillMap(String tagName, Map<String, Double> skillMap) throws XMLStreamException {
+		for(Map.Entry<String, Double> entry : skillMap.entrySet()){
+			newLine(5);
+			writer.writeEmptyElement(tagName);
+			writer.writeAttribute("name", removeInvalidCharacters(entry.getKey()));
+			writer.writeAttribute("value", String.valueOf(entry.getValue()));
+		}
+	}
+	
+	/**
+	 * Write TaskNode.
+	 * @param task
+	 * @throws XMLStreamException
+	 */
+	private void writeTaskNode(TaskNode task) throws XMLStreamException {
+		writeNodeStartElement("TaskNode", task);
+		writeTextElement(3, "Name", task.getName());
+		writeTextElement(3, "WorkAmount", String.valueOf(task.getWorkAmount()));
+		writeTextElement(3, "Progress", String.valueOf(task.getProgress()));
+		writeTextElement(3, "AdditionalWorkAmount", String.valueOf(task.getAdditionalWorkAmount()));
+		writeTextElement(3, "NeedFacility", String.valueOf(task.isNeedFacility()));
+		writeWorkAmountDistribution("WorkAmountDistribution", task.getWorkAmountDistribution());
+		writeWorkAmountDistribution("AdditionalWorkAmountDistribution", task.getAdditionalWorkAmountDistribution());
+		newLine(2);
+		writer.writeEndElement();
+	}
+	
+	/**
+	 * Write WorkAmountDistribution as the attributes of an empty element if it is not null.
+	 * @param tagName
+	 * @param distribution
+	 * @throws XMLStreamException
+	 */
+	private void writeWorkAmountDistribution(String tagName, WorkAmountDistribution distribution) throws XMLStreamException {
+		if (distribution == null) return;
+		newLine(3);
+		writer.writeEmptyElement(tagName);
+		writer.writeAttribute("type", distribution.getType().toString());
+		if (distribution.getType() == WorkAmountDistribution.Type.LOGNORMAL) {
+			writer.writeAttribute("mean", String.valueOf(distribution.getMean()));
+			writer.writeAttribute("sd", String.valueOf(distribution.getStandardDeviation()));
+		} else {
+			writer.writeAttribute("min", String.valueOf(distribution.getMinimum()));
+			writer.writeAttribute("mode", String.valueOf(distribution.getMode()));
+			writer.writeAttribute("max", String.valueOf(distribution.getMaximum()));
+		}
+	}
+	
+	/**
+	 * Write ComponentNode.
+	 * @param component
+	 * @throws XMLStreamException
+	 */
+	private void writeComponentNode(ComponentNode component) throws XMLStreamException {
+		writeNodeStartElement("ComponentNode", component);
+		writeTextElement(3, "Name", component.getName());
+		writeTextElement(3, "ErrorTolerance", String.valueOf(component.getErrorTolerance()));
+		newLine(2);
+		writer.writeEndElement();
+	}
+	
+	/**
+	 * Write SubWorkflowNode.
+	 * @param subWorkflow
+	 * @throws XMLStreamException
+	 */
+	private void writeSubWorkflowNode(SubWorkflowNode subWorkflow) throws XMLStreamException {
+		writeNodeStartElement("SubWorkflowNode", subWorkflow);
+		writeTextElement(3, "Name", subWorkflow.getName());
+		writeTextElement(3, "Filename", subWorkflow.getFilename());
+		newLine(2);
+		writer.writeEndElement();
+	}
+	
+	/**
+	 * Write Link.
+	 * @param link
+	 * @throws XMLStreamException
+	 */
+	private void writeLink(Link link) throws XMLStreamException {
+		newLine(2);
+		writer.writeStartElement("Link");
+		writer.writeAttribute("type", link.getLinkTypeName());
+		writer.writeAttribute("org", link.getOriginNode().getId());
+		writer.writeAttribute("dst", link.getDestinationNode().getId());
+		for(Point p : link.getBendPoints()){
+			newLine(3);
+			writer.writeEmptyElement("Point");
+			writer.writeAttribute("X", String.valueOf(p.x));
+			writer.writeAttribute("Y", String.valueOf(p.y));
+		}
+		newLine(2);
+		writer.writeEndElement();
+	}
+	
+	/**
+	 * Write the start tag of NodeElement with ID and layout attributes.
+	 * @param tagName
+	 * @param node
+	 * @throws XMLStreamException
+	 */
+	private void writeNodeStartElement(String tagName, NodeElement node) throws XMLStreamException {
+		newLine(2);
+		writer.writeStartElement(tagName);
+		writer.writeAttribute("id", node.getId());
+		writer.writeAttribute("Left", String.valueOf(node.getX()));
+		writer.writeAttribute("Top", String.valueOf(node.getY()));
+		writer.writeAttribute("Width", String.valueOf(node.getWidth()));
+		writer.writeAttribute("Height", String.valueOf(node.getHeight()));
+	}
+	
+	/**
+	 * Write the element which has only text.
+	 * @param depth
+	 * @param tagName
+	 * @param value
+	 * @throws XMLStreamException
+	 */
+	private void writeTextElement(int depth, String tagName, String value) throws XMLStreamException {
+		newLine(depth);
+		writer.writeStartElement(tagName);
+		writer.writeCharacters(removeInvalidCharacters(value));
+		writer.writeEndElement();
+	}
+	
+	/**
+	 * Write a line break and indents.
+	 * @param depth
+	 * @throws XMLStreamException
+	 */
+	private void newLine(int depth) throws XMLStreamException {
+		writer.writeCharacters("\n");
+		for(int i = 0; i < depth; i++) writer.writeCharacters("\t");
+	}
+	
+	/**
+	 * Remove characters which are not allowed in XML 1.0.<br>
+	 * Special characters (&amp;, &lt;, etc.) are escaped by XMLStreamWriter.
+	 * @param str
+	 * @return "" if "str" is null
+	 */
+	private String removeInvalidCharacters(String str) {
+		if(str == null) return "";
+		StringBuilder sb = null;
+		for(int i = 0; i < str.length(); i++){
+			char c = str.charAt(i);
+			boolean valid = c == 0x9 || c == 0xA || c == 0xD || (c >= 0x20 && c <= 0xFFFD);
+			if(valid && Character.isSurrogate(c)){
+				valid = Character.isHighSurrogate(c) ? i + 1 < str.length() && Character.isLowSurrogate(str.charAt(i + 1))
+						: i > 0 && Character.isHighSurrogate(str.charAt(i - 1));
+			}
+			if(!valid && sb == null) sb = new StringBuilder(str.substring(0, i));
+			else if(valid && sb != null) sb.append(c);
+		}
+		return sb == null ? str : sb.toString();
+	}
+}
@@ -0,0 +1,519 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.rcp.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.eclipse.draw2d.geometry.Point;
+import org.pdes.rcp.model.base.Link;
+import org.pdes.rcp.model.base.NodeElement;
+import org.pdes.rcp.model.base.ResourceElement;
+
+/**
+ * This is the binary snapshot of Project file (.pdm) for reopening very large models quickly.<br>
+ * The snapshot is stored in the snapshot directory (not next to Project file) with the name derived from the absolute path of Project file,
+ * and it is valid only if the size, last modified time and SHA-256 hash of Project file are the same as when it was written.
+ * It consists of a string table, arrays of NodeElements by type, Links as pairs of NodeElement numbers,
+ * and skill maps as sparse rows of (string number, value), and it is read from the memory-mapped file.<br>
+ * The snapshot is written only when ProjectDiagram#writeSnapshot() is called, from the diagram which is just read from Project file,
+ * so reading the snapshot gives the same diagram as reading Project file.
+ * The hash of Project file is calculated on reading only if the snapshot of it exists.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class ProjectSnapshot {
+	
+	public static final String EXTENSION = ".snapshot";
+	private static final int MAGIC = 0x50444d53; // "PDMS"
+	private static final int VERSION = 2;
+	private static final int NO_STRING = -1;
+	private static final String HASH_ALGORITHM = "SHA-256";
+	private static final int HASH_LENGTH = 32;
+	
+	private static File directory = getDefaultDirectory();
+	
+	private final File sourceFile;
+	private final File snapshotFile;
+	private int concurrencyLimitOfWorkflow;
+	private final List<NodeElement> nodeElementList = new ArrayList<NodeElement>();
+	
+	/**
+	 * This is the constructor.
+	 * @param sourceFile Project file
+	 */
+	ProjectSnapshot(File sourceFile) {
+		this.sourceFile = sourceFile;
+		String name = UUID.nameUUIDFromBytes(sourceFile.getAbsolutePath().getBytes(StandardCharsets.UTF_8)).toString();
+		this.snapshotFile = new File(directory, name + EXTENSION);
+	}
+	
+	/**
+	 * Check whether the valid snapshot of Project file exists or not.
+	 * @return
+	 */
+	boolean isValid() {
+		if (!sourceFile.isFile() || !snapshotFile.isFile()) return false;
+		try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(4 + 4 + 8 + 8 + HASH_LENGTH);
+			while (header.hasRemaining() && channel.read(header) >= 0);
+			if (header.hasRemaining()) return false;
+			header.flip();
+			if (header.getInt() != MAGIC || header.getInt() != VERSION) return false;
+			if (header.getLong() != sourceFile.length() || header.getLong() != sourceFile.lastModified()) return false;
+			byte[] hash = new byte[HASH_LENGTH];
+			header.get(hash);
+			return Arrays.equals(hash, calculateSourceHash());
+		} catch (IOException | NoSuchAlgorithmException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Read the snapshot from the memory-mapped file.
+	 * @throws IOException if the snapshot is broken
+	 */
+	void read() throws IOException {
+		try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.position(4 + 4 + 8 + 8 + HASH_LENGTH);
+			concurrencyLimitOfWorkflow = buffer.getInt();
+			
+			//1. String table
+			String[] strings = new String[buffer.getInt()];
+			for (int i = 0; i < strings.length; i++) {
+				byte[] bytes = new byte[buffer.getInt()];
+				buffer.get(bytes);
+				strings[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+			
+			//2. NodeElement
+			int numOfTeam = buffer.getInt();
+			for (int i = 0; i < numOfTeam; i++) {
+				TeamNode team = new TeamNode();
+				readNode(buffer, strings, team);
+				String name = getString(buffer, strings);
+				if (name != null) team.setName(name);
+				int numOfWorker = buffer.getInt();
+				for (int j = 0; j < numOfWorker; j++) {
+					WorkerElement worker = new WorkerElement();
+					readResource(buffer, strings, worker);
+					team.addWorker(worker);
+				}
+				int numOfFacility = buffer.getInt();
+				for (int j = 0; j < numOfFacility; j++) {
+					FacilityElement facility = new FacilityElement();
+					readResource(buffer, strings, facility);
+					team.addFacility(facility);
+				}
+				nodeElementList.add(team);
+			}
+			int numOfTask = buffer.getInt();
+			for (int i = 0; i < numOfTask; i++) {
+				TaskNode task = new TaskNode();
+				readNode(buffer, strings, task);
+				task.setName(getString(buffer, strings));
+				task.setWorkAmount(buffer.getInt());
+				task.setProgress(buffer.getDouble());
+				task.setAdditionalWorkAmount(buffer.getInt());
+				task.setNeedFacility(buffer.get() != 0);
+				task.setWorkAmountDistribution(readWorkAmountDistribution(buffer));
+				task.setAdditionalWorkAmountDistribution(readWorkAmountDistribution(buffer));
+				nodeElementList.add(task);
+			}
+			int numOfComponent = buffer.getInt();
+			for (int i = 0; i < numOfComponent; i++) {
+				ComponentNode component = new ComponentNode();
+				readNode(buffer, strings, component);
+				component.setName(getString(buffer, strings));
+				component.setErrorTolerance(buffer.getDouble());
+				nodeElementList.add(component);
+			}
+			int numOfSubWorkflow = buffer.getInt();
+			for (int i = 0; i < numOfSubWorkflow; i++) {
+				SubWorkflowNode subWorkflow = new SubWorkflowNode();
+				readNode(buffer, strings, subWorkflow);
+				subWorkflow.setName(getString(buffer, strings));
+				subWorkflow.setFilename(getString(buffer, strings));
+				nodeElementList.add(subWorkflow);
+			}
+			
+			//3. Link
+			int numOfLink = buffer.getInt();
+			for (int i = 0; i < numOfLink; i++) {
+				Link link = createLink(getString(buffer, strings));
+				NodeElement originNode = nodeElementList.get(buffer.getInt());
+				NodeElement destinationNode = nodeElementList.get(buffer.getInt());
+				List<Point> bendPoints = new ArrayList<Point>();
+				int numOfPoint = buffer.getInt();
+				for (int j = 0; j < numOfPoint; j++) bendPoints.add(new Point(buffer.getInt(), buffer.getInt()));
+				link.setOriginNode(originNode);
+				originNode.addOutgoingLink(link);
+				link.setDestinationNode(destinationNode);
+				destinationNode.addIncomingLink(link);
+				link.setBendPoints(bendPoints);
+			}
+		} catch (RuntimeException e) {
+			throw new IOException("Snapshot is broken: " + snapshotFile.getPath(), e);
+		}
+	}
+	
+	/**
+	 * Write the snapshot of "diagram" which is just read from Project file.<br>
+	 * The snapshot is written to a temporary file at first, and moved to the snapshot file.
+	 * @param diagram
+	 * @param linkList all Links in the order of Project file
+	 * @throws IOException
+	 */
+	void write(ProjectDiagram diagram, List<Link> linkList) throws IOException {
+		List<TeamNode> teamNodeList = diagram.getTeamNodeList();
+		List<TaskNode> taskNodeList = diagram.getTaskNodeList();
+		List<ComponentNode> componentNodeList = diagram.getComponentNodeList();
+		List<SubWorkflowNode> subWorkflowNodeList = diagram.getSubWorkflowNodeList();
+		Map<NodeElement, Integer> nodeNumberMap = new IdentityHashMap<NodeElement, Integer>(); // NodeElements are numbered in the order of the snapshot
+		for (List<? extends NodeElement> list : Arrays.asList(teamNodeList, taskNodeList, componentNodeList, subWorkflowNodeList)) {
+			list.forEach(node -> nodeNumberMap.put(node, nodeNumberMap.size()));
+		}
+		
+		//1. String table
+		Map<String, Integer> stringNumberMap = new HashMap<String, Integer>();
+		List<String> stringList = new ArrayList<String>();
+		for (TeamNode team : teamNodeList) {
+			addString(stringNumberMap, stringList, team.getId(), team.getName());
+			for (ResourceElement resource : getResourceList(team)) {
+				addString(stringNumberMap, stringList, resource.getName());
+				resource.getWorkAmountSkillMap().keySet().forEach(s -> addString(stringNumberMap, stringList, s));
+				resource.getQualitySkillMap().keySet().forEach(s -> addString(stringNumberMap, stringList, s));
+			}
+		}
+		taskNodeList.forEach(n -> addString(stringNumberMap, stringList, n.getId(), n.getName()));
+		componentNodeList.forEach(n -> addString(stringNumberMap, stringList, n.getId(), n.getName()));
+		subWorkflowNodeList.forEach(n -> addString(stringNumberMap, stringList, n.getId(), n.getName(), n.getFilename()));
+		linkList.forEach(l -> addString(stringNumberMap, stringList, l.getLinkTypeName()));
+		
+		directory.mkdirs();
+		File temporaryFile = new File(snapshotFile.getPath() + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile), 1 << 16))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(sourceFile.length());
+				out.writeLong(sourceFile.lastModified());
+				out.write(calculateSourceHash());
+				out.writeInt(diagram.getConcurrencyLimitOfWorkflow());
+				
+				out.writeInt(stringList.size());
+				for (String s : stringList) {
+					byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+					out.writeInt(bytes.length);
+					out.write(bytes);
+				}
+				
+				//2. NodeElement
+				out.writeInt(teamNodeList.size());
+				for (TeamNode team : teamNodeList) {
+					writeNode(out, stringNumberMap, team);
+					writeString(out, stringNumberMap, team.getName());
+					out.writeInt(team.getWorkerList().size());
+					for (ResourceElement worker : team.getWorkerList()) writeResource(out, stringNumberMap, worker);
+					out.writeInt(team.getFacilityList().size());
+					for (ResourceElement facility : team.getFacilityList()) writeResource(out, stringNumberMap, facility);
+				}
+				out.writeInt(taskNodeList.size());
+				for (TaskNode task : taskNodeList) {
+					writeNode(out, stringNumberMap, task);
+					writeString(out, stringNumberMap, task.getName());
+					out.writeInt(task.getWorkAmount());
+					out.writeDouble(task.getProgress());
+					out.writeInt(task.getAdditionalWorkAmount());
+					out.writeByte(task.isNeedFacility() ? 1 : 0);
+					writeWorkAmountDistribution(out, task.getWorkAmountDistribution());
+					writeWorkAmountDistribution(out, task.getAdditionalWorkAmountDistribution());
+				}
+				out.writeInt(componentNodeList.size());
+				for (ComponentNode component : componentNodeList) {
+					writeNode(out, stringNumberMap, component);
+					writeString(out, stringNumberMap, component.getName());
+					out.writeDouble(component.getErrorTolerance());
+				}
+				out.writeInt(subWorkflowNodeList.size());
+				for (SubWorkflowNode subWorkflow : subWorkflowNodeList) {
+					writeNode(out, stringNumberMap, subWorkflow);
+					writeString(out, stringNumberMap, subWorkflow.getName());
+					writeString(out, stringNumberMap, subWorkflow.getFilename());
+				}
+				
+				//3. Link
+				out.writeInt(linkList.size());
+				for (Link link : linkList) {
+					writeString(out, stringNumberMap, link.getLinkTypeName());
+					out.writeInt(nodeNumberMap.get(link.getOriginNode()));
+					out.writeInt(nodeNumberMap.get(link.getDestinationNode()));
+					out.writeInt(link.getBendPoints().size());
+					for (Point p : link.getBendPoints()) {
+						out.writeInt(p.x);
+						out.writeInt(p.y);
+					}
+				}
+			}
+			Files.move(temporaryFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		} finally {
+			Files.deleteIfExists(temporaryFile.toPath());
+		}
+	}
+	
+	/**
+	 * Get concurrency limit of workflow.
+	 * @return
+	 */
+	int getConcurrencyLimitOfWorkflow() {
+		return concurrencyLimitOfWorkflow;
+	}
+	
+	/**
+	 * Get the list of read NodeElements. Links are already connected.
+	 * @return
+	 */
+	List<NodeElement> getNodeElementList() {
+		return nodeElementList;
+	}
+	
+	/**
+	 * Get the default directory of snapshots, which is "~/.pdes/snapshot".
+	 * @return
+	 */
+	public static File getDefaultDirectory() {
+		return new File(System.getProperty("user.home"), ".pdes" + File.separator + "snapshot");
+	}
+	
+	/**
+	 * Get the directory of snapshots.
+	 * @return the directory
+	 */
+	public static File getDirectory() {
+		return directory;
+	}
+	
+	/**
+	 * Set the directory of snapshots.
+	 * @param directory the directory to set
+	 */
+	public static void setDirectory(File directory) {
+		ProjectSnapshot.directory = directory;
+	}
+	
+	/**
+	 * Calculate the hash of Project file.
+	 * @return
+	 * @throws IOException
+	 * @throws NoSuchAlgorithmException
+	 */
+	private byte[] calculateSourceHash() throws IOException, NoSuchAlgorithmException {
+		MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+		byte[] buffer = new byte[1 << 16];
+		try (InputStream in = Files.newInputStream(sourceFile.toPath())) {
+			int length;
+			while ((length = in.read(buffer)) > 0) digest.update(buffer, 0, length);
+		}
+		return digest.digest();
+	}
+	
+	/**
+	 * Write WorkAmountDistribution as the number of type (0 if null) and its parameters.
+	 * @param out
+	 * @param distribution
+	 * @throws IOException
+	 */
+	private void writeWorkAmountDistribution(DataOutputStream out, WorkAmountDistribution distribution) throws IOException {
+		if (distribution == null) {
+			out.writeByte(0);
+			return;
+		}
+		out.writeByte(distribution.getType().ordinal() + 1);
+		for (double parameter : distribution.getParameters()) out.writeDouble(parameter);
+	}
+	
+	/**
+	 * Read WorkAmountDistribution written by writeWorkAmountDistribution().
+	 * @param buffer
+	 * @return null if work amount is fixed
+	 */
+	private WorkAmountDistribution readWorkAmountDistribution(ByteBuffer buffer) {
+		int type = buffer.get();
+		if (type == 0) return null;
+		String typeName = WorkAmountDistribution.Type.values()[type - 1].toString();
+		if (typeName.equals(WorkAmountDistribution.Type.LOGNORMAL.toString())) return WorkAmountDistribution.create(typeName, buffer.getDouble(), buffer.getDouble());
+		return WorkAmountDistribution.create(typeName, buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+	}
+	
+	/**
+	 * Get the list of workers and facilities in "team".
+	 * @param team
+	 * @return
+	 */
+	private List<ResourceElement> getResourceList(TeamNode team) {
+		List<ResourceElement> resourceList = new ArrayList<ResourceElement>(team.getWorkerList());
+		resourceList.addAll(team.getFacilityList());
+		return resourceList;
+	}
+	
+	/**
+	 * Add strings to the string table.
+	 * @param stringNumberMap
+	 * @param stringList
+	 * @param strings
+	 */
+	private void addString(Map<String, Integer> stringNumberMap, List<String> stringList, String... strings) {
+		for (String s : strings) {
+			if (s == null || stringNumberMap.containsKey(s)) continue;
+			stringNumberMap.put(s, stringList.size());
+			stringList.add(s);
+		}
+	}
+	
+	/**
+	 * Write the number of "s" in the string table.
+	 * @param out
+	 * @param stringNumberMap
+	 * @param s
+	 * @throws IOException
+	 */
+	private void writeString(DataOutputStream out, Map<String, Integer> stringNumberMap, String s) throws IOException {
+		out.writeInt(s == null ? NO_STRING : stringNumberMap.get(s));
+	}
+	
+	/**
+	 * Read the number of a string and get it from the string table.
+	 * @param buffer
+	 * @param strings
+	 * @return
+	 */
+	private String getString(ByteBuffer buffer, String[] strings) {
+		int number = buffer.getInt();
+		return number == NO_STRING ? null : strings[number];
+	}
+	
+	/**
+	 * Write ID and layout of NodeElement.
+	 * @param out
+	 * @param stringNumberMap
+	 * @param node
+	 * @throws IOException
+	 */
+	private void writeNode(DataOutputStream out, Map<String, Integer> stringNumberMap, NodeElement node) throws IOException {
+		writeString(out, stringNumberMap, node.getId());
+		out.writeInt(node.getX());
+		out.writeInt(node.getY());
+		out.writeInt(node.getWidth());
+		out.writeInt(node.getHeight());
+	}
+	
+	/**
+	 * Read ID and layout of NodeElement.
+	 * @param buffer
+	 * @param strings
+	 * @param node
+	 */
+	private void readNode(ByteBuffer buffer, String[] strings, NodeElement node) {
+		node.setId(getString(buffer, strings));
+		node.setX(buffer.getInt());
+		node.setY(buffer.getInt());
+		node.setWidth(buffer.getInt());
+		node.setHeight(buffer.getInt());
+	}
+	
+	/**
+	 * Write Resource(Worker, Facility) with skill maps as sparse rows.
+	 * @param out
+	 * @param stringNumberMap
+	 * @param resource
+	 * @throws IOException
+	 */
+	private void writeResource(DataOutputStream out, Map<String, Integer> stringNumberMap, ResourceElement resource) throws IOException {
+		writeString(out, stringNumberMap, resource.getName());
+		out.writeDouble(resource.getCost());
+		for (Map<String, Double> skillMap : Arrays.asList(resource.getWorkAmountSkillMap(), resource.getQualitySkillMap())) {
+			out.writeInt(skillMap.size());
+			for (Map.Entry<String, Double> entry : skillMap.entrySet()) {
+				writeString(out, stringNumberMap, entry.getKey());
+				out.writeDouble(entry.getValue());
+			}
+		}
+	}
+	
+	/**
+	 * Read Resource(Worker, Facility) with skill maps.
+	 * @param buffer
+	 * @param strings
+	 * @param resource
+	 */
+	private void readResource(ByteBuffer buffer, String[] strings, ResourceElement resource) {
+		resource.setName(getString(buffer, strings));
+		resource.setCost(buffer.getDouble());
+		int numOfWorkAmountSkill = buffer.getInt();
+		for (int i = 0; i < numOfWorkAmountSkill; i++) resource.addSkillInWorkAmountSkillMap(getString(buffer, strings), buffer.getDouble());
+		int numOfQualitySkill = buffer.getInt();
+		for (int i = 0; i < numOfQualitySkill; i++) resource.addSkillInQualitySkillMap(getString(buffer, strings), buffer.getDouble());
+	}
+	
+	/**
+	 * Create Link by the name of Link type.
+	 * @param linkTypeName
+	 * @return
+	 * @throws IllegalStateException if Link type is unknown
+	 */
+	private Link createLink(String linkTypeName) {
+		if ("TeamLink".equals(linkTypeName)) return new TeamLink();
+		if ("TaskLink".equals(linkTypeName)) return new TaskDependencyLink();
+		if ("AllocationLink".equals(linkTypeName)) return new AllocationLink();
+		if ("ComponentLink".equals(linkTypeName)) return new ComponentHierarchyLink();
+		if ("TargetComponentLink".equals(linkTypeName)) return new TargetComponentLink();
+		throw new IllegalStateException("Unknown Link type: " + linkTypeName);
+	}
+}
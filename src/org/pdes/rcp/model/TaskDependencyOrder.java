@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.rcp.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.pdes.rcp.model.base.Link;
+import org.pdes.rcp.model.base.NodeElement;
+
+/**
+ * This is the dynamic topological order of TaskNodes and SubWorkflowNodes connected by TaskDependencyLinks.<br>
+ * The order is maintained incrementally by Pearce-Kelly algorithm: every TaskDependencyLink goes from lower to higher order,
+ * and only NodeElements between the two orders are searched and reordered when a Link breaking this rule is added.
+ * So whether a new Link makes a cycle or not is judged in constant time in most cases,
+ * and otherwise by searching only the NodeElements between the two orders.<br>
+ * NodeElements whose incoming Links are changed are collected by ProjectDiagram, and they are processed before the next judgment.
+ * If the diagram already has a cycle (e.g. read from file), the order is rebuilt after the next change of Links.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class TaskDependencyOrder {
+	
+	private final ProjectDiagram diagram;
+	private final Map<NodeElement, Integer> order = new IdentityHashMap<NodeElement, Integer>();
+	private final Set<NodeElement> changedNodeSet = Collections.newSetFromMap(new IdentityHashMap<NodeElement, Boolean>());
+	private int nextOrder = 0;
+	private boolean built = false; // whether the order is built or not
+	private boolean acyclic = true; // whether the order satisfies all TaskDependencyLinks or not
+	
+	/**
+	 * This is the constructor.
+	 * @param diagram
+	 */
+	public TaskDependencyOrder(ProjectDiagram diagram) {
+		this.diagram = diagram;
+	}
+	
+	/**
+	 * Notify that the incoming Links of "node" are changed.
+	 * @param node
+	 */
+	public void markChanged(NodeElement node) {
+		if (built && isTarget(node)) changedNodeSet.add(node);
+	}
+	
+	/**
+	 * Check whether adding a TaskDependencyLink from "source" to "target" makes a cycle or not.
+	 * @param source
+	 * @param target
+	 * @param ignoredLink the Link which is regarded as removed (e.g. the Link to be reconnected), or null
+	 * @return
+	 */
+	public boolean makesCycle(NodeElement source, NodeElement target, Link ignoredLink) {
+		if (source == target) return true;
+		update();
+		if (acyclic) {
+			int upperBound = getOrder(source);
+			if (upperBound < getOrder(target)) return false;
+			return reaches(target, source, upperBound, ignoredLink);
+		}
+		return reaches(target, source, Integer.MAX_VALUE, ignoredLink);
+	}
+	
+	/**
+	 * Check whether all TaskDependencyLinks in the diagram are acyclic or not.
+	 * @return
+	 */
+	public boolean isAcyclic() {
+		update();
+		return acyclic;
+	}
+	
+	/**
+	 * Process changed NodeElements, or rebuild the order if it is not built or not acyclic.
+	 */
+	private void update() {
+		if (!built || (!acyclic && !changedNodeSet.isEmpty())) {
+			rebuild();
+			return;
+		}
+		for (NodeElement node : changedNodeSet) {
+			for (Link link : node.getIncomingLinkList()) {
+				if (!(link instanceof TaskDependencyLink) || link.getOriginNode() == null) continue;
+				if (!addLink(link.getOriginNode(), node)) {
+					acyclic = false;
+					changedNodeSet.clear();
+					return;
+				}
+			}
+		}
+		changedNodeSet.clear();
+	}
+	
+	/**
+	 * Build the order from scratch by topological sort of all TaskNodes and SubWorkflowNodes.
+	 */
+	private void rebuild() {
+		order.clear();
+		changedNodeSet.clear();
+		nextOrder = 0;
+		built = true;
+		List<NodeElement> nodeList = new ArrayList<NodeElement>(diagram.getTaskNodeList());
+		nodeList.addAll(diagram.getSubWorkflowNodeList());
+		Map<NodeElement, Integer> inDegree = new IdentityHashMap<NodeElement, Integer>();
+		nodeList.forEach(node -> inDegree.put(node, 0));
+		for (NodeElement node : nodeList) {
+			for (NodeElement next : getSuccessorList(node)) inDegree.computeIfPresent(next, (n, d) -> d + 1);
+		}
+		Deque<NodeElement> queue = new ArrayDeque<NodeElement>();
+		nodeList.stream().filter(node -> inDegree.get(node) == 0).forEach(queue::add);
+		while (!queue.isEmpty()) {
+			NodeElement node = queue.poll();
+			order.put(node, nextOrder++);
+			for (NodeElement next : getSuccessorList(node)) {
+				Integer degree = inDegree.computeIfPresent(next, (n, d) -> d - 1);
+				if (degree != null && degree == 0) queue.add(next);
+			}
+		}
+		acyclic = order.size() == nodeList.size();
+		nodeList.forEach(node -> getOrder(node)); // NodeElements in cycles are put at the end.
+	}
+	
+	/**
+	 * Update the order for the TaskDependencyLink from "source" to "target" by Pearce-Kelly algorithm.
+	 * @param source
+	 * @param target
+	 * @return FALSE if this Link makes a cycle
+	 */
+	private boolean addLink(NodeElement source, NodeElement target) {
+		int upperBound = getOrder(source);
+		int lowerBound = getOrder(target);
+		if (upperBound < lowerBound) return true;
+		
+		// NodeElements reachable from target, and NodeElements reaching to source, between two orders.
+		List<NodeElement> forwardList = new ArrayList<NodeElement>();
+		Set<NodeElement> visited = Collections.newSetFromMap(new IdentityHashMap<NodeElement, Boolean>());
+		Deque<NodeElement> stack = new ArrayDeque<NodeElement>();
+		stack.push(target);
+		visited.add(target);
+		while (!stack.isEmpty()) {
+			NodeElement node = stack.pop();
+			forwardList.add(node);
+			for (NodeElement next : getSuccessorList(node)) {
+				if (next == source) return false;
+				if (getOrder(next) < upperBound && visited.add(next)) stack.push(next);
+			}
+		}
+		List<NodeElement> backwardList = new ArrayList<NodeElement>();
+		stack.push(source);
+		visited.add(source);
+		while (!stack.isEmpty()) {
+			NodeElement node = stack.pop();
+			backwardList.add(node);
+			for (NodeElement previous : getPredecessorList(node)) {
+				if (getOrder(previous) > lowerBound && visited.add(previous)) stack.push(previous);
+			}
+		}
+		
+		// Reassign the orders: backward NodeElements first, and then forward NodeElements.
+		Comparator<NodeElement> byOrder = Comparator.comparingInt(node -> order.get(node));
+		forwardList.sort(byOrder);
+		backwardList.sort(byOrder);
+		List<Integer> orderList = new ArrayList<Integer>(forwardList.size() + backwardList.size());
+		backwardList.forEach(node -> orderList.add(order.get(node)));
+		forwardList.forEach(node -> orderList.add(order.get(node)));
+		Collections.sort(orderList);
+		int i = 0;
+		for (NodeElement node : backwardList) order.put(node, orderList.get(i++));
+		for (NodeElement node : forwardList) order.put(node, orderList.get(i++));
+		return true;
+	}
+	
+	/**
+	 * Check whether "goal" is reachable from "start" through NodeElements whose order is lower than "upperBound".
+	 * @param start
+	 * @param goal
+	 * @param upperBound
+	 * @param ignoredLink
+	 * @return
+	 */
+	private boolean reaches(NodeElement start, NodeElement goal, int upperBound, Link ignoredLink) {
+		Set<NodeElement> visited = Collections.newSetFromMap(new IdentityHashMap<NodeElement, Boolean>());
+		Deque<NodeElement> stack = new ArrayDeque<NodeElement>();
+		stack.push(start);
+		visited.add(start);
+		while (!stack.isEmpty()) {
+			NodeElement node = stack.pop();
+			for (Link link : node.getOutgoingLinkList()) {
+				if (!(link instanceof TaskDependencyLink) || link == ignoredLink) continue;
+				NodeElement next = link.getDestinationNode();
+				if (next == null) continue;
+				if (next == goal) return true;
+				if ((!acyclic || getOrder(next) < upperBound) && visited.add(next)) stack.push(next);
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Get the order of "node". A new NodeElement is put at the end.
+	 * @param node
+	 * @return
+	 */
+	private int getOrder(NodeElement node) {
+		Integer o = order.get(node);
+		if (o == null) {
+			o = nextOrder++;
+			order.put(node, o);
+		}
+		return o;
+	}
+	
+	/**
+	 * Get the destinations of outgoing TaskDependencyLinks of "node".
+	 * @param node
+	 * @return
+	 */
+	private List<NodeElement> getSuccessorList(NodeElement node) {
+		List<NodeElement> successorList = new ArrayList<NodeElement>();
+		for (Link link : node.getOutgoingLinkList()) {
+			if (link instanceof TaskDependencyLink && link.getDestinationNode() != null) successorList.add(link.getDestinationNode());
+		}
+		return successorList;
+	}
+	
+	/**
+	 * Get the origins of incoming TaskDependencyLinks of "node".
+	 * @param node
+	 * @return
+	 */
+	private List<NodeElement> getPredecessorList(NodeElement node) {
+		List<NodeElement> predecessorList = new ArrayList<NodeElement>();
+		for (Link link : node.getIncomingLinkList()) {
+			if (link instanceof TaskDependencyLink && link.getOriginNode() != null) predecessorList.add(link.getOriginNode());
+		}
+		return predecessorList;
+	}
+	
+	/**
+	 * Check whether "node" can be connected by TaskDependencyLink or not.
+	 * @param node
+	 * @return
+	 */
+	private boolean isTarget(NodeElement node) {
+		return node instanceof TaskNode || node instanceof SubWorkflowNode;
+	}
+}
@@ -44,6 +44,8 @@ public class TaskNode extends NodeElement {
 	private double progress;
 	private int additionalWorkAmount; //Additional work amount if the amount of error exceeds the limit.
 	private boolean needFacility; //Need facility or not
+	private WorkAmountDistribution workAmountDistribution; //Distribution of work amount, or null if work amount is fixed.
+	private WorkAmountDistribution additionalWorkAmountDistribution; //Distribution of additional work amount, or null if additional work amount is fixed.
 	//////////////////////////////////////////////////////////////////////////////////
 	
 	/**
@@ -149,4 +151,40 @@ public class TaskNode extends NodeElement {
 		firePropertyChange("needFacility", old, needFacility);
 	}
 	
+	/**
+	 * Get the distribution of work amount of TaskNode.
+	 * @return the workAmountDistribution, or null if work amount is fixed
+	 */
+	public WorkAmountDistribution getWorkAmountDistribution() {
+		return workAmountDistribution;
+	}
+
+	/**
+	 * Set the distribution of work amount of TaskNode.
+	 * @param workAmountDistribution the workAmountDistribution to set (null if work amount is fixed)
+	 */
+	public void setWorkAmountDistribution(WorkAmountDistribution workAmountDistribution) {
+		WorkAmountDistribution old = this.workAmountDistribution;
+		this.workAmountDistribution = workAmountDistribution;
+		firePropertyChange("workAmountDistribution", old, workAmountDistribution);
+	}
+	
+	/**
+	 * Get the distribution of additional work amount of TaskNode.
+	 * @return the additionalWorkAmountDistribution, or null if additional work amount is fixed
+	 */
+	public WorkAmountDistribution getAdditionalWorkAmountDistribution() {
+		return additionalWorkAmountDistribution;
+	}
+
+	/**
+	 * Set the distribution of additional work amount of TaskNode.
+	 * @param additionalWorkAmountDistribution the additionalWorkAmountDistribution to set (null if additional work amount is fixed)
+	 */
+	public void setAdditionalWorkAmountDistribution(WorkAmountDistribution additionalWorkAmountDistribution) {
+		WorkAmountDistribution old = this.additionalWorkAmountDistribution;
+		this.additionalWorkAmountDistribution = additionalWorkAmountDistribution;
+		firePropertyChange("additionalWorkAmountDistribution", old, additionalWorkAmountDistribution);
+	}
+	
 }
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.rcp.model;
+
+import java.io.Serializable;
+
+/**
+ * This is the probability distribution of the work amount of TaskNode.<br>
+ * TRIANGULAR and PERT (beta distribution by the three-point estimation) use the minimum, the mode and the maximum,
+ * and LOGNORMAL uses the mean and the standard deviation of the work amount.
+ * This is immutable.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class WorkAmountDistribution implements Serializable {
+	
+	private static final long serialVersionUID = 4412093567320885109L;
+	
+	public enum Type {
+		/** Triangular distribution (minimum, mode, maximum) */
+		TRIANGULAR,
+		/** PERT-beta distribution (minimum, mode, maximum) */
+		PERT,
+		/** Lognormal distribution (mean, standard deviation) */
+		LOGNORMAL,
+	}
+	
+	private final Type type;
+	private final double minimum;
+	private final double mode;
+	private final double maximum;
+	private final double mean;
+	private final double standardDeviation;
+	
+	/**
+	 * This is the constructor.
+	 * @param type
+	 * @param minimum
+	 * @param mode
+	 * @param maximum
+	 * @param mean
+	 * @param standardDeviation
+	 */
+	private WorkAmountDistribution(Type type, double minimum, double mode, double maximum, double mean, double standardDeviation) {
+		this.type = type;
+		this.minimum = minimum;
+		this.mode = mode;
+		this.maximum = maximum;
+		this.mean = mean;
+		this.standardDeviation = standardDeviation;
+	}
+	
+	/**
+	 * Create the triangular distribution.
+	 * @param minimum
+	 * @param mode
+	 * @param maximum
+	 * @return
+	 */
+	public static WorkAmountDistribution triangular(double minimum, double mode, double maximum) {
+		return new WorkAmountDistribution(Type.TRIANGULAR, minimum, mode, maximum, (minimum + mode + maximum) / 3.0, 0);
+	}
+	
+	/**
+	 * Create the PERT-beta distribution.
+	 * @param minimum
+	 * @param mode
+	 * @param maximum
+	 * @return
+	 */
+	public static WorkAmountDistribution pert(double minimum, double mode, double maximum) {
+		return new WorkAmountDistribution(Type.PERT, minimum, mode, maximum, (minimum + 4.0 * mode + maximum) / 6.0, 0);
+	}
+	
+	/**
+	 * Create the lognormal distribution.
+	 * @param mean
+	 * @param standardDeviation
+	 * @return
+	 */
+	public static WorkAmountDistribution lognormal(double mean, double standardDeviation) {
+		return new WorkAmountDistribution(Type.LOGNORMAL, 0, 0, 0, mean, standardDeviation);
+	}
+	
+	/**
+	 * Create the distribution by the name of type and its parameters.
+	 * @param typeName name of Type
+	 * @param parameters (minimum, mode, maximum) or (mean, standard deviation)
+	 * @return
+	 */
+	public static WorkAmountDistribution create(String typeName, double... parameters) {
+		Type type = Type.valueOf(typeName);
+		if (type == Type.LOGNORMAL) return lognormal(parameters[0], parameters[1]);
+		if (type == Type.PERT) return pert(parameters[0], parameters[1], parameters[2]);
+		return triangular(parameters[0], parameters[1], parameters[2]);
+	}
+	
+	/**
+	 * Get the parameters of this distribution.
+	 * @return (minimum, mode, maximum) or (mean, standard deviation)
+	 */
+	public double[] getParameters() {
+		if (type == Type.LOGNORMAL) return new double[]{mean, standardDeviation};
+		return new double[]{minimum, mode, maximum};
+	}
+	
+	/**
+	 * Check whether the parameters are valid or not.
+	 * @return
+	 */
+	public boolean isValid() {
+		if (type == Type.LOGNORMAL) return mean > 0 && standardDeviation >= 0;
+		return 0 <= minimum && minimum <= mode && mode <= maximum;
+	}
+
+	/**
+	 * Get the type.
+	 * @return the type
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Get the minimum (TRIANGULAR and PERT).
+	 * @return the minimum
+	 */
+	public double getMinimum() {
+		return minimum;
+	}
+
+	/**
+	 * Get the mode (TRIANGULAR and PERT).
+	 * @return the mode
+	 */
+	public double getMode() {
+		return mode;
+	}
+
+	/**
+	 * Get the maximum (TRIANGULAR and PERT).
+	 * @return the maximum
+	 */
+	public double getMaximum() {
+		return maximum;
+	}
+
+	/**
+	 * Get the mean.
+	 * @return the mean
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * Get the standard deviation (LOGNORMAL).
+	 * @return the standardDeviation
+	 */
+	public double getStandardDeviation() {
+		return standardDeviation;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		if (type == Type.LOGNORMAL) return String.format("%s(mean=%s, sd=%s)", type, mean, standardDeviation);
+		return String.format("%s(%s, %s, %s)", type, minimum, mode, maximum);
+	}
+}
@@ -28,9 +28,14 @@
  */
 package org.pdes.rcp.model.base;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -50,16 +55,25 @@ public abstract class Diagram extends AbstractModel {
 	
 	private List<NodeElement> nodeElementList;
 	
+	// Registries for getting NodeElements and Links quickly
+	private transient Map<Class<?>, List<NodeElement>> nodeElementListByType; // insertion-ordered list of NodeElements by class
+	private transient Map<String, NodeElement> nodeElementIndex; // ID -> first NodeElement, null if it has to be rebuilt
+	private transient Map<String, Integer> nodeElementIdCount; // ID -> the number of NodeElements, rebuilt with nodeElementIndex
+	private transient List<Link> linkList; // all Links, null if it has to be rebuilt
+	private transient Map<Class<?>, List<Link>> linkListByType; // list of Links by class, null if it has to be rebuilt
+	
 	/**
 	 * This is the constructor.
 	 */
 	public Diagram(){
 		super();
 		this.nodeElementList = new ArrayList<NodeElement>();
+		this.rebuildNodeElementRegistry();
 	}
 
 	/**
-	 * Get the NodeElement list in this ProjectDiagram.
+	 * Get the NodeElement list in this ProjectDiagram.<br>
+	 * This list must be changed only through addNodeElement() and removeNodeElement() to keep the registries of this diagram.
 	 * @return the nodeElementList
 	 */
 	public List<NodeElement> getNodeElementList() {
@@ -72,6 +86,7 @@ public abstract class Diagram extends AbstractModel {
 	 */
 	public void setNodeElementList(List<NodeElement> nodeElementList) {
 		this.nodeElementList = nodeElementList;
+		this.rebuildNodeElementRegistry();
 	}
 	
 	/**
@@ -80,6 +95,13 @@ public abstract class Diagram extends AbstractModel {
 	 */
 	public void addNodeElement(NodeElement element){
 		this.nodeElementList.add(element);
+		this.nodeElementListByType.computeIfAbsent(element.getClass(), c -> new ArrayList<NodeElement>()).add(element);
+		if(nodeElementIndex != null){
+			nodeElementIndex.putIfAbsent(element.getId(), element);
+			nodeElementIdCount.merge(element.getId(), 1, Integer::sum);
+		}
+		element.getIncomingLinkList().forEach(link -> addLink(link));
+		if(!element.getIncomingLinkList().isEmpty()) incomingLinkChanged(element);
 		element.setParentDiagram(this);
 		firePropertyChange("contents",null,null);
 	}
@@ -89,33 +111,161 @@ public abstract class Diagram extends AbstractModel {
 	 * @param element
 	 */
 	public void removeNodeElement(NodeElement element){
-		this.nodeElementList.remove(element);
+		if(this.nodeElementList.remove(element)){
+			List<NodeElement> list = this.nodeElementListByType.get(element.getClass());
+			if(list != null) list.remove(element);
+			if(nodeElementIndex != null){
+				if(nodeElementIdCount.merge(element.getId(), -1, Integer::sum) == 0){
+					nodeElementIdCount.remove(element.getId());
+					nodeElementIndex.remove(element.getId());
+				}else if(nodeElementIndex.get(element.getId()) == element){
+					invalidateNodeElementIndex(); // another NodeElement has the same ID
+				}
+			}
+			element.getIncomingLinkList().forEach(link -> removeLink(link));
+		}
 		element.setParentDiagram(null);
 		firePropertyChange("contents",null,null);
 	}
 	
 	/**
 	 * Get the NodeElement which ID is the same as "id".<br>
+	 * If some NodeElements have the same ID, the first one in the list of NodeElement is returned.
 	 * @param id
 	 * @return
 	 */
 	public NodeElement getNodeElement(String id){
-		for(NodeElement node: nodeElementList){
-			if(node.getId().equals(id)) return node;
+		if(nodeElementIndex == null){
+			nodeElementIndex = new HashMap<String, NodeElement>();
+			nodeElementIdCount = new HashMap<String, Integer>();
+			for(NodeElement node: nodeElementList){
+				nodeElementIndex.putIfAbsent(node.getId(), node);
+				nodeElementIdCount.merge(node.getId(), 1, Integer::sum);
+			}
 		}
-		return null;
+		return nodeElementIndex.get(id);
 	}
 	
 	/**
-	 * Get the list of Link.
-	 * @return
+	 * Get the list of NodeElements of "type" in insertion order.<br>
+	 * NodeElements are registered by their own class, so subclasses of "type" are not included.
+	 * @param type
+	 * @return unmodifiable list
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T extends NodeElement> List<T> getNodeElementList(Class<T> type){
+		List<NodeElement> list = nodeElementListByType.get(type);
+		if(list == null) return Collections.emptyList();
+		return (List<T>) Collections.unmodifiableList(list);
+	}
+	
+	/**
+	 * Get the list of Link.<br>
+	 * Links are listed in the order of being added to this diagram.
+	 * The Links of each NodeElement are in the same order as its incoming Links.
+	 * @return unmodifiable list
 	 */
 	public List<Link> getLinkList(){
-		List<Link> linkList = new ArrayList<Link>();
+		if(linkList == null) rebuildLinkRegistry();
+		return Collections.unmodifiableList(linkList);
+	}
+	
+	/**
+	 * Get the list of Links of "type" in the same order as getLinkList().<br>
+	 * Links are registered by their own class, so subclasses of "type" are not included.
+	 * @param type
+	 * @return unmodifiable list
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T extends Link> List<T> getLinkList(Class<T> type){
+		if(linkList == null) rebuildLinkRegistry();
+		List<Link> list = linkListByType.get(type);
+		if(list == null) return Collections.emptyList();
+		return (List<T>) Collections.unmodifiableList(list);
+	}
+	
+	/**
+	 * Notify that the incoming Links of "node" in this diagram or their origins are changed.<br>
+	 * The registry of Links is updated by addLink() and removeLink(), so this is only for subclasses.
+	 * @param node
+	 */
+	protected void incomingLinkChanged(NodeElement node){
+	}
+	
+	/**
+	 * Add "link" which is added to the incoming Links of a NodeElement in this diagram to the registry of Links.
+	 * @param link
+	 */
+	void addLink(Link link){
+		if(linkList == null) return; // built with "link" when it is needed
+		linkList.add(link);
+		linkListByType.computeIfAbsent(link.getClass(), c -> new ArrayList<Link>()).add(link);
+	}
+	
+	/**
+	 * Remove "link" which is removed from the incoming Links of a NodeElement in this diagram from the registry of Links.
+	 * @param link
+	 */
+	void removeLink(Link link){
+		if(linkList == null) return;
+		linkList.remove(link);
+		List<Link> list = linkListByType.get(link.getClass());
+		if(list != null) list.remove(link);
+	}
+	
+	/**
+	 * Invalidate the registry of Links. It is rebuilt when it is needed next time.
+	 */
+	private void invalidateLinkRegistry(){
+		linkList = null;
+		linkListByType = null;
+	}
+	
+	/**
+	 * Notify that the ID of a NodeElement in this diagram is changed.
+	 */
+	void invalidateNodeElementIndex(){
+		nodeElementIndex = null;
+		nodeElementIdCount = null;
+	}
+	
+	/**
+	 * Rebuild the registries after deserialization because they are not serialized.
+	 * @param in
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		rebuildNodeElementRegistry();
+	}
+	
+	/**
+	 * Rebuild the registry of NodeElements from the list of NodeElement.
+	 */
+	private void rebuildNodeElementRegistry(){
+		nodeElementListByType = new HashMap<Class<?>, List<NodeElement>>();
+		for(NodeElement node : nodeElementList){
+			nodeElementListByType.computeIfAbsent(node.getClass(), c -> new ArrayList<NodeElement>()).add(node);
+		}
+		invalidateNodeElementIndex();
+		invalidateLinkRegistry();
+	}
+	
+	/**
+	 * Rebuild the registry of Links from the incoming Links of each NodeElement.
+	 */
+	private void rebuildLinkRegistry(){
+		List<Link> newLinkList = new ArrayList<Link>();
+		Map<Class<?>, List<Link>> newLinkListByType = new HashMap<Class<?>, List<Link>>();
 		for(NodeElement node : nodeElementList){
-			linkList.addAll(node.getIncomingLinkList());
+			for(Link link : node.getIncomingLinkList()){
+				newLinkList.add(link);
+				newLinkListByType.computeIfAbsent(link.getClass(), c -> new ArrayList<Link>()).add(link);
+			}
 		}
-		return linkList;
+		linkList = newLinkList;
+		linkListByType = newLinkListByType;
 	}
 	
 	/**
@@ -89,6 +89,7 @@ public abstract class Link extends AbstractModel {
 	public void setOriginNode(NodeElement originNode) {
 		NodeElement old = this.originNode;
 		this.originNode = originNode;
+		if(destinationNode != null && destinationNode.getParentDiagram() != null) destinationNode.getParentDiagram().incomingLinkChanged(destinationNode);//the incoming Link of destination is changed.
 		firePropertyChange("origin", old, originNode);
 	}
 
@@ -80,6 +80,7 @@ public abstract class NodeElement extends AbstractModel {
 	 */
 	public void setId(String id) {
 		this.id = id;
+		if(parentDiagram != null) parentDiagram.invalidateNodeElementIndex();
 	}
 	
 	/**
@@ -211,7 +212,10 @@ public abstract class NodeElement extends AbstractModel {
 	 * @param incomingLinkList the incomingLinkList to set
 	 */
 	public void setIncomingLinkList(List<Link> incomingLinkList) {
+		if(parentDiagram != null) this.incomingLinkList.forEach(link -> parentDiagram.removeLink(link));
 		this.incomingLinkList = incomingLinkList;
+		if(parentDiagram != null) incomingLinkList.forEach(link -> parentDiagram.addLink(link));
+		if(parentDiagram != null) parentDiagram.incomingLinkChanged(this);
 	}
 	
 	/**
@@ -220,6 +224,8 @@ public abstract class NodeElement extends AbstractModel {
 	 */
 	public void addIncomingLink(Link link){
 		this.incomingLinkList.add(link);
+		if(parentDiagram != null) parentDiagram.addLink(link);
+		if(parentDiagram != null) parentDiagram.incomingLinkChanged(this);
 		firePropertyChange("incoming", null, link);
 	}
 	
@@ -228,7 +234,8 @@ public abstract class NodeElement extends AbstractModel {
 	 * @param link
 	 */
 	public void removeIncomingLink(Link link){
-		this.incomingLinkList.remove(link);
+		if(this.incomingLinkList.remove(link) && parentDiagram != null) parentDiagram.removeLink(link);
+		if(parentDiagram != null) parentDiagram.incomingLinkChanged(this);
 		firePropertyChange("incoming", link, null);
 	}
 	
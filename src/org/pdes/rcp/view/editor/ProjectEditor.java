@@ -65,7 +65,6 @@ import org.pdes.rcp.model.ProjectDiagram;
 import org.pdes.rcp.model.SubWorkflowNode;
 import org.pdes.rcp.model.TaskDependencyLink;
 import org.pdes.rcp.model.TaskNode;
-import org.pdes.rcp.model.TeamLink;
 import org.pdes.rcp.model.TeamNode;
 import org.pdes.rcp.model.base.AbstractModel;
 import org.pdes.rcp.model.base.Link;
@@ -382,7 +381,7 @@ public class ProjectEditor extends DiagramEditor {
 	 */
 	public void setVisibleAboutAllAllocationLink(boolean visible){
 		visibleMap.put(ProjectEditorConstVariables.visibleAllocation, visible);
-		this.diagram.getLinkList().stream().filter(link -> link instanceof AllocationLink).forEach(link -> link.setVisible(visible));
+		this.diagram.getAllocationLinkList().forEach(link -> link.setVisible(visible));
 	}
 	
 	/**
@@ -391,7 +390,7 @@ public class ProjectEditor extends DiagramEditor {
 	 */
 	public void setVisibleAboutAllTaskDependencyLink(boolean visible){
 		visibleMap.put(ProjectEditorConstVariables.visibleDependency, visible);
-		this.diagram.getLinkList().stream().filter(link -> link instanceof TaskDependencyLink).forEach(link -> link.setVisible(visible));
+		this.diagram.getTaskLinkList().forEach(link -> link.setVisible(visible));
 	}
 	
 	/**
@@ -400,7 +399,7 @@ public class ProjectEditor extends DiagramEditor {
 	 */
 	public void setVisibleAboutAllTeamLink(boolean visible){
 		visibleMap.put(ProjectEditorConstVariables.visibleHierarchy, visible);
-		this.diagram.getLinkList().stream().filter(link -> link instanceof TeamLink).forEach(link -> link.setVisible(visible));
+		this.diagram.getTeamLinkList().forEach(link -> link.setVisible(visible));
 	}
 	
 	/**
@@ -409,7 +408,7 @@ public class ProjectEditor extends DiagramEditor {
 	 */
 	public void setVisibleAboutAllComponentHierarchyLink(boolean visible){
 		visibleMap.put(ProjectEditorConstVariables.visibleComponentHierarchy, visible);
-		this.diagram.getLinkList().stream().filter(link -> link instanceof ComponentHierarchyLink).forEach(link -> link.setVisible(visible));
+		this.diagram.getComponentLinkList().forEach(link -> link.setVisible(visible));
 	}
 	
 	/**
@@ -418,6 +417,6 @@ public class ProjectEditor extends DiagramEditor {
 	 */
 	public void setVisibleAboutAllTargetComponentLink(boolean visible){
 		visibleMap.put(ProjectEditorConstVariables.visibleComponentToTask, visible);
-		this.diagram.getLinkList().stream().filter(link -> link instanceof TargetComponentLink).forEach(link -> link.setVisible(visible));
+		this.diagram.getTargetComponentLinkList().forEach(link -> link.setVisible(visible));
 	}
 }
@@ -56,25 +56,34 @@ public class PDES_BasicSimulator_TaskPerformedBySingleTaskWorker extends PDES_Ab
 	}
 
 	/* (non-Javadoc)
-	 * @see org.pdes.simulator.base.PDES_AbstractSimulator#execute()
+	 * @see org.pdes.simulator.base.PDES_AbstractSimulator#resume()
 	 */
 	@Override
-	public void execute() {
-		this.initialize();
+	public void resume() {
 		while(true){
 			
 			//0. Check finished or not.
-			if(checkAllTasksAreFinished()) return;
+			if(checkAllTasksAreFinished()) {
+				this.finalizeLaborCost();
+				return;
+			}
+			if(checkSimulationIsStopped()) {
+				this.finalizeLaborCost();
+				return;
+			}
+			if(checkSimulationIsCutOff()) {
+				this.finalizeLaborCost();
+				return;
+			}
+			if(checkSimulationIsPaused()) {
+				return;
+			}
 			
 			//1. Get ready task and free resources
-			List<BaseTask> readyTaskList = this.getReadyTaskList();
-			List<BaseWorker> freeWorkerList = organization.getFreeWorkerList();
-			List<BaseFacility> freeFacilityList = organization.getFreeFacilityList();
-			
-			//2. Sort ready task and free resources
-			this.sortTasks(readyTaskList);
-			this.sortWorkers(freeWorkerList);
-			this.sortFacilities(freeFacilityList);
+			//2. (They are already sorted by the task priority queue and resource pools)
+			List<BaseTask> readyTaskList = this.getSortedReadyTaskList();
+			List<BaseWorker> freeWorkerList = this.getSortedFreeWorkerList();
+			List<BaseFacility> freeFacilityList = this.getSortedFreeFacilityList();
 			
 			//3. Allocate ready tasks to free resources
 			this.allocateReadyTasksToFreeResourcesForSingleTaskWorkerSimulation(readyTaskList, freeWorkerList, freeFacilityList);
@@ -28,9 +28,7 @@
  */
 package org.pdes.simulator;
 
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.pdes.simulator.base.PDES_AbstractSimulator;
 import org.pdes.simulator.model.base.BaseFacility;
@@ -60,27 +58,34 @@ public class PDES_BasicSimulator_TaskPerformedBySingleTaskWorkers extends PDES_A
 	}
 
 	/* (non-Javadoc)
-	 * @see org.pdes.simulator.base.PDES_AbstractSimulator#execute()
+	 * @see org.pdes.simulator.base.PDES_AbstractSimulator#resume()
 	 */
 	@Override
-	public void execute() {
-		this.initialize();
+	public void resume() {
 		while(true){
 			
 			//0. Check finished or not.
-			if(checkAllTasksAreFinished()) return;
+			if(checkAllTasksAreFinished()) {
+				this.finalizeLaborCost();
+				return;
+			}
+			if(checkSimulationIsStopped()) {
+				this.finalizeLaborCost();
+				return;
+			}
+			if(checkSimulationIsCutOff()) {
+				this.finalizeLaborCost();
+				return;
+			}
+			if(checkSimulationIsPaused()) {
+				return;
+			}
 			
 			//1. Get ready task and free resources
-			List<BaseTask> readyTaskList = this.getReadyTaskList();
-			List<BaseTask> workingTaskList = this.getWorkingTaskList();
-			List<BaseTask> readyAndWorkingTaskList = Arrays.asList(readyTaskList,workingTaskList).stream().flatMap(list -> list.stream()).collect(Collectors.toList());
-			List<BaseWorker> freeWorkerList = organization.getFreeWorkerList();
-			List<BaseFacility> freeFacilityList = organization.getFreeFacilityList();
-			
-			//2. Sort ready task and free resources
-			this.sortTasks(readyAndWorkingTaskList);
-			this.sortWorkers(freeWorkerList);
-			this.sortFacilities(freeFacilityList);
+			//2. (They are already sorted by the task priority queue and resource pools)
+			List<BaseTask> readyAndWorkingTaskList = this.getSortedReadyAndWorkingTaskList();
+			List<BaseWorker> freeWorkerList = this.getSortedFreeWorkerList();
+			List<BaseFacility> freeFacilityList = this.getSortedFreeFacilityList();
 			
 			//3. Allocate ready tasks to free resources
 			this.allocateReadyTasksToFreeResourcesForSingleTaskWorkersSimulation(readyAndWorkingTaskList, freeWorkerList, freeFacilityList);
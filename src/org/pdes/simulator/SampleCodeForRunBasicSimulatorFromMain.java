@@ -28,7 +28,10 @@
  */
 package org.pdes.simulator;
 
+import java.util.List;
+
 import org.pdes.rcp.model.ProjectDiagram;
+import org.pdes.simulator.base.ProjectValidator;
 import org.pdes.simulator.model.base.BaseProjectInfo;
 
 /**
@@ -50,8 +53,14 @@ public class SampleCodeForRunBasicSimulatorFromMain {
 		ProjectDiagram diagram = new ProjectDiagram();
 		if(diagram.readProjectFile(pdmFilePath)) {
 			BaseProjectInfo project = new BaseProjectInfo(diagram, 1);
+			List<String> errorMessageList = new ProjectValidator(project).validate();
+			if(!errorMessageList.isEmpty()) {
+				errorMessageList.forEach(message -> System.out.println(message));
+				return;
+			}
 			PDES_BasicSimulator_TaskPerformedBySingleTaskWorker sim = new PDES_BasicSimulator_TaskPerformedBySingleTaskWorker(project);
 			sim.execute();
+			if(sim.getWatchdog().isStopped()) System.out.println(sim.getWatchdog().getStopMessage());
 			sim.saveResultFileByCsv(outputFolderPath, outputFileName);
 		}else {
 			System.out.println("File has not exists..");
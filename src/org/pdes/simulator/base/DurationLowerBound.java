@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.pdes.simulator.model.base.BaseFacility;
+import org.pdes.simulator.model.base.BaseProjectInfo;
+import org.pdes.simulator.model.base.BaseTask;
+import org.pdes.simulator.model.base.BaseTeam;
+import org.pdes.simulator.model.base.BaseWorker;
+import org.pdes.simulator.model.base.BaseWorkflow;
+
+/**
+ * This is the lower bound of the duration of the project from the current state of the simulation.<br>
+ * The max rate of a task is the sum of the work amount skill points of all workers which can perform it,
+ * multiplied by the max work amount skill point of the facilities if it needs a facility.
+ * The lower bound is the max of the followings:<br>
+ * 1. The finish time of the remaining critical path, where each task needs "remaining work amount / max rate" time steps.
+ * Only the tasks which are not READY yet wait for their input tasks.<br>
+ * 2. The finish time of the remaining work amount of the tasks allocated to only one team, divided by the max rate of the team.<br>
+ * 3. The finish time of the remaining work amount of the tasks of each skill (task name), divided by the sum of the skill points of all workers which can perform them.<br>
+ * 4. The finish time of the time steps of the tasks which need a facility, divided by the number of facilities which can perform them.
+ * This is checked for each skill and for all tasks which need a facility.<br>
+ * Additional work and rework are ignored, so the duration of the simulation is never shorter than this bound.
+ * The lower bound of the labor cost is also calculated by the min cost per work amount of each task.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class DurationLowerBound {
+	
+	/**
+	 * The types of the bounds.
+	 */
+	public enum BoundType {
+		CRITICAL_PATH("Critical Path"),
+		TEAM_CAPACITY("Team Capacity"),
+		SKILL_CAPACITY("Skill Capacity"),
+		FACILITY_CAPACITY("Facility Capacity");
+		
+		private final String label;
+		
+		private BoundType(String label) {
+			this.label = label;
+		}
+		
+		/**
+		 * Get the label for the result file.
+		 * @return
+		 */
+		public String getLabel() {
+			return label;
+		}
+	}
+	
+	private static final double EPSILON = 1.0e-9;
+	public static final String ALL_FACILITY_TASKS = "All";
+	
+	private final List<BaseTask> taskList = new ArrayList<BaseTask>(); // topological order in each workflow
+	private final int[][] inputIndexes; // indexes of input tasks in taskList
+	private final double[] maxRates; // max work amount per time step of each task
+	private final double[] minCostsPerWorkAmount; // min labor cost of workers per work amount of each task
+	private final double[] minFacilityCosts; // min labor cost per time step of the facilities of each task
+	private final List<CapacityGroup> capacityGroupList = new ArrayList<CapacityGroup>();
+	
+	/**
+	 * This is the constructor.<br>
+	 * The max rates are calculated from the skills and the allocation, which do not change during the simulation.
+	 * The rates of each pair of a skill and a team are calculated only once, so this is fast even for a large project.
+	 * @param project
+	 */
+	public DurationLowerBound(BaseProjectInfo project) {
+		// Topological order. Tasks in a cycle are ignored because they are never finished.
+		List<int[]> inputIndexList = new ArrayList<int[]>();
+		for (BaseWorkflow workflow : project.getWorkflowList()) {
+			List<BaseTask> workflowTaskList = workflow.getTaskList();
+			int[] indexes = new int[workflowTaskList.size()]; // index in taskList of each position
+			for (int position : sortTopologically(workflowTaskList)) {
+				BaseTask task = workflowTaskList.get(position);
+				int[] inputPositions = task.getTemplate().getInputTaskPositions();
+				int[] inputs = new int[inputPositions.length];
+				for (int k = 0; k < inputPositions.length; k++) inputs[k] = indexes[inputPositions[k]];
+				indexes[position] = taskList.size();
+				taskList.add(task);
+				inputIndexList.add(inputs);
+			}
+		}
+		inputIndexes = inputIndexList.toArray(new int[taskList.size()][]);
+		
+		maxRates = new double[taskList.size()];
+		minCostsPerWorkAmount = new double[taskList.size()];
+		minFacilityCosts = new double[taskList.size()];
+		Map<BaseTeam, Map<String, TeamSkill>> teamSkillMap = new IdentityHashMap<BaseTeam, Map<String, TeamSkill>>();
+		Map<BaseTeam, List<Integer>> exclusiveTaskMap = new LinkedHashMap<BaseTeam, List<Integer>>();
+		Map<String, SkillGroup> skillGroupMap = new LinkedHashMap<String, SkillGroup>();
+		for (int i = 0; i < taskList.size(); i++) {
+			BaseTask task = taskList.get(i);
+			SkillGroup skillGroup = skillGroupMap.computeIfAbsent(task.getName(), s -> new SkillGroup());
+			List<BaseTeam> teamList = task.getAllocatedTeamList();
+			BaseTeam exclusiveTeam = null;
+			int numOfTeams = 0;
+			double workerRate = 0;
+			double facilityRate = task.isNeedFacility() ? 0 : 1;
+			double minCost = Double.POSITIVE_INFINITY;
+			double minFacilityCost = task.isNeedFacility() ? Double.POSITIVE_INFINITY : 0;
+			for (int k = 0; k < teamList.size(); k++) {
+				BaseTeam team = teamList.get(k);
+				if (team == null || teamList.subList(0, k).contains(team)) continue;
+				TeamSkill teamSkill = teamSkillMap.computeIfAbsent(team, t -> new LinkedHashMap<String, TeamSkill>()).computeIfAbsent(task.getName(), s -> new TeamSkill(team, s));
+				exclusiveTeam = team;
+				numOfTeams++;
+				skillGroup.teamSkillSet.add(teamSkill);
+				workerRate += teamSkill.workerRate;
+				minCost = Math.min(minCost, teamSkill.minCostPerSkillPoint);
+				if (task.isNeedFacility()) {
+					facilityRate = Math.max(facilityRate, teamSkill.facilityRate);
+					minFacilityCost = Math.min(minFacilityCost, teamSkill.minFacilityCost);
+					skillGroup.facilityTeamSkillSet.add(teamSkill);
+				}
+			}
+			maxRates[i] = workerRate * facilityRate;
+			minCostsPerWorkAmount[i] = facilityRate > 0 ? minCost / facilityRate : Double.POSITIVE_INFINITY;
+			minFacilityCosts[i] = minFacilityCost;
+			if (numOfTeams == 1) exclusiveTaskMap.computeIfAbsent(exclusiveTeam, t -> new ArrayList<Integer>()).add(i);
+			skillGroup.taskIndexList.add(i);
+			skillGroup.facilityRate = Math.max(skillGroup.facilityRate, facilityRate);
+			if (task.isNeedFacility()) skillGroup.facilityTaskIndexList.add(i);
+		}
+		
+		// Each worker can perform only one of the exclusive tasks of its team at each time step.
+		exclusiveTaskMap.forEach((team, indexList) -> {
+			Map<String, Double> facilityRateMap = new LinkedHashMap<String, Double>();
+			for (int i : indexList) {
+				BaseTask task = taskList.get(i);
+				facilityRateMap.merge(task.getName(), task.isNeedFacility() ? teamSkillMap.get(team).get(task.getName()).facilityRate : 1.0, Math::max);
+			}
+			double rate = 0;
+			for (BaseWorker worker : team.getWorkerList()) {
+				double max = 0;
+				for (Map.Entry<String, Double> entry : facilityRateMap.entrySet()) max = Math.max(max, getSkillPoint(worker.getWorkAmountSkillMap(), entry.getKey()) * entry.getValue());
+				rate += max;
+			}
+			capacityGroupList.add(new CapacityGroup(BoundType.TEAM_CAPACITY, team.getName(), indexList, rate));
+		});
+		
+		// Each worker belongs to only one team, so the workers of the teams of each skill are not duplicated.
+		skillGroupMap.forEach((skill, skillGroup) -> {
+			double workerRate = skillGroup.teamSkillSet.stream().mapToDouble(t -> t.workerRate).sum();
+			capacityGroupList.add(new CapacityGroup(BoundType.SKILL_CAPACITY, skill, skillGroup.taskIndexList, workerRate * skillGroup.facilityRate));
+		});
+		
+		// Each facility can perform only one task at each time step.
+		Set<BaseFacility> allFacilitySet = Collections.newSetFromMap(new IdentityHashMap<BaseFacility, Boolean>());
+		List<Integer> allFacilityTaskIndexList = new ArrayList<Integer>();
+		int numOfFacilitySkills = 0;
+		for (Map.Entry<String, SkillGroup> entry : skillGroupMap.entrySet()) {
+			SkillGroup skillGroup = entry.getValue();
+			if (skillGroup.facilityTaskIndexList.isEmpty()) continue;
+			Set<BaseFacility> facilitySet = Collections.newSetFromMap(new IdentityHashMap<BaseFacility, Boolean>());
+			skillGroup.facilityTeamSkillSet.forEach(t -> facilitySet.addAll(t.facilityList));
+			capacityGroupList.add(new CapacityGroup(BoundType.FACILITY_CAPACITY, entry.getKey(), skillGroup.facilityTaskIndexList, facilitySet.size()));
+			allFacilitySet.addAll(facilitySet);
+			allFacilityTaskIndexList.addAll(skillGroup.facilityTaskIndexList);
+			numOfFacilitySkills++;
+		}
+		if (numOfFacilitySkills > 1) {
+			capacityGroupList.add(new CapacityGroup(BoundType.FACILITY_CAPACITY, ALL_FACILITY_TASKS, allFacilityTaskIndexList, allFacilitySet.size()));
+		}
+	}
+	
+	/**
+	 * Get the lower bound of the duration (the last finish time of all tasks) at the beginning of "time".
+	 * @param time
+	 * @return Integer.MAX_VALUE if some unfinished tasks cannot be performed by anyone
+	 */
+	public int getLowerBoundOfDuration(int time) {
+		double[] remainingWorkAmounts = new double[taskList.size()];
+		boolean[] finished = new boolean[taskList.size()];
+		boolean[] waiting = new boolean[taskList.size()];
+		double lastFinishTime = 0;
+		for (int i = 0; i < taskList.size(); i++) {
+			BaseTask task = taskList.get(i);
+			lastFinishTime = Math.max(lastFinishTime, task.getFinishTimeStream().max().orElse(0));
+			remainingWorkAmounts[i] = task.getRemainingWorkAmount();
+			finished[i] = task.isFinished();
+			waiting[i] = task.isNone();
+		}
+		return toTime(calculateLowerBoundOfDuration(time, remainingWorkAmounts, finished, waiting, lastFinishTime, null, null));
+	}
+	
+	/**
+	 * Calculate the lower bound of the duration from the given state of the tasks.
+	 * @param time current time
+	 * @param remainingWorkAmounts remaining work amount of each task in getTaskList()
+	 * @param finished whether each task is finished or not
+	 * @param waiting whether each task waits for its input tasks (NONE) or not
+	 * @param lastFinishTime last finish time of the tasks finished before "time"
+	 * @param bounds the bound of each BoundType is set if it is not null
+	 * @param bottleneckNames the name of the task, team or skill which gives the bound of each BoundType is set if it is not null
+	 * @return Double.POSITIVE_INFINITY if some unfinished tasks cannot be performed by anyone
+	 */
+	double calculateLowerBoundOfDuration(int time, double[] remainingWorkAmounts, boolean[] finished, boolean[] waiting, double lastFinishTime, double[] bounds, String[] bottleneckNames) {
+		if (bounds != null) Arrays.fill(bounds, Double.NEGATIVE_INFINITY);
+		double bound = lastFinishTime;
+		
+		// 1. Remaining critical path
+		double[] finishTimes = new double[taskList.size()];
+		double[] numOfTimeSteps = new double[taskList.size()];
+		for (int i = 0; i < taskList.size(); i++) {
+			if (finished[i]) continue;
+			numOfTimeSteps[i] = getNumOfTimeSteps(remainingWorkAmounts[i], maxRates[i]);
+			double startTime = time;
+			if (waiting[i]) {
+				for (int input : inputIndexes[i]) {
+					if (!finished[input]) startTime = Math.max(startTime, finishTimes[input] + 1);
+				}
+			}
+			finishTimes[i] = startTime + numOfTimeSteps[i] - 1;
+			bound = Math.max(bound, finishTimes[i]);
+			setBound(BoundType.CRITICAL_PATH, finishTimes[i], taskList.get(i).getName(), bounds, bottleneckNames);
+		}
+		
+		// 2-4. Capacity of teams, skills and facilities
+		for (CapacityGroup group : capacityGroupList) {
+			double sum = 0;
+			boolean remaining = false;
+			for (int i : group.taskIndexes) {
+				if (finished[i]) continue;
+				remaining = true;
+				sum += (group.type == BoundType.FACILITY_CAPACITY) ? numOfTimeSteps[i] : Math.max(0, remainingWorkAmounts[i]);
+			}
+			if (!remaining) continue;
+			double groupBound;
+			if (group.type == BoundType.FACILITY_CAPACITY) {
+				groupBound = (group.capacity > 0) ? time + Math.ceil(sum / group.capacity - EPSILON) - 1 : Double.POSITIVE_INFINITY;
+			} else {
+				groupBound = time + getNumOfTimeSteps(sum, group.capacity) - 1;
+			}
+			bound = Math.max(bound, groupBound);
+			setBound(group.type, groupBound, group.name, bounds, bottleneckNames);
+		}
+		return bound;
+	}
+	
+	/**
+	 * Calculate the lower bound of the labor cost of the remaining work amount.<br>
+	 * Each worker is paid at least "cost / (work amount skill point * max facility skill point)" per work amount,
+	 * and each task which needs a facility occupies a facility at least for its min number of time steps.
+	 * @param remainingWorkAmounts remaining work amount of each task in getTaskList()
+	 * @param finished whether each task is finished or not
+	 * @return Double.POSITIVE_INFINITY if some unfinished tasks cannot be performed by anyone
+	 */
+	double calculateLowerBoundOfCost(double[] remainingWorkAmounts, boolean[] finished) {
+		double cost = 0;
+		for (int i = 0; i < taskList.size(); i++) {
+			if (finished[i] || remainingWorkAmounts[i] <= 0) continue;
+			cost += remainingWorkAmounts[i] * minCostsPerWorkAmount[i];
+			if (minFacilityCosts[i] > 0) cost += getNumOfTimeSteps(remainingWorkAmounts[i], maxRates[i]) * minFacilityCosts[i];
+		}
+		return cost;
+	}
+	
+	/**
+	 * Set "value" to the bound of "type" if it is larger than the current bound.
+	 * @param type
+	 * @param value
+	 * @param name
+	 * @param bounds
+	 * @param bottleneckNames
+	 */
+	private static void setBound(BoundType type, double value, String name, double[] bounds, String[] bottleneckNames) {
+		if (bounds == null || value <= bounds[type.ordinal()]) return;
+		bounds[type.ordinal()] = value;
+		if (bottleneckNames != null) bottleneckNames[type.ordinal()] = name;
+	}
+	
+	/**
+	 * Get the list of tasks in the order of the arrays of the calculation.<br>
+	 * The tasks in a cycle are not included.
+	 * @return unmodifiable list
+	 */
+	List<BaseTask> getTaskList() {
+		return Collections.unmodifiableList(taskList);
+	}
+	
+	/**
+	 * Convert the bound to the time.
+	 * @param bound
+	 * @return Integer.MAX_VALUE if the bound is too large
+	 */
+	static int toTime(double bound) {
+		return bound >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) bound;
+	}
+	
+	/**
+	 * Get the min number of time steps for performing "workAmount" by "rate".<br>
+	 * At least one time step is needed even if the work amount is 0.
+	 * @param workAmount
+	 * @param rate
+	 * @return Double.POSITIVE_INFINITY if the rate is 0
+	 */
+	private static double getNumOfTimeSteps(double workAmount, double rate) {
+		if (workAmount <= 0) return 1;
+		if (rate <= 0) return Double.POSITIVE_INFINITY;
+		return Math.max(1, Math.ceil(workAmount / rate - EPSILON));
+	}
+	
+	/**
+	 * Get the skill point of "skill" in "skillMap".
+	 * @param skillMap
+	 * @param skill
+	 * @return 0 if the skill is not found or negative
+	 */
+	private static double getSkillPoint(Map<String, Double> skillMap, String skill) {
+		Double skillPoint = skillMap.get(skill);
+		return (skillPoint == null || skillPoint <= 0) ? 0 : skillPoint;
+	}
+	
+	/**
+	 * Sort the tasks of a workflow topologically. The tasks in a cycle or depending on a cycle are not included.
+	 * @param workflowTaskList
+	 * @return positions of the sorted tasks in "workflowTaskList"
+	 */
+	private static int[] sortTopologically(List<BaseTask> workflowTaskList) {
+		int[] inDegrees = new int[workflowTaskList.size()];
+		int[] sortedPositions = new int[workflowTaskList.size()];
+		int numOfSortedTasks = 0;
+		for (int position = 0; position < workflowTaskList.size(); position++) {
+			inDegrees[position] = workflowTaskList.get(position).getTemplate().getInputTaskPositions().length;
+			if (inDegrees[position] == 0) sortedPositions[numOfSortedTasks++] = position;
+		}
+		for (int i = 0; i < numOfSortedTasks; i++) {
+			for (int output : workflowTaskList.get(sortedPositions[i]).getTemplate().getOutputTaskPositions()) {
+				if (--inDegrees[output] == 0) sortedPositions[numOfSortedTasks++] = output;
+			}
+		}
+		return Arrays.copyOf(sortedPositions, numOfSortedTasks);
+	}
+	
+	/**
+	 * This is the rates and costs of the resources of a team for a skill.
+	 */
+	private static class TeamSkill {
+		private double workerRate = 0; // sum of the work amount skill points of the workers
+		private double minCostPerSkillPoint = Double.POSITIVE_INFINITY; // min "cost / work amount skill point" of the workers
+		private double facilityRate = 0; // max work amount skill point of the facilities
+		private double minFacilityCost = Double.POSITIVE_INFINITY; // min cost of the facilities
+		private final List<BaseFacility> facilityList = new ArrayList<BaseFacility>(); // facilities which have the skill
+		
+		private TeamSkill(BaseTeam team, String skill) {
+			for (BaseWorker worker : team.getWorkerList()) {
+				double skillPoint = getSkillPoint(worker.getWorkAmountSkillMap(), skill);
+				if (skillPoint <= 0) continue;
+				workerRate += skillPoint;
+				minCostPerSkillPoint = Math.min(minCostPerSkillPoint, worker.getCostPerTime() / skillPoint);
+			}
+			for (BaseFacility facility : team.getFacilityList()) {
+				double skillPoint = getSkillPoint(facility.getWorkAmountSkillMap(), skill);
+				if (skillPoint <= 0) continue;
+				facilityRate = Math.max(facilityRate, skillPoint);
+				minFacilityCost = Math.min(minFacilityCost, facility.getCostPerTime());
+				facilityList.add(facility);
+			}
+		}
+	}
+	
+	/**
+	 * This is the tasks and the resources of a skill (task name).
+	 */
+	private static class SkillGroup {
+		private final List<Integer> taskIndexList = new ArrayList<Integer>();
+		private final List<Integer> facilityTaskIndexList = new ArrayList<Integer>(); // tasks which need a facility
+		private final Set<TeamSkill> teamSkillSet = Collections.newSetFromMap(new IdentityHashMap<TeamSkill, Boolean>());
+		private final Set<TeamSkill> facilityTeamSkillSet = Collections.newSetFromMap(new IdentityHashMap<TeamSkill, Boolean>()); // teams of the tasks which need a facility
+		private double facilityRate = 0; // max multiplier of the work amount by a facility
+	}
+	
+	/**
+	 * This is the set of tasks which share the same limited resources.
+	 */
+	private static class CapacityGroup {
+		private final BoundType type;
+		private final String name;
+		private final int[] taskIndexes;
+		private final double capacity; // max work amount per time step, or the number of facilities
+		
+		private CapacityGroup(BoundType type, String name, List<Integer> taskIndexList, double capacity) {
+			this.type = type;
+			this.name = name;
+			this.taskIndexes = taskIndexList.stream().mapToInt(i -> i).toArray();
+			this.capacity = capacity;
+		}
+	}
+}
@@ -0,0 +1,748 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.pdes.rcp.model.ProjectDiagram;
+import org.pdes.simulator.model.base.BaseProjectInfo;
+
+/**
+ * This is the optimizer of the organization (e.g. the number of workers of each team and the allocation of tasks to teams) by the simulator.<br>
+ * The search space is the combinations of the values of the axes (see ParameterAxis), and it is searched by the genetic algorithm or the simulated annealing.
+ * The fitness of a candidate is the mean of "total cost + tardinessPenalty * max(0, duration - deadline)" of the runs, so the lower is the better.<br>
+ * The candidates of a generation are evaluated in parallel, and the fitness of the candidate which was evaluated before is got from the fitness cache.
+ * The runs of a candidate are cut off early if the candidate is clearly dominated by the best candidate of the previous generations,
+ * that is, the lower confidence bound of its fitness is higher than the best fitness.
+ * In addition, a run is cut off by SimulationCutoff as soon as its cost or its duration proves that the candidate cannot be better than the best candidate,
+ * and a candidate is not simulated at all if its analytical lower bounds (see ProjectBoundAnalyzer) prove it or it cannot be finished.
+ * The best fitness used for the cut off is not changed in a generation, so the result does not depend on the number of threads.<br>
+ * Run i of every candidate draws the same random numbers (common random numbers, see ReplicationSampling).
+ * The base diagram is changed temporarily while a candidate is built, so it should not be the diagram which is opened in the editor.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class OrganizationOptimizer<S extends PDES_AbstractSimulator> {
+	
+	public static final double DEFAULT_TARDINESS_PENALTY = 1.0e6;
+	
+	private final ProjectDiagram diagram;
+	private final Function<ProjectDiagram, ? extends BaseProjectInfo> projectFactory;
+	private final Function<BaseProjectInfo, S> simulatorFactory;
+	private final ReplicationSampling sampling;
+	private final List<ParameterAxis> axisList = new ArrayList<ParameterAxis>();
+	
+	// Objective
+	private int deadline = Integer.MAX_VALUE;
+	private double tardinessPenalty = DEFAULT_TARDINESS_PENALTY; // penalty per time of tardiness
+	
+	// Evaluation
+	private int numOfRuns = 10; // the number of runs of each candidate
+	private int minRunsBeforeCutoff = 3; // candidates are not cut off before this number of runs
+	private double cutoffZ = 2.0; // the lower confidence bound is "mean - cutoffZ * standard error"
+	private boolean runCutoff = true; // whether a run is cut off by SimulationCutoff or not
+	private boolean analyticalPruning = true; // whether a candidate is skipped by ProjectBoundAnalyzer or not
+	
+	// Genetic algorithm
+	private double crossoverRate = 0.9;
+	private double mutationRate = -1; // mutation rate of each gene (1 / the number of axes if negative)
+	private int tournamentSize = 2;
+	
+	//Other
+	private final Random random;
+	private final Map<String, Evaluation> fitnessCache = new LinkedHashMap<String, Evaluation>(); // all evaluated candidates
+	private int cacheHitCount = 0;
+	private int cutoffCount = 0;
+	private int prunedCount = 0;
+	private int totalRunCount = 0;
+	
+	// Result
+	private Evaluation best = null;
+	private List<Double> bestFitnessHistory = new ArrayList<Double>(); // best fitness of each generation (or step)
+	
+	/**
+	 * This is the constructor.
+	 * @param diagram base diagram of all candidates
+	 * @param projectFactory function for building the project model from the diagram
+	 * @param simulatorFactory function for creating the simulator of the project model
+	 * @param sampling
+	 * @param seed seed of the random numbers of the search
+	 */
+	public OrganizationOptimizer(ProjectDiagram diagram, Function<ProjectDiagram, ? extends BaseProjectInfo> projectFactory, Function<BaseProjectInfo, S> simulatorFactory, ReplicationSampling sampling, long seed) {
+		this.diagram = diagram;
+		this.projectFactory = projectFactory;
+		this.simulatorFactory = simulatorFactory;
+		this.sampling = sampling;
+		this.random = new Random(seed);
+	}
+	
+	/**
+	 * Add the axis of the search space.
+	 * @param axis
+	 */
+	public void addAxis(ParameterAxis axis) {
+		axisList.add(axis);
+	}
+	
+	/**
+	 * Check whether the targets of all axes are found in the base diagram.
+	 * @return the list of problems (empty if the optimization can be executed)
+	 */
+	public List<String> check() {
+		List<String> problemList = new ArrayList<String>();
+		synchronized (diagram) {
+			for (ParameterAxis axis : axisList) {
+				if (axis.size() == 0) {
+					problemList.add(String.format("Axis \"%s\" has no value.", axis.getName()));
+					continue;
+				}
+				Runnable revert = axis.apply(diagram, 0);
+				if (revert == null) problemList.add(String.format("Target of axis \"%s\" is not found.", axis.getName()));
+				else revert.run();
+			}
+		}
+		return problemList;
+	}
+	
+	/**
+	 * Search the best candidate by the genetic algorithm.<br>
+	 * The next generation is created by the tournament selection, the uniform crossover and the mutation which changes a gene to a random value.
+	 * The best candidate of each generation survives (elitism).
+	 * @param populationSize
+	 * @param numOfGenerations
+	 * @param service
+	 * @return the list of problems which prevented the optimization (empty if the optimization is finished)
+	 */
+	public List<String> optimizeByGeneticAlgorithm(int populationSize, int numOfGenerations, ExecutorService service) {
+		List<String> problemList = start();
+		if (!problemList.isEmpty()) return problemList;
+		double geneMutationRate = mutationRate < 0 ? 1.0 / Math.max(1, axisList.size()) : mutationRate;
+		List<int[]> population = new ArrayList<int[]>();
+		population.add(new int[axisList.size()]);
+		while (population.size() < populationSize) population.add(createRandomGenome());
+		
+		for (int generation = 0; generation < numOfGenerations; generation++) {
+			List<Evaluation> evaluationList = evaluate(population, service, problemList);
+			if (evaluationList == null) return problemList;
+			evaluationList.forEach(e -> updateBest(e));
+			bestFitnessHistory.add(getBestFitness());
+			if (generation == numOfGenerations - 1) break;
+			
+			List<int[]> nextPopulation = new ArrayList<int[]>();
+			if (best != null) nextPopulation.add(best.genome.clone());
+			while (nextPopulation.size() < populationSize) {
+				int[] parent1 = selectByTournament(evaluationList).genome;
+				int[] parent2 = selectByTournament(evaluationList).genome;
+				int[] child = parent1.clone();
+				if (random.nextDouble() < crossoverRate) {
+					for (int g = 0; g < child.length; g++) if (random.nextBoolean()) child[g] = parent2[g];
+				}
+				for (int g = 0; g < child.length; g++) {
+					if (random.nextDouble() < geneMutationRate) child[g] = random.nextInt(axisList.get(g).size());
+				}
+				nextPopulation.add(child);
+			}
+			population = nextPopulation;
+		}
+		return problemList;
+	}
+	
+	/**
+	 * Search the best candidate by the simulated annealing.<br>
+	 * In each step, "numOfNeighbors" neighbors which change a gene of the current candidate are evaluated in parallel,
+	 * and the best neighbor is accepted by the Metropolis criterion. The temperature is multiplied by "coolingRate" in each step.
+	 * A neighbor which was cut off is never accepted (see getSearchFitness()).
+	 * @param numOfSteps
+	 * @param numOfNeighbors
+	 * @param initialTemperature temperature in the unit of the fitness
+	 * @param coolingRate
+	 * @param service
+	 * @return the list of problems which prevented the optimization (empty if the optimization is finished)
+	 */
+	public List<String> optimizeBySimulatedAnnealing(int numOfSteps, int numOfNeighbors, double initialTemperature, double coolingRate, ExecutorService service) {
+		List<String> problemList = start();
+		if (!problemList.isEmpty()) return problemList;
+		List<Evaluation> initialEvaluation = evaluate(Arrays.asList(new int[axisList.size()]), service, problemList);
+		if (initialEvaluation == null) return problemList;
+		Evaluation current = initialEvaluation.get(0);
+		updateBest(current);
+		double temperature = initialTemperature;
+		for (int step = 0; step < numOfSteps; step++) {
+			List<int[]> neighborList = new ArrayList<int[]>();
+			for (int i = 0; i < numOfNeighbors; i++) neighborList.add(createNeighbor(current.genome));
+			List<Evaluation> evaluationList = evaluate(neighborList, service, problemList);
+			if (evaluationList == null) return problemList;
+			Evaluation candidate = evaluationList.stream().min((e1, e2) -> Double.compare(getSearchFitness(e1), getSearchFitness(e2))).get();
+			double delta = getSearchFitness(candidate) - getSearchFitness(current);
+			if (delta <= 0 || (temperature > 0 && random.nextDouble() < Math.exp(-delta / temperature))) current = candidate;
+			evaluationList.forEach(e -> updateBest(e));
+			bestFitnessHistory.add(getBestFitness());
+			temperature *= coolingRate;
+		}
+		return problemList;
+	}
+	
+	/**
+	 * Search the best candidate by the genetic algorithm with a new thread pool which has threads as many as available processors.
+	 * @param populationSize
+	 * @param numOfGenerations
+	 * @return the list of problems which prevented the optimization (empty if the optimization is finished)
+	 */
+	public List<String> optimizeByGeneticAlgorithm(int populationSize, int numOfGenerations) {
+		ExecutorService service = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			return optimizeByGeneticAlgorithm(populationSize, numOfGenerations, service);
+		} finally {
+			service.shutdown();
+		}
+	}
+	
+	/**
+	 * Search the best candidate by the simulated annealing with a new thread pool which has threads as many as available processors.
+	 * @param numOfSteps
+	 * @param numOfNeighbors
+	 * @param initialTemperature
+	 * @param coolingRate
+	 * @return the list of problems which prevented the optimization (empty if the optimization is finished)
+	 */
+	public List<String> optimizeBySimulatedAnnealing(int numOfSteps, int numOfNeighbors, double initialTemperature, double coolingRate) {
+		ExecutorService service = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			return optimizeBySimulatedAnnealing(numOfSteps, numOfNeighbors, initialTemperature, coolingRate, service);
+		} finally {
+			service.shutdown();
+		}
+	}
+	
+	/**
+	 * Check the axes and reset the result and the fitness cache of the previous optimization.<br>
+	 * The fitness cache is reset because the runs of the candidates were cut off by the best fitness of the previous optimization.
+	 * @return the list of problems (empty if the optimization can be executed)
+	 */
+	private List<String> start() {
+		List<String> problemList = check();
+		if (!problemList.isEmpty()) return problemList;
+		best = null;
+		bestFitnessHistory = new ArrayList<Double>();
+		fitnessCache.clear();
+		cacheHitCount = 0;
+		cutoffCount = 0;
+		prunedCount = 0;
+		totalRunCount = 0;
+		return problemList;
+	}
+	
+	/**
+	 * Evaluate the candidates in parallel. The candidates which were evaluated before are got from the fitness cache.
+	 * @param genomeList
+	 * @param service
+	 * @param problemList the list which the problem is added to if the evaluation failed
+	 * @return the evaluation of each candidate (null if the evaluation failed)
+	 */
+	private List<Evaluation> evaluate(List<int[]> genomeList, ExecutorService service, List<String> problemList) {
+		double bound = best == null ? Double.POSITIVE_INFINITY : best.fitness;
+		Map<String, Future<Evaluation>> futureMap = new LinkedHashMap<String, Future<Evaluation>>();
+		for (int[] genome : genomeList) {
+			String key = Arrays.toString(genome);
+			if (fitnessCache.containsKey(key) || futureMap.containsKey(key)) {
+				cacheHitCount++;
+				continue;
+			}
+			futureMap.put(key, service.submit(new EvaluationTask(genome.clone(), bound)));
+		}
+		try {
+			for (Map.Entry<String, Future<Evaluation>> entry : futureMap.entrySet()) {
+				Evaluation evaluation = entry.getValue().get();
+				fitnessCache.put(entry.getKey(), evaluation);
+				totalRunCount += evaluation.runCount;
+				if (evaluation.cutoff) cutoffCount++;
+				if (evaluation.cutoff && evaluation.runCount == 0) prunedCount++;
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			e.printStackTrace();
+			problemList.add(String.format("Simulation failed: %s", e.getMessage()));
+			return null;
+		}
+		List<Evaluation> evaluationList = new ArrayList<Evaluation>();
+		for (int[] genome : genomeList) evaluationList.add(fitnessCache.get(Arrays.toString(genome)));
+		return evaluationList;
+	}
+	
+	/**
+	 * Update the best candidate. A candidate which was cut off is not the best because its runs were not finished.
+	 * @param evaluation
+	 */
+	private void updateBest(Evaluation evaluation) {
+		if (evaluation.cutoff) return;
+		if (best == null || evaluation.fitness < best.fitness) best = evaluation;
+	}
+	
+	/**
+	 * Get the fitness for the selection and the acceptance of the search.<br>
+	 * The fitness of a candidate which was cut off is only a lower bound or a partial mean,
+	 * so it is rejected as if it were infinite instead of being compared with the fully evaluated candidates.
+	 * @param evaluation
+	 * @return
+	 */
+	private static double getSearchFitness(Evaluation evaluation) {
+		return evaluation.cutoff ? Double.POSITIVE_INFINITY : evaluation.fitness;
+	}
+	
+	/**
+	 * Select the best candidate of randomly chosen "tournamentSize" candidates.
+	 * @param evaluationList
+	 * @return
+	 */
+	private Evaluation selectByTournament(List<Evaluation> evaluationList) {
+		Evaluation selected = null;
+		for (int i = 0; i < tournamentSize; i++) {
+			Evaluation e = evaluationList.get(random.nextInt(evaluationList.size()));
+			if (selected == null || getSearchFitness(e) < getSearchFitness(selected)) selected = e;
+		}
+		return selected;
+	}
+	
+	/**
+	 * Create the genome which has a random value of each axis.
+	 * @return
+	 */
+	private int[] createRandomGenome() {
+		int[] genome = new int[axisList.size()];
+		for (int g = 0; g < genome.length; g++) genome[g] = random.nextInt(axisList.get(g).size());
+		return genome;
+	}
+	
+	/**
+	 * Create the neighbor of "genome" which has another value of a randomly chosen axis.
+	 * @param genome
+	 * @return
+	 */
+	private int[] createNeighbor(int[] genome) {
+		int[] neighbor = genome.clone();
+		List<Integer> changeableAxisList = new ArrayList<Integer>();
+		for (int g = 0; g < genome.length; g++) if (axisList.get(g).size() > 1) changeableAxisList.add(g);
+		if (changeableAxisList.isEmpty()) return neighbor;
+		int g = changeableAxisList.get(random.nextInt(changeableAxisList.size()));
+		int value = random.nextInt(axisList.get(g).size() - 1);
+		neighbor[g] = value >= genome[g] ? value + 1 : value;
+		return neighbor;
+	}
+	
+	/**
+	 * Build the project model and the simulator of the candidate.<br>
+	 * The values of the candidate are set to the base diagram only while the project model is built.
+	 * @param genome value index of each axis
+	 * @return
+	 */
+	private SimulationContext<S> build(int[] genome) {
+		synchronized (diagram) {
+			Runnable revert = ParameterAxis.applyAll(diagram, axisList, genome);
+			try {
+				return new SimulationContext<S>(projectFactory.apply(diagram), simulatorFactory);
+			} finally {
+				if (revert != null) revert.run();
+			}
+		}
+	}
+	
+	/**
+	 * Get the value of the axis "axisIndex" of the best candidate.
+	 * @param axisIndex
+	 * @return
+	 */
+	public double getBestParameterValue(int axisIndex) {
+		return axisList.get(axisIndex).getValues()[best.genome[axisIndex]];
+	}
+	
+	/**
+	 * Set the values of the best candidate to "diagram" permanently.
+	 * @param diagram diagram which has the same teams, resources and tasks as the base diagram
+	 * @return false if no candidate was evaluated or the target of some axis is not found in "diagram"
+	 */
+	public boolean applyBest(ProjectDiagram diagram) {
+		if (best == null) return false;
+		return ParameterAxis.applyAll(diagram, axisList, best.genome) != null;
+	}
+	
+	/**
+	 * Save all evaluated candidates by csv format.
+	 * @param outputDirName
+	 * @param resultFileName
+	 */
+	public void saveResultFileByCsv(String outputDirName, String resultFileName){
+		File resultFile = new File(outputDirName, resultFileName);
+		String separator = ",";
+		try {
+			// BOM
+			FileOutputStream os = new FileOutputStream(resultFile);
+			os.write(0xef);
+			os.write(0xbb);
+			os.write(0xbf);
+			
+			PrintWriter pw = new PrintWriter(new BufferedWriter(new OutputStreamWriter(os)));
+			List<String> header = new ArrayList<String>();
+			header.add("Candidate");
+			axisList.forEach(axis -> header.add(axis.getName()));
+			header.addAll(Arrays.asList("Runs", "Cut Off", "Mean Cost", "Mean Duration", "Fitness", "Best"));
+			pw.println(String.join(separator, header));
+			int no = 0;
+			for (Evaluation e : fitnessCache.values()) {
+				List<String> row = new ArrayList<String>();
+				row.add(String.valueOf(no++));
+				for (int a = 0; a < axisList.size(); a++) row.add(String.valueOf(axisList.get(a).getValues()[e.genome[a]]));
+				row.add(String.valueOf(e.runCount));
+				row.add(String.valueOf(e.cutoff));
+				row.add(String.valueOf(e.meanCost));
+				row.add(String.valueOf(e.meanDuration));
+				row.add(String.valueOf(e.fitness));
+				row.add(String.valueOf(e == best));
+				pw.println(String.join(separator, row));
+			}
+			pw.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Get the fitness of the best candidate.
+	 * @return Double.POSITIVE_INFINITY if no candidate was evaluated
+	 */
+	public double getBestFitness() {
+		return best == null ? Double.POSITIVE_INFINITY : best.fitness;
+	}
+	
+	/**
+	 * Get the mean cost of the best candidate.
+	 * @return
+	 */
+	public double getBestMeanCost() {
+		return best == null ? 0 : best.meanCost;
+	}
+	
+	/**
+	 * Get the mean duration of the best candidate.
+	 * @return
+	 */
+	public double getBestMeanDuration() {
+		return best == null ? 0 : best.meanDuration;
+	}
+	
+	/**
+	 * Get the best fitness of each generation (or each step of the simulated annealing).
+	 * @return the bestFitnessHistory
+	 */
+	public List<Double> getBestFitnessHistory() {
+		return bestFitnessHistory;
+	}
+	
+	/**
+	 * Get the number of evaluated candidates.
+	 * @return
+	 */
+	public int getNumOfEvaluatedCandidates() {
+		return fitnessCache.size();
+	}
+	
+	/**
+	 * Get the number of candidates which were got from the fitness cache.
+	 * @return the cacheHitCount
+	 */
+	public int getCacheHitCount() {
+		return cacheHitCount;
+	}
+	
+	/**
+	 * Get the number of candidates which runs were cut off.
+	 * @return the cutoffCount
+	 */
+	public int getCutoffCount() {
+		return cutoffCount;
+	}
+	
+	/**
+	 * Get the number of candidates which were skipped without simulation by their analytical lower bounds.
+	 * @return the prunedCount
+	 */
+	public int getPrunedCount() {
+		return prunedCount;
+	}
+	
+	/**
+	 * Get the total number of runs of all evaluated candidates.
+	 * @return the totalRunCount
+	 */
+	public int getTotalRunCount() {
+		return totalRunCount;
+	}
+	
+	/**
+	 * Get the list of axes.
+	 * @return the axisList
+	 */
+	public List<ParameterAxis> getAxisList() {
+		return axisList;
+	}
+	
+	/**
+	 * Set the deadline of the project.
+	 * @param deadline
+	 */
+	public void setDeadline(int deadline) {
+		this.deadline = deadline;
+	}
+	
+	/**
+	 * Get the deadline of the project.
+	 * @return the deadline
+	 */
+	public int getDeadline() {
+		return deadline;
+	}
+	
+	/**
+	 * Set the penalty per time of tardiness.
+	 * @param tardinessPenalty
+	 */
+	public void setTardinessPenalty(double tardinessPenalty) {
+		this.tardinessPenalty = tardinessPenalty;
+	}
+	
+	/**
+	 * Get the penalty per time of tardiness.
+	 * @return the tardinessPenalty
+	 */
+	public double getTardinessPenalty() {
+		return tardinessPenalty;
+	}
+	
+	/**
+	 * Set the number of runs of each candidate.
+	 * @param numOfRuns
+	 */
+	public void setNumOfRuns(int numOfRuns) {
+		this.numOfRuns = numOfRuns;
+	}
+	
+	/**
+	 * Get the number of runs of each candidate.
+	 * @return the numOfRuns
+	 */
+	public int getNumOfRuns() {
+		return numOfRuns;
+	}
+	
+	/**
+	 * Set the number of runs before the runs of a candidate can be cut off.
+	 * @param minRunsBeforeCutoff
+	 */
+	public void setMinRunsBeforeCutoff(int minRunsBeforeCutoff) {
+		this.minRunsBeforeCutoff = minRunsBeforeCutoff;
+	}
+	
+	/**
+	 * Set the coefficient of the standard error of the lower confidence bound for the cut off.<br>
+	 * The runs are not cut off if it is Double.POSITIVE_INFINITY.
+	 * @param cutoffZ
+	 */
+	public void setCutoffZ(double cutoffZ) {
+		this.cutoffZ = cutoffZ;
+	}
+	
+	/**
+	 * Set whether a run is cut off as soon as it proves that the candidate is dominated (see SimulationCutoff).
+	 * @param runCutoff
+	 */
+	public void setRunCutoff(boolean runCutoff) {
+		this.runCutoff = runCutoff;
+	}
+	
+	/**
+	 * Set whether a candidate is skipped without simulation if its analytical lower bound of the fitness proves that it is dominated (see ProjectBoundAnalyzer).
+	 * @param analyticalPruning
+	 */
+	public void setAnalyticalPruning(boolean analyticalPruning) {
+		this.analyticalPruning = analyticalPruning;
+	}
+	
+	/**
+	 * Set the crossover rate of the genetic algorithm.
+	 * @param crossoverRate
+	 */
+	public void setCrossoverRate(double crossoverRate) {
+		this.crossoverRate = crossoverRate;
+	}
+	
+	/**
+	 * Set the mutation rate of each gene of the genetic algorithm (1 / the number of axes if negative).
+	 * @param mutationRate
+	 */
+	public void setMutationRate(double mutationRate) {
+		this.mutationRate = mutationRate;
+	}
+	
+	/**
+	 * Set the tournament size of the genetic algorithm.
+	 * @param tournamentSize
+	 */
+	public void setTournamentSize(int tournamentSize) {
+		this.tournamentSize = Math.max(1, tournamentSize);
+	}
+	
+	/**
+	 * This is the evaluation of a candidate.
+	 */
+	private static class Evaluation {
+		private final int[] genome;
+		private int runCount = 0;
+		private boolean cutoff = false;
+		private double meanCost = 0;
+		private double meanDuration = 0;
+		private double fitness = 0;
+		
+		private Evaluation(int[] genome) {
+			this.genome = genome;
+		}
+	}
+	
+	/**
+	 * This is the concurrent callable class for evaluating a candidate by another thread.<br>
+	 * The candidate is not simulated at all if its analytical lower bound of the fitness is infinite or exceeds "bound".
+	 * The runs are stopped if the candidate is infeasible (stopped by the watchdog) or clearly dominated by "bound".
+	 * Each run is cut off if its fitness exceeds the budget "bound * numOfRuns - the sum of the fitness of the previous runs",
+	 * because the mean fitness exceeds "bound" in that case.
+	 */
+	private class EvaluationTask implements Callable<Evaluation> {
+		
+		private final int[] genome;
+		private final double bound;
+		
+		/**
+		 * This is the constructor.
+		 * @param genome
+		 * @param bound best fitness of the previous generations
+		 */
+		private EvaluationTask(int[] genome, double bound) {
+			this.genome = genome;
+			this.bound = bound;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public Evaluation call() throws Exception {
+			Evaluation evaluation = new Evaluation(genome);
+			SimulationContext<S> context = build(genome);
+			BaseProjectInfo project = context.getProject();
+			if (analyticalPruning) {
+				ProjectBoundAnalyzer analyzer = new ProjectBoundAnalyzer(project);
+				double fitnessLowerBound = analyzer.isFeasible() ? analyzer.getCostLowerBound() + tardinessPenalty * Math.max(0, (double) analyzer.getDurationLowerBound() - deadline) : Double.POSITIVE_INFINITY;
+				if (fitnessLowerBound == Double.POSITIVE_INFINITY || fitnessLowerBound > bound) {
+					evaluation.cutoff = true;
+					evaluation.meanCost = analyzer.getCostLowerBound();
+					evaluation.meanDuration = analyzer.getDurationLowerBound();
+					evaluation.fitness = fitnessLowerBound;
+					return evaluation;
+				}
+			}
+			double sumOfCost = 0, sumOfDuration = 0, sumOfFitness = 0, sumOfSquaredFitness = 0;
+			for (int run = 0; run < numOfRuns; run++) {
+				sampling.setUp(project, run);
+				setRunCutoff(context.getSimulator().getCutoff(), bound * numOfRuns - sumOfFitness);
+				S sim = context.run();
+				int n = run + 1;
+				if (sim.getCutoff().isCutOff()) {
+					SimulationCutoff cutoff = sim.getCutoff();
+					evaluation.runCount = n;
+					evaluation.cutoff = true;
+					evaluation.meanCost = (sumOfCost + cutoff.getCostLowerBound()) / n;
+					evaluation.meanDuration = (sumOfDuration + cutoff.getDurationLowerBound()) / n;
+					evaluation.fitness = (sumOfFitness + cutoff.getCostLowerBound() + tardinessPenalty * Math.max(0, cutoff.getDurationLowerBound() - deadline)) / n;
+					return evaluation;
+				}
+				if (sim.getWatchdog().isStopped()) {
+					evaluation.runCount = n;
+					evaluation.cutoff = true;
+					evaluation.meanCost = project.getTotalCost();
+					evaluation.meanDuration = project.getDuration();
+					evaluation.fitness = Double.POSITIVE_INFINITY;
+					return evaluation;
+				}
+				double fitness = project.getTotalCost() + tardinessPenalty * Math.max(0, project.getDuration() - deadline);
+				sumOfCost += project.getTotalCost();
+				sumOfDuration += project.getDuration();
+				sumOfFitness += fitness;
+				sumOfSquaredFitness += fitness * fitness;
+				evaluation.runCount = n;
+				evaluation.meanCost = sumOfCost / n;
+				evaluation.meanDuration = sumOfDuration / n;
+				evaluation.fitness = sumOfFitness / n;
+				if (n >= minRunsBeforeCutoff && n < numOfRuns) {
+					double variance = Math.max(0, (sumOfSquaredFitness - n * evaluation.fitness * evaluation.fitness) / Math.max(1, n - 1));
+					if (evaluation.fitness - cutoffZ * Math.sqrt(variance / n) > bound) {
+						evaluation.cutoff = true;
+						return evaluation;
+					}
+				}
+			}
+			return evaluation;
+		}
+		
+		/**
+		 * Set the thresholds of "cutoff" so that the run is cut off if its fitness exceeds "budget".
+		 * @param cutoff
+		 * @param budget
+		 */
+		private void setRunCutoff(SimulationCutoff cutoff, double budget) {
+			cutoff.disable();
+			if (!runCutoff || budget == Double.POSITIVE_INFINITY) return;
+			cutoff.setMaxCost(budget);
+			if (deadline < Integer.MAX_VALUE && tardinessPenalty > 0) {
+				cutoff.setMaxDuration((int) Math.min(Integer.MAX_VALUE - 1, deadline + Math.floor(Math.max(0, budget) / tardinessPenalty)));
+			}
+		}
+	}
+}
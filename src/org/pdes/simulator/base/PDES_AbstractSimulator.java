@@ -35,11 +35,21 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import org.pdes.simulator.base.priority.BasicResourcePriorityRule;
+import org.pdes.simulator.base.priority.BasicTaskPriorityRule;
+import org.pdes.simulator.base.priority.ResourcePool;
+import org.pdes.simulator.base.priority.ResourcePriorityRule;
+import org.pdes.simulator.base.priority.TaskPriorityQueue;
+import org.pdes.simulator.base.priority.TaskPriorityRule;
 import org.pdes.simulator.model.base.BaseFacility;
 import org.pdes.simulator.model.base.BaseOrganization;
 import org.pdes.simulator.model.base.BaseProduct;
@@ -58,11 +68,23 @@ public abstract class PDES_AbstractSimulator {
 	protected final List<BaseWorkflow> workflowList;
 	protected final BaseOrganization organization;
 	protected final List<BaseProduct> productList;
+	protected final List<BaseTask> allTaskList;
 	protected final int concurrencyWorkflowLimit;
+	protected final TaskPriorityQueue taskPriorityQueue;
+	protected final ResourcePool<BaseWorker> workerPool;
+	protected final ResourcePool<BaseFacility> facilityPool;
+	protected WorkerAssignmentMatrix workerAssignmentMatrix = null; // only for multi-task worker simulation
+	protected ParallelWorkflowExecutor parallelWorkflowExecutor = null; // null if workflows are performed sequentially
+	protected final SimulationWatchdog watchdog = new SimulationWatchdog();
+	protected final SimulationCutoff cutoff = new SimulationCutoff();
+	private DurationLowerBound durationLowerBound = null; // created when it is used at first
+	private final LongAdder progressCount = new LongAdder(); // the sum of progress counts of all tasks, increased by the tasks (possibly in parallel)
 	
 	protected int time = 0;
+	protected int pauseTime = Integer.MAX_VALUE; // resume() returns at the beginning of this time step
 	
 	protected boolean considerReworkOfErrorTorelance = false;
+	protected boolean geometricErrorSampling = false;
 	
 	/**
 	 * This is the constructor.
@@ -77,12 +99,27 @@ public abstract class PDES_AbstractSimulator {
 		this.organization = project.getOrganization();
 		this.productList = project.getProductList();
 		this.concurrencyWorkflowLimit = project.getConcurrencyWorkflowLimit();
+		this.allTaskList = project.getTaskList();
+		this.taskPriorityQueue = new TaskPriorityQueue(allTaskList, BasicTaskPriorityRule.DUE_DATE_AND_SLACK);
+		this.workerPool = new ResourcePool<BaseWorker>(organization.getWorkerList(), BasicResourcePriorityRule.SSP);
+		this.facilityPool = new ResourcePool<BaseFacility>(organization.getFacilityList(), BasicResourcePriorityRule.SSP);
+		allTaskList.forEach(t -> t.addProgressListener(progressCount::increment));
 	}
 	
 	/**
-	 * Execute simulator.
+	 * Execute simulator.<br>
+	 * If the pause time is set, the simulation is paused at the beginning of the pause time step and can be continued by resume().
 	 */
-	abstract public void execute();
+	public void execute() {
+		this.initialize();
+		this.resume();
+	}
+	
+	/**
+	 * Continue the simulation from the current time until all tasks are finished, the simulation is stopped or the simulation is paused.<br>
+	 * This is called by execute() after initialize(), or after restoring a snapshot (see SimulationSnapshot).
+	 */
+	abstract public void resume();
 
 	/**
 	 * Get the time.
@@ -97,9 +134,16 @@ public abstract class PDES_AbstractSimulator {
 	 */
 	public void initialize(){
 		this.time = 0;
+		allTaskList.forEach(t -> t.setGeometricErrorSampling(geometricErrorSampling));
 		workflowList.forEach(w -> w.initialize());
 		organization.initialize();
 		productList.forEach(p -> p.initialize());
+		workerPool.initialize();
+		facilityPool.initialize();
+		workerAssignmentMatrix = null;
+		watchdog.start();
+		cutoff.start();
+		resetProgressCount();
 	}
 	
 	/**
@@ -110,6 +154,80 @@ public abstract class PDES_AbstractSimulator {
 		return workflowList.stream().allMatch(w -> w.isFinished());
 	}
 	
+	/**
+	 * Check whether this simulation has to be stopped by the watchdog or not.<br>
+	 * This is checked at the beginning of each time step, and the reason is got by getWatchdog().getStopMessage().
+	 * @return TRUE if nothing progresses for a long time, or the simulation exceeds the limit of time
+	 */
+	public boolean checkSimulationIsStopped(){
+		return watchdog.check(time, progressCount.sum());
+	}
+	
+	/**
+	 * Reset the running progress count to the sum of the progress counts of all tasks.<br>
+	 * This has to be called when the progress counts of tasks are set without notification (e.g. restoring a snapshot).
+	 */
+	void resetProgressCount(){
+		progressCount.reset();
+		for (BaseTask task : allTaskList) progressCount.add(task.getProgressCount());
+	}
+	
+	/**
+	 * Check whether this run has to be cut off or not.<br>
+	 * This is checked at the beginning of each time step after checking the watchdog, and the censored result is got by getCutoff().
+	 * @return TRUE if the cost or the duration of this run cannot be lower than the thresholds of the cutoff
+	 */
+	public boolean checkSimulationIsCutOff(){
+		if (!cutoff.isEnabled()) return false;
+		return cutoff.check(time, this::getAccumulatedCost, this::getDurationLowerBound);
+	}
+	
+	/**
+	 * Get the labor cost of all resources until the last time step.
+	 * @return
+	 */
+	public double getAccumulatedCost(){
+		double cost = 0;
+		for (BaseWorker worker : organization.getWorkerList()) cost += worker.getCostUntil(time - 1);
+		for (BaseFacility facility : organization.getFacilityList()) cost += facility.getCostUntil(time - 1);
+		return cost;
+	}
+	
+	/**
+	 * Get the lower bound of the duration of this run from the current state (see DurationLowerBound).
+	 * @return
+	 */
+	public int getDurationLowerBound(){
+		if (durationLowerBound == null) durationLowerBound = new DurationLowerBound(project);
+		return durationLowerBound.getLowerBoundOfDuration(time);
+	}
+	
+	/**
+	 * Check whether this simulation has to be paused at this time or not.
+	 * @return TRUE if this time reaches the pause time
+	 */
+	public boolean checkSimulationIsPaused(){
+		return time >= pauseTime;
+	}
+	
+	/**
+	 * Take the snapshot of the whole state of this simulation at this time.<br>
+	 * This is called while the simulation is paused, and the continuations can be simulated by restoring it to this or other simulators.
+	 * @return
+	 */
+	public SimulationSnapshot takeSnapshot(){
+		return new SimulationSnapshot(this);
+	}
+	
+	/**
+	 * Restore "snapshot" to this simulator, so that the continuation is simulated by resume().
+	 * @param snapshot
+	 * @return TRUE if restored, FALSE if the project or organization of this simulator is not compatible with the snapshot
+	 */
+	public boolean restoreSnapshot(SimulationSnapshot snapshot){
+		return snapshot.restore(this);
+	}
+	
 	/**
 	 * Get the list of READY tasks.
 	 * @return
@@ -140,59 +258,88 @@ public abstract class PDES_AbstractSimulator {
 	
 	
 	/**
-	 * Sort Tasks as followings:<br>
+	 * Get the list of READY tasks sorted by the task priority rule.
+	 * @return
+	 */
+	public List<BaseTask> getSortedReadyTaskList(){
+		return taskPriorityQueue.getReadyTaskList(time);
+	}
+	
+	/**
+	 * Get the list of READY and WORKING tasks sorted by the task priority rule.
+	 * @return
+	 */
+	public List<BaseTask> getSortedReadyAndWorkingTaskList(){
+		return taskPriorityQueue.getReadyAndWorkingTaskList(time);
+	}
+	
+	/**
+	 * Sort Tasks by the task priority rule.<br>
+	 * In default, tasks are sorted as followings:<br>
 	 * 1. Due date<br>
 	 * 2. TSLACK (a task which Slack time(LS-ES) is lower has high priority)
 	 * @param resourceList
 	 */
 	public void sortTasks(List<BaseTask> taskList){
-		taskList.sort((t1, t2) -> {
-			int dd1 = t1.getDueDate();
-			int dd2 = t2.getDueDate();
-			if (dd1 < dd2) return -1;
-			if (dd1 > dd2) return 1;
-			double slack1 = t1.getLst() - t1.getEst();
-			double slack2 = t2.getLst() - t2.getEst();
-			return Double.compare(slack1, slack2);
-		});
+		TaskPriorityRule rule = this.getTaskPriorityRule();
+		taskList.sort((t1, t2) -> rule.compare(t1, t2, time));
+	}
+	
+	/**
+	 * Get the list of all workers sorted by the worker priority rule.
+	 * @return
+	 */
+	public List<BaseWorker> getSortedWorkerList(){
+		return workerPool.getResourceList();
 	}
 	
 	/**
-	 * Sort Worker as followings:<br>
+	 * Get the list of free workers sorted by the worker priority rule.
+	 * @return
+	 */
+	public List<BaseWorker> getSortedFreeWorkerList(){
+		return workerPool.getFreeResourceList();
+	}
+	
+	/**
+	 * Get the list of free facilities sorted by the facility priority rule.
+	 * @return
+	 */
+	public List<BaseFacility> getSortedFreeFacilityList(){
+		return facilityPool.getFreeResourceList();
+	}
+	
+	/**
+	 * Sort Worker by the worker priority rule.<br>
+	 * In default, workers are sorted as followings:<br>
 	 * 1. SSP (a resource which amount of skill point is lower has high priority)
 	 * @param resourceList
 	 */
 	public void sortWorkers(List<BaseWorker> resourceList){
-		resourceList.sort((w1, w2) -> {
-			double sp1 = w1.getTotalWorkAmountSkillPoint();
-			double sp2 = w2.getTotalWorkAmountSkillPoint();
-			return Double.compare(sp1, sp2);
-		});
+		ResourcePriorityRule rule = workerPool.getRule();
+		resourceList.sort((w1, w2) -> Double.compare(rule.getKey(w1), rule.getKey(w2)));
 	}
 	
 	/**
-	 * Sort Facilities as followings:<br>
+	 * Sort Facilities by the facility priority rule.<br>
+	 * In default, facilities are sorted as followings:<br>
 	 * 1. SSP (a resource which amount of skill point is lower has high priority)
 	 * @param resourceList
 	 */
 	public void sortFacilities(List<BaseFacility> resourceList){
-		resourceList.sort((w1, w2) -> {
-			double sp1 = w1.getTotalWorkAmountSkillPoint();
-			double sp2 = w2.getTotalWorkAmountSkillPoint();
-			return Double.compare(sp1, sp2);
-		});
+		ResourcePriorityRule rule = facilityPool.getRule();
+		resourceList.sort((f1, f2) -> Double.compare(rule.getKey(f1), rule.getKey(f2)));
 	}
 	
 	/**
 	 * Allocate ready tasks to free workers and facilities if necessary.<br>
 	 * This method is only for single-task worker simulator.
 	 * @param time 
-	 * @param readyTaskList
+	 * @param readyTaskList sorted by the task priority rule
 	 * @param freeWorkerList
 	 * @param freeFacilityList
 	 */
 	public void allocateReadyTasksToFreeResourcesForSingleTaskWorkerSimulation(List<BaseTask> readyTaskList, List<BaseWorker> freeWorkerList, List<BaseFacility> freeFacilityList){
-		this.sortTasks(readyTaskList);
 		readyTaskList.stream().forEachOrdered(task -> {
 			if(this.checkSatisfyingWorkflowLimitForStartingTask(task)){
 				Optional<BaseWorker> availableWorker = freeWorkerList.stream().filter(w -> w.hasSkill(task)).findFirst();
@@ -218,12 +365,11 @@ public abstract class PDES_AbstractSimulator {
 	 * Allocate ready tasks to free workers and facilities if necessary.<br>
 	 * This method is only for single-task workers simulator.
 	 * @param time 
-	 * @param readyAndWorkingTaskList
+	 * @param readyAndWorkingTaskList sorted by the task priority rule
 	 * @param freeWorkerList
 	 * @param freeFacilityList
 	 */
 	public void allocateReadyTasksToFreeResourcesForSingleTaskWorkersSimulation(List<BaseTask> readyAndWorkingTaskList, List<BaseWorker> freeWorkerList, List<BaseFacility> freeFacilityList){
-		this.sortTasks(readyAndWorkingTaskList);
 		readyAndWorkingTaskList.stream().forEachOrdered(task -> {
 			if(this.checkSatisfyingWorkflowLimitForStartingTask(task)){
 				List<BaseWorker> allocatingWorkers = freeWorkerList.stream().filter(w -> w.hasSkill(task)).collect(Collectors.toList());
@@ -248,25 +394,28 @@ public abstract class PDES_AbstractSimulator {
 	/**
 	 * Allocate ready and working tasks to all workers and free facilities if necessary.<br>
 	 * This method is only for multi-task worker simulation.
-	 * @param readyTaskAndWorkingTaskList
+	 * @param readyTaskAndWorkingTaskList sorted by the task priority rule
 	 * @param allWorkerList
 	 * @param freeFacilityList
 	 */
 	public void allocateTaskToResourcesForMultiTaskWorkerSimulation(List<BaseTask> readyTaskAndWorkingTaskList, List<BaseWorker> allWorkerList, List<BaseFacility> freeFacilityList) {
+		if (workerAssignmentMatrix == null || !workerAssignmentMatrix.isBuiltFor(allWorkerList)) {
+			workerAssignmentMatrix = new WorkerAssignmentMatrix(project.getTaskList(), allWorkerList);
+		}
 		readyTaskAndWorkingTaskList.stream().forEachOrdered(task->{
 			if(this.checkSatisfyingWorkflowLimitForStartingTask(task)){
-				allWorkerList.stream().filter(w -> w.hasSkill(task)).forEach(w -> {
-					if(!task.isAlreadyAssigned(w)) {
-						if (task.isNeedFacility()) {
-							Optional<BaseFacility> availableFacility = freeFacilityList.stream().filter(f -> f.hasSkill(task)).findFirst();
-							availableFacility.ifPresent(facility -> {
-								task.addAllocatedWorker(w);
-								task.setAllocatedFacility(facility);
-								freeFacilityList.remove(facility);
-							});
-						}else {
+				workerAssignmentMatrix.getAssignableWorkerList(task).forEach(w -> {
+					if (task.isNeedFacility()) {
+						Optional<BaseFacility> availableFacility = freeFacilityList.stream().filter(f -> f.hasSkill(task)).findFirst();
+						availableFacility.ifPresent(facility -> {
 							task.addAllocatedWorker(w);
-						}
+							task.setAllocatedFacility(facility);
+							workerAssignmentMatrix.setAssigned(task, w);
+							freeFacilityList.remove(facility);
+						});
+					}else {
+						task.addAllocatedWorker(w);
+						workerAssignmentMatrix.setAssigned(task, w);
 					}
 				});
 			}
@@ -279,15 +428,60 @@ public abstract class PDES_AbstractSimulator {
 	 * @param componentErrorRework 
 	 */
 	public void performAndUpdateAllWorkflow(int time, boolean componentErrorRework){
+		if (parallelWorkflowExecutor != null) {
+			performAndUpdateAllWorkflowInParallel(time, componentErrorRework);
+			return;
+		}
 		workflowList.forEach(w -> w.checkWorking(time));//READY -> WORKING
-		organization.getWorkingWorkerList().stream().forEach(w -> w.addLaborCost());//pay labor cost
-		organization.getWorkingFacilityList().stream().forEach(f -> f.addLaborCost());//pay labor cost
 		workflowList.forEach(w -> w.perform(time, componentErrorRework));//update information of WORKING task in each workflow
 		workflowList.forEach(w -> w.checkFinished(time));// WORKING -> WORKING_ADDITIONALLY or FINISHED
 		workflowList.forEach(w -> w.checkReady(time));// NONE -> READY
 		workflowList.forEach(w -> w.updatePERTData(time));//Update PERT information
 	}
 	
+	/**
+	 * Perform and update all workflow in this time by ParallelWorkflowExecutor.<br>
+	 * Each phase is performed for each workflow in parallel because it only changes the tasks and components of the workflow.
+	 * The changes of shared resources are applied after each phase in the order of workflows and tasks,
+	 * so the result is the same as performAndUpdateAllWorkflow() in sequential.
+	 * @param time
+	 * @param componentErrorRework
+	 */
+	private void performAndUpdateAllWorkflowInParallel(int time, boolean componentErrorRework){
+		//READY -> WORKING
+		List<BaseTask> startedTaskList = parallelWorkflowExecutor.collect(workflowList, w -> w.getTaskList().stream()
+				.filter(t -> t.updateStateToWorking(time))
+				.collect(Collectors.toList()));
+		startedTaskList.forEach(t -> t.startAllocatedResources(time));
+		
+		parallelWorkflowExecutor.forEach(workflowList, w -> w.perform(time, componentErrorRework));//update information of WORKING task in each workflow
+		
+		// WORKING -> WORKING_ADDITIONALLY or FINISHED
+		List<BaseTask> finishedTaskList = parallelWorkflowExecutor.collect(workflowList, w -> w.getTaskList().stream()
+				.filter(t -> t.updateStateToFinished(time))
+				.collect(Collectors.toList()));
+		// In sequential, the tasks which are not released yet are still unfinished when a worker is checked.
+		Set<BaseTask> unreleasedTaskSet = new HashSet<>(finishedTaskList);
+		finishedTaskList.forEach(task -> {
+			unreleasedTaskSet.remove(task);
+			task.finishAllocatedResources(time, t -> t != task && (unreleasedTaskSet.contains(t) || t.getStateInt() < 4));
+		});
+		
+		parallelWorkflowExecutor.forEach(workflowList, w -> {
+			w.checkReady(time);// NONE -> READY
+			w.updatePERTData(time);//Update PERT information
+		});
+	}
+	
+	/**
+	 * Pay labor cost of resources which are still working at the end of simulation.<br>
+	 * Labor cost of each resource is paid for each working interval, so this has to be called before getting total cost.
+	 */
+	public void finalizeLaborCost(){
+		organization.getWorkerList().forEach(w -> w.finalizeLaborCost(time - 1));
+		organization.getFacilityList().forEach(f -> f.finalizeLaborCost(time - 1));
+	}
+	
 	/**
 	 * Check if this task can start by considering workflow limit.
 	 * @param task
@@ -342,6 +536,14 @@ public abstract class PDES_AbstractSimulator {
 			
 			// header
 			pw.println(String.join(separator, new String[]{"Total Cost", String.valueOf(project.getTotalCost()), "Duration", String.valueOf(project.getDuration()+1), "Total Work Amount", String.valueOf(project.getTotalActualWorkAmount())}));
+			if (watchdog.isStopped()) {
+				pw.println(String.join(separator, new String[]{"Stopped", watchdog.getStopReason().toString(), watchdog.getStopMessage()}));
+				pw.println(String.join(separator, new String[]{"Unfinished Task", String.join(separator, allTaskList.stream().filter(t -> !t.isFinished()).map(BaseTask::toString).toArray(String[]::new))}));
+			}
+			if (cutoff.isCutOff()) {
+				pw.println(String.join(separator, new String[]{"Cut Off", cutoff.getCutoffReason().toString(), cutoff.getCutoffMessage()}));
+				pw.println(String.join(separator, new String[]{"Lower Bound of Total Cost", String.valueOf(cutoff.getCostLowerBound()), "Lower Bound of Duration", String.valueOf(cutoff.getDurationLowerBound()+1)}));
+			}
 			
 			// workflow
 			pw.println();
@@ -355,10 +557,13 @@ public abstract class PDES_AbstractSimulator {
 					baseInfo.add(t.getName());
 					//baseInfo.add(t.getAllocatedTeam().getName());
 					baseInfo.add(t.getAllocatedTeamList().stream().map(BaseTeam::getName).collect(Collectors.joining("+")));
-					IntStream.range(0, t.getFinishTimeList().size()).forEach(i -> {
-						baseInfo.add(String.valueOf(t.getReadyTimeList().get(i)));
-						baseInfo.add(String.valueOf(t.getStartTimeList().get(i)));
-						baseInfo.add(String.valueOf(t.getFinishTimeList().get(i)));
+					int[] readyTimes = t.getReadyTimeStream().toArray();
+					int[] startTimes = t.getStartTimeStream().toArray();
+					int[] finishTimes = t.getFinishTimeStream().toArray();
+					IntStream.range(0, finishTimes.length).forEach(i -> {
+						baseInfo.add(String.valueOf(readyTimes[i]));
+						baseInfo.add(String.valueOf(startTimes[i]));
+						baseInfo.add(String.valueOf(finishTimes[i]));
 					});
 					pw.println(String.join(separator ,baseInfo.stream().toArray(String[]::new)));
 				});
@@ -375,9 +580,11 @@ public abstract class PDES_AbstractSimulator {
 					baseInfo.add(productName);
 					baseInfo.add(c.getName());
 					baseInfo.add(String.valueOf(c.getError())+"/"+String.valueOf(c.getErrorTolerance()));
-					IntStream.range(0, c.getFinishTimeList().size()).forEach(i -> {
-						baseInfo.add(String.valueOf(c.getStartTimeList().get(i)));
-						baseInfo.add(String.valueOf(c.getFinishTimeList().get(i)));
+					int[] startTimes = c.getStartTimeStream().toArray();
+					int[] finishTimes = c.getFinishTimeStream().toArray();
+					IntStream.range(0, finishTimes.length).forEach(i -> {
+						baseInfo.add(String.valueOf(startTimes[i]));
+						baseInfo.add(String.valueOf(finishTimes[i]));
 					});
 					pw.println(String.join(separator ,baseInfo.stream().toArray(String[]::new)));
 				});
@@ -395,9 +602,11 @@ public abstract class PDES_AbstractSimulator {
 					baseInfo.add(teamName);
 					baseInfo.add("Worker");
 					baseInfo.add(w.getName());
+					int[] startTimes = w.getStartTimeStream().toArray();
+					int[] finishTimes = w.getFinishTimeStream().toArray();
 					IntStream.range(0, w.getAssignedTaskList().size()).forEach(i -> {
-						baseInfo.add(String.valueOf(w.getStartTimeList().get(i)));
-						baseInfo.add(String.valueOf(w.getFinishTimeList().get(i)));
+						baseInfo.add(String.valueOf(startTimes[i]));
+						baseInfo.add(String.valueOf(finishTimes[i]));
 					});
 					pw.println(String.join(separator, baseInfo.stream().toArray(String[]::new)));
 				});
@@ -408,9 +617,11 @@ public abstract class PDES_AbstractSimulator {
 					baseInfo.add(teamName);
 					baseInfo.add("Facility");
 					baseInfo.add(w.getName());
-					IntStream.range(0, w.getFinishTimeList().size()).forEach(i -> {
-						baseInfo.add(String.valueOf(w.getStartTimeList().get(i)));
-						baseInfo.add(String.valueOf(w.getFinishTimeList().get(i)));
+					int[] startTimes = w.getStartTimeStream().toArray();
+					int[] finishTimes = w.getFinishTimeStream().toArray();
+					IntStream.range(0, finishTimes.length).forEach(i -> {
+						baseInfo.add(String.valueOf(startTimes[i]));
+						baseInfo.add(String.valueOf(finishTimes[i]));
 					});
 					pw.println(String.join(separator, baseInfo.stream().toArray(String[]::new)));
 				});
@@ -423,6 +634,108 @@ public abstract class PDES_AbstractSimulator {
 		}
 	}
 	
+	/**
+	 * Get the time step at which this simulation is paused.
+	 * @return the pauseTime (Integer.MAX_VALUE if this simulation is not paused)
+	 */
+	public int getPauseTime() {
+		return pauseTime;
+	}
+
+	/**
+	 * Set the time step at which this simulation is paused.<br>
+	 * execute() and resume() return at the beginning of "pauseTime" without finalizing labor cost, so a snapshot can be taken at this time.
+	 * For continuing the simulation, set Integer.MAX_VALUE (default) or a later time and call resume().
+	 * @param pauseTime
+	 */
+	public void setPauseTime(int pauseTime) {
+		this.pauseTime = pauseTime;
+	}
+	
+	/**
+	 * Get the watchdog of this simulation for setting the limits and getting the reason of stopping.
+	 * @return the watchdog
+	 */
+	public SimulationWatchdog getWatchdog() {
+		return watchdog;
+	}
+	
+	/**
+	 * Get the cutoff of this simulation for setting the thresholds and getting the censored result.
+	 * @return the cutoff
+	 */
+	public SimulationCutoff getCutoff() {
+		return cutoff;
+	}
+	
+	/**
+	 * Get the rule for deciding the priority of tasks.
+	 * @return
+	 */
+	public TaskPriorityRule getTaskPriorityRule() {
+		return taskPriorityQueue.getRule();
+	}
+
+	/**
+	 * Set the rule for deciding the priority of tasks.
+	 * @param taskPriorityRule
+	 */
+	public void setTaskPriorityRule(TaskPriorityRule taskPriorityRule) {
+		taskPriorityQueue.setRule(taskPriorityRule);
+	}
+	
+	/**
+	 * Get the rule for deciding the priority of workers.
+	 * @return
+	 */
+	public ResourcePriorityRule getWorkerPriorityRule() {
+		return workerPool.getRule();
+	}
+
+	/**
+	 * Set the rule for deciding the priority of workers.
+	 * @param workerPriorityRule
+	 */
+	public void setWorkerPriorityRule(ResourcePriorityRule workerPriorityRule) {
+		workerPool.setRule(workerPriorityRule);
+	}
+	
+	/**
+	 * Get the rule for deciding the priority of facilities.
+	 * @return
+	 */
+	public ResourcePriorityRule getFacilityPriorityRule() {
+		return facilityPool.getRule();
+	}
+
+	/**
+	 * Set the rule for deciding the priority of facilities.
+	 * @param facilityPriorityRule
+	 */
+	public void setFacilityPriorityRule(ResourcePriorityRule facilityPriorityRule) {
+		facilityPool.setRule(facilityPriorityRule);
+	}
+	
+	/**
+	 * Get the ForkJoinPool for performing workflows in parallel.
+	 * @return the pool, or null if workflows are performed sequentially
+	 */
+	public ForkJoinPool getWorkflowExecutionPool() {
+		return parallelWorkflowExecutor == null ? null : parallelWorkflowExecutor.getPool();
+	}
+	
+	/**
+	 * Set the ForkJoinPool for performing workflows in parallel.<br>
+	 * If "pool" is null (default), workflows are performed sequentially.
+	 * The result is the same in both modes, so this is worth only when there are a lot of workflows (e.g. aggregate mode).
+	 * The pool is not shut down by this simulator.
+	 * @param pool
+	 */
+	public void setWorkflowExecutionPool(ForkJoinPool pool) {
+		this.parallelWorkflowExecutor = pool == null ? null : new ParallelWorkflowExecutor(pool);
+		taskPriorityQueue.setConcurrent(pool != null);
+	}
+	
 	/**
 	 * Check whether this simulator considers rework of error tolerance or not.
 	 * @return the considerReworkOfErrorTorelance
@@ -438,4 +751,22 @@ public abstract class PDES_AbstractSimulator {
 	public void setConsiderReworkOfErrorTorelance(boolean considerReworkOfErrorTorelance) {
 		this.considerReworkOfErrorTorelance = considerReworkOfErrorTorelance;
 	}
+
+	/**
+	 * Check whether the ticks before the next error of components are sampled by geometric distribution or not.
+	 * @return the geometricErrorSampling
+	 */
+	public boolean isGeometricErrorSampling() {
+		return geometricErrorSampling;
+	}
+
+	/**
+	 * Set the simulation condition whether the ticks before the next error of components are sampled by geometric distribution or not.<br>
+	 * If TRUE, random numbers are drawn only when an error occurs or allocated resources are changed, instead of each tick.
+	 * The statistics of errors are the same as the default sampling.
+	 * @param geometricErrorSampling the geometricErrorSampling to set
+	 */
+	public void setGeometricErrorSampling(boolean geometricErrorSampling) {
+		this.geometricErrorSampling = geometricErrorSampling;
+	}
 }
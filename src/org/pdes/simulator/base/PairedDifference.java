@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+/**
+ * This is the paired difference of one result value between a scenario and the base scenario.<br>
+ * The difference is calculated for each run, and the confidence interval of the mean difference is given by Student's t-distribution.
+ * If the runs are correlated in blocks (antithetic pairs or Latin hypercube strata, see ReplicationSampling),
+ * the differences are averaged in each block and the interval is given by the means of complete blocks with "blocks - 1" degrees of freedom.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class PairedDifference {
+	
+	// two-sided 95% quantiles of Student's t-distribution for 1 to 30 degrees of freedom
+	private static final double[] T_QUANTILES_95 = {
+			12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+			2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+			2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042,
+	};
+	private static final double Z_QUANTILE_95 = 1.960;
+	
+	private final String scenarioName;
+	private final String baseScenarioName;
+	private final String valueName;
+	private final int numOfRuns;
+	private final int numOfBlocks;
+	private final double mean;
+	private final double standardDeviation;
+	private final double halfWidth;
+	
+	/**
+	 * This is the constructor for independent runs.
+	 * @param scenarioName
+	 * @param baseScenarioName
+	 * @param valueName
+	 * @param values values of the scenario in each run
+	 * @param baseValues values of the base scenario in each run
+	 */
+	public PairedDifference(String scenarioName, String baseScenarioName, String valueName, double[] values, double[] baseValues) {
+		this(scenarioName, baseScenarioName, valueName, values, baseValues, 1);
+	}
+	
+	/**
+	 * This is the constructor for runs correlated in blocks.<br>
+	 * Only complete blocks are used.
+	 * @param scenarioName
+	 * @param baseScenarioName
+	 * @param valueName
+	 * @param values values of the scenario in each run
+	 * @param baseValues values of the base scenario in each run
+	 * @param blockSize the number of runs in a block (see ReplicationSampling#getBlockSize())
+	 */
+	public PairedDifference(String scenarioName, String baseScenarioName, String valueName, double[] values, double[] baseValues, int blockSize) {
+		this.scenarioName = scenarioName;
+		this.baseScenarioName = baseScenarioName;
+		this.valueName = valueName;
+		int size = Math.max(1, blockSize);
+		this.numOfBlocks = values.length / size;
+		this.numOfRuns = numOfBlocks * size;
+		double[] blockMeans = new double[numOfBlocks];
+		for (int i = 0; i < numOfRuns; i++) blockMeans[i / size] += (values[i] - baseValues[i]) / size;
+		double sum = 0;
+		for (int b = 0; b < numOfBlocks; b++) sum += blockMeans[b];
+		this.mean = numOfBlocks > 0 ? sum / numOfBlocks : 0;
+		double squaredSum = 0;
+		for (int b = 0; b < numOfBlocks; b++) {
+			double d = blockMeans[b] - mean;
+			squaredSum += d * d;
+		}
+		this.standardDeviation = numOfBlocks > 1 ? Math.sqrt(squaredSum / (numOfBlocks - 1)) : 0;
+		this.halfWidth = numOfBlocks > 1 ? getTQuantile95(numOfBlocks - 1) * standardDeviation / Math.sqrt(numOfBlocks) : Double.POSITIVE_INFINITY;
+	}
+	
+	/**
+	 * Get the two-sided 95% quantile of Student's t-distribution.<br>
+	 * The quantile of the normal distribution is used for more than 30 degrees of freedom.
+	 * @param degreesOfFreedom
+	 * @return
+	 */
+	private static double getTQuantile95(int degreesOfFreedom) {
+		return degreesOfFreedom <= T_QUANTILES_95.length ? T_QUANTILES_95[degreesOfFreedom - 1] : Z_QUANTILE_95;
+	}
+	
+	/**
+	 * Check whether the difference is significant or not.
+	 * @return TRUE if the 95% confidence interval does not include 0
+	 */
+	public boolean isSignificant() {
+		return getLowerBound() > 0 || getUpperBound() < 0;
+	}
+
+	/**
+	 * Get the name of the scenario.
+	 * @return the scenarioName
+	 */
+	public String getScenarioName() {
+		return scenarioName;
+	}
+
+	/**
+	 * Get the name of the base scenario.
+	 * @return the baseScenarioName
+	 */
+	public String getBaseScenarioName() {
+		return baseScenarioName;
+	}
+
+	/**
+	 * Get the name of the compared value.
+	 * @return the valueName
+	 */
+	public String getValueName() {
+		return valueName;
+	}
+
+	/**
+	 * Get the number of runs in complete blocks.
+	 * @return the numOfRuns
+	 */
+	public int getNumOfRuns() {
+		return numOfRuns;
+	}
+
+	/**
+	 * Get the mean of the differences.
+	 * @return the mean
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * Get the number of blocks. This is the same as the number of runs if the runs are independent.
+	 * @return the numOfBlocks
+	 */
+	public int getNumOfBlocks() {
+		return numOfBlocks;
+	}
+
+	/**
+	 * Get the sample standard deviation of the differences (of the means of blocks if the runs are correlated in blocks).
+	 * @return the standardDeviation
+	 */
+	public double getStandardDeviation() {
+		return standardDeviation;
+	}
+
+	/**
+	 * Get the half width of the 95% confidence interval of the mean difference.
+	 * @return the halfWidth
+	 */
+	public double getHalfWidth() {
+		return halfWidth;
+	}
+	
+	/**
+	 * Get the lower bound of the 95% confidence interval of the mean difference.
+	 * @return
+	 */
+	public double getLowerBound() {
+		return mean - halfWidth;
+	}
+	
+	/**
+	 * Get the upper bound of the 95% confidence interval of the mean difference.
+	 * @return
+	 */
+	public double getUpperBound() {
+		return mean + halfWidth;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s - %s (%s): %f [%f, %f] (n=%d)", scenarioName, baseScenarioName, valueName, mean, getLowerBound(), getUpperBound(), numOfRuns);
+	}
+}
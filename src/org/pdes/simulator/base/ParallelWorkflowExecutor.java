@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.pdes.simulator.model.base.BaseWorkflow;
+
+/**
+ * This is the executor of workflow-local phases of simulation on ForkJoinPool.<br>
+ * The list of workflows is split into sub ranges recursively, and each workflow is processed by only one thread.
+ * Results of each workflow are merged in the order of the list of workflows,
+ * so the caller can apply the changes of shared resources in the same order as sequential execution.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class ParallelWorkflowExecutor {
+	
+	private static final int SPLITS_PER_THREAD = 4;
+	
+	private final ForkJoinPool pool;
+	
+	/**
+	 * This is the constructor.
+	 * @param pool
+	 */
+	public ParallelWorkflowExecutor(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+	
+	/**
+	 * Apply "action" to all workflows in parallel.
+	 * @param workflowList
+	 * @param action
+	 */
+	public void forEach(List<BaseWorkflow> workflowList, Consumer<BaseWorkflow> action) {
+		Function<BaseWorkflow, List<Object>> function = w -> {
+			action.accept(w);
+			return null;
+		};
+		pool.invoke(new WorkflowAction<>(workflowList, function, null, 0, workflowList.size(), getThreshold(workflowList.size())));
+	}
+	
+	/**
+	 * Apply "function" to all workflows in parallel and merge the results in the order of "workflowList".
+	 * @param workflowList
+	 * @param function
+	 * @return the merged list of results
+	 */
+	public <T> List<T> collect(List<BaseWorkflow> workflowList, Function<BaseWorkflow, List<T>> function) {
+		int n = workflowList.size();
+		List<List<T>> resultList = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) resultList.add(null);
+		pool.invoke(new WorkflowAction<>(workflowList, function, resultList, 0, n, getThreshold(n)));
+		List<T> mergedList = new ArrayList<>();
+		resultList.forEach(r -> mergedList.addAll(r));
+		return mergedList;
+	}
+	
+	/**
+	 * Get the ForkJoinPool.
+	 * @return the pool
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+	
+	/**
+	 * Get the number of workflows which are processed sequentially in one sub range.
+	 * @param numOfWorkflow
+	 * @return
+	 */
+	private int getThreshold(int numOfWorkflow) {
+		return Math.max(1, numOfWorkflow / (pool.getParallelism() * SPLITS_PER_THREAD));
+	}
+	
+	/**
+	 * This is the action to process a sub range of the list of workflows.
+	 */
+	private static class WorkflowAction<T> extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		private final List<BaseWorkflow> workflowList;
+		private final Function<BaseWorkflow, List<T>> function;
+		private final List<List<T>> resultList; // null if results are not needed
+		private final int from;
+		private final int to;
+		private final int threshold;
+		
+		/**
+		 * This is the constructor.
+		 * @param workflowList
+		 * @param function
+		 * @param resultList
+		 * @param from inclusive
+		 * @param to exclusive
+		 * @param threshold
+		 */
+		private WorkflowAction(List<BaseWorkflow> workflowList, Function<BaseWorkflow, List<T>> function, List<List<T>> resultList, int from, int to, int threshold) {
+			this.workflowList = workflowList;
+			this.function = function;
+			this.resultList = resultList;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			if (to - from <= threshold) {
+				for (int i = from; i < to; i++) {
+					List<T> result = function.apply(workflowList.get(i));
+					if (resultList != null) resultList.set(i, result);
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new WorkflowAction<>(workflowList, function, resultList, from, middle, threshold),
+					new WorkflowAction<>(workflowList, function, resultList, middle, to, threshold));
+		}
+	}
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import org.pdes.rcp.model.AllocationLink;
+import org.pdes.rcp.model.ProjectDiagram;
+import org.pdes.rcp.model.TaskNode;
+import org.pdes.rcp.model.TeamNode;
+import org.pdes.rcp.model.WorkerElement;
+import org.pdes.rcp.model.base.Link;
+import org.pdes.rcp.model.base.ResourceElement;
+
+/**
+ * This is the axis of ParameterSweep.<br>
+ * An axis has the name, the list of values and the function which sets a value to the project diagram.
+ * The function returns the action for reverting the change, so that all variants of a sweep are derived from one base diagram.<br>
+ * The changes of resources replace the list or the map of ProjectDiagram instead of modifying them,
+ * because the project models which were built before still refer to them.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class ParameterAxis {
+	
+	private final String name;
+	private final double[] values;
+	private final BiFunction<ProjectDiagram, Double, Runnable> applier; // returns the action for reverting the change (null if the target is not found)
+	
+	/**
+	 * This is the constructor.
+	 * @param name name of this axis (used as the column name of the result file)
+	 * @param values
+	 * @param applier function which sets the value to the diagram and returns the action for reverting it (null if the target is not found)
+	 */
+	public ParameterAxis(String name, double[] values, BiFunction<ProjectDiagram, Double, Runnable> applier) {
+		this.name = name;
+		this.values = values.clone();
+		this.applier = applier;
+	}
+	
+	/**
+	 * Create the axis of the number of workers of the team "teamName".<br>
+	 * The first "count" workers of the team are used. If "count" is larger than the number of workers,
+	 * the copies of the last worker (named "name#k") are added.
+	 * @param teamName
+	 * @param counts
+	 * @return
+	 */
+	public static ParameterAxis workerCount(String teamName, int... counts) {
+		return new ParameterAxis(teamName + " Workers", toDoubleArray(counts), (diagram, value) -> {
+			TeamNode team = getTeamNode(diagram, teamName);
+			if (team == null) return null;
+			List<WorkerElement> workerList = team.getWorkerList();
+			int count = Math.max(0, value.intValue());
+			if (count > workerList.size() && workerList.isEmpty()) return null;
+			List<WorkerElement> newWorkerList = new ArrayList<WorkerElement>(workerList.subList(0, Math.min(count, workerList.size())));
+			WorkerElement last = workerList.isEmpty() ? null : workerList.get(workerList.size() - 1);
+			for (int k = 1; newWorkerList.size() < count; k++) {
+				WorkerElement worker = new WorkerElement();
+				worker.setId(last.getId() == null ? null : last.getId() + "#" + k);
+				worker.setParentNodeElement(team);
+				worker.setName(last.getName() + "#" + k);
+				worker.setCost(last.getCost());
+				worker.setWorkAmountSkillMap(new HashMap<String, Double>(last.getWorkAmountSkillMap()));
+				worker.setQualitySkillMap(new HashMap<String, Double>(last.getQualitySkillMap()));
+				newWorkerList.add(worker);
+			}
+			team.setWorkerList(newWorkerList);
+			return () -> team.setWorkerList(workerList);
+		});
+	}
+	
+	/**
+	 * Create the axis of the work amount skill level of the resource "resourceName" for the task "taskName".<br>
+	 * The quality skill level 0.0 is added if the resource does not have the quality skill of the task.
+	 * @param teamName
+	 * @param resourceName name of the worker or the facility
+	 * @param taskName
+	 * @param levels
+	 * @return
+	 */
+	public static ParameterAxis workAmountSkill(String teamName, String resourceName, String taskName, double... levels) {
+		return new ParameterAxis(resourceName + " " + taskName + " Work Amount Skill", levels, (diagram, value) -> {
+			ResourceElement resource = getResourceElement(diagram, teamName, resourceName);
+			if (resource == null) return null;
+			Map<String, Double> skillMap = resource.getWorkAmountSkillMap();
+			Map<String, Double> newSkillMap = new HashMap<String, Double>(skillMap);
+			newSkillMap.put(taskName, value);
+			resource.setWorkAmountSkillMap(newSkillMap);
+			Map<String, Double> qualitySkillMap = resource.getQualitySkillMap();
+			if (!qualitySkillMap.containsKey(taskName)) {
+				Map<String, Double> newQualitySkillMap = new HashMap<String, Double>(qualitySkillMap);
+				newQualitySkillMap.put(taskName, 0.0);
+				resource.setQualitySkillMap(newQualitySkillMap);
+			}
+			return () -> {
+				resource.setWorkAmountSkillMap(skillMap);
+				resource.setQualitySkillMap(qualitySkillMap);
+			};
+		});
+	}
+	
+	/**
+	 * Create the axis of the quality skill level of the resource "resourceName" for the task "taskName".
+	 * @param teamName
+	 * @param resourceName name of the worker or the facility
+	 * @param taskName
+	 * @param levels
+	 * @return
+	 */
+	public static ParameterAxis qualitySkill(String teamName, String resourceName, String taskName, double... levels) {
+		return new ParameterAxis(resourceName + " " + taskName + " Quality Skill", levels, (diagram, value) -> {
+			ResourceElement resource = getResourceElement(diagram, teamName, resourceName);
+			if (resource == null) return null;
+			Map<String, Double> skillMap = resource.getQualitySkillMap();
+			Map<String, Double> newSkillMap = new HashMap<String, Double>(skillMap);
+			newSkillMap.put(taskName, value);
+			resource.setQualitySkillMap(newSkillMap);
+			return () -> resource.setQualitySkillMap(skillMap);
+		});
+	}
+	
+	/**
+	 * Create the axis of the cost of the resource "resourceName".
+	 * @param teamName
+	 * @param resourceName name of the worker or the facility
+	 * @param costs
+	 * @return
+	 */
+	public static ParameterAxis cost(String teamName, String resourceName, double... costs) {
+		return new ParameterAxis(resourceName + " Cost", costs, (diagram, value) -> {
+			ResourceElement resource = getResourceElement(diagram, teamName, resourceName);
+			if (resource == null) return null;
+			double cost = resource.getCost();
+			resource.setCost(value);
+			return () -> resource.setCost(cost);
+		});
+	}
+	
+	/**
+	 * Create the axis of the work amount of the task "taskName".
+	 * @param taskName
+	 * @param workAmounts
+	 * @return
+	 */
+	public static ParameterAxis workAmount(String taskName, int... workAmounts) {
+		return new ParameterAxis(taskName + " Work Amount", toDoubleArray(workAmounts), (diagram, value) -> {
+			TaskNode task = diagram.getTaskNodeList().stream().filter(t -> t.getName().equals(taskName)).findFirst().orElse(null);
+			if (task == null) return null;
+			int workAmount = task.getWorkAmount();
+			task.setWorkAmount(value.intValue());
+			return () -> task.setWorkAmount(workAmount);
+		});
+	}
+	
+	/**
+	 * Create the axis of the concurrency limit of workflows.
+	 * @param limits
+	 * @return
+	 */
+	public static ParameterAxis concurrencyLimit(int... limits) {
+		return new ParameterAxis("Concurrency Limit", toDoubleArray(limits), (diagram, value) -> {
+			int limit = diagram.getConcurrencyLimitOfWorkflow();
+			diagram.setConcurrencyLimitOfWorkflow(value.intValue());
+			return () -> diagram.setConcurrencyLimitOfWorkflow(limit);
+		});
+	}
+	
+	/**
+	 * Create the axis of the allocation of the task "taskName" to the teams "teamNames".<br>
+	 * The value is the bit mask of the allocated teams (bit k is teamNames[k]), and all non-empty combinations are the values of this axis.
+	 * The allocation links from the other teams are not changed.
+	 * @param taskName
+	 * @param teamNames
+	 * @return
+	 */
+	public static ParameterAxis allocation(String taskName, String... teamNames) {
+		double[] masks = new double[(1 << teamNames.length) - 1];
+		for (int i = 0; i < masks.length; i++) masks[i] = i + 1;
+		return new ParameterAxis(taskName + " Allocation", masks, (diagram, value) -> {
+			TaskNode task = diagram.getTaskNodeList().stream().filter(t -> t.getName().equals(taskName)).findFirst().orElse(null);
+			if (task == null) return null;
+			List<TeamNode> teamList = new ArrayList<TeamNode>();
+			for (String teamName : teamNames) {
+				TeamNode team = getTeamNode(diagram, teamName);
+				if (team == null) return null;
+				teamList.add(team);
+			}
+			List<Link> incomingLinkList = task.getIncomingLinkList();
+			List<List<Link>> outgoingLinkListOfTeams = teamList.stream().map(team -> team.getOutgoingLinkList()).collect(Collectors.toList());
+			List<Link> newIncomingLinkList = incomingLinkList.stream()
+					.filter(link -> !(link instanceof AllocationLink && teamList.contains(link.getOriginNode())))
+					.collect(Collectors.toList());
+			for (int k = 0; k < teamList.size(); k++) {
+				TeamNode team = teamList.get(k);
+				List<Link> newOutgoingLinkList = team.getOutgoingLinkList().stream()
+						.filter(link -> !(link instanceof AllocationLink && link.getDestinationNode() == task))
+						.collect(Collectors.toList());
+				if ((value.intValue() & (1 << k)) != 0) {
+					AllocationLink link = new AllocationLink();
+					link.setOriginNode(team);
+					link.setDestinationNode(task);
+					newIncomingLinkList.add(link);
+					newOutgoingLinkList.add(link);
+				}
+				team.setOutgoingLinkList(newOutgoingLinkList);
+			}
+			task.setIncomingLinkList(newIncomingLinkList);
+			return () -> {
+				task.setIncomingLinkList(incomingLinkList);
+				for (int k = 0; k < teamList.size(); k++) teamList.get(k).setOutgoingLinkList(outgoingLinkListOfTeams.get(k));
+			};
+		});
+	}
+	
+	/**
+	 * Set the values of all axes to "diagram".
+	 * @param diagram
+	 * @param axisList
+	 * @param valueIndexes value index of each axis
+	 * @return the action for reverting all changes in reverse order (the changes are reverted and null is returned if the target of some axis is not found)
+	 */
+	public static Runnable applyAll(ProjectDiagram diagram, List<ParameterAxis> axisList, int[] valueIndexes) {
+		List<Runnable> revertList = new ArrayList<Runnable>();
+		Runnable revertAll = () -> {
+			for (int i = revertList.size() - 1; i >= 0; i--) revertList.get(i).run();
+		};
+		for (int a = 0; a < axisList.size(); a++) {
+			Runnable revert = axisList.get(a).apply(diagram, valueIndexes[a]);
+			if (revert == null) {
+				revertAll.run();
+				return null;
+			}
+			revertList.add(revert);
+		}
+		return revertAll;
+	}
+	
+	/**
+	 * Set the "valueIndex"th value of this axis to "diagram".
+	 * @param diagram
+	 * @param valueIndex
+	 * @return the action for reverting the change (null if the target of this axis is not found in "diagram")
+	 */
+	public Runnable apply(ProjectDiagram diagram, int valueIndex) {
+		return applier.apply(diagram, values[valueIndex]);
+	}
+	
+	/**
+	 * Get the team node named "teamName".
+	 * @param diagram
+	 * @param teamName
+	 * @return null if it is not found
+	 */
+	private static TeamNode getTeamNode(ProjectDiagram diagram, String teamName) {
+		return diagram.getTeamNodeList().stream().filter(t -> t.getName().equals(teamName)).findFirst().orElse(null);
+	}
+	
+	/**
+	 * Get the worker or the facility named "resourceName" in the team named "teamName".
+	 * @param diagram
+	 * @param teamName
+	 * @param resourceName
+	 * @return null if it is not found
+	 */
+	private static ResourceElement getResourceElement(ProjectDiagram diagram, String teamName, String resourceName) {
+		TeamNode team = getTeamNode(diagram, teamName);
+		if (team == null) return null;
+		List<ResourceElement> resourceList = new ArrayList<ResourceElement>(team.getWorkerList());
+		resourceList.addAll(team.getFacilityList());
+		return resourceList.stream().filter(r -> r.getName().equals(resourceName)).findFirst().orElse(null);
+	}
+	
+	/**
+	 * Convert int values to double values.
+	 * @param values
+	 * @return
+	 */
+	private static double[] toDoubleArray(int[] values) {
+		double[] result = new double[values.length];
+		for (int i = 0; i < values.length; i++) result[i] = values[i];
+		return result;
+	}
+	
+	/**
+	 * Get the name of this axis.
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * Get the values of this axis.
+	 * @return the values
+	 */
+	public double[] getValues() {
+		return values.clone();
+	}
+	
+	/**
+	 * Get the number of values of this axis.
+	 * @return
+	 */
+	public int size() {
+		return values.length;
+	}
+}
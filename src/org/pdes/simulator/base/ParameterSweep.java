@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.pdes.rcp.model.ProjectDiagram;
+import org.pdes.simulator.model.base.BaseProjectInfo;
+
+/**
+ * This is the sweep of parameters of the organization and the project.<br>
+ * The variants are all combinations of the values of the axes (see ParameterAxis).
+ * The project model of each variant is built from one base diagram by setting the values of the variant and reverting them after building,
+ * and all runs of all variants are performed by one thread pool.
+ * Each thread reuses the project model and the simulator while it performs the runs of the same variant,
+ * and the runs are submitted variant by variant, so each variant is built only a few times.<br>
+ * Run i of every variant draws the same random numbers (common random numbers, see ReplicationSampling).
+ * If the thresholds of the cutoff are set, the runs which exceed them are cut off and their censored results (lower bounds) are recorded.
+ * A variant whose analytical lower bounds already exceed them (see ProjectBoundAnalyzer) is not simulated, and the bounds are recorded as the censored results of all its runs.<br>
+ * The base diagram is changed temporarily while a variant is built, so it should not be the diagram which is opened in the editor.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class ParameterSweep<S extends PDES_AbstractSimulator> {
+	
+	private final ProjectDiagram diagram;
+	private final Function<ProjectDiagram, ? extends BaseProjectInfo> projectFactory;
+	private final Function<BaseProjectInfo, S> simulatorFactory;
+	private final ReplicationSampling sampling;
+	private final List<ParameterAxis> axisList = new ArrayList<ParameterAxis>();
+	
+	//Other
+	private SimulationResultCache resultCache = null; // results are not cached if null
+	private int maxDuration = Integer.MAX_VALUE; // threshold of the cutoff of each run
+	private double maxCost = Double.POSITIVE_INFINITY; // threshold of the cutoff of each run
+	private int buildCount = 0; // the number of project models built by the last execute()
+	
+	// Result
+	private List<int[]> variantList = new ArrayList<int[]>(); // value index of each axis
+	private int numOfRuns = 0;
+	private double[][][] values; // values[variant][value][run]
+	private boolean[][] censored; // censored[variant][run]
+	
+	/**
+	 * This is the constructor.
+	 * @param diagram base diagram of all variants
+	 * @param projectFactory function for building the project model from the diagram
+	 * @param simulatorFactory function for creating the simulator of the project model
+	 * @param sampling
+	 */
+	public ParameterSweep(ProjectDiagram diagram, Function<ProjectDiagram, ? extends BaseProjectInfo> projectFactory, Function<BaseProjectInfo, S> simulatorFactory, ReplicationSampling sampling) {
+		this.diagram = diagram;
+		this.projectFactory = projectFactory;
+		this.simulatorFactory = simulatorFactory;
+		this.sampling = sampling;
+	}
+	
+	/**
+	 * Add the axis. The variants are ordered by the first axis, and the last axis changes fastest.
+	 * @param axis
+	 */
+	public void addAxis(ParameterAxis axis) {
+		axisList.add(axis);
+	}
+	
+	/**
+	 * Check whether the targets of all axes are found in the base diagram.
+	 * @return the list of problems (empty if the sweep can be executed)
+	 */
+	public List<String> check() {
+		List<String> problemList = new ArrayList<String>();
+		synchronized (diagram) {
+			for (ParameterAxis axis : axisList) {
+				if (axis.size() == 0) {
+					problemList.add(String.format("Axis \"%s\" has no value.", axis.getName()));
+					continue;
+				}
+				Runnable revert = axis.apply(diagram, 0);
+				if (revert == null) problemList.add(String.format("Target of axis \"%s\" is not found.", axis.getName()));
+				else revert.run();
+			}
+		}
+		return problemList;
+	}
+	
+	/**
+	 * Perform all runs of all variants by a new thread pool which has threads as many as available processors.
+	 * @param numOfRuns the number of runs of each variant
+	 * @return the list of problems which prevented the sweep (empty if all runs are finished)
+	 */
+	public List<String> execute(int numOfRuns) {
+		ExecutorService service = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			return execute(numOfRuns, service);
+		} finally {
+			service.shutdown();
+		}
+	}
+	
+	/**
+	 * Perform all runs of all variants by "service".<br>
+	 * This method waits until all runs are finished.
+	 * @param numOfRuns the number of runs of each variant
+	 * @param service
+	 * @return the list of problems which prevented the sweep (empty if all runs are finished)
+	 */
+	public List<String> execute(int numOfRuns, ExecutorService service) {
+		List<String> problemList = check();
+		if (!problemList.isEmpty()) return problemList;
+		this.variantList = createVariantList();
+		this.numOfRuns = numOfRuns;
+		this.values = new double[variantList.size()][ScenarioComparison.VALUE_NAMES.length][numOfRuns];
+		this.censored = new boolean[variantList.size()][numOfRuns];
+		this.buildCount = 0;
+		
+		ThreadLocal<VariantContext> contextHolder = new ThreadLocal<VariantContext>();
+		List<Future<?>> futureList = new ArrayList<Future<?>>();
+		for (int v = 0; v < variantList.size(); v++) {
+			final int variant = v;
+			for (int r = 0; r < numOfRuns; r++) {
+				final int run = r;
+				futureList.add(service.submit(() -> performRun(contextHolder, variant, run)));
+			}
+		}
+		try {
+			for (Future<?> future : futureList) future.get();
+		} catch (InterruptedException | ExecutionException e) {
+			e.printStackTrace();
+			problemList.add(String.format("Simulation failed: %s", e.getMessage()));
+		}
+		return problemList;
+	}
+	
+	/**
+	 * Perform the run "run" of the variant "variant" by the context of this thread.
+	 * @param contextHolder
+	 * @param variant
+	 * @param run
+	 */
+	private void performRun(ThreadLocal<VariantContext> contextHolder, int variant, int run) {
+		VariantContext variantContext = contextHolder.get();
+		if (variantContext == null || variantContext.variant != variant) {
+			variantContext = new VariantContext(variant, build(variantList.get(variant)));
+			contextHolder.set(variantContext);
+		}
+		if (variantContext.prunedResult != null) {
+			for (int i = 0; i < ScenarioComparison.VALUE_NAMES.length; i++) values[variant][i][run] = variantContext.prunedResult[i];
+			censored[variant][run] = true;
+			return;
+		}
+		SimulationContext<S> context = variantContext.context;
+		BaseProjectInfo project = context.getProject();
+		context.getSimulator().getCutoff().setMaxDuration(maxDuration);
+		context.getSimulator().getCutoff().setMaxCost(maxCost);
+		String key = null;
+		double[] result = null;
+		if (resultCache != null) {
+			key = SimulationResultCache.getKey(variantContext.modelHash, context.getSimulator(), sampling.getRunKey(run));
+			result = resultCache.get(key);
+		}
+		if (result == null) {
+			sampling.setUp(project, run);
+			SimulationCutoff cutoff = context.run().getCutoff();
+			if (cutoff.isCutOff()) result = new double[]{cutoff.getCostLowerBound(), cutoff.getDurationLowerBound(), project.getTotalActualWorkAmount(), 1};
+			else result = new double[]{project.getTotalCost(), project.getDuration(), project.getTotalActualWorkAmount(), 0};
+			if (resultCache != null) resultCache.put(key, result, null);
+		}
+		for (int i = 0; i < ScenarioComparison.VALUE_NAMES.length; i++) values[variant][i][run] = result[i];
+		censored[variant][run] = result.length > ScenarioComparison.VALUE_NAMES.length && result[ScenarioComparison.VALUE_NAMES.length] != 0;
+	}
+	
+	/**
+	 * Build the project model and the simulator of the variant.<br>
+	 * The values of the variant are set to the base diagram only while the project model is built.
+	 * @param valueIndexes value index of each axis
+	 * @return
+	 */
+	private SimulationContext<S> build(int[] valueIndexes) {
+		synchronized (diagram) {
+			Runnable revert = ParameterAxis.applyAll(diagram, axisList, valueIndexes);
+			try {
+				buildCount++;
+				return new SimulationContext<S>(projectFactory.apply(diagram), simulatorFactory);
+			} finally {
+				if (revert != null) revert.run();
+			}
+		}
+	}
+	
+	/**
+	 * Create the list of all combinations of the value indexes of the axes.
+	 * @return
+	 */
+	private List<int[]> createVariantList() {
+		List<int[]> list = new ArrayList<int[]>();
+		list.add(new int[0]);
+		for (ParameterAxis axis : axisList) {
+			List<int[]> newList = new ArrayList<int[]>();
+			for (int[] variant : list) {
+				for (int i = 0; i < axis.size(); i++) {
+					int[] newVariant = new int[variant.length + 1];
+					System.arraycopy(variant, 0, newVariant, 0, variant.length);
+					newVariant[variant.length] = i;
+					newList.add(newVariant);
+				}
+			}
+			list = newList;
+		}
+		return list;
+	}
+	
+	/**
+	 * Get the value of the axis "axisIndex" in the variant "variantIndex".
+	 * @param variantIndex
+	 * @param axisIndex
+	 * @return
+	 */
+	public double getParameterValue(int variantIndex, int axisIndex) {
+		return axisList.get(axisIndex).getValues()[variantList.get(variantIndex)[axisIndex]];
+	}
+	
+	/**
+	 * Get the values of each run of the variant.
+	 * @param variantIndex
+	 * @param valueIndex index of ScenarioComparison.VALUE_NAMES
+	 * @return
+	 */
+	public double[] getValues(int variantIndex, int valueIndex) {
+		return values[variantIndex][valueIndex].clone();
+	}
+	
+	/**
+	 * Check whether the run of the variant was cut off or not.<br>
+	 * The values of a censored run are the lower bounds of the cost and the duration, and the work amount until it was cut off.
+	 * @param variantIndex
+	 * @param run
+	 * @return
+	 */
+	public boolean isCensored(int variantIndex, int run) {
+		return censored[variantIndex][run];
+	}
+	
+	/**
+	 * Get the mean of the values of all runs of the variant.
+	 * @param variantIndex
+	 * @param valueIndex index of ScenarioComparison.VALUE_NAMES
+	 * @return
+	 */
+	public double getMean(int variantIndex, int valueIndex) {
+		double sum = 0;
+		for (double value : values[variantIndex][valueIndex]) sum += value;
+		return numOfRuns == 0 ? 0 : sum / numOfRuns;
+	}
+	
+	/**
+	 * Save the values of all runs of all variants by csv format.<br>
+	 * One row is one run of one variant, which has the values of all axes and the results of the run.
+	 * @param outputDirName
+	 * @param resultFileName
+	 */
+	public void saveResultFileByCsv(String outputDirName, String resultFileName){
+		File resultFile = new File(outputDirName, resultFileName);
+		String separator = ",";
+		try {
+			// BOM
+			FileOutputStream os = new FileOutputStream(resultFile);
+			os.write(0xef);
+			os.write(0xbb);
+			os.write(0xbf);
+			
+			PrintWriter pw = new PrintWriter(new BufferedWriter(new OutputStreamWriter(os)));
+			List<String> header = new ArrayList<String>();
+			header.add("Variant");
+			axisList.forEach(axis -> header.add(axis.getName()));
+			header.add("Run");
+			for (String valueName : ScenarioComparison.VALUE_NAMES) header.add(valueName);
+			header.add("Censored");
+			pw.println(String.join(separator, header));
+			for (int v = 0; v < variantList.size(); v++) {
+				for (int run = 0; run < numOfRuns; run++) {
+					List<String> row = new ArrayList<String>();
+					row.add(String.valueOf(v));
+					for (int a = 0; a < axisList.size(); a++) row.add(String.valueOf(getParameterValue(v, a)));
+					row.add(String.valueOf(run));
+					for (int i = 0; i < ScenarioComparison.VALUE_NAMES.length; i++) row.add(String.valueOf(values[v][i][run]));
+					row.add(String.valueOf(censored[v][run]));
+					pw.println(String.join(separator, row));
+				}
+			}
+			pw.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Set the result cache. The results of runs are not cached if "resultCache" is null.
+	 * @param resultCache
+	 */
+	public void setResultCache(SimulationResultCache resultCache) {
+		this.resultCache = resultCache;
+	}
+	
+	/**
+	 * Set the thresholds of the cutoff of each run (see SimulationCutoff).
+	 * @param maxDuration Integer.MAX_VALUE means no limit
+	 * @param maxCost Double.POSITIVE_INFINITY means no limit
+	 */
+	public void setCutoff(int maxDuration, double maxCost) {
+		this.maxDuration = maxDuration;
+		this.maxCost = maxCost;
+	}
+	
+	/**
+	 * Get the list of axes.
+	 * @return the axisList
+	 */
+	public List<ParameterAxis> getAxisList() {
+		return axisList;
+	}
+	
+	/**
+	 * Get the number of variants of the last execute().
+	 * @return
+	 */
+	public int getNumOfVariants() {
+		return variantList.size();
+	}
+	
+	/**
+	 * Get the number of runs of each variant of the last execute().
+	 * @return the numOfRuns
+	 */
+	public int getNumOfRuns() {
+		return numOfRuns;
+	}
+	
+	/**
+	 * Get the number of project models built by the last execute().
+	 * @return the buildCount
+	 */
+	public int getBuildCount() {
+		return buildCount;
+	}
+	
+	/**
+	 * This is the context of the variant which is performed by a thread.
+	 */
+	private class VariantContext {
+		private final int variant;
+		private final SimulationContext<S> context;
+		private final String modelHash;
+		private final double[] prunedResult; // censored result of all runs if the variant exceeds the thresholds of the cutoff without simulation
+		
+		private VariantContext(int variant, SimulationContext<S> context) {
+			this.variant = variant;
+			this.context = context;
+			this.modelHash = resultCache == null ? null : SimulationResultCache.getModelHash(context.getProject());
+			this.prunedResult = getPrunedResult(context.getProject());
+		}
+		
+		/**
+		 * Get the censored result by the analytical lower bounds of the project.
+		 * @param project
+		 * @return null if the thresholds of the cutoff are not set or the lower bounds do not exceed them
+		 */
+		private double[] getPrunedResult(BaseProjectInfo project) {
+			if (maxDuration == Integer.MAX_VALUE && maxCost == Double.POSITIVE_INFINITY) return null;
+			ProjectBoundAnalyzer analyzer = new ProjectBoundAnalyzer(project);
+			if (analyzer.getDurationLowerBound() <= maxDuration && analyzer.getCostLowerBound() <= maxCost) return null;
+			return new double[]{analyzer.getCostLowerBound(), analyzer.getDurationLowerBound(), analyzer.getTotalWorkAmountLowerBound()};
+		}
+	}
+}
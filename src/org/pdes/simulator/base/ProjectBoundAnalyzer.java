@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.List;
+
+import org.pdes.simulator.base.DurationLowerBound.BoundType;
+import org.pdes.simulator.model.base.BaseProjectInfo;
+import org.pdes.simulator.model.base.BaseTask;
+import org.pdes.simulator.model.base.TaskTemplate;
+
+/**
+ * This is the analyzer of the lower bounds of the duration and the cost of the project without simulation.<br>
+ * The bounds are calculated from the compiled project model at time 0 by DurationLowerBound
+ * (critical path, capacity of teams and skills, and facility bottlenecks),
+ * assuming the min work amount of each task (the min of the distribution if it is given) and no rework.
+ * So no run of any simulator can finish earlier or cheaper than these bounds,
+ * and a candidate whose lower bound of the duration exceeds the deadline can be skipped without simulation.<br>
+ * The calculation is linear in the size of the model, so it takes only milliseconds even for a project of 100,000 tasks.
+ * If the lower bound of the duration is Integer.MAX_VALUE, the reason can be found by ProjectValidator.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class ProjectBoundAnalyzer {
+	
+	private final BaseProjectInfo project;
+	
+	// Result
+	private int durationLowerBound = 0;
+	private double costLowerBound = 0;
+	private double totalWorkAmountLowerBound = 0;
+	private final double[] bounds = new double[BoundType.values().length]; // bound of each BoundType
+	private final String[] bottleneckNames = new String[BoundType.values().length]; // task, team or skill of each BoundType
+	private int numOfTasksInCycle = 0;
+	private double analysisTime = 0; // milliseconds
+	
+	/**
+	 * This is the constructor. The project is analyzed at once.
+	 * @param project
+	 */
+	public ProjectBoundAnalyzer(BaseProjectInfo project) {
+		this.project = project;
+		analyze();
+	}
+	
+	/**
+	 * Calculate the lower bounds from the min work amount of each task.
+	 */
+	private void analyze() {
+		long startTime = System.nanoTime();
+		DurationLowerBound lowerBound = new DurationLowerBound(project);
+		List<BaseTask> taskList = lowerBound.getTaskList();
+		double[] remainingWorkAmounts = new double[taskList.size()];
+		boolean[] finished = new boolean[taskList.size()];
+		boolean[] waiting = new boolean[taskList.size()];
+		for (int i = 0; i < taskList.size(); i++) {
+			TaskTemplate template = taskList.get(i).getTemplate();
+			double workAmount = (template.getWorkAmountSampler() == null) ? template.getDefaultWorkAmount() : template.getWorkAmountSampler().getQuantile(0.0);
+			remainingWorkAmounts[i] = workAmount * (1.0 - template.getProgress());
+			finished[i] = template.getProgress() >= 1.0;
+			waiting[i] = template.getProgress() <= 0.0; // a task in progress is READY at first
+			if (!finished[i]) totalWorkAmountLowerBound += Math.max(0, remainingWorkAmounts[i]);
+		}
+		double bound = lowerBound.calculateLowerBoundOfDuration(0, remainingWorkAmounts, finished, waiting, 0, bounds, bottleneckNames);
+		numOfTasksInCycle = project.getWorkflowList().stream().mapToInt(w -> w.getTaskList().size()).sum() - taskList.size();
+		durationLowerBound = (numOfTasksInCycle > 0) ? Integer.MAX_VALUE : DurationLowerBound.toTime(bound);
+		costLowerBound = lowerBound.calculateLowerBoundOfCost(remainingWorkAmounts, finished);
+		analysisTime = (System.nanoTime() - startTime) / 1.0e6;
+	}
+	
+	/**
+	 * Check whether the project can meet "deadline" or not.
+	 * @param deadline
+	 * @return false if the lower bound of the duration exceeds the deadline, so no run can meet it
+	 */
+	public boolean canMeetDeadline(int deadline) {
+		return durationLowerBound <= deadline;
+	}
+	
+	/**
+	 * Check whether the project can be finished or not.
+	 * @return false if some tasks cannot be performed by anyone or are in a cycle
+	 */
+	public boolean isFeasible() {
+		return durationLowerBound < Integer.MAX_VALUE;
+	}
+	
+	/**
+	 * Get the bound of "type".
+	 * @param type
+	 * @return -1 if there is no task of "type", Integer.MAX_VALUE if the bound is infinite
+	 */
+	public int getBound(BoundType type) {
+		double bound = bounds[type.ordinal()];
+		return bound == Double.NEGATIVE_INFINITY ? -1 : DurationLowerBound.toTime(bound);
+	}
+	
+	/**
+	 * Get the name of the task, team or skill which gives the bound of "type".<br>
+	 * The name of the last task of the critical path is returned for BoundType.CRITICAL_PATH.
+	 * @param type
+	 * @return null if there is no task of "type"
+	 */
+	public String getBottleneckName(BoundType type) {
+		return bottleneckNames[type.ordinal()];
+	}
+	
+	/**
+	 * Get the type of the bound which gives the lower bound of the duration.
+	 * @return
+	 */
+	public BoundType getBottleneckType() {
+		BoundType bottleneckType = BoundType.CRITICAL_PATH;
+		for (BoundType type : BoundType.values()) {
+			if (bounds[type.ordinal()] > bounds[bottleneckType.ordinal()]) bottleneckType = type;
+		}
+		return bottleneckType;
+	}
+	
+	/**
+	 * Save the bounds as csv file.
+	 * @param outputDirName
+	 * @param resultFileName
+	 */
+	public void saveResultFileByCsv(String outputDirName, String resultFileName){
+		File resultFile = new File(outputDirName, resultFileName);
+		String separator = ",";
+		try {
+			// BOM
+			FileOutputStream os = new FileOutputStream(resultFile);
+			os.write(0xef);
+			os.write(0xbb);
+			os.write(0xbf);
+			
+			PrintWriter pw = new PrintWriter(new BufferedWriter(new OutputStreamWriter(os)));
+			pw.println(String.join(separator, new String[]{"Bound", "Value", "Bottleneck"}));
+			pw.println(String.join(separator, new String[]{"Lower Bound of Duration", getTimeString(durationLowerBound), getBottleneckType().getLabel()}));
+			for (BoundType type : BoundType.values()) {
+				if (getBound(type) < 0) continue;
+				pw.println(String.join(separator, new String[]{type.getLabel(), getTimeString(getBound(type)), getBottleneckName(type)}));
+			}
+			pw.println(String.join(separator, new String[]{"Lower Bound of Total Cost", String.valueOf(costLowerBound), ""}));
+			pw.println(String.join(separator, new String[]{"Lower Bound of Total Work Amount", String.valueOf(totalWorkAmountLowerBound), ""}));
+			pw.println(String.join(separator, new String[]{"Tasks in Cycle", String.valueOf(numOfTasksInCycle), ""}));
+			pw.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Get the string of the duration until "time" for the result file.
+	 * @param time
+	 * @return "Infinity" if the time is Integer.MAX_VALUE
+	 */
+	private static String getTimeString(int time) {
+		return time == Integer.MAX_VALUE ? "Infinity" : String.valueOf(time + 1);
+	}
+	
+	/**
+	 * Get the lower bound of the duration (the last finish time of all tasks).
+	 * @return Integer.MAX_VALUE if the project cannot be finished
+	 */
+	public int getDurationLowerBound() {
+		return durationLowerBound;
+	}
+	
+	/**
+	 * Get the lower bound of the total labor cost.
+	 * @return Double.POSITIVE_INFINITY if the project cannot be finished
+	 */
+	public double getCostLowerBound() {
+		return costLowerBound;
+	}
+	
+	/**
+	 * Get the lower bound of the total work amount.
+	 * @return the totalWorkAmountLowerBound
+	 */
+	public double getTotalWorkAmountLowerBound() {
+		return totalWorkAmountLowerBound;
+	}
+	
+	/**
+	 * Get the number of tasks which are in a cycle of task dependency or depend on a cycle.
+	 * @return the numOfTasksInCycle
+	 */
+	public int getNumOfTasksInCycle() {
+		return numOfTasksInCycle;
+	}
+	
+	/**
+	 * Get the time of the analysis.
+	 * @return milliseconds
+	 */
+	public double getAnalysisTime() {
+		return analysisTime;
+	}
+}
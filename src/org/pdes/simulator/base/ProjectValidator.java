@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.pdes.simulator.model.base.BaseProjectInfo;
+import org.pdes.simulator.model.base.BaseResource;
+import org.pdes.simulator.model.base.BaseTask;
+import org.pdes.simulator.model.base.BaseTeam;
+import org.pdes.simulator.model.base.BaseWorkflow;
+import org.pdes.simulator.model.base.WorkAmountSampler;
+
+/**
+ * This is the validator of the project model before simulation.<br>
+ * If a task has no allocated team, no capable worker, no capable facility although it needs a facility,
+ * or is in a cycle of task dependency, the simulation is never finished. An invalid distribution of work amount is also reported.
+ * This class finds all these problems at once in linear time of the size of the model:
+ * skills of each team are compiled into the sets of task names at first,
+ * and cycles are found by topological sort of each workflow.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class ProjectValidator {
+	
+	private final BaseProjectInfo project;
+	private final Map<BaseTeam, Set<String>> workerSkillMap = new HashMap<BaseTeam, Set<String>>(); // team -> names of tasks which some worker can do
+	private final Map<BaseTeam, Set<String>> facilitySkillMap = new HashMap<BaseTeam, Set<String>>(); // team -> names of tasks which some facility can do
+	
+	/**
+	 * This is the constructor.
+	 * @param project
+	 */
+	public ProjectValidator(BaseProjectInfo project) {
+		this.project = project;
+		project.getOrganization().getTeamList().forEach(team -> {
+			workerSkillMap.put(team, this.getSkillSet(team.getWorkerList()));
+			facilitySkillMap.put(team, this.getSkillSet(team.getFacilityList()));
+		});
+	}
+	
+	/**
+	 * Validate the project.<br>
+	 * The same problem in copied workflows is reported only once.
+	 * @return the list of error messages. If it is empty, the project is valid.
+	 */
+	public List<String> validate() {
+		Set<String> errorMessageSet = new LinkedHashSet<String>();
+		for (BaseTask task : project.getTaskList()) {
+			if (task.getAllocatedTeamList().isEmpty()) {
+				errorMessageSet.add(String.format("\"%s\" cannot be done because no team is allocated.", task.getName()));
+				continue;
+			}
+			if (!this.canBeDone(task, workerSkillMap)) {
+				errorMessageSet.add(String.format("\"%s\" cannot be done because of skill information.", task.getName()));
+			}
+			if (task.isNeedFacility() && !this.canBeDone(task, facilitySkillMap)) {
+				errorMessageSet.add(String.format("\"%s\" cannot be done because no facility has the skill.", task.getName()));
+			}
+			for (WorkAmountSampler sampler : Arrays.asList(task.getTemplate().getWorkAmountSampler(), task.getTemplate().getAdditionalWorkAmountSampler())) {
+				if (sampler != null && !sampler.getDistribution().isValid()) {
+					errorMessageSet.add(String.format("\"%s\" has an invalid distribution of work amount: %s.", task.getName(), sampler.getDistribution()));
+				}
+			}
+		}
+		for (BaseWorkflow workflow : project.getWorkflowList()) {
+			this.getTaskListInCycle(workflow).forEach(task -> 
+				errorMessageSet.add(String.format("\"%s\" cannot be started because of a cycle of task dependency.", task.getName())));
+		}
+		return new ArrayList<String>(errorMessageSet);
+	}
+	
+	/**
+	 * Get the set of task names which some resource in "resourceList" can do.
+	 * @param resourceList
+	 * @return
+	 */
+	private Set<String> getSkillSet(List<? extends BaseResource> resourceList) {
+		Set<String> skillSet = new HashSet<String>();
+		for (BaseResource resource : resourceList) {
+			resource.getWorkAmountSkillMap().forEach((name, point) -> {
+				if (point != null && point > 0.0) skillSet.add(name);
+			});
+		}
+		return skillSet;
+	}
+	
+	/**
+	 * Check whether some allocated team of "task" can do it or not.
+	 * @param task
+	 * @param skillMap
+	 * @return
+	 */
+	private boolean canBeDone(BaseTask task, Map<BaseTeam, Set<String>> skillMap) {
+		for (BaseTeam team : task.getAllocatedTeamList()) {
+			Set<String> skillSet = skillMap.get(team);
+			if (skillSet != null && skillSet.contains(task.getName())) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Get the list of tasks which are left by topological sort of "workflow".<br>
+	 * These tasks are in a cycle, or depend on a cycle.
+	 * @param workflow
+	 * @return
+	 */
+	private List<BaseTask> getTaskListInCycle(BaseWorkflow workflow) {
+		Map<BaseTask, Integer> inDegreeMap = new HashMap<BaseTask, Integer>();
+		Deque<BaseTask> queue = new ArrayDeque<BaseTask>();
+		for (BaseTask task : workflow.getTaskList()) {
+			inDegreeMap.put(task, task.getInputTaskList().size());
+			if (task.getInputTaskList().isEmpty()) queue.add(task);
+		}
+		while (!queue.isEmpty()) {
+			BaseTask task = queue.poll();
+			for (BaseTask output : task.getOutputTaskList()) {
+				Integer inDegree = inDegreeMap.computeIfPresent(output, (t, d) -> d - 1);
+				if (inDegree != null && inDegree == 0) queue.add(output);
+			}
+		}
+		List<BaseTask> taskList = new ArrayList<BaseTask>();
+		for (BaseTask task : workflow.getTaskList()) {
+			if (inDegreeMap.get(task) > 0) taskList.add(task);
+		}
+		return taskList;
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+import java.util.List;
+
+import org.pdes.simulator.model.base.BaseComponent;
+import org.pdes.simulator.model.base.BaseProjectInfo;
+import org.pdes.simulator.model.base.BaseTask;
+import org.pdes.simulator.model.base.BaseWorkflow;
+import org.pdes.simulator.model.base.ReplicationRandom;
+import org.pdes.simulator.model.base.ReplicationRandom.Mode;
+
+/**
+ * This is the sampling strategy of the random numbers of replications.<br>
+ * Each task and each component has its own random substream which seed is decided by the run, the workflow (or product) and the node id,
+ * so the same run of different scenarios draws the same random numbers (common random numbers).
+ * In addition, runs are divided into blocks and the random numbers in a block are correlated by antithetic pairs or Latin hypercube stratification.
+ * The variance of the mean of replications is estimated from the means of blocks.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class ReplicationSampling {
+	
+	private static final int TASK_SUBSTREAM = 1;
+	private static final int COMPONENT_SUBSTREAM = 2;
+	
+	private final Mode mode;
+	private final long seed;
+	private final int blockSize;
+	
+	/**
+	 * This is the constructor.
+	 * @param mode
+	 * @param seed seed of all random substreams
+	 * @param blockSize the number of runs stratified together in LATIN_HYPERCUBE (2 in ANTITHETIC, and 1 in MONTE_CARLO)
+	 */
+	public ReplicationSampling(Mode mode, long seed, int blockSize) {
+		this.mode = mode;
+		this.seed = seed;
+		if (mode == Mode.ANTITHETIC) this.blockSize = 2;
+		else if (mode == Mode.LATIN_HYPERCUBE) this.blockSize = Math.max(1, blockSize);
+		else this.blockSize = 1;
+	}
+	
+	/**
+	 * Set the seeds and the replication of random substreams of all tasks and components in "project" for the run "run".<br>
+	 * This has to be called before each run.
+	 * @param project
+	 * @param run
+	 */
+	public void setUp(BaseProjectInfo project, int run) {
+		int position = run % blockSize;
+		long blockSeed = ReplicationRandom.mix(seed + ReplicationRandom.mix(run / blockSize));
+		long runSeed = (mode == Mode.LATIN_HYPERCUBE) ? ReplicationRandom.mix(blockSeed + ReplicationRandom.mix(position + 1)) : blockSeed;
+		List<BaseWorkflow> workflowList = project.getWorkflowList();
+		for (int i = 0; i < workflowList.size(); i++) {
+			for (BaseTask task : workflowList.get(i).getTaskList()) {
+				setUp(task.getRandom(), TASK_SUBSTREAM, i, task.getNodeId(), blockSeed, runSeed, position);
+			}
+		}
+		for (int i = 0; i < project.getProductList().size(); i++) {
+			for (BaseComponent component : project.getProductList().get(i).getComponentList()) {
+				setUp(component.getRandom(), COMPONENT_SUBSTREAM, i, component.getNodeId(), blockSeed, runSeed, position);
+			}
+		}
+	}
+	
+	/**
+	 * Set the seed and the replication of one substream.
+	 * @param random
+	 * @param kind TASK_SUBSTREAM or COMPONENT_SUBSTREAM
+	 * @param index index of workflow or product
+	 * @param nodeId
+	 * @param blockSeed
+	 * @param runSeed
+	 * @param position
+	 */
+	private void setUp(ReplicationRandom random, int kind, int index, String nodeId, long blockSeed, long runSeed, int position) {
+		random.setReplication(mode, getSubstreamSeed(blockSeed, kind, index, nodeId), position, blockSize);
+		random.setSeed(getSubstreamSeed(runSeed, kind, index, nodeId));
+	}
+	
+	/**
+	 * Get the seed of one substream.
+	 * @param baseSeed
+	 * @param kind
+	 * @param index
+	 * @param nodeId
+	 * @return
+	 */
+	private static long getSubstreamSeed(long baseSeed, int kind, int index, String nodeId) {
+		return ReplicationRandom.mix(ReplicationRandom.mix(ReplicationRandom.mix(baseSeed + kind) + index) + nodeId.hashCode());
+	}
+	
+	/**
+	 * Get the variance reduction factor of the mean of "values" compared to plain Monte Carlo.<br>
+	 * The variance of the mean is estimated from the means of blocks, and only complete blocks are used.
+	 * If the factor is X, plain Monte Carlo needs X times as many runs for the same precision.
+	 * @param values value of each run
+	 * @return the factor (1.0 in MONTE_CARLO, NaN if there are less than 2 blocks or no variance)
+	 */
+	public double getVarianceReductionFactor(double[] values) {
+		int numOfBlocks = values.length / blockSize;
+		int n = numOfBlocks * blockSize;
+		if (numOfBlocks < 2) return Double.NaN;
+		double[] blockMeans = new double[numOfBlocks];
+		for (int i = 0; i < n; i++) blockMeans[i / blockSize] += values[i] / blockSize;
+		double varianceOfMean = getSampleVariance(blockMeans, numOfBlocks) / numOfBlocks;
+		double monteCarloVarianceOfMean = getSampleVariance(values, n) / n;
+		if (varianceOfMean == 0) return Double.NaN;
+		return monteCarloVarianceOfMean / varianceOfMean;
+	}
+	
+	/**
+	 * Get the standard error of the mean of "values" estimated from the means of blocks.
+	 * @param values value of each run
+	 * @return
+	 */
+	public double getStandardError(double[] values) {
+		int numOfBlocks = values.length / blockSize;
+		if (numOfBlocks < 2) return Double.NaN;
+		double[] blockMeans = new double[numOfBlocks];
+		for (int i = 0; i < numOfBlocks * blockSize; i++) blockMeans[i / blockSize] += values[i] / blockSize;
+		return Math.sqrt(getSampleVariance(blockMeans, numOfBlocks) / numOfBlocks);
+	}
+	
+	/**
+	 * Get the report of the mean, the standard error and the variance reduction of "values".
+	 * @param valueName
+	 * @param values value of each run
+	 * @return
+	 */
+	public String getVarianceReductionReport(String valueName, double[] values) {
+		double mean = 0;
+		for (double v : values) mean += v / values.length;
+		double factor = getVarianceReductionFactor(values);
+		return String.format("%s: mean %f, standard error %f, variance reduction x%.2f by %s (same precision as %d runs of plain Monte Carlo)",
+				valueName, mean, getStandardError(values), factor, mode, Double.isNaN(factor) ? values.length : Math.round(factor * values.length));
+	}
+	
+	/**
+	 * Get the sample variance of the first "n" values.
+	 * @param values
+	 * @param n
+	 * @return
+	 */
+	private static double getSampleVariance(double[] values, int n) {
+		double mean = 0;
+		for (int i = 0; i < n; i++) mean += values[i];
+		mean /= n;
+		double squaredSum = 0;
+		for (int i = 0; i < n; i++) squaredSum += (values[i] - mean) * (values[i] - mean);
+		return squaredSum / (n - 1);
+	}
+
+	/**
+	 * Get the key of the random numbers of the run "run".<br>
+	 * Two runs which have the same key draw the same random numbers, so this is used for caching the result of the run.
+	 * @param run
+	 * @return
+	 */
+	public String getRunKey(int run) {
+		return String.join(",", mode.toString(), String.valueOf(seed), String.valueOf(blockSize), String.valueOf(run));
+	}
+
+	/**
+	 * Get the sampling mode.
+	 * @return the mode
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Get the number of runs in a block.
+	 * @return the blockSize
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.pdes.simulator.model.base.BaseProjectInfo;
+import org.pdes.simulator.model.base.ReplicationRandom.Mode;
+
+/**
+ * This is the comparison of scenarios (e.g. staffing alternatives) by common random numbers.<br>
+ * Run i of every scenario draws the same random numbers, because each task and each component has its own random substream
+ * which seed is decided by the run, the workflow (or product) and the node id (see ReplicationSampling).
+ * So the differences between scenarios have much lower variance than comparing independent runs, and they are reported as paired differences from the first scenario.
+ * If the runs are correlated in blocks by "sampling", the confidence intervals of the differences are given by the means of blocks.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class ScenarioComparison {
+	
+	public static final String[] VALUE_NAMES = {"Cost", "Duration", "Total Work Amount"};
+	
+	private final ReplicationSampling sampling;
+	private final List<String> scenarioNameList = new ArrayList<String>();
+	private final List<SimulationContext<? extends PDES_AbstractSimulator>> contextList = new ArrayList<SimulationContext<? extends PDES_AbstractSimulator>>();
+	
+	// Result
+	private int numOfRuns = 0;
+	private double[][][] values; // values[scenario][value][run]
+	
+	/**
+	 * This is the constructor.
+	 * @param seed seed of all random substreams
+	 */
+	public ScenarioComparison(long seed) {
+		this(new ReplicationSampling(Mode.MONTE_CARLO, seed, 1));
+	}
+	
+	/**
+	 * This is the constructor.<br>
+	 * Antithetic or Latin hypercube sampling can be combined with common random numbers by "sampling".
+	 * @param sampling
+	 */
+	public ScenarioComparison(ReplicationSampling sampling) {
+		this.sampling = sampling;
+	}
+	
+	/**
+	 * Add the scenario. The first scenario is the base of paired differences.
+	 * @param scenarioName
+	 * @param context context of the project model and the simulator of this scenario
+	 */
+	public void addScenario(String scenarioName, SimulationContext<? extends PDES_AbstractSimulator> context) {
+		scenarioNameList.add(scenarioName);
+		contextList.add(context);
+	}
+	
+	/**
+	 * Run all scenarios "numOfRuns" times by common random numbers.
+	 * @param numOfRuns
+	 */
+	public void execute(int numOfRuns) {
+		this.numOfRuns = numOfRuns;
+		this.values = new double[contextList.size()][VALUE_NAMES.length][numOfRuns];
+		for (int run = 0; run < numOfRuns; run++) {
+			for (int s = 0; s < contextList.size(); s++) {
+				SimulationContext<? extends PDES_AbstractSimulator> context = contextList.get(s);
+				BaseProjectInfo project = context.getProject();
+				sampling.setUp(project, run);
+				context.run();
+				values[s][0][run] = project.getTotalCost();
+				values[s][1][run] = project.getDuration();
+				values[s][2][run] = project.getTotalActualWorkAmount();
+			}
+		}
+	}
+	
+	/**
+	 * Get the paired differences of all values between each scenario and the first scenario.
+	 * @return
+	 */
+	public List<PairedDifference> getPairedDifferenceList() {
+		List<PairedDifference> pairedDifferenceList = new ArrayList<PairedDifference>();
+		for (int s = 1; s < scenarioNameList.size(); s++) {
+			for (int v = 0; v < VALUE_NAMES.length; v++) {
+				pairedDifferenceList.add(new PairedDifference(scenarioNameList.get(s), scenarioNameList.get(0), VALUE_NAMES[v], values[s][v], values[0][v], sampling.getBlockSize()));
+			}
+		}
+		return pairedDifferenceList;
+	}
+	
+	/**
+	 * Get the values of each run.
+	 * @param scenarioIndex
+	 * @param valueIndex index of VALUE_NAMES
+	 * @return
+	 */
+	public double[] getValues(int scenarioIndex, int valueIndex) {
+		return values[scenarioIndex][valueIndex].clone();
+	}
+	
+	/**
+	 * Get the number of runs of the last execute().
+	 * @return the numOfRuns
+	 */
+	public int getNumOfRuns() {
+		return numOfRuns;
+	}
+	
+	/**
+	 * Get the list of scenario names.
+	 * @return the scenarioNameList
+	 */
+	public List<String> getScenarioNameList() {
+		return scenarioNameList;
+	}
+	
+	/**
+	 * Save the paired differences and the values of each run by csv format.
+	 * @param outputDirName
+	 * @param resultFileName
+	 */
+	public void saveResultFileByCsv(String outputDirName, String resultFileName){
+		File resultFile = new File(outputDirName, resultFileName);
+		String separator = ",";
+		try {
+			// BOM
+			FileOutputStream os = new FileOutputStream(resultFile);
+			os.write(0xef);
+			os.write(0xbb);
+			os.write(0xbf);
+			
+			PrintWriter pw = new PrintWriter(new BufferedWriter(new OutputStreamWriter(os)));
+			
+			// paired differences
+			pw.println("Paired difference from " + scenarioNameList.get(0));
+			pw.println(String.join(separator, new String[]{"Scenario", "Value", "Mean", "Standard Deviation", "95% CI Lower", "95% CI Upper", "Significant"}));
+			this.getPairedDifferenceList().forEach(d -> {
+				pw.println(String.join(separator, new String[]{
+						d.getScenarioName(),
+						d.getValueName(),
+						String.valueOf(d.getMean()),
+						String.valueOf(d.getStandardDeviation()),
+						String.valueOf(d.getLowerBound()),
+						String.valueOf(d.getUpperBound()),
+						String.valueOf(d.isSignificant())}));
+			});
+			
+			// values of each run
+			pw.println();
+			pw.println("Result of each run");
+			List<String> header = new ArrayList<String>();
+			header.add("No");
+			scenarioNameList.forEach(name -> {
+				for (String valueName : VALUE_NAMES) header.add(name + " " + valueName);
+			});
+			pw.println(String.join(separator, header));
+			for (int run = 0; run < numOfRuns; run++) {
+				List<String> row = new ArrayList<String>();
+				row.add(String.valueOf(run));
+				for (int s = 0; s < scenarioNameList.size(); s++) {
+					for (int v = 0; v < VALUE_NAMES.length; v++) row.add(String.valueOf(values[s][v][run]));
+				}
+				pw.println(String.join(separator, row));
+			}
+			pw.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.pdes.simulator.model.base.BaseProjectInfo;
+
+/**
+ * This is the reusable context for running one simulator many times.<br>
+ * The project model and the simulator are built only once, and initialize() of the simulator resets them in place at the beginning of each run.<br>
+ * A context is not thread safe, so one context should be used by one thread by perThread().
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class SimulationContext<S extends PDES_AbstractSimulator> {
+	
+	private final BaseProjectInfo project;
+	private final S simulator;
+	
+	//Other
+	private int runCount = 0; // the number of runs by this context
+	
+	/**
+	 * This is the constructor.
+	 * @param project
+	 * @param simulatorFactory function for creating the simulator of "project"
+	 */
+	public SimulationContext(BaseProjectInfo project, Function<BaseProjectInfo, S> simulatorFactory) {
+		this.project = project;
+		this.simulator = simulatorFactory.apply(project);
+	}
+	
+	/**
+	 * Get the ThreadLocal which creates one context for each thread at the first access.
+	 * @param projectFactory supplier for creating the project model
+	 * @param simulatorFactory function for creating the simulator of the project model
+	 * @return
+	 */
+	public static <S extends PDES_AbstractSimulator> ThreadLocal<SimulationContext<S>> perThread(Supplier<? extends BaseProjectInfo> projectFactory, Function<BaseProjectInfo, S> simulatorFactory) {
+		return ThreadLocal.withInitial(() -> new SimulationContext<S>(projectFactory.get(), simulatorFactory));
+	}
+	
+	/**
+	 * Run the simulation once.<br>
+	 * The results of the previous run are discarded, so they have to be read before calling this method again.
+	 * @return the simulator which holds the results of this run
+	 */
+	public S run() {
+		simulator.execute();
+		runCount++;
+		return simulator;
+	}
+	
+	/**
+	 * Get the project model.
+	 * @return the project
+	 */
+	public BaseProjectInfo getProject() {
+		return project;
+	}
+	
+	/**
+	 * Get the simulator.
+	 * @return the simulator
+	 */
+	public S getSimulator() {
+		return simulator;
+	}
+	
+	/**
+	 * Get the number of runs by this context.
+	 * @return the runCount
+	 */
+	public int getRunCount() {
+		return runCount;
+	}
+}
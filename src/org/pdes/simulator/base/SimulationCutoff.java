@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * This is the cutoff for stopping the run which cannot be better than a threshold (e.g. the incumbent of an optimization).<br>
+ * The run is cut off if one of the followings is satisfied:<br>
+ * 1. The accumulated cost exceeds "maxCost".<br>
+ * 2. Simulation time exceeds "maxDuration", so the duration will exceed it.<br>
+ * 3. The lower bound of the duration by the remaining critical path and the capacity of teams, skills and facilities exceeds "maxDuration" (see DurationLowerBound).<br>
+ * The result of a cut off run is censored, so only the lower bounds of the cost and the duration are known.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class SimulationCutoff {
+	
+	/**
+	 * The reason of cutting off the run.
+	 */
+	public enum CutoffReason {
+		/** Not cut off*/
+		NONE,
+		/** Accumulated cost exceeds max cost*/
+		COST_EXCEEDED,
+		/** Simulation time exceeds max duration*/
+		DURATION_EXCEEDED,
+		/** Lower bound of the duration exceeds max duration*/
+		DURATION_BOUND_EXCEEDED,
+	}
+	
+	// Thresholds
+	private int maxDuration = Integer.MAX_VALUE;
+	private double maxCost = Double.POSITIVE_INFINITY;
+	private boolean useDurationLowerBound = true;
+	private int boundCheckInterval = 1; // the lower bound of the duration is calculated at every this number of time steps
+	
+	// State
+	private CutoffReason cutoffReason = CutoffReason.NONE;
+	private int cutoffTime = -1;
+	private int durationLowerBound = 0;
+	private double costLowerBound = 0;
+	
+	/**
+	 * Reset this cutoff at the beginning of simulation.
+	 */
+	public void start() {
+		cutoffReason = CutoffReason.NONE;
+		cutoffTime = -1;
+		durationLowerBound = 0;
+		costLowerBound = 0;
+	}
+	
+	/**
+	 * Check whether the run has to be cut off or not at the beginning of "time" when some tasks are not finished.
+	 * @param time
+	 * @param accumulatedCost supplier of the labor cost until the last time
+	 * @param durationLowerBound supplier of the lower bound of the duration
+	 * @return TRUE if the run has to be cut off
+	 */
+	public boolean check(int time, DoubleSupplier accumulatedCost, IntSupplier durationLowerBound) {
+		if (!isEnabled()) return false;
+		double cost = maxCost < Double.POSITIVE_INFINITY ? accumulatedCost.getAsDouble() : 0;
+		if (cost > maxCost) {
+			cutOff(CutoffReason.COST_EXCEEDED, time, time, cost);
+		} else if (maxDuration < Integer.MAX_VALUE) {
+			if (time > maxDuration) {
+				cutOff(CutoffReason.DURATION_EXCEEDED, time, time, accumulatedCost.getAsDouble());
+			} else if (useDurationLowerBound && time % boundCheckInterval == 0) {
+				int bound = durationLowerBound.getAsInt();
+				if (bound > maxDuration) cutOff(CutoffReason.DURATION_BOUND_EXCEEDED, time, bound, accumulatedCost.getAsDouble());
+			}
+		}
+		return isCutOff();
+	}
+	
+	/**
+	 * Record the reason and the lower bounds of the censored result.
+	 * @param reason
+	 * @param time
+	 * @param durationLowerBound
+	 * @param costLowerBound
+	 */
+	private void cutOff(CutoffReason reason, int time, int durationLowerBound, double costLowerBound) {
+		this.cutoffReason = reason;
+		this.cutoffTime = time;
+		this.durationLowerBound = durationLowerBound;
+		this.costLowerBound = costLowerBound;
+	}
+	
+	/**
+	 * Check whether some thresholds are set or not.
+	 * @return
+	 */
+	public boolean isEnabled() {
+		return maxDuration < Integer.MAX_VALUE || maxCost < Double.POSITIVE_INFINITY;
+	}
+	
+	/**
+	 * Remove all thresholds.
+	 */
+	public void disable() {
+		maxDuration = Integer.MAX_VALUE;
+		maxCost = Double.POSITIVE_INFINITY;
+	}
+	
+	/**
+	 * Check whether the run was cut off or not, that is, the result is censored.
+	 * @return
+	 */
+	public boolean isCutOff() {
+		return cutoffReason != CutoffReason.NONE;
+	}
+	
+	/**
+	 * Get the reason of cutting off.
+	 * @return the cutoffReason
+	 */
+	public CutoffReason getCutoffReason() {
+		return cutoffReason;
+	}
+	
+	/**
+	 * Get the simulation time when the run was cut off.
+	 * @return the cutoffTime, or -1 if not cut off
+	 */
+	public int getCutoffTime() {
+		return cutoffTime;
+	}
+	
+	/**
+	 * Get the lower bound of the duration of the censored run.
+	 * @return the durationLowerBound
+	 */
+	public int getDurationLowerBound() {
+		return durationLowerBound;
+	}
+	
+	/**
+	 * Get the lower bound of the total cost of the censored run.
+	 * @return the costLowerBound
+	 */
+	public double getCostLowerBound() {
+		return costLowerBound;
+	}
+	
+	/**
+	 * Get the text of the reason of cutting off.
+	 * @return
+	 */
+	public String getCutoffMessage() {
+		switch (cutoffReason) {
+		case COST_EXCEEDED:
+			return String.format("Simulation was cut off at %d because the cost %f exceeded %f.", cutoffTime, costLowerBound, maxCost);
+		case DURATION_EXCEEDED:
+			return String.format("Simulation was cut off at %d because it exceeded the max duration %d.", cutoffTime, maxDuration);
+		case DURATION_BOUND_EXCEEDED:
+			return String.format("Simulation was cut off at %d because the lower bound of the duration %d exceeded %d.", cutoffTime, durationLowerBound, maxDuration);
+		default:
+			return "";
+		}
+	}
+	
+	/**
+	 * Get the max duration.
+	 * @return the maxDuration
+	 */
+	public int getMaxDuration() {
+		return maxDuration;
+	}
+	
+	/**
+	 * Set the max duration. The run is cut off if its duration will exceed this value.
+	 * @param maxDuration the maxDuration to set (Integer.MAX_VALUE means no limit)
+	 */
+	public void setMaxDuration(int maxDuration) {
+		this.maxDuration = maxDuration;
+	}
+	
+	/**
+	 * Get the max cost.
+	 * @return the maxCost
+	 */
+	public double getMaxCost() {
+		return maxCost;
+	}
+	
+	/**
+	 * Set the max cost. The run is cut off if its accumulated cost exceeds this value.
+	 * @param maxCost the maxCost to set (Double.POSITIVE_INFINITY means no limit)
+	 */
+	public void setMaxCost(double maxCost) {
+		this.maxCost = maxCost;
+	}
+	
+	/**
+	 * Get whether the lower bound of the duration is used or not.
+	 * @return the useDurationLowerBound
+	 */
+	public boolean isUseDurationLowerBound() {
+		return useDurationLowerBound;
+	}
+	
+	/**
+	 * Set whether the lower bound of the duration is used or not.
+	 * @param useDurationLowerBound the useDurationLowerBound to set
+	 */
+	public void setUseDurationLowerBound(boolean useDurationLowerBound) {
+		this.useDurationLowerBound = useDurationLowerBound;
+	}
+	
+	/**
+	 * Get the interval of calculating the lower bound of the duration.
+	 * @return the boundCheckInterval
+	 */
+	public int getBoundCheckInterval() {
+		return boundCheckInterval;
+	}
+	
+	/**
+	 * Set the interval of calculating the lower bound of the duration.<br>
+	 * The lower bound is calculated from all tasks, so a longer interval is faster for a large project.
+	 * @param boundCheckInterval the boundCheckInterval to set
+	 */
+	public void setBoundCheckInterval(int boundCheckInterval) {
+		this.boundCheckInterval = Math.max(1, boundCheckInterval);
+	}
+}
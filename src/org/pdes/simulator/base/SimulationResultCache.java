@@ -0,0 +1,434 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.pdes.rcp.model.WorkAmountDistribution;
+import org.pdes.simulator.model.base.BaseProjectInfo;
+import org.pdes.simulator.model.base.BaseResource;
+import org.pdes.simulator.model.base.BaseTeam;
+import org.pdes.simulator.model.base.ComponentTemplate;
+import org.pdes.simulator.model.base.TaskTemplate;
+import org.pdes.simulator.model.base.WorkAmountSampler;
+
+/**
+ * This is the content-addressed cache of simulation results on disk.<br>
+ * The result of one run (cost, duration and total work amount, and optionally the Gantt chart csv) is saved by the key of the run,
+ * which consists of the version of the cache, the hash of the model (see getModelHash()), the settings of the simulator and the key of random numbers.
+ * So the same run of the same model returns the saved result instead of simulating again, even if the layout of the diagram is changed.
+ * The total size of saved files is limited, and the least recently used results are removed first.
+ * This cache can be shared by the threads of one simulation.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class SimulationResultCache {
+	
+	public static final long DEFAULT_MAX_SIZE = 256L << 20; // 256MB
+	public static final int CACHE_VERSION = 1; // has to be increased when the semantics of simulation or the layout of saved results are changed
+	private static final String HASH_ALGORITHM = "SHA-256";
+	private static final String SUMMARY_EXTENSION = ".result";
+	private static final String GANTT_EXTENSION = ".csv";
+	
+	private final File directory;
+	private final long maxSize;
+	private final LinkedHashMap<String, Long> entrySizeMap = new LinkedHashMap<String, Long>(16, 0.75f, true); // name of entry -> size, in the order of access
+	private long totalSize = 0;
+	
+	//Other
+	private long hitCount = 0;
+	private long missCount = 0;
+	
+	/**
+	 * This is the constructor.<br>
+	 * The results already saved in "directory" are loaded in the order of their last access, and removed if they exceed "maxSize".
+	 * @param directory
+	 * @param maxSize the max total size of saved files [byte]
+	 */
+	public SimulationResultCache(File directory, long maxSize) {
+		this.directory = directory;
+		this.maxSize = maxSize;
+		directory.mkdirs();
+		File[] summaryFiles = directory.listFiles((dir, name) -> name.endsWith(SUMMARY_EXTENSION));
+		if (summaryFiles == null) return;
+		Arrays.sort(summaryFiles, (f1, f2) -> Long.compare(f1.lastModified(), f2.lastModified()));
+		for (File summaryFile : summaryFiles) {
+			String name = summaryFile.getName().substring(0, summaryFile.getName().length() - SUMMARY_EXTENSION.length());
+			long size = summaryFile.length() + getGanttFile(name).length();
+			entrySizeMap.put(name, size);
+			totalSize += size;
+		}
+		evict();
+	}
+	
+	/**
+	 * Get the directory of the cache used by default.
+	 * @return
+	 */
+	public static File getDefaultDirectory() {
+		return new File(System.getProperty("user.home"), ".pdes" + File.separator + "cache");
+	}
+	
+	/**
+	 * Get the canonical hash of the model of "project".<br>
+	 * The hash is calculated from everything which changes the simulation result:
+	 * the concurrency limit of workflows, the tasks and components (in their order), the dependencies and the organization (skills are sorted by task name).
+	 * The layout of the diagram (position and size of nodes, bend points of links) is not included,
+	 * and the number of workflows is not included either because it is a setting of the simulation.
+	 * @param project
+	 * @return the hash as hexadecimal string
+	 */
+	public static String getModelHash(BaseProjectInfo project) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(project.getConcurrencyWorkflowLimit());
+			
+			//1. Organization
+			List<BaseTeam> teamList = project.getOrganization().getTeamList();
+			out.writeInt(teamList.size());
+			for (BaseTeam team : teamList) {
+				out.writeUTF(team.getNodeId());
+				out.writeUTF(team.getName());
+				out.writeUTF(team.getSuperiorTeam() == null ? "" : team.getSuperiorTeam().getNodeId());
+				out.writeInt(team.getWorkerList().size());
+				for (BaseResource worker : team.getWorkerList()) writeResource(out, worker);
+				out.writeInt(team.getFacilityList().size());
+				for (BaseResource facility : team.getFacilityList()) writeResource(out, facility);
+			}
+			
+			//2. Tasks
+			List<TaskTemplate> taskTemplateList = project.getTemplate().getTaskTemplateList();
+			out.writeInt(taskTemplateList.size());
+			for (TaskTemplate task : taskTemplateList) {
+				out.writeUTF(task.getNodeId());
+				out.writeUTF(task.getName());
+				out.writeDouble(task.getDefaultWorkAmount());
+				out.writeDouble(task.getProgress());
+				out.writeDouble(task.getAdditionalWorkAmount());
+				out.writeBoolean(task.isNeedFacility());
+				writeSampler(out, task.getWorkAmountSampler());
+				writeSampler(out, task.getAdditionalWorkAmountSampler());
+				writePositions(out, task.getInputTaskPositions());
+				writePositions(out, task.getTargetComponentPositions());
+				out.writeInt(task.getAllocatedTeamList().size());
+				for (BaseTeam team : task.getAllocatedTeamList()) out.writeUTF(team.getNodeId());
+			}
+			
+			//3. Components
+			List<ComponentTemplate> componentTemplateList = project.getTemplate().getComponentTemplateList();
+			out.writeInt(componentTemplateList.size());
+			for (ComponentTemplate component : componentTemplateList) {
+				out.writeUTF(component.getNodeId());
+				out.writeUTF(component.getName());
+				out.writeDouble(component.getErrorTolerance());
+				writePositions(out, component.getDependingComponentPositions());
+			}
+		} catch (IOException e) {
+			e.printStackTrace(); // never occurs in memory
+		}
+		return hash(bytes.toByteArray());
+	}
+	
+	/**
+	 * Get the key of the run by the version of the cache, the model, the settings of "simulator" and the key of random numbers.<br>
+	 * The results saved by other versions of the cache are not reused because the key starts with CACHE_VERSION.
+	 * The settings are the class of the simulator, the number of workflows, the rework of error tolerance, the sampling of errors,
+	 * the priority rules, the limits of the watchdog (except the wall clock) and the thresholds of the cutoff.
+	 * A priority rule which is not an enum (e.g. lambda) has a different name in each simulator, so its result is not reused.
+	 * @param modelHash got by getModelHash()
+	 * @param simulator
+	 * @param randomKey key of random numbers of the run (e.g. ReplicationSampling#getRunKey())
+	 * @return
+	 */
+	public static String getKey(String modelHash, PDES_AbstractSimulator simulator, String randomKey) {
+		return String.join(",",
+				String.valueOf(CACHE_VERSION),
+				modelHash,
+				simulator.getClass().getName(),
+				String.valueOf(simulator.workflowList.size()),
+				String.valueOf(simulator.isConsiderReworkOfErrorTorelance()),
+				String.valueOf(simulator.isGeometricErrorSampling()),
+				String.valueOf(simulator.getTaskPriorityRule()),
+				String.valueOf(simulator.getWorkerPriorityRule()),
+				String.valueOf(simulator.getFacilityPriorityRule()),
+				String.valueOf(simulator.getWatchdog().getMaxStallTime()),
+				String.valueOf(simulator.getWatchdog().getMaxTime()),
+				String.valueOf(simulator.getCutoff().getMaxDuration()),
+				String.valueOf(simulator.getCutoff().getMaxCost()),
+				String.valueOf(simulator.getCutoff().isUseDurationLowerBound()),
+				String.valueOf(simulator.getCutoff().getBoundCheckInterval()),
+				randomKey);
+	}
+	
+	/**
+	 * Get the saved result of the run "key".
+	 * @param key got by getKey()
+	 * @return cost, duration and total work amount (null if the result is not saved)
+	 */
+	public synchronized double[] get(String key) {
+		String name = hash(key.getBytes(StandardCharsets.UTF_8));
+		if (entrySizeMap.containsKey(name)) {
+			try {
+				List<String> lines = Files.readAllLines(getSummaryFile(name).toPath(), StandardCharsets.UTF_8);
+				if (lines.size() == 2 && lines.get(0).equals(key)) {
+					entrySizeMap.get(name); // most recently used
+					getSummaryFile(name).setLastModified(System.currentTimeMillis());
+					hitCount++;
+					return Arrays.stream(lines.get(1).split(",")).mapToDouble(Double::parseDouble).toArray();
+				}
+			} catch (IOException | NumberFormatException e) {
+				// broken result is removed below
+			}
+			remove(name);
+		}
+		missCount++;
+		return null;
+	}
+	
+	/**
+	 * Copy the saved Gantt chart csv of the run "key" to "destination".
+	 * @param key got by getKey()
+	 * @param destination
+	 * @return TRUE if copied, FALSE if the Gantt chart of the run is not saved
+	 */
+	public synchronized boolean copyGanttFile(String key, File destination) {
+		String name = hash(key.getBytes(StandardCharsets.UTF_8));
+		File ganttFile = getGanttFile(name);
+		if (!entrySizeMap.containsKey(name) || !ganttFile.isFile()) return false;
+		try {
+			Files.copy(ganttFile.toPath(), destination.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Save the result of the run "key".<br>
+	 * The least recently used results are removed if the total size exceeds the max size.
+	 * @param key got by getKey()
+	 * @param values cost, duration and total work amount
+	 * @param ganttFile Gantt chart csv of the run saved by PDES_AbstractSimulator#saveResultFileByCsv() (null if it is not saved)
+	 */
+	public void put(String key, double[] values, File ganttFile) {
+		String name = hash(key.getBytes(StandardCharsets.UTF_8));
+		String temporaryName = name + "." + Thread.currentThread().getId() + ".tmp";
+		File temporarySummaryFile = new File(directory, temporaryName);
+		File temporaryGanttFile = new File(directory, temporaryName + GANTT_EXTENSION);
+		try {
+			// Files are written without lock, and moved to the cache atomically.
+			if (ganttFile != null) Files.copy(ganttFile.toPath(), temporaryGanttFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			StringBuilder text = new StringBuilder(key).append("\n");
+			for (int i = 0; i < values.length; i++) text.append(i == 0 ? "" : ",").append(values[i]);
+			Files.write(temporarySummaryFile.toPath(), text.append("\n").toString().getBytes(StandardCharsets.UTF_8));
+			
+			synchronized (this) {
+				remove(name);
+				long size = temporarySummaryFile.length();
+				if (ganttFile != null) {
+					size += temporaryGanttFile.length();
+					Files.move(temporaryGanttFile.toPath(), getGanttFile(name).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				}
+				Files.move(temporarySummaryFile.toPath(), getSummaryFile(name).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				entrySizeMap.put(name, size);
+				totalSize += size;
+				evict();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			temporarySummaryFile.delete(); // only if not moved
+			temporaryGanttFile.delete();
+		}
+	}
+	
+	/**
+	 * Remove all saved results.
+	 */
+	public synchronized void clear() {
+		new LinkedHashMap<String, Long>(entrySizeMap).keySet().forEach(name -> remove(name));
+	}
+	
+	/**
+	 * Remove the least recently used results until the total size is lower than the max size.
+	 */
+	private void evict() {
+		Iterator<Map.Entry<String, Long>> iterator = entrySizeMap.entrySet().iterator();
+		while (totalSize > maxSize && iterator.hasNext()) {
+			Map.Entry<String, Long> entry = iterator.next();
+			totalSize -= entry.getValue();
+			iterator.remove();
+			getSummaryFile(entry.getKey()).delete();
+			getGanttFile(entry.getKey()).delete();
+		}
+	}
+	
+	/**
+	 * Remove the saved result "name".
+	 * @param name
+	 */
+	private void remove(String name) {
+		Long size = entrySizeMap.remove(name);
+		if (size != null) totalSize -= size;
+		getSummaryFile(name).delete();
+		getGanttFile(name).delete();
+	}
+	
+	/**
+	 * Get the file of cost, duration and total work amount of the result "name".
+	 * @param name
+	 * @return
+	 */
+	private File getSummaryFile(String name) {
+		return new File(directory, name + SUMMARY_EXTENSION);
+	}
+	
+	/**
+	 * Get the file of Gantt chart of the result "name".
+	 * @param name
+	 * @return
+	 */
+	private File getGanttFile(String name) {
+		return new File(directory, name + GANTT_EXTENSION);
+	}
+	
+	/**
+	 * Write the name, cost and skills of "resource".
+	 * @param out
+	 * @param resource
+	 * @throws IOException
+	 */
+	private static void writeResource(DataOutputStream out, BaseResource resource) throws IOException {
+		out.writeUTF(resource.getName());
+		out.writeDouble(resource.getCostPerTime());
+		for (Map<String, Double> skillMap : Arrays.asList(resource.getWorkAmountSkillMap(), resource.getQualitySkillMap())) {
+			Map<String, Double> sortedSkillMap = new TreeMap<String, Double>(skillMap);
+			out.writeInt(sortedSkillMap.size());
+			for (Map.Entry<String, Double> skill : sortedSkillMap.entrySet()) {
+				out.writeUTF(skill.getKey());
+				out.writeDouble(skill.getValue());
+			}
+		}
+	}
+	
+	/**
+	 * Write the distribution of "sampler" (only a byte if null).
+	 * @param out
+	 * @param sampler
+	 * @throws IOException
+	 */
+	private static void writeSampler(DataOutputStream out, WorkAmountSampler sampler) throws IOException {
+		if (sampler == null) {
+			out.writeByte(0);
+			return;
+		}
+		WorkAmountDistribution distribution = sampler.getDistribution();
+		out.writeByte(distribution.getType().ordinal() + 1);
+		for (double parameter : distribution.getParameters()) out.writeDouble(parameter);
+	}
+	
+	/**
+	 * Write the positions of related tasks or components.
+	 * @param out
+	 * @param positions
+	 * @throws IOException
+	 */
+	private static void writePositions(DataOutputStream out, int[] positions) throws IOException {
+		out.writeInt(positions.length);
+		for (int position : positions) out.writeInt(position);
+	}
+	
+	/**
+	 * Get the hash of "bytes" as hexadecimal string.
+	 * @param bytes
+	 * @return
+	 */
+	private static String hash(byte[] bytes) {
+		try {
+			StringBuilder text = new StringBuilder();
+			for (byte b : MessageDigest.getInstance(HASH_ALGORITHM).digest(bytes)) text.append(String.format("%02x", b));
+			return text.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e); // SHA-256 is supported by every Java platform
+		}
+	}
+	
+	/**
+	 * Get the directory of this cache.
+	 * @return the directory
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+	
+	/**
+	 * Get the max total size of saved files.
+	 * @return the maxSize [byte]
+	 */
+	public long getMaxSize() {
+		return maxSize;
+	}
+	
+	/**
+	 * Get the total size of saved files.
+	 * @return the totalSize [byte]
+	 */
+	public synchronized long getTotalSize() {
+		return totalSize;
+	}
+	
+	/**
+	 * Get the number of results got from this cache.
+	 * @return the hitCount
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+	
+	/**
+	 * Get the number of results not found in this cache.
+	 * @return the missCount
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+}
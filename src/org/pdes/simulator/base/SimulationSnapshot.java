@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.pdes.simulator.model.base.BaseComponent;
+import org.pdes.simulator.model.base.BaseFacility;
+import org.pdes.simulator.model.base.BaseResource;
+import org.pdes.simulator.model.base.BaseTask;
+import org.pdes.simulator.model.base.BaseWorker;
+import org.pdes.simulator.model.base.ReplicationRandom;
+import org.pdes.simulator.model.base.ResourceSnapshot;
+import org.pdes.simulator.model.base.TaskSnapshot;
+
+/**
+ * This is the snapshot of the whole state of simulation at the beginning of a time step, for what-if branching.<br>
+ * It has the state of tasks (remaining work, PERT data, allocation and random numbers), resources, components (error and random numbers) and the watchdog.
+ * Any number of independent continuations can be forked from one snapshot by restore(simulator) and PDES_AbstractSimulator#resume(),
+ * so only the suffix after the snapshot is simulated for each branch.
+ * The simulator of a branch can have a modified organization (e.g. added workers or changed skills and costs) or modified rules,
+ * but the tasks and components have to be the same as the simulated project.
+ * Resources are matched by the team and the name, and the resources which are not in the snapshot start as free.
+ * The unmodified branch reproduces the same result as the simulation without the snapshot.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class SimulationSnapshot {
+	
+	private final int time;
+	private final int lastProgressTime;
+	private final long lastProgressCount;
+	
+	// Project
+	private final List<String> taskNameList;
+	private final List<TaskSnapshot> taskSnapshotList;
+	private final double[] criticalPathLengths; // for each workflow
+	private final double[] componentErrors;
+	private final List<ReplicationRandom> componentRandomList;
+	
+	// Organization
+	private final List<String> workerKeyList;
+	private final List<ResourceSnapshot> workerSnapshotList;
+	private final List<String> facilityKeyList;
+	private final List<ResourceSnapshot> facilitySnapshotList;
+	
+	/**
+	 * This is the constructor.<br>
+	 * The state of "simulator" is taken at this moment, so this is called while the simulation is paused (see PDES_AbstractSimulator#setPauseTime()).
+	 * @param simulator
+	 */
+	public SimulationSnapshot(PDES_AbstractSimulator simulator) {
+		this.time = simulator.time;
+		this.lastProgressTime = simulator.watchdog.getLastProgressTime();
+		this.lastProgressCount = simulator.watchdog.getLastProgressCount();
+		this.taskNameList = simulator.allTaskList.stream().map(t -> t.getName()).collect(Collectors.toList());
+		this.taskSnapshotList = simulator.allTaskList.stream().map(t -> t.takeSnapshot()).collect(Collectors.toList());
+		this.criticalPathLengths = simulator.workflowList.stream().mapToDouble(w -> w.getCriticalPathLength()).toArray();
+		List<BaseComponent> componentList = getComponentList(simulator);
+		this.componentErrors = componentList.stream().mapToDouble(c -> c.getError()).toArray();
+		this.componentRandomList = componentList.stream().map(c -> {
+			ReplicationRandom random = new ReplicationRandom();
+			random.copyState(c.getRandom());
+			return random;
+		}).collect(Collectors.toList());
+		List<BaseWorker> workerList = simulator.organization.getWorkerList();
+		this.workerKeyList = getResourceKeyList(workerList);
+		this.workerSnapshotList = workerList.stream().map(w -> w.takeSnapshot()).collect(Collectors.toList());
+		List<BaseFacility> facilityList = simulator.organization.getFacilityList();
+		this.facilityKeyList = getResourceKeyList(facilityList);
+		this.facilitySnapshotList = facilityList.stream().map(f -> f.takeSnapshot()).collect(Collectors.toList());
+	}
+	
+	/**
+	 * Check whether this snapshot can be restored to "simulator" or not.<br>
+	 * The tasks, workflows and components have to be the same as the simulated project,
+	 * and the resources allocated to unfinished tasks have to be in the organization of "simulator".
+	 * @param simulator
+	 * @return the list of problems (empty if this snapshot can be restored)
+	 */
+	public List<String> checkCompatibility(PDES_AbstractSimulator simulator) {
+		List<String> problemList = new ArrayList<String>();
+		List<BaseTask> taskList = simulator.allTaskList;
+		if (taskList.size() != taskNameList.size()) {
+			problemList.add(String.format("The number of tasks is %d, but %d in the snapshot.", taskList.size(), taskNameList.size()));
+			return problemList;
+		}
+		for (int i = 0; i < taskList.size(); i++) {
+			if (!Objects.equals(taskList.get(i).getName(), taskNameList.get(i))) {
+				problemList.add(String.format("Task %s is %s in the snapshot.", taskList.get(i).getName(), taskNameList.get(i)));
+			}
+		}
+		if (simulator.workflowList.size() != criticalPathLengths.length) {
+			problemList.add(String.format("The number of workflows is %d, but %d in the snapshot.", simulator.workflowList.size(), criticalPathLengths.length));
+		}
+		if (getComponentList(simulator).size() != componentErrors.length) {
+			problemList.add(String.format("The number of components is %d, but %d in the snapshot.", getComponentList(simulator).size(), componentErrors.length));
+		}
+		if (!problemList.isEmpty()) return problemList;
+		
+		BaseWorker[] workers = resolveResources(workerKeyList, simulator.organization.getWorkerList(), new BaseWorker[workerKeyList.size()]);
+		BaseFacility[] facilities = resolveResources(facilityKeyList, simulator.organization.getFacilityList(), new BaseFacility[facilityKeyList.size()]);
+		for (int i = 0; i < taskSnapshotList.size(); i++) {
+			TaskSnapshot snapshot = taskSnapshotList.get(i);
+			if (snapshot.getStateInt() == 4) continue;
+			for (int w : snapshot.getAllocatedWorkerIndexes()) {
+				if (workers[w] == null) problemList.add(String.format("Worker %s allocated to %s is not in the organization.", workerKeyList.get(w), taskNameList.get(i)));
+			}
+			int f = snapshot.getAllocatedFacilityIndex();
+			if (f >= 0 && facilities[f] == null) problemList.add(String.format("Facility %s allocated to %s is not in the organization.", facilityKeyList.get(f), taskNameList.get(i)));
+		}
+		return problemList;
+	}
+	
+	/**
+	 * Restore this snapshot to "simulator" for simulating the continuation by PDES_AbstractSimulator#resume().<br>
+	 * "simulator" is initialized first, so it can be the simulator which this snapshot is taken from, or another one which has a copy of the project.
+	 * This snapshot is not changed, so it can be restored any number of times.
+	 * @param simulator
+	 * @return TRUE if restored, FALSE if this snapshot cannot be restored to "simulator" (see checkCompatibility())
+	 */
+	public boolean restore(PDES_AbstractSimulator simulator) {
+		if (!checkCompatibility(simulator).isEmpty()) return false;
+		simulator.initialize();
+		
+		List<BaseTask> taskList = simulator.allTaskList;
+		List<BaseWorker> workerList = simulator.organization.getWorkerList();
+		List<BaseFacility> facilityList = simulator.organization.getFacilityList();
+		BaseWorker[] workers = resolveResources(workerKeyList, workerList, new BaseWorker[workerKeyList.size()]);
+		BaseFacility[] facilities = resolveResources(facilityKeyList, facilityList, new BaseFacility[facilityKeyList.size()]);
+		
+		// Tasks
+		for (int i = 0; i < taskList.size(); i++) {
+			TaskSnapshot snapshot = taskSnapshotList.get(i);
+			List<BaseWorker> allocatedWorkerList = Arrays.stream(snapshot.getAllocatedWorkerIndexes())
+					.mapToObj(w -> workers[w])
+					.filter(w -> w != null)
+					.collect(Collectors.toList());
+			BaseFacility allocatedFacility = (snapshot.getAllocatedFacilityIndex() < 0) ? null : facilities[snapshot.getAllocatedFacilityIndex()];
+			taskList.get(i).restoreSnapshot(snapshot, allocatedWorkerList, allocatedFacility);
+		}
+		for (int i = 0; i < criticalPathLengths.length; i++) {
+			simulator.workflowList.get(i).setCriticalPathLength(criticalPathLengths[i]);
+		}
+		
+		// Components
+		List<BaseComponent> componentList = getComponentList(simulator);
+		for (int i = 0; i < componentList.size(); i++) {
+			componentList.get(i).setError(componentErrors[i]);
+			componentList.get(i).getRandom().copyState(componentRandomList.get(i));
+		}
+		
+		// Resources
+		for (int i = 0; i < workers.length; i++) {
+			if (workers[i] != null) workers[i].restoreSnapshot(workerSnapshotList.get(i), getTaskList(workerSnapshotList.get(i), taskList));
+		}
+		for (int i = 0; i < facilities.length; i++) {
+			if (facilities[i] != null) facilities[i].restoreSnapshot(facilitySnapshotList.get(i), getTaskList(facilitySnapshotList.get(i), taskList));
+		}
+		
+		simulator.time = time;
+		simulator.resetProgressCount();
+		simulator.watchdog.restart(lastProgressTime, lastProgressCount);
+		return true;
+	}
+	
+	/**
+	 * Get the list of all components of the project in the order of products.
+	 * @param simulator
+	 * @return
+	 */
+	private static List<BaseComponent> getComponentList(PDES_AbstractSimulator simulator) {
+		return simulator.productList.stream()
+				.flatMap(p -> p.getComponentList().stream())
+				.collect(Collectors.toList());
+	}
+	
+	/**
+	 * Get the key of each resource for matching resources in another organization.<br>
+	 * The key is "team node id/resource name", and "#n" is added to the n-th (n > 0) resource which has the same key.
+	 * @param resourceList
+	 * @return
+	 */
+	private static List<String> getResourceKeyList(List<? extends BaseResource> resourceList) {
+		Map<String, Integer> countMap = new HashMap<String, Integer>();
+		List<String> keyList = new ArrayList<String>();
+		for (BaseResource resource : resourceList) {
+			String key = resource.getTeam().getNodeId() + "/" + resource.getName();
+			int count = countMap.merge(key, 1, Integer::sum) - 1;
+			keyList.add(count == 0 ? key : key + "#" + count);
+		}
+		return keyList;
+	}
+	
+	/**
+	 * Resolve the resources in the snapshot to the resources in "resourceList" by their keys.
+	 * @param keyList the keys of resources in the snapshot
+	 * @param resourceList
+	 * @param resources filled with the resource which has the same key (null if not found)
+	 * @return resources
+	 */
+	private static <T extends BaseResource> T[] resolveResources(List<String> keyList, List<T> resourceList, T[] resources) {
+		List<String> currentKeyList = getResourceKeyList(resourceList);
+		Map<String, T> resourceMap = new HashMap<String, T>();
+		for (int i = 0; i < resourceList.size(); i++) resourceMap.put(currentKeyList.get(i), resourceList.get(i));
+		for (int i = 0; i < keyList.size(); i++) resources[i] = resourceMap.get(keyList.get(i));
+		return resources;
+	}
+	
+	/**
+	 * Get the list of tasks assigned to the resource of "snapshot".
+	 * @param snapshot
+	 * @param taskList all tasks of the project
+	 * @return
+	 */
+	private static List<BaseTask> getTaskList(ResourceSnapshot snapshot, List<BaseTask> taskList) {
+		return Arrays.stream(snapshot.getAssignedTaskIndexes())
+				.mapToObj(t -> taskList.get(t))
+				.collect(Collectors.toList());
+	}
+	
+	/**
+	 * Get the time of this snapshot.<br>
+	 * The continuation starts from this time step.
+	 * @return the time
+	 */
+	public int getTime() {
+		return time;
+	}
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+/**
+ * This is the watchdog for stopping the simulation which will never be finished.<br>
+ * The simulation is stopped if one of the followings is satisfied:<br>
+ * 1. Nothing progresses (no change of task state and no work) during "maxStallTime".<br>
+ * 2. Simulation time exceeds "maxTime".<br>
+ * 3. Wall-clock time from the start exceeds "maxWallClockMillis".<br>
+ * The reason is kept after stopping, so the result of simulation can be marked as a diagnostic one.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class SimulationWatchdog {
+	
+	/**
+	 * The reason of stopping the simulation.
+	 */
+	public enum StopReason {
+		/** Not stopped*/
+		NONE,
+		/** Nothing progresses during max stall time*/
+		STALLED,
+		/** Simulation time exceeds max time*/
+		MAX_TIME_EXCEEDED,
+		/** Wall-clock time exceeds the limit*/
+		WALL_CLOCK_EXCEEDED,
+	}
+	
+	public static final int DEFAULT_MAX_STALL_TIME = 100;
+	
+	// Limits
+	private int maxStallTime = DEFAULT_MAX_STALL_TIME; // the number of time steps without progress
+	private int maxTime = Integer.MAX_VALUE; // max simulation time
+	private long maxWallClockMillis = 0; // 0 means no limit
+	
+	// State
+	private long lastProgressCount;
+	private int lastProgressTime;
+	private long startMillis;
+	private StopReason stopReason = StopReason.NONE;
+	private int stopTime = -1;
+	
+	/**
+	 * Reset this watchdog at the beginning of simulation.
+	 */
+	public void start() {
+		lastProgressCount = -1;
+		lastProgressTime = 0;
+		startMillis = System.currentTimeMillis();
+		stopReason = StopReason.NONE;
+		stopTime = -1;
+	}
+	
+	/**
+	 * Reset this watchdog at the restart of simulation from a snapshot.<br>
+	 * The last progress is restored so that a stall is detected in the same way as the simulation without the snapshot.
+	 * The wall clock limit is counted from now.
+	 * @param lastProgressTime
+	 * @param lastProgressCount
+	 */
+	public void restart(int lastProgressTime, long lastProgressCount) {
+		start();
+		this.lastProgressTime = lastProgressTime;
+		this.lastProgressCount = lastProgressCount;
+	}
+	
+	/**
+	 * Check whether the simulation has to be stopped or not at "time".
+	 * @param time
+	 * @param progressCount the number of changes in the simulation until now, which increases if something progresses
+	 * @return TRUE if the simulation has to be stopped
+	 */
+	public boolean check(int time, long progressCount) {
+		if (progressCount != lastProgressCount) {
+			lastProgressCount = progressCount;
+			lastProgressTime = time;
+		}
+		if (time - lastProgressTime >= maxStallTime) {
+			stop(StopReason.STALLED, time);
+		} else if (time >= maxTime) {
+			stop(StopReason.MAX_TIME_EXCEEDED, time);
+		} else if (maxWallClockMillis > 0 && System.currentTimeMillis() - startMillis >= maxWallClockMillis) {
+			stop(StopReason.WALL_CLOCK_EXCEEDED, time);
+		}
+		return isStopped();
+	}
+	
+	/**
+	 * Record the reason of stopping.
+	 * @param reason
+	 * @param time
+	 */
+	private void stop(StopReason reason, int time) {
+		stopReason = reason;
+		stopTime = time;
+	}
+	
+	/**
+	 * Check whether the simulation was stopped by this watchdog or not.
+	 * @return
+	 */
+	public boolean isStopped() {
+		return stopReason != StopReason.NONE;
+	}
+	
+	/**
+	 * Get the reason of stopping.
+	 * @return the stopReason
+	 */
+	public StopReason getStopReason() {
+		return stopReason;
+	}
+	
+	/**
+	 * Get the simulation time when the simulation was stopped.
+	 * @return the stopTime, or -1 if not stopped
+	 */
+	public int getStopTime() {
+		return stopTime;
+	}
+	
+	/**
+	 * Get the simulation time when something progressed at last.
+	 * @return the lastProgressTime
+	 */
+	public int getLastProgressTime() {
+		return lastProgressTime;
+	}
+	
+	/**
+	 * Get the number of changes in the simulation at the last progress.
+	 * @return the lastProgressCount
+	 */
+	public long getLastProgressCount() {
+		return lastProgressCount;
+	}
+	
+	/**
+	 * Get the text of the reason of stopping.
+	 * @return
+	 */
+	public String getStopMessage() {
+		switch (stopReason) {
+		case STALLED:
+			return String.format("Simulation was stopped at %d because nothing progressed after %d.", stopTime, lastProgressTime);
+		case MAX_TIME_EXCEEDED:
+			return String.format("Simulation was stopped at %d because it exceeded the max time.", stopTime);
+		case WALL_CLOCK_EXCEEDED:
+			return String.format("Simulation was stopped at %d because it exceeded %d [millisec].", stopTime, maxWallClockMillis);
+		default:
+			return "";
+		}
+	}
+
+	/**
+	 * Get the number of time steps without progress for judging a stall.
+	 * @return the maxStallTime
+	 */
+	public int getMaxStallTime() {
+		return maxStallTime;
+	}
+
+	/**
+	 * Set the number of time steps without progress for judging a stall.
+	 * @param maxStallTime the maxStallTime to set
+	 */
+	public void setMaxStallTime(int maxStallTime) {
+		this.maxStallTime = maxStallTime;
+	}
+
+	/**
+	 * Get the max simulation time.
+	 * @return the maxTime
+	 */
+	public int getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * Set the max simulation time.
+	 * @param maxTime the maxTime to set
+	 */
+	public void setMaxTime(int maxTime) {
+		this.maxTime = maxTime;
+	}
+
+	/**
+	 * Get the limit of wall-clock time.
+	 * @return the maxWallClockMillis, 0 means no limit
+	 */
+	public long getMaxWallClockMillis() {
+		return maxWallClockMillis;
+	}
+
+	/**
+	 * Set the limit of wall-clock time.
+	 * @param maxWallClockMillis the maxWallClockMillis to set, 0 means no limit
+	 */
+	public void setMaxWallClockMillis(long maxWallClockMillis) {
+		this.maxWallClockMillis = maxWallClockMillis;
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.pdes.simulator.model.base.BaseTask;
+import org.pdes.simulator.model.base.BaseWorker;
+
+/**
+ * This is the bit matrix of skills and assignments between tasks and workers.<br>
+ * Each task has two bit sets over the positions of the sorted worker list:
+ * workers who have the skill of the task, and workers who are already assigned to the task.
+ * Workers which can be newly assigned to a task are got by word-wide AND-NOT of these bit sets,
+ * in the same order as the sorted worker list.<br>
+ * This class is only for multi-task worker simulation.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class WorkerAssignmentMatrix {
+	
+	private final List<BaseWorker> sortedWorkerList;
+	private final int[] position; // position of each worker (by index) in sortedWorkerList
+	private final long[][] skillBits; // [task index][word]
+	private final long[][] assignedBits; // [task index][word]
+	
+	/**
+	 * This is the constructor.<br>
+	 * Skill information is calculated at once because skill maps and allocated teams do not change during simulation.
+	 * @param taskList the list of all tasks which index is the same as the position of this list.
+	 * @param sortedWorkerList the list of all workers sorted by the priority rule.
+	 */
+	public WorkerAssignmentMatrix(List<BaseTask> taskList, List<BaseWorker> sortedWorkerList) {
+		this.sortedWorkerList = new ArrayList<BaseWorker>(sortedWorkerList);
+		this.position = new int[sortedWorkerList.size()];
+		int words = (sortedWorkerList.size() + 63) / 64;
+		this.skillBits = new long[taskList.size()][words];
+		this.assignedBits = new long[taskList.size()][words];
+		for (int p = 0; p < sortedWorkerList.size(); p++) {
+			position[sortedWorkerList.get(p).getIndex()] = p;
+		}
+		for (BaseTask task : taskList) {
+			int t = task.getIndex();
+			for (int p = 0; p < sortedWorkerList.size(); p++) {
+				if (sortedWorkerList.get(p).hasSkill(task)) skillBits[t][p >>> 6] |= 1L << p;
+			}
+			task.getAllocatedWorkerList().forEach(w -> setAssigned(task, w));
+		}
+	}
+	
+	/**
+	 * Check whether this matrix is built for the same order of workers as "sortedWorkerList".
+	 * @param sortedWorkerList
+	 * @return
+	 */
+	public boolean isBuiltFor(List<BaseWorker> sortedWorkerList) {
+		return this.sortedWorkerList.equals(sortedWorkerList);
+	}
+	
+	/**
+	 * Get the list of workers who have the skill of "task" and are not assigned to "task" yet.
+	 * @param task
+	 * @return
+	 */
+	public List<BaseWorker> getAssignableWorkerList(BaseTask task) {
+		List<BaseWorker> assignableWorkerList = new ArrayList<BaseWorker>();
+		long[] skill = skillBits[task.getIndex()];
+		long[] assigned = assignedBits[task.getIndex()];
+		for (int w = 0; w < skill.length; w++) {
+			long bits = skill[w] & ~assigned[w];
+			while (bits != 0) {
+				assignableWorkerList.add(sortedWorkerList.get((w << 6) + Long.numberOfTrailingZeros(bits)));
+				bits &= bits - 1;
+			}
+		}
+		return assignableWorkerList;
+	}
+	
+	/**
+	 * Record that "worker" is assigned to "task".
+	 * @param task
+	 * @param worker
+	 */
+	public void setAssigned(BaseTask task, BaseWorker worker) {
+		int p = position[worker.getIndex()];
+		assignedBits[task.getIndex()][p >>> 6] |= 1L << p;
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base.priority;
+
+import org.pdes.simulator.model.base.BaseResource;
+
+/**
+ * This is the enumeration of basic resource priority rules.<br>
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public enum BasicResourcePriorityRule implements ResourcePriorityRule {
+	
+	/** SSP (a resource which amount of skill point is lower has high priority). This is the default rule. */
+	SSP {
+		@Override
+		public double getKey(BaseResource resource) {
+			return resource.getTotalWorkAmountSkillPoint();
+		}
+	},
+	
+	/** Cheapest first (a resource which cost per time is lower has high priority) */
+	CHEAPEST {
+		@Override
+		public double getKey(BaseResource resource) {
+			return resource.getCostPerTime();
+		}
+	},
+	
+	/** Most specialized first (a resource which has fewer kinds of skill has high priority) */
+	MOST_SPECIALIZED {
+		@Override
+		public double getKey(BaseResource resource) {
+			return resource.getWorkAmountSkillMap().values().stream().filter(v -> v > 0.0).count();
+		}
+	},
+}
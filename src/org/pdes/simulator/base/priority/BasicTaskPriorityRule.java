@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base.priority;
+
+import org.pdes.simulator.model.base.BaseTask;
+
+/**
+ * This is the enumeration of basic task priority rules.<br>
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public enum BasicTaskPriorityRule implements TaskPriorityRule {
+	
+	/** 1. Due date, 2. TSLACK (a task which Slack time(LS-ES) is lower has high priority). This is the default rule. */
+	DUE_DATE_AND_SLACK {
+		@Override
+		public double getPrimaryKey(BaseTask task, int time) {
+			return task.getDueDate();
+		}
+		
+		@Override
+		public double getSecondaryKey(BaseTask task, int time) {
+			return task.getLst() - task.getEst();
+		}
+	},
+	
+	/** SPT (a task which remaining work amount is lower has high priority) */
+	SPT {
+		@Override
+		public double getPrimaryKey(BaseTask task, int time) {
+			return task.getRemainingWorkAmount();
+		}
+	},
+	
+	/** LPT (a task which remaining work amount is higher has high priority) */
+	LPT {
+		@Override
+		public double getPrimaryKey(BaseTask task, int time) {
+			return -task.getRemainingWorkAmount();
+		}
+	},
+	
+	/** MIS (a task which has more output tasks has high priority), ties are broken by TSLACK. */
+	MOST_SUCCESSORS {
+		@Override
+		public double getPrimaryKey(BaseTask task, int time) {
+			return -task.getOutputTaskList().size();
+		}
+		
+		@Override
+		public double getSecondaryKey(BaseTask task, int time) {
+			return task.getLst() - task.getEst();
+		}
+	},
+	
+	/** CR (a task which (LF - time) / remaining work amount is lower has high priority) */
+	CRITICAL_RATIO {
+		@Override
+		public double getPrimaryKey(BaseTask task, int time) {
+			double remainingWorkAmount = task.getRemainingWorkAmount();
+			if (remainingWorkAmount <= 0) return Double.MAX_VALUE;
+			return (task.getLft() - time) / remainingWorkAmount;
+		}
+		
+		@Override
+		public boolean isTimeDependent() {
+			return true;
+		}
+	},
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base.priority;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.pdes.simulator.model.base.BaseResource;
+
+/**
+ * This is the pool of resources (workers or facilities) ordered by ResourcePriorityRule.<br>
+ * The rank of each resource is decided once in initialize() and free resources are kept as a bit set over ranks,
+ * so the sorted list of free resources can be got without sorting.
+ * Resources notify this pool when their state is changed.<br>
+ * The order of resources is the same as the stable sort of the list of resources by the key of the rule.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class ResourcePool<T extends BaseResource> {
+	
+	private final List<T> resourceList; // the index of each resource is the same as BaseResource#getIndex()
+	private ResourcePriorityRule rule;
+	
+	private final int[] rank; // rank of each resource
+	private final List<T> sortedResourceList;
+	private final long[] freeBits; // bit set of free resources over ranks
+	
+	/**
+	 * This is the constructor.
+	 * @param resourceList the list of all resources which index is the same as the position of this list.
+	 * @param rule
+	 */
+	public ResourcePool(List<T> resourceList, ResourcePriorityRule rule) {
+		this.resourceList = resourceList;
+		this.rule = rule;
+		this.rank = new int[resourceList.size()];
+		this.sortedResourceList = new ArrayList<T>(resourceList);
+		this.freeBits = new long[(resourceList.size() + 63) / 64];
+		resourceList.forEach(r -> r.addChangeListener(this::updateState));
+	}
+	
+	/**
+	 * Initialize the rank of each resource by the rule and the set of free resources.<br>
+	 * This has to be called after initializing resources.
+	 */
+	public void initialize() {
+		double[] key = resourceList.stream().mapToDouble(r -> rule.getKey(r)).toArray();
+		List<Integer> order = IntStream.range(0, resourceList.size()).boxed().collect(Collectors.toList());
+		Collections.sort(order, (i, j) -> {
+			int c = Double.compare(key[i], key[j]);
+			if (c != 0) return c;
+			return Integer.compare(i, j);
+		});
+		for (int r = 0; r < order.size(); r++) {
+			int i = order.get(r);
+			rank[i] = r;
+			sortedResourceList.set(r, resourceList.get(i));
+		}
+		resourceList.forEach(r -> updateState(r));
+	}
+	
+	/**
+	 * Update the set of free resources by the state of "resource".
+	 * @param resource
+	 */
+	public void updateState(BaseResource resource) {
+		int r = rank[resource.getIndex()];
+		if (resource.isFree()) freeBits[r >>> 6] |= 1L << r;
+		else freeBits[r >>> 6] &= ~(1L << r);
+	}
+	
+	/**
+	 * Get the list of free resources sorted by the rule.
+	 * @return
+	 */
+	public List<T> getFreeResourceList() {
+		List<T> freeResourceList = new ArrayList<T>();
+		for (int w = 0; w < freeBits.length; w++) {
+			long bits = freeBits[w];
+			while (bits != 0) {
+				int r = (w << 6) + Long.numberOfTrailingZeros(bits);
+				freeResourceList.add(sortedResourceList.get(r));
+				bits &= bits - 1;
+			}
+		}
+		return freeResourceList;
+	}
+	
+	/**
+	 * Get the list of all resources sorted by the rule.
+	 * @return
+	 */
+	public List<T> getResourceList() {
+		return new ArrayList<T>(sortedResourceList);
+	}
+	
+	/**
+	 * Get the rule.
+	 * @return the rule
+	 */
+	public ResourcePriorityRule getRule() {
+		return rule;
+	}
+
+	/**
+	 * Set the rule, and update the rank of each resource.
+	 * @param rule the rule to set
+	 */
+	public void setRule(ResourcePriorityRule rule) {
+		this.rule = rule;
+		initialize();
+	}
+}
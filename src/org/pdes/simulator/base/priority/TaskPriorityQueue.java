@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base.priority;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.pdes.simulator.model.base.BaseTask;
+
+/**
+ * This is the indexed priority queue of READY and WORKING tasks.<br>
+ * The keys of each task are calculated by TaskPriorityRule and stored in this queue.
+ * Tasks notify this queue when their state or PERT data is changed, and only changed tasks are re-keyed in refresh().
+ * READY and WORKING tasks are kept in separate ordered sets, and the sorted lists of them are cached
+ * and rebuilt only when a task enters, leaves or moves in the sets.<br>
+ * The order of tasks is the same as the stable sort of the list of READY tasks followed by WORKING tasks.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class TaskPriorityQueue {
+	
+	private static final int NOT_QUEUED = -1;
+	private static final int GROUP_READY = 0;
+	private static final int GROUP_WORKING = 1;
+	
+	private final List<BaseTask> taskList; // the index of each task is the same as BaseTask#getIndex()
+	private TaskPriorityRule rule;
+	
+	// Ordered sets of task index
+	private final TreeSet<Integer> readyTaskSet = new TreeSet<Integer>((i, j) -> compare(i, j));
+	private final TreeSet<Integer> workingTaskSet = new TreeSet<Integer>((i, j) -> compare(i, j));
+	
+	// Stored keys of each task
+	private final double[] primaryKey;
+	private final double[] secondaryKey;
+	private final int[] group; // NOT_QUEUED if the task is not in the sets
+	
+	// Changed tasks after last refresh
+	private final boolean[] changed;
+	private final int[] changedTaskIndexes;
+	private int changedCount = 0;
+	private int lastRefreshTime = Integer.MIN_VALUE;
+	private boolean concurrent = false; // whether tasks may be changed by multiple threads
+	
+	// Cached sorted lists
+	private final List<BaseTask> readyTaskList = new ArrayList<BaseTask>();
+	private final List<BaseTask> readyAndWorkingTaskList = new ArrayList<BaseTask>();
+	private final List<BaseTask> unmodifiableReadyTaskList = Collections.unmodifiableList(readyTaskList);
+	private final List<BaseTask> unmodifiableReadyAndWorkingTaskList = Collections.unmodifiableList(readyAndWorkingTaskList);
+	private boolean readyTaskListChanged = true;
+	private boolean readyAndWorkingTaskListChanged = true;
+	
+	/**
+	 * This is the constructor.
+	 * @param taskList the list of all tasks which index is the same as the position of this list.
+	 * @param rule
+	 */
+	public TaskPriorityQueue(List<BaseTask> taskList, TaskPriorityRule rule) {
+		int n = taskList.size();
+		this.taskList = taskList;
+		this.rule = rule;
+		this.primaryKey = new double[n];
+		this.secondaryKey = new double[n];
+		this.group = new int[n];
+		this.changed = new boolean[n];
+		this.changedTaskIndexes = new int[n];
+		Arrays.fill(group, NOT_QUEUED);
+		taskList.forEach(t -> t.addChangeListener(this::markChanged));
+		markAllChanged();
+	}
+	
+	/**
+	 * Mark "task" as changed. The key of this task is recalculated in next refresh().
+	 * @param task
+	 */
+	public void markChanged(BaseTask task) {
+		int i = task.getIndex();
+		if (changed[i]) return;
+		changed[i] = true;
+		if (!concurrent) changedTaskIndexes[changedCount++] = i;
+	}
+	
+	/**
+	 * Mark all tasks as changed.
+	 */
+	public void markAllChanged() {
+		taskList.forEach(t -> markChanged(t));
+	}
+	
+	/**
+	 * Recalculate the keys of changed tasks and update this queue.<br>
+	 * A task whose group and keys are not changed stays in its place, so the cached lists are kept.
+	 * @param time
+	 */
+	public void refresh(int time) {
+		if (rule.isTimeDependent() && time != lastRefreshTime) {
+			readyTaskSet.forEach(i -> markChanged(taskList.get(i)));
+			workingTaskSet.forEach(i -> markChanged(taskList.get(i)));
+		}
+		lastRefreshTime = time;
+		if (concurrent) collectChangedTasks();
+		for (int c = 0; c < changedCount; c++) {
+			int i = changedTaskIndexes[c];
+			changed[i] = false;
+			BaseTask task = taskList.get(i);
+			int g = getGroup(task);
+			if (g == NOT_QUEUED) {
+				if (group[i] != NOT_QUEUED) remove(i);
+				continue;
+			}
+			double primary = rule.getPrimaryKey(task, time);
+			double secondary = rule.getSecondaryKey(task, time);
+			if (g == group[i] && Double.compare(primary, primaryKey[i]) == 0 && Double.compare(secondary, secondaryKey[i]) == 0) continue;
+			if (group[i] != NOT_QUEUED) remove(i);
+			group[i] = g;
+			primaryKey[i] = primary;
+			secondaryKey[i] = secondary;
+			getTaskSet(g).add(i);
+			markListChanged(g);
+		}
+		changedCount = 0;
+	}
+	
+	/**
+	 * Set whether tasks may be changed by multiple threads or not.<br>
+	 * In concurrent mode, changed tasks are only flagged because each task is changed by one thread,
+	 * and they are collected by scanning the flags in next refresh().
+	 * This queue itself is not thread-safe, so refresh() has to be called after all threads finish.
+	 * @param concurrent
+	 */
+	public void setConcurrent(boolean concurrent) {
+		if (this.concurrent && !concurrent) collectChangedTasks();
+		this.concurrent = concurrent;
+	}
+	
+	/**
+	 * Get the list of READY tasks sorted by priority.<br>
+	 * The returned list is cached and unmodifiable, and it is updated by the next call of this method.
+	 * @param time
+	 * @return
+	 */
+	public List<BaseTask> getReadyTaskList(int time) {
+		refresh(time);
+		if (readyTaskListChanged) {
+			readyTaskList.clear();
+			readyTaskSet.forEach(i -> readyTaskList.add(taskList.get(i)));
+			readyTaskListChanged = false;
+		}
+		return unmodifiableReadyTaskList;
+	}
+	
+	/**
+	 * Get the list of READY and WORKING tasks sorted by priority.<br>
+	 * The returned list is cached and unmodifiable, and it is updated by the next call of this method.
+	 * @param time
+	 * @return
+	 */
+	public List<BaseTask> getReadyAndWorkingTaskList(int time) {
+		refresh(time);
+		if (readyAndWorkingTaskListChanged) {
+			readyAndWorkingTaskList.clear();
+			Iterator<Integer> readyIterator = readyTaskSet.iterator();
+			Iterator<Integer> workingIterator = workingTaskSet.iterator();
+			Integer ready = readyIterator.hasNext() ? readyIterator.next() : null;
+			Integer working = workingIterator.hasNext() ? workingIterator.next() : null;
+			while (ready != null || working != null) {
+				if (working == null || (ready != null && compare(ready, working) < 0)) {
+					readyAndWorkingTaskList.add(taskList.get(ready));
+					ready = readyIterator.hasNext() ? readyIterator.next() : null;
+				} else {
+					readyAndWorkingTaskList.add(taskList.get(working));
+					working = workingIterator.hasNext() ? workingIterator.next() : null;
+				}
+			}
+			readyAndWorkingTaskListChanged = false;
+		}
+		return unmodifiableReadyAndWorkingTaskList;
+	}
+	
+	/**
+	 * Get the group of "task" in this queue.
+	 * @param task
+	 * @return
+	 */
+	private int getGroup(BaseTask task) {
+		if (task.isReady()) return GROUP_READY;
+		if (task.isWorking()) return GROUP_WORKING;
+		return NOT_QUEUED;
+	}
+	
+	/**
+	 * Get the ordered set of the group "g".
+	 * @param g
+	 * @return
+	 */
+	private TreeSet<Integer> getTaskSet(int g) {
+		return (g == GROUP_READY) ? readyTaskSet : workingTaskSet;
+	}
+	
+	/**
+	 * Mark the cached lists which include the tasks of the group "g" as changed.
+	 * @param g
+	 */
+	private void markListChanged(int g) {
+		if (g == GROUP_READY) readyTaskListChanged = true;
+		readyAndWorkingTaskListChanged = true;
+	}
+	
+	/**
+	 * Collect flagged tasks to the list of changed tasks.
+	 */
+	private void collectChangedTasks() {
+		changedCount = 0;
+		for (int i = 0; i < changed.length; i++) {
+			if (changed[i]) changedTaskIndexes[changedCount++] = i;
+		}
+	}
+	
+	/**
+	 * Compare two tasks by stored keys. Ties are broken by group and index.
+	 * @param i
+	 * @param j
+	 * @return
+	 */
+	private int compare(int i, int j) {
+		int c = Double.compare(primaryKey[i], primaryKey[j]);
+		if (c != 0) return c;
+		c = Double.compare(secondaryKey[i], secondaryKey[j]);
+		if (c != 0) return c;
+		if (group[i] != group[j]) return group[i] - group[j];
+		return i - j;
+	}
+	
+	/**
+	 * Remove the task of index "i" from its set. This has to be called before its keys are changed.
+	 * @param i
+	 */
+	private void remove(int i) {
+		getTaskSet(group[i]).remove(i);
+		markListChanged(group[i]);
+		group[i] = NOT_QUEUED;
+	}
+	
+	/**
+	 * Get the number of queued tasks.
+	 * @return
+	 */
+	public int size() {
+		return readyTaskSet.size() + workingTaskSet.size();
+	}
+
+	/**
+	 * Get the rule.
+	 * @return the rule
+	 */
+	public TaskPriorityRule getRule() {
+		return rule;
+	}
+
+	/**
+	 * Set the rule. All keys are recalculated in next refresh().
+	 * @param rule the rule to set
+	 */
+	public void setRule(TaskPriorityRule rule) {
+		this.rule = rule;
+		markAllChanged();
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.base.priority;
+
+import org.pdes.simulator.model.base.BaseTask;
+
+/**
+ * This is the interface of the rule for deciding the priority of tasks.<br>
+ * Each rule gives a primary and a secondary key to a task. A task which has the lower key has the higher priority.<br>
+ * Keys are stored in TaskPriorityQueue and recalculated only when the task is changed,
+ * so keys have to be calculated only from the attributes of the task (and the time if isTimeDependent() is TRUE).
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public interface TaskPriorityRule {
+	
+	/**
+	 * Get the primary key of "task".
+	 * @param task
+	 * @param time
+	 * @return
+	 */
+	public double getPrimaryKey(BaseTask task, int time);
+	
+	/**
+	 * Get the secondary key of "task" for breaking ties of the primary key.
+	 * @param task
+	 * @param time
+	 * @return
+	 */
+	public default double getSecondaryKey(BaseTask task, int time) {
+		return 0;
+	}
+	
+	/**
+	 * Check whether keys of this rule change only by forwarding time.<br>
+	 * If TRUE, the keys of all tasks in the queue are recalculated at each time.
+	 * @return
+	 */
+	public default boolean isTimeDependent() {
+		return false;
+	}
+	
+	/**
+	 * Compare two tasks by this rule.
+	 * @param t1
+	 * @param t2
+	 * @param time
+	 * @return
+	 */
+	public default int compare(BaseTask t1, BaseTask t2, int time) {
+		int c = Double.compare(getPrimaryKey(t1, time), getPrimaryKey(t2, time));
+		if (c != 0) return c;
+		return Double.compare(getSecondaryKey(t1, time), getSecondaryKey(t2, time));
+	}
+}
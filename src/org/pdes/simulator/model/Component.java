@@ -28,8 +28,11 @@
  */
 package org.pdes.simulator.model;
 
-import org.pdes.rcp.model.ComponentNode;
+import java.util.List;
+
 import org.pdes.simulator.model.base.BaseComponent;
+import org.pdes.simulator.model.base.BaseTask;
+import org.pdes.simulator.model.base.ComponentTemplate;
 
 /**
  * @author Takuya Goto <tgoto@s.h.k.u-tokyo.ac.jp>
@@ -38,10 +41,12 @@ import org.pdes.simulator.model.base.BaseComponent;
 public class Component extends BaseComponent {
 
 	/**
-	 * @param componentNode
+	 * @param template
+	 * @param productComponentList
+	 * @param workflowTaskList
 	 */
-	public Component(ComponentNode componentNode) {
-		super(componentNode);
+	public Component(ComponentTemplate template, List<BaseComponent> productComponentList, List<BaseTask> workflowTaskList) {
+		super(template, productComponentList, workflowTaskList);
 		// TODO Auto-generated constructor stub
 	}
 
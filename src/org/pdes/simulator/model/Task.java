@@ -28,8 +28,11 @@
  */
 package org.pdes.simulator.model;
 
-import org.pdes.rcp.model.TaskNode;
+import java.util.List;
+
+import org.pdes.simulator.model.base.BaseComponent;
 import org.pdes.simulator.model.base.BaseTask;
+import org.pdes.simulator.model.base.TaskTemplate;
 
 /**
  * @author Takuya Goto <tgoto@s.h.k.u-tokyo.ac.jp>
@@ -38,10 +41,12 @@ import org.pdes.simulator.model.base.BaseTask;
 public class Task extends BaseTask {
 
 	/**
-	 * @param taskNode
+	 * @param template
+	 * @param workflowTaskList
+	 * @param productComponentList
 	 */
-	public Task(TaskNode taskNode) {
-		super(taskNode);
+	public Task(TaskTemplate template, List<BaseTask> workflowTaskList, List<BaseComponent> productComponentList) {
+		super(template, workflowTaskList, productComponentList);
 		// TODO Auto-generated constructor stub
 	}
 
@@ -29,14 +29,10 @@
 package org.pdes.simulator.model.base;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Random;
 import java.util.UUID;
 import java.util.stream.Collectors;
-
-import org.pdes.rcp.model.ComponentNode;
+import java.util.stream.IntStream;
 
 /**
  * Component model for discrete event simulation.<br>
@@ -46,28 +42,29 @@ public class BaseComponent {
 	
 	// Constraint variables on simulation
 	private final String id; // ID
-	private final String nodeId; // ComponentNode ID
-	private final String name;
-	private final double errorTolerance;
-	private final List<BaseComponent> dependingComponentList = new ArrayList<>();
-	private final List<BaseComponent> dependedComponentList = new ArrayList<>();
-	private final List<BaseTask> targetedTaskList = new ArrayList<>();
+	private final ComponentTemplate template; // shared by all copies of this component
+	private final List<BaseComponent> productComponentList; // component list of the product of this component, for resolving the positions in template
+	private final List<BaseTask> workflowTaskList; // task list of the workflow of this product, for resolving the positions in template
 	
 	// Changeable variable on simulation
 	private double error;
 	
 	//Other
-	private final Random random = new Random();
+	private final ReplicationRandom random = new ReplicationRandom();
 	
 	/**
-	 * This is the constructor.
-	 * @param componentNode
+	 * This is the constructor.<br>
+	 * Depending components, depended components and targeted tasks are resolved in "productComponentList" and "workflowTaskList",
+	 * so these lists can be filled after creating this component.
+	 * @param template
+	 * @param productComponentList
+	 * @param workflowTaskList
 	 */
-	public BaseComponent(ComponentNode componentNode) {
+	public BaseComponent(ComponentTemplate template, List<BaseComponent> productComponentList, List<BaseTask> workflowTaskList) {
 		this.id = UUID.randomUUID().toString();
-		this.nodeId = componentNode.getId();
-		this.name = componentNode.getName();
-		this.errorTolerance = componentNode.getErrorTolerance();
+		this.template = template;
+		this.productComponentList = productComponentList;
+		this.workflowTaskList = workflowTaskList;
 	}
 	
 	/**
@@ -78,43 +75,46 @@ public class BaseComponent {
 	}
 	
 	/**
-	 * Add the attribute of depending component to this.
-	 * @param component
+	 * Update error value randomly.
+	 * @param noErrorProbability
 	 */
-	public void addDependingComponent(BaseComponent component) {
-		dependingComponentList.add(component);
+	public void updateErrorValue(double noErrorProbability) {
+		if (random.nextDouble() >= noErrorProbability) error++;
 	}
 	
 	/**
-	 * Add the attribute of depended component to this,
-	 * @param component
+	 * Add one error to this component.
 	 */
-	public void addDependedComponent(BaseComponent component) {
-		dependedComponentList.add(component);
+	public void addError() {
+		error++;
 	}
 	
 	/**
-	 * Add targeted Task of this component.
-	 * @param task
+	 * Set the seed of the random numbers of this component.<br>
+	 * This is used for drawing the same random numbers in the same run of different scenarios.
+	 * @param seed
 	 */
-	public void addTargetedTask(BaseTask task) {
-		targetedTaskList.add(task);
+	public void setRandomSeed(long seed) {
+		random.setSeed(seed);
 	}
 	
 	/**
-	 * Update error value randomly.
-	 * @param noErrorProbability
+	 * Get the random number generator of this component.
+	 * @return the random
 	 */
-	public void updateErrorValue(double noErrorProbability) {
-		if (random.nextDouble() >= noErrorProbability) error++;
+	public ReplicationRandom getRandom() {
+		return random;
 	}
 	
 	/**
 	 * Get total error value including depending components.
 	 */
 	public double getTotalErrorValue() {
-		if (dependingComponentList.size() == 0) return error;
-		return error + dependingComponentList.stream().mapToDouble(c -> c.getTotalErrorValue()).sum();
+		double totalError = error;
+		for (int position : template.getDependingComponentPositions()) {
+			totalError += productComponentList.get(position).getTotalErrorValue();
+		}
+		return totalError;
 	}
 	
 	/**
@@ -122,7 +122,7 @@ public class BaseComponent {
 	 * @return
 	 */
 	public boolean checkIfErrorIsOverTolerance() {
-		if (getTotalErrorValue() > errorTolerance) {
+		if (getTotalErrorValue() > template.getErrorTolerance()) {
 			return true;
 		}
 		return false;
@@ -133,7 +133,7 @@ public class BaseComponent {
 	 */
 	public void resetErrorValue() {
 		error = 0;
-		dependingComponentList.forEach(c -> c.resetErrorValue());
+		this.getDirectlyDependingComponentList().forEach(c -> c.resetErrorValue());
 	}
 
 	/**
@@ -149,7 +149,7 @@ public class BaseComponent {
 	 * @return the nodeId
 	 */
 	public String getNodeId() {
-		return nodeId;
+		return template.getNodeId();
 	}
 
 	/**
@@ -157,7 +157,7 @@ public class BaseComponent {
 	 * @return the name
 	 */
 	public String getName() {
-		return name;
+		return template.getName();
 	}
 
 	/**
@@ -165,31 +165,39 @@ public class BaseComponent {
 	 * @return the errorTolerance
 	 */
 	public double getErrorTolerance() {
-		return errorTolerance;
+		return template.getErrorTolerance();
 	}
 
 	/**
 	 * Get the list of directly depending components.
-	 * @return the dependingComponentList
+	 * @return unmodifiable list
 	 */
 	public List<BaseComponent> getDirectlyDependingComponentList() {
-		return dependingComponentList;
+		return new PositionList<BaseComponent>(productComponentList, template.getDependingComponentPositions());
 	}
 
 	/**
 	 * Get the list of directly depended components.
-	 * @return the dependedComponentList
+	 * @return unmodifiable list
 	 */
 	public List<BaseComponent> getDirectlyDependedComponentList() {
-		return dependedComponentList;
+		return new PositionList<BaseComponent>(productComponentList, template.getDependedComponentPositions());
 	}
 	
 	/**
 	 * Get the list of targeted task.
-	 * @return the targetedTaskList
+	 * @return unmodifiable list
 	 */
 	public List<BaseTask> getTargetedTaskList() {
-		return targetedTaskList;
+		return new PositionList<BaseTask>(workflowTaskList, template.getTargetedTaskPositions());
+	}
+	
+	/**
+	 * Get the template of this component shared by all copies.
+	 * @return the template
+	 */
+	public ComponentTemplate getTemplate() {
+		return template;
 	}
 	
 	/**
@@ -221,10 +229,7 @@ public class BaseComponent {
 	public int getStartTime(){
 		return this.getAllDependingComponentList().stream()
 				.flatMap(c -> c.getTargetedTaskList().stream())
-				.mapToInt(t -> t.getStartTimeList().stream()
-						.filter(s -> s >=0)
-						.min(Comparator.naturalOrder())
-						.orElse(-1))
+				.flatMapToInt(t -> t.getStartTimeStream())
 				.filter(s -> s >= 0)
 				.min()
 				.orElse(-1);
@@ -235,14 +240,18 @@ public class BaseComponent {
 	 * @return
 	 */
 	public List<Integer> getStartTimeList(){
-		List<Integer> startTimeList = new ArrayList<Integer>();
-		this.getAllDependingComponentList().forEach(c -> {
-			c.getTargetedTaskList().forEach(t -> {
-				startTimeList.addAll(t.getStartTimeList());
-			});
-		});
-		Collections.sort(startTimeList);
-		return startTimeList;
+		return this.getStartTimeStream().boxed().collect(Collectors.toList());
+	}
+	
+	/**
+	 * Get the sorted start times from all depending components and tasks without boxing.
+	 * @return
+	 */
+	public IntStream getStartTimeStream(){
+		return this.getAllDependingComponentList().stream()
+				.flatMap(c -> c.getTargetedTaskList().stream())
+				.flatMapToInt(t -> t.getStartTimeStream())
+				.sorted();
 	}
 	
 	/**
@@ -250,14 +259,18 @@ public class BaseComponent {
 	 * @return
 	 */
 	public List<Integer> getFinishTimeList(){
-		List<Integer> finishTimeList = new ArrayList<Integer>();
-		this.getAllDependingComponentList().forEach(c -> {
-			c.getTargetedTaskList().forEach(t -> {
-				finishTimeList.addAll(t.getFinishTimeList());
-			});
-		});
-		Collections.sort(finishTimeList);
-		return finishTimeList;
+		return this.getFinishTimeStream().boxed().collect(Collectors.toList());
+	}
+	
+	/**
+	 * Get the sorted finish times from all depending components and tasks without boxing.
+	 * @return
+	 */
+	public IntStream getFinishTimeStream(){
+		return this.getAllDependingComponentList().stream()
+				.flatMap(c -> c.getTargetedTaskList().stream())
+				.flatMapToInt(t -> t.getFinishTimeStream())
+				.sorted();
 	}
 	
 	/**
@@ -267,10 +280,7 @@ public class BaseComponent {
 	public int getFinishTime(){
 		return this.getAllDependingComponentList().stream()
 				.flatMap(c -> c.getTargetedTaskList().stream())
-				.mapToInt(t -> t.getFinishTimeList().stream()
-						.filter(f -> f >=0)
-						.max(Comparator.naturalOrder())
-						.orElse(-1))
+				.flatMapToInt(t -> t.getFinishTimeStream())
 				.filter(f -> f >= 0)
 				.max()
 				.orElse(-1);
@@ -296,7 +306,7 @@ public class BaseComponent {
 	 * Transfer to text data.
 	 */
 	public String toString() {
-		String dependingComponentNames = String.join(",", dependingComponentList.stream().map(c -> c.getName()).collect(Collectors.toList()));
-		return String.format("[%s] E=%f ETotal=%f dp=%s", name, error, getTotalErrorValue(), dependingComponentNames);
+		String dependingComponentNames = String.join(",", this.getDirectlyDependingComponentList().stream().map(c -> c.getName()).collect(Collectors.toList()));
+		return String.format("[%s] E=%f ETotal=%f dp=%s", this.getName(), error, getTotalErrorValue(), dependingComponentNames);
 	}
 }
@@ -31,6 +31,7 @@ package org.pdes.simulator.model.base;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 
 /**
@@ -48,6 +49,10 @@ public class BaseOrganization {
 	 */
 	public BaseOrganization(List<BaseTeam> teamList) {
 		this.teamList = teamList;
+		List<BaseWorker> workerList = this.getWorkerList();
+		IntStream.range(0, workerList.size()).forEach(i -> workerList.get(i).setIndex(i));
+		List<BaseFacility> facilityList = this.getFacilityList();
+		IntStream.range(0, facilityList.size()).forEach(i -> facilityList.get(i).setIndex(i));
 	}
 	
 	/**
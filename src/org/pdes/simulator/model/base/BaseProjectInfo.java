@@ -48,6 +48,7 @@ import org.pdes.simulator.model.Workflow;
 public class BaseProjectInfo {
 	
 	private ProjectDiagram diagram;
+	private WorkflowTemplate template; // shared by all workflows and products
 	
 	public BaseOrganization organization;
 	public List<BaseWorkflow> workflowList;
@@ -65,16 +66,19 @@ public class BaseProjectInfo {
 		
 		this.workflowList = new ArrayList<BaseWorkflow>();
 		this.productList = new ArrayList<BaseProduct>();
+		this.template = new WorkflowTemplate(diagram, organization);
 		IntStream.range(0,workflowCount).forEach(i ->{
-			List<BaseTask> taskList = this.getTaskListConsideringOnlyTaskDependency();
-			List<BaseComponent> componentList = this.getComponentListConsideringOnlyComponentDependency();
-			this.addTargetComponentLinkInformation(componentList, taskList);
-			this.addAllocationLinkInformation(organization, taskList);
+			List<BaseTask> taskList = new ArrayList<BaseTask>(template.getTaskTemplateList().size());
+			List<BaseComponent> componentList = new ArrayList<BaseComponent>(template.getComponentTemplateList().size());
+			template.getTaskTemplateList().forEach(t -> taskList.add(new Task(t, taskList, componentList)));
+			template.getComponentTemplateList().forEach(c -> componentList.add(new Component(c, componentList, taskList)));
 			BaseWorkflow workflow = new Workflow(i,taskList);
 			BaseProduct product = new Product(i,componentList);
 			this.workflowList.add(workflow);
 			this.productList.add(product);
 		});
+		List<BaseTask> allTaskList = this.getTaskList();
+		IntStream.range(0, allTaskList.size()).forEach(i -> allTaskList.get(i).setIndex(i));
 		this.concurrencyWorkflowLimit = this.diagram.getConcurrencyLimitOfWorkflow();
 	}
 	
@@ -91,90 +95,13 @@ public class BaseProjectInfo {
 	
 	
 	/**
-	 * Get the list of Task considering only task dependency.
-	 * @return
-	 */
-	private List<BaseTask> getTaskListConsideringOnlyTaskDependency(){
-		List<BaseTask> taskList = this.diagram.getTaskNodeList().stream()
-				.map(node -> new Task(node))
-				.collect(Collectors.toList());
-		this.diagram.getTaskLinkList().forEach(link -> {
-			BaseTask destinationTask = taskList.stream()
-					.filter(task -> task.getNodeId().equals(link.getDestinationNode().getId()))
-					.findFirst()
-					.get();
-			BaseTask originTask = taskList.stream()
-					.filter(task -> task.getNodeId().equals(link.getOriginNode().getId()))
-					.findFirst()
-					.get();
-			destinationTask.addInputTask(originTask);
-			originTask.addOutputTask(destinationTask);
-		});
-		return taskList;
-	}
-	
-	/**
-	 * Get the list of Component considering only component dependency.
-	 * @return
+	 * Get the template of workflow and product shared by all copies.
+	 * @return the template
 	 */
-	private List<BaseComponent> getComponentListConsideringOnlyComponentDependency(){
-		List<BaseComponent> componentList = this.diagram.getComponentNodeList().stream()
-				.map(node -> new Component(node))
-				.collect(Collectors.toList());
-		this.diagram.getComponentLinkList().forEach(link -> {
-			BaseComponent destinationComponent = componentList.stream()
-					.filter(component -> component.getNodeId().equals(link.getDestinationNode().getId()))
-					.findFirst()
-					.get();
-			BaseComponent originComponent = componentList.stream()
-					.filter(component -> component.getNodeId().equals(link.getOriginNode().getId()))
-					.findFirst()
-					.get();
-			destinationComponent.addDependedComponent(originComponent);
-			originComponent.addDependingComponent(destinationComponent);
-		});
-		return componentList;
+	public WorkflowTemplate getTemplate() {
+		return template;
 	}
 	
-	/**
-	 * Add TargetComponentLink information to Component and Task.
-	 * @param taskList
-	 * @param componentList
-	 */
-	private void addTargetComponentLinkInformation(List<BaseComponent> componentList, List<BaseTask> taskList){
-		this.diagram.getTargetComponentLinkList().forEach(link -> {
-			BaseTask destinationTask = taskList.stream()
-					.filter(task -> task.getNodeId().equals(link.getDestinationNode().getId()))
-					.findFirst()
-					.get();
-			BaseComponent originComponent = componentList.stream()
-					.filter(component -> component.getNodeId().equals(link.getOriginNode().getId()))
-					.findFirst()
-					.get();
-			destinationTask.addTargetComponent(originComponent);
-			originComponent.addTargetedTask(destinationTask);
-		});
-	}
-	
-	/**
-	 * Add TargetComponentLink information to Team and Task.
-	 * @param organization
-	 * @param taskList
-	 */
-	private void addAllocationLinkInformation(BaseOrganization organization, List<BaseTask> taskList){
-		this.diagram.getAllocationLinkList().forEach(link -> {
-			BaseTask destinationTask = taskList.stream()
-					.filter(task -> task.getNodeId().equals(link.getDestinationNode().getId()))
-					.findFirst()
-					.get();
-			BaseTeam originTeam = organization.getTeamList().stream()
-					.filter(team -> team.getNodeId().equals(link.getOriginNode().getId()))
-					.findFirst()
-					.get();
-			destinationTask.addAllocatedTeam(originTeam);
-		});
-	}
-
 	/**
 	 * Get the Organization.
 	 * @return the organization
@@ -191,6 +118,17 @@ public class BaseProjectInfo {
 		return workflowList;
 	}
 
+	/**
+	 * Get the list of all tasks in all workflows.<br>
+	 * The position of each task in this list is the same as the index of the task.
+	 * @return
+	 */
+	public List<BaseTask> getTaskList() {
+		return workflowList.stream()
+				.flatMap(w -> w.getTaskList().stream())
+				.collect(Collectors.toList());
+	}
+
 	/**
 	 * Get the list of Product
 	 * @return the productList
@@ -32,6 +32,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import org.pdes.rcp.model.base.ResourceElement;
 
@@ -55,14 +57,20 @@ public class BaseResource {
 	protected Map<String, Double> workAmountSkillMap; // skill map of work amount <taskname, skill point>
 	protected Map<String, Double> qualitySkillMap; // skill map of quality <taskname, skill point>
 	protected BaseTeam team;
+	protected int index = -1; // dense index of this resource in the organization (workers and facilities are indexed separately)
+	protected double totalWorkAmountSkillPoint; // cache of the sum of work amount skill points
 	
 	// Changeable variable on simulation
 	protected ResourceState state;
 	protected double totalCost = 0;
-	protected final List<Integer> startTimeList = new ArrayList<Integer>(); // list of start time of one task
-	protected final List<Integer> finishTimeList = new ArrayList<Integer>(); // list of finish time of one task
+	protected int workingStartTime = -1; // start time of current working interval which labor cost is not paid yet
+	protected final IntSequence startTimes = new IntSequence(); // start times of assigned tasks
+	protected final IntSequence finishTimes = new IntSequence(); // finish times of assigned tasks
 	protected final List<BaseTask> assignedTaskList = new ArrayList<BaseTask>(); // list of worked task
 	
+	//Other
+	protected final List<Consumer<BaseResource>> changeListenerList = new ArrayList<Consumer<BaseResource>>(); // notified when the state is changed
+	
 	/**
 	 * This is the constructor.
 	 * @param resourceElement
@@ -76,6 +84,7 @@ public class BaseResource {
 		this.workAmountSkillMap = resourceElement.getWorkAmountSkillMap();
 		this.qualitySkillMap = resourceElement.getQualitySkillMap();
 		this.team = team;
+		this.totalWorkAmountSkillPoint = this.calculateTotalWorkAmountSkillPoint();
 	}
 	
 	/**
@@ -84,9 +93,44 @@ public class BaseResource {
 	public void initialize() {
 		state = ResourceState.FREE;
 		totalCost = 0;
-		startTimeList.clear();
-		finishTimeList.clear();
+		workingStartTime = -1;
+		startTimes.clear();
+		finishTimes.clear();
 		assignedTaskList.clear();
+		totalWorkAmountSkillPoint = this.calculateTotalWorkAmountSkillPoint(); // skill map does not change during simulation.
+		notifyChanged();
+	}
+	
+	/**
+	 * Take the snapshot of the changeable variables of this resource at this moment.
+	 * @return
+	 */
+	public ResourceSnapshot takeSnapshot() {
+		ResourceSnapshot snapshot = new ResourceSnapshot();
+		snapshot.working = (state == ResourceState.WORKING);
+		snapshot.totalCost = totalCost;
+		snapshot.workingStartTime = workingStartTime;
+		snapshot.startTimes = startTimes.toArray();
+		snapshot.finishTimes = finishTimes.toArray();
+		snapshot.assignedTaskIndexes = assignedTaskList.stream().mapToInt(t -> t.getIndex()).toArray();
+		return snapshot;
+	}
+	
+	/**
+	 * Restore the changeable variables of this resource from "snapshot".<br>
+	 * Assigned tasks are given by the caller because the snapshot only has their indexes.
+	 * @param snapshot
+	 * @param assignedTaskList resolved from snapshot.getAssignedTaskIndexes()
+	 */
+	public void restoreSnapshot(ResourceSnapshot snapshot, List<BaseTask> assignedTaskList) {
+		state = snapshot.working ? ResourceState.WORKING : ResourceState.FREE;
+		totalCost = snapshot.totalCost;
+		workingStartTime = snapshot.workingStartTime;
+		startTimes.setAll(snapshot.startTimes);
+		finishTimes.setAll(snapshot.finishTimes);
+		this.assignedTaskList.clear();
+		this.assignedTaskList.addAll(assignedTaskList);
+		notifyChanged();
 	}
 	
 	/**
@@ -106,24 +150,56 @@ public class BaseResource {
 	}
 	
 	/**
-	 * Set the state of this resource to "FREE".
+	 * Set the state of this resource to "FREE".<br>
+	 * Labor cost of the working interval from last start time to "time" is paid.
+	 * @param time
 	 */
-	public void setStateFree() {
+	public void setStateFree(int time) {
+		if (state == ResourceState.FREE) return;
+		payLaborCost(time);
 		state = ResourceState.FREE;
+		notifyChanged();
 	}
 	
 	/**
-	 * Set the state of this resource to "WORKING".
+	 * Set the state of this resource to "WORKING".<br>
+	 * Labor cost is paid from "time" when this resource is set to FREE or finalizeLaborCost() is called.
+	 * @param time
 	 */
-	public void setStateWorking() {
+	public void setStateWorking(int time) {
+		if (state == ResourceState.WORKING) return;
 		state = ResourceState.WORKING;
+		workingStartTime = time;
+		notifyChanged();
 	}
 	
 	/**
-	 * Working in simulation. In this simulation, total cost of this resource have to be updated.
+	 * Pay labor cost of current working interval until "time" if this resource is working.<br>
+	 * This has to be called at the end of simulation because labor cost is paid only when the state is changed to FREE.
+	 * @param time the last time of simulation
 	 */
-	public void addLaborCost() {
-		totalCost += costPerTime;
+	public void finalizeLaborCost(int time) {
+		if (state != ResourceState.WORKING) return;
+		payLaborCost(time);
+		workingStartTime = time + 1;
+	}
+	
+	/**
+	 * Get the labor cost until "time" including the current working interval which is not paid yet.
+	 * @param time
+	 * @return
+	 */
+	public double getCostUntil(int time) {
+		if (state != ResourceState.WORKING) return totalCost;
+		return totalCost + costPerTime * (time - workingStartTime + 1);
+	}
+	
+	/**
+	 * Pay labor cost of the working interval from workingStartTime to "time".
+	 * @param time
+	 */
+	private void payLaborCost(int time) {
+		totalCost += costPerTime * (time - workingStartTime + 1);
 	}
 	
 	/**
@@ -161,9 +237,18 @@ public class BaseResource {
 	
 	/**
 	 * Get total work amount skill point.
+	 * This value is calculated at the beginning of simulation because skill map does not change during simulation.
 	 * @return
 	 */
 	public double getTotalWorkAmountSkillPoint() {
+		return totalWorkAmountSkillPoint;
+	}
+	
+	/**
+	 * Calculate total work amount skill point from skill map.
+	 * @return
+	 */
+	private double calculateTotalWorkAmountSkillPoint() {
 		return workAmountSkillMap.values().stream().mapToDouble(v -> v).sum();
 	}
 	
@@ -180,7 +265,7 @@ public class BaseResource {
 	 * @param time
 	 */
 	public void addStartTime(int time) {
-		startTimeList.add(time);
+		startTimes.add(time);
 	}
 	
 	/**
@@ -188,7 +273,7 @@ public class BaseResource {
 	 * @param time
 	 */
 	public void addFinishTime(int time) {
-		finishTimeList.add(time);
+		finishTimes.add(time);
 	}
 	
 	/**
@@ -196,8 +281,8 @@ public class BaseResource {
 	 * @return
 	 */
 	public int getFirstStartTime() {
-		if (startTimeList.size() == 0) return -1;
-		return startTimeList.get(0);
+		if (startTimes.isEmpty()) return -1;
+		return startTimes.get(0);
 	}
 	
 	/**
@@ -205,8 +290,8 @@ public class BaseResource {
 	 * @return
 	 */
 	public int getLastFinishTime() {
-		if (finishTimeList.size() == 0) return -1;
-		return finishTimeList.get(finishTimeList.size() - 1);
+		if (finishTimes.isEmpty()) return -1;
+		return finishTimes.get(finishTimes.size() - 1);
 	}
 
 	/**
@@ -275,18 +360,34 @@ public class BaseResource {
 
 	/**
 	 * Get the list of start time list.
-	 * @return the startTimeList
+	 * @return read-only view of start times
 	 */
 	public List<Integer> getStartTimeList() {
-		return startTimeList;
+		return startTimes.asList();
 	}
 
 	/**
 	 * Get the list of finish time list.
-	 * @return the finishTimeList
+	 * @return read-only view of finish times
 	 */
 	public List<Integer> getFinishTimeList() {
-		return finishTimeList;
+		return finishTimes.asList();
+	}
+	
+	/**
+	 * Get the start times without boxing.
+	 * @return
+	 */
+	public IntStream getStartTimeStream() {
+		return startTimes.stream();
+	}
+	
+	/**
+	 * Get the finish times without boxing.
+	 * @return
+	 */
+	public IntStream getFinishTimeStream() {
+		return finishTimes.stream();
 	}
 
 	/**
@@ -297,6 +398,37 @@ public class BaseResource {
 		return assignedTaskList;
 	}
 	
+	/**
+	 * Get the dense index of this resource in the organization.
+	 * @return the index
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Set the dense index of this resource in the organization.
+	 * @param index the index to set
+	 */
+	public void setIndex(int index) {
+		this.index = index;
+	}
+	
+	/**
+	 * Add the listener which is notified when the state of this resource is changed.
+	 * @param changeListener
+	 */
+	public void addChangeListener(Consumer<BaseResource> changeListener) {
+		changeListenerList.add(changeListener);
+	}
+	
+	/**
+	 * Notify the listeners that this resource is changed.
+	 */
+	protected void notifyChanged() {
+		for (Consumer<BaseResource> changeListener : changeListenerList) changeListener.accept(this);
+	}
+	
 	/**
 	 * Transfer to text data.
 	 */
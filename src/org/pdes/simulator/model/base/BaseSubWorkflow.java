@@ -28,6 +28,7 @@
  */
 package org.pdes.simulator.model.base;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -64,52 +65,16 @@ public class BaseSubWorkflow {
 	}
 	
 	/**
-	 * Set the information of TaskLink, ComponentLink and TargetComponentLink to Task and Component.
+	 * Build tasks and components with the information of TaskLink, ComponentLink and TargetComponentLink.
 	 */
 	private void buildSimulationModel() {
-		taskList = diagram.getTaskNodeList().stream().map(node -> new Task(node)).collect(Collectors.toList());
-		componentList = diagram.getComponentNodeList().stream().map(node -> new Component(node)).collect(Collectors.toList());
-		
-		//Set the information of TaskLink to Task
-		diagram.getTaskLinkList().forEach(link -> {
-			BaseTask destTask = findTaskByNodeId(link.getDestinationNode().getId());
-			BaseTask origTask = findTaskByNodeId(link.getOriginNode().getId());
-			destTask.addInputTask(origTask);
-			origTask.addOutputTask(destTask);
-		});
-		
-		//Set the information of ComponentLink to Component
-		diagram.getComponentLinkList().forEach(link -> {
-			BaseComponent destComponent = findComponentByNodeId(link.getDestinationNode().getId());
-			BaseComponent origComponent = findComponentByNodeId(link.getOriginNode().getId());
-			destComponent.addDependedComponent(origComponent);
-			origComponent.addDependingComponent(destComponent);
-		});
-		
-		//Set the information of TargetComponentLink to Task
-		diagram.getTargetComponentLinkList().forEach(link -> {
-			BaseTask task = findTaskByNodeId(link.getDestinationNode().getId());
-			BaseComponent component = findComponentByNodeId(link.getOriginNode().getId());
-			task.addTargetComponent(component);
-		});
-	}
-	
-	/**
-	 * Get Task which has the same id as nodeId
-	 * @param nodeId
-	 * @return
-	 */
-	private BaseTask findTaskByNodeId(String nodeId) {
-		return taskList.stream().filter(task -> task.getNodeId().equals(nodeId)).findFirst().get();
-	}
-	
-	/**
-	 * Get Component which has the same id as nodeId
-	 * @param nodeId
-	 * @return
-	 */
-	private BaseComponent findComponentByNodeId(String nodeId) {
-		return componentList.stream().filter(component -> component.getNodeId().equals(nodeId)).findFirst().get();
+		WorkflowTemplate template = new WorkflowTemplate(diagram, null);
+		List<BaseTask> taskList = new ArrayList<BaseTask>(template.getTaskTemplateList().size());
+		List<BaseComponent> componentList = new ArrayList<BaseComponent>(template.getComponentTemplateList().size());
+		template.getTaskTemplateList().forEach(t -> taskList.add(new Task(t, taskList, componentList)));
+		template.getComponentTemplateList().forEach(c -> componentList.add(new Component(c, componentList, taskList)));
+		this.taskList = taskList;
+		this.componentList = componentList;
 	}
 	
 	/**
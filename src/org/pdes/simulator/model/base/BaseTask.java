@@ -31,9 +31,10 @@ package org.pdes.simulator.model.base;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
-
-import org.pdes.rcp.model.TaskNode;
+import java.util.stream.IntStream;
 
 /**
  * Task model for discrete event simulation.
@@ -55,19 +56,24 @@ public class BaseTask {
 		FINISHED,
 	}
 	
+	private enum FinishType {
+		/** Not finished at the last check*/
+		NONE,
+		/** Finished normally*/
+		FINISHED,
+		/** Finished normally and additional work is started*/
+		FINISHED_AND_ADDITIONAL_WORK_STARTED,
+		/** Finished additional work*/
+		ADDITIONAL_WORK_FINISHED,
+	}
+	
 	// Constraint variables on simulation
 	private final String id; // ID
-	private final String nodeId; // TaskNode ID
-	private final String name;
-	private final double defaultWorkAmount;
-	private final double progress;
-	private final double additionalWorkAmount;
-	private final boolean needFacility;
-	private final List<BaseTask> inputTaskList = new ArrayList<>();
-	private final List<BaseTask> outputTaskList = new ArrayList<>();
+	private final TaskTemplate template; // shared by all copies of this task
+	private final List<BaseTask> workflowTaskList; // task list of the workflow of this task, for resolving the positions in template
+	private final List<BaseComponent> productComponentList; // component list of the product of this workflow, for resolving the positions in template
 	private int dueDate;
-	private List<BaseTeam> allocatedTeamList = new ArrayList<>();
-	private final List<BaseComponent> targetComponentList = new ArrayList<>();
+	private int index = -1; // dense index of this task in the project
 	
 	// Changeable variable on simulation
 	private double est = 0; // Earliest start time
@@ -76,31 +82,45 @@ public class BaseTask {
 	private double lft = 0; // Latest finish time
 	private double remainingWorkAmount; // remaining work amount
 	private double actualWorkAmount; // actual work amount
+	private double additionalWorkAmount; // additional work amount of this run
 	private TaskState state = TaskState.NONE; // state of this task
 	private int stateInt = 0;
-	private List<Integer> readyTimeList = new ArrayList<Integer>(); // list of ready time of one task
-	private List<Integer> startTimeList = new ArrayList<Integer>(); // list of start time of one task
-	private List<Integer> finishTimeList = new ArrayList<Integer>(); // list of finish time of one task
+	private final IntSequence readyTimes = new IntSequence(); // ready times of one task
+	private final IntSequence startTimes = new IntSequence(); // start times of one task
+	private final IntSequence finishTimes = new IntSequence(); // finish times of one task
 	private boolean additionalTaskFlag = false;
-	private List<BaseWorker> allocatedWorkerList = new ArrayList<>();
+	private final List<BaseWorker> allocatedWorkerList = new ArrayList<>();
 	private BaseFacility allocatedFacility = null;
-	
-	/**
-	 * This is the constructor.
-	 * @param taskNode
-	 */
-	public BaseTask(TaskNode taskNode) {
+	private FinishType finishType = FinishType.NONE; // how this task finished at the last check, until allocated resources are released
+	private final int[] ticksBeforeNextError; // ticks without error before the next error of each target component (only for geometric error sampling)
+	private double errorSamplingProbability = Double.NaN; // probability of no error used for sampling ticksBeforeNextError
+	
+	//Other
+	private final ReplicationRandom random = new ReplicationRandom(); // used for sampling work amount and the ticks before the next error
+	private final List<Consumer<BaseTask>> changeListenerList = new ArrayList<Consumer<BaseTask>>(); // notified when the state, PERT data or remaining work amount is changed
+	private long progressCount = 0; // the number of changes of the state and remaining work amount, for detecting a stall of simulation
+	private final List<Runnable> progressListenerList = new ArrayList<Runnable>(); // notified when progressCount is increased
+	private boolean geometricErrorSampling = false; // if TRUE, the ticks before the next error are sampled instead of checking the error at each tick
+	
+	/**
+	 * This is the constructor.<br>
+	 * Input tasks, output tasks and target components are resolved in "workflowTaskList" and "productComponentList",
+	 * so these lists can be filled after creating this task.
+	 * @param template
+	 * @param workflowTaskList
+	 * @param productComponentList
+	 */
+	public BaseTask(TaskTemplate template, List<BaseTask> workflowTaskList, List<BaseComponent> productComponentList) {
 		this.id = UUID.randomUUID().toString();
-		this.nodeId = taskNode.getId();
-		this.name = taskNode.getName();
-		this.defaultWorkAmount = taskNode.getWorkAmount();
-		this.progress = taskNode.getProgress();
-		this.additionalWorkAmount = taskNode.getAdditionalWorkAmount();
-		this.needFacility = taskNode.isNeedFacility();
+		this.template = template;
+		this.workflowTaskList = workflowTaskList;
+		this.productComponentList = productComponentList;
+		this.ticksBeforeNextError = new int[template.getTargetComponentPositions().length];
 	}
 	
 	/**
-	 * Initialize
+	 * Initialize<br>
+	 * If the distribution of work amount (or additional work amount) is given, it is sampled for this run.
 	 */
 	public void initialize() {
 		est = 0;
@@ -108,50 +128,35 @@ public class BaseTask {
 		lst = 0;
 		lft = 0;
 		
-		remainingWorkAmount = defaultWorkAmount * (1.0 - progress);
-		actualWorkAmount = defaultWorkAmount * (1.0 - progress);
+		double progress = template.getProgress();
+		double workAmount = (template.getWorkAmountSampler() == null) ? template.getDefaultWorkAmount() : template.getWorkAmountSampler().sample(random);
+		additionalWorkAmount = (template.getAdditionalWorkAmountSampler() == null) ? template.getAdditionalWorkAmount() : template.getAdditionalWorkAmountSampler().sample(random);
+		remainingWorkAmount = workAmount * (1.0 - progress);
+		actualWorkAmount = workAmount * (1.0 - progress);
 		
 		state = TaskState.NONE;
 		stateInt = 0;
+		readyTimes.clear();
+		startTimes.clear();
+		finishTimes.clear();
 		if(progress > 0.0 && progress <1.0) {
 			state = TaskState.READY;
 			stateInt = 1;
-			this.readyTimeList.add(-1);
+			this.readyTimes.add(-1);
 		}else if(progress>=1.0){
 			state = TaskState.FINISHED;
 			stateInt = 4;
-			this.readyTimeList.add(-1);
-			this.startTimeList.add(-1);
-			this.finishTimeList.add(-1);
+			this.readyTimes.add(-1);
+			this.startTimes.add(-1);
+			this.finishTimes.add(-1);
 		}
 		
 		additionalTaskFlag = false;
-		allocatedWorkerList = new ArrayList<>();
+		allocatedWorkerList.clear();
 		allocatedFacility = null;
-	}
-	
-	/**
-	 * Add input task.
-	 * @param task
-	 */
-	public void addInputTask(BaseTask task) {
-		inputTaskList.add(task);
-	}
-	
-	/**
-	 * Add output task.
-	 * @param task
-	 */
-	public void addOutputTask(BaseTask task) {
-		outputTaskList.add(task);
-	}
-	
-	/**
-	 * Add target component of this task.
-	 * @param component
-	 */
-	public void addTargetComponent(BaseComponent component) {
-		targetComponentList.add(component);
+		finishType = FinishType.NONE;
+		errorSamplingProbability = Double.NaN;
+		notifyChanged();
 	}
 	
 	/**
@@ -159,11 +164,24 @@ public class BaseTask {
 	 * If all input tasks are FINISHED and the state of this task is NONE, change the state of this task to READY.
 	 */
 	public void checkReady(int time) {
-		if (isNone() && inputTaskList.stream().allMatch(t -> t.isFinished())){
+		if (isNone() && this.isAllInputTaskFinished()){
 			state = TaskState.READY;
 			stateInt = 1;
 			addReadyTime(time);
+			addProgress();
+			notifyChanged();
+		}
+	}
+	
+	/**
+	 * Check whether all input tasks are FINISHED or not.
+	 * @return
+	 */
+	private boolean isAllInputTaskFinished() {
+		for (int position : template.getInputTaskPositions()) {
+			if (!workflowTaskList.get(position).isFinished()) return false;
 		}
+		return true;
 	}
 	
 	/**
@@ -173,20 +191,43 @@ public class BaseTask {
 	 * @param time
 	 */
 	public void checkWorking(int time) {
+		if (updateStateToWorking(time)) {
+			startAllocatedResources(time);
+		}
+	}
+	
+	/**
+	 * Change the state of this task to WORKING if this task is READY and already allocated someone.<br>
+	 * Only the information of this task is updated. Allocated resources have to be updated by startAllocatedResources(time).
+	 * @param time
+	 * @return TRUE if the state of this task is changed to WORKING
+	 */
+	public boolean updateStateToWorking(int time) {
 		if (isReady() && allocatedWorkerList.size() > 0) {
 			state = TaskState.WORKING;
 			stateInt = 2;
 			addStartTime(time);
-			for(BaseWorker allocatedWorker : allocatedWorkerList) {
-				allocatedWorker.setStateWorking();
-				allocatedWorker.addStartTime(time);
-				allocatedWorker.addAssignedTask(this);
-			}
-			if (needFacility) {
-				allocatedFacility.setStateWorking();
-				allocatedFacility.addStartTime(time);
-				allocatedFacility.addAssignedTask(this);
-			}
+			addProgress();
+			notifyChanged();
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Change the state of allocated resources to WORKING, and record the start time and this task to them.
+	 * @param time
+	 */
+	public void startAllocatedResources(int time) {
+		for(BaseWorker allocatedWorker : allocatedWorkerList) {
+			allocatedWorker.setStateWorking(time);
+			allocatedWorker.addStartTime(time);
+			allocatedWorker.addAssignedTask(this);
+		}
+		if (template.isNeedFacility()) {
+			allocatedFacility.setStateWorking(time);
+			allocatedFacility.addStartTime(time);
+			allocatedFacility.addAssignedTask(this);
 		}
 	}
 	
@@ -198,6 +239,18 @@ public class BaseTask {
 	 * @param time
 	 */
 	public void checkFinished(int time) {
+		if (updateStateToFinished(time)) {
+			finishAllocatedResources(time, t -> t != this && t.getStateInt() < 4);
+		}
+	}
+	
+	/**
+	 * Change the state of this task to FINISHED (or WORKING_ADDITIONALLY if additional work is assigned) if remaining work amount is lower than 0.<br>
+	 * Only the information of this task is updated. Allocated resources have to be updated by finishAllocatedResources(time, isUnfinishedTask).
+	 * @param time
+	 * @return TRUE if this task finished its work at this time
+	 */
+	public boolean updateStateToFinished(int time) {
 		if (remainingWorkAmount <= 0) {
 			if (isWorking()) {
 				addFinishTime(time);
@@ -206,16 +259,7 @@ public class BaseTask {
 				//Finish normally.
 				state = TaskState.FINISHED;
 				stateInt = 4;
-				for(BaseWorker allocatedWorker : allocatedWorkerList) {
-					if(allocatedWorker.getAssignedTaskList().stream().filter(t -> t.getStateInt() < 4).count() == 0) {
-						allocatedWorker.setStateFree();
-					}
-					allocatedWorker.addFinishTime(time);
-				}
-				if (needFacility) {
-					allocatedFacility.setStateFree();
-					allocatedFacility.addFinishTime(time);
-				}
+				finishType = FinishType.FINISHED;
 				
 				if (additionalTaskFlag) {
 					//Additional work
@@ -226,35 +270,65 @@ public class BaseTask {
 					actualWorkAmount += additionalWorkAmount;
 					addReadyTime(time + 1);
 					addStartTime(time + 1);
-					
-					//Just assign worker and facility again.
-					for(BaseWorker allocatedWorker : allocatedWorkerList) {
-						allocatedWorker.addStartTime(time+1);
-						allocatedWorker.addAssignedTask(this);
-					}
-					if (needFacility) {
-						allocatedFacility.addStartTime(time+1);
-						allocatedFacility.addAssignedTask(this);
-					}
-					
+					finishType = FinishType.FINISHED_AND_ADDITIONAL_WORK_STARTED;
 					additionalTaskFlag = false;
 				}
+				addProgress();
+				notifyChanged();
+				return true;
 				
 			} else if (isWorkingAdditionally()) {
 				addFinishTime(time);
 				remainingWorkAmount = 0;
 				state = TaskState.FINISHED;
 				stateInt = 4;
-				for(BaseWorker allocatedWorker : allocatedWorkerList) {
-					allocatedWorker.setStateFree();
-					allocatedWorker.addFinishTime(time);
-				}
-				if (needFacility) {
-					allocatedFacility.setStateFree();
-					allocatedFacility.addFinishTime(time);
+				finishType = FinishType.ADDITIONAL_WORK_FINISHED;
+				addProgress();
+				notifyChanged();
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Change the state of allocated resources to FREE and record the finish time to them, following the last updateStateToFinished(time).<br>
+	 * A worker is released only if all the other tasks assigned to him/her are finished.
+	 * If additional work is assigned, the same worker and facility are just assigned again.
+	 * @param time
+	 * @param isUnfinishedTask judges whether a task assigned to an allocated worker is unfinished or not
+	 */
+	public void finishAllocatedResources(int time, Predicate<BaseTask> isUnfinishedTask) {
+		if (finishType == FinishType.ADDITIONAL_WORK_FINISHED) {
+			for(BaseWorker allocatedWorker : allocatedWorkerList) {
+				allocatedWorker.setStateFree(time);
+				allocatedWorker.addFinishTime(time);
+			}
+		} else {
+			for(BaseWorker allocatedWorker : allocatedWorkerList) {
+				if(allocatedWorker.getAssignedTaskList().stream().filter(isUnfinishedTask).count() == 0) {
+					allocatedWorker.setStateFree(time);
 				}
+				allocatedWorker.addFinishTime(time);
 			}
 		}
+		if (template.isNeedFacility()) {
+			allocatedFacility.setStateFree(time);
+			allocatedFacility.addFinishTime(time);
+		}
+		
+		if (finishType == FinishType.FINISHED_AND_ADDITIONAL_WORK_STARTED) {
+			//Just assign worker and facility again.
+			for(BaseWorker allocatedWorker : allocatedWorkerList) {
+				allocatedWorker.addStartTime(time+1);
+				allocatedWorker.addAssignedTask(this);
+			}
+			if (template.isNeedFacility()) {
+				allocatedFacility.addStartTime(time+1);
+				allocatedFacility.addAssignedTask(this);
+			}
+		}
+		finishType = FinishType.NONE;
 	}
 	
 	/**
@@ -273,25 +347,145 @@ public class BaseTask {
 				workAmount += allocatedWorker.getWorkAmountSkillPoint(this);
 				noErrorProbability -= allocatedWorker.getQualitySkillPoint(this); // Probability of success this task
 			}
-			if (needFacility) {
+			if (template.isNeedFacility()) {
 				workAmount *= allocatedFacility.getWorkAmountSkillPoint(this);
 				noErrorProbability *= 1.0 - allocatedFacility.getQualitySkillPoint(this);
 			}
 			remainingWorkAmount -= workAmount;
-			for (BaseComponent c : targetComponentList) {
-				c.updateErrorValue(noErrorProbability);
+			if (workAmount != 0) {
+				addProgress();
+				notifyChanged();
+			}
+			if (geometricErrorSampling) {
+				updateErrorValueByGeometricSampling(noErrorProbability);
+			} else {
+				for (int position : template.getTargetComponentPositions()) {
+					productComponentList.get(position).updateErrorValue(noErrorProbability);
+				}
 			}
 
 			// Additional work
 			if(componentErrorRework){
 				if (isWorking() && hasAdditionalTask() && !additionalTaskFlag) { // because additional work of each task is occurred only once in this simulation.
 					// If additional work is occurred, all related components is added to additionalTaskFlag.
-					if (targetComponentList.stream().anyMatch(c -> c.checkIfErrorIsOverTolerance())) additionalTaskFlag = true;
+					if (this.getTargetComponentList().stream().anyMatch(c -> c.checkIfErrorIsOverTolerance())) additionalTaskFlag = true;
 				}
 			}
 		}
 	}
 	
+	/**
+	 * Update error value of target components by counting down the sampled ticks before the next error.<br>
+	 * The ticks are sampled again only when an error occurs or "noErrorProbability" is changed by changing allocated resources.
+	 * Because the geometric distribution is memoryless, the statistics of errors are the same as checking the error at each tick.
+	 * @param noErrorProbability
+	 */
+	private void updateErrorValueByGeometricSampling(double noErrorProbability) {
+		int[] targetComponentPositions = template.getTargetComponentPositions();
+		if (noErrorProbability != errorSamplingProbability) {
+			errorSamplingProbability = noErrorProbability;
+			for (int i = 0; i < targetComponentPositions.length; i++) {
+				ticksBeforeNextError[i] = sampleTicksBeforeNextError(noErrorProbability);
+			}
+		}
+		for (int i = 0; i < targetComponentPositions.length; i++) {
+			if (ticksBeforeNextError[i] == Integer.MAX_VALUE) continue;
+			if (ticksBeforeNextError[i] == 0) {
+				productComponentList.get(targetComponentPositions[i]).addError();
+				ticksBeforeNextError[i] = sampleTicksBeforeNextError(noErrorProbability);
+			} else {
+				ticksBeforeNextError[i]--;
+			}
+		}
+	}
+	
+	/**
+	 * Sample the number of ticks before the next error randomly.<br>
+	 * The number follows the geometric distribution of the ticks without error, so this is the same as checking the error at each tick until an error occurs.
+	 * @param noErrorProbability
+	 * @return the number of ticks without error before the next error (0 if an error occurs at the next tick, Integer.MAX_VALUE if no error occurs)
+	 */
+	private int sampleTicksBeforeNextError(double noErrorProbability) {
+		if (noErrorProbability <= 0.0) return 0;
+		if (noErrorProbability >= 1.0) return Integer.MAX_VALUE;
+		double ticks = Math.floor(Math.log(1.0 - random.nextDouble()) / Math.log(noErrorProbability));
+		return ticks >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) ticks;
+	}
+	
+	/**
+	 * Get the number of ticks without error before the next error of any target component.<br>
+	 * This is available only if geometric error sampling is used and this task was performed at least once by the current resources,
+	 * and it can be used for scheduling the next error as an event.
+	 * @return the number of ticks (Integer.MAX_VALUE if no error is scheduled)
+	 */
+	public int getTicksBeforeNextError() {
+		if (!geometricErrorSampling || Double.isNaN(errorSamplingProbability)) return Integer.MAX_VALUE;
+		int ticks = Integer.MAX_VALUE;
+		for (int t : ticksBeforeNextError) ticks = Math.min(ticks, t);
+		return ticks;
+	}
+	
+	/**
+	 * Take the snapshot of the changeable variables of this task at this moment.
+	 * @return
+	 */
+	public TaskSnapshot takeSnapshot() {
+		TaskSnapshot snapshot = new TaskSnapshot();
+		snapshot.est = est;
+		snapshot.eft = eft;
+		snapshot.lst = lst;
+		snapshot.lft = lft;
+		snapshot.remainingWorkAmount = remainingWorkAmount;
+		snapshot.actualWorkAmount = actualWorkAmount;
+		snapshot.additionalWorkAmount = additionalWorkAmount;
+		snapshot.stateInt = stateInt;
+		snapshot.readyTimes = readyTimes.toArray();
+		snapshot.startTimes = startTimes.toArray();
+		snapshot.finishTimes = finishTimes.toArray();
+		snapshot.additionalTaskFlag = additionalTaskFlag;
+		snapshot.allocatedWorkerIndexes = allocatedWorkerList.stream().mapToInt(w -> w.getIndex()).toArray();
+		snapshot.allocatedFacilityIndex = (allocatedFacility == null) ? -1 : allocatedFacility.getIndex();
+		snapshot.finishTypeInt = finishType.ordinal();
+		snapshot.ticksBeforeNextError = ticksBeforeNextError.clone();
+		snapshot.errorSamplingProbability = errorSamplingProbability;
+		snapshot.random.copyState(random);
+		snapshot.progressCount = progressCount;
+		return snapshot;
+	}
+	
+	/**
+	 * Restore the changeable variables of this task from "snapshot".<br>
+	 * Allocated resources are given by the caller because the snapshot only has their indexes.
+	 * The snapshot has to be taken from the same task in the same (or a copy of) project.
+	 * @param snapshot
+	 * @param allocatedWorkerList resolved from snapshot.getAllocatedWorkerIndexes()
+	 * @param allocatedFacility resolved from snapshot.getAllocatedFacilityIndex() (null if no facility is allocated)
+	 */
+	public void restoreSnapshot(TaskSnapshot snapshot, List<BaseWorker> allocatedWorkerList, BaseFacility allocatedFacility) {
+		est = snapshot.est;
+		eft = snapshot.eft;
+		lst = snapshot.lst;
+		lft = snapshot.lft;
+		remainingWorkAmount = snapshot.remainingWorkAmount;
+		actualWorkAmount = snapshot.actualWorkAmount;
+		additionalWorkAmount = snapshot.additionalWorkAmount;
+		stateInt = snapshot.stateInt;
+		state = TaskState.values()[snapshot.stateInt];
+		readyTimes.setAll(snapshot.readyTimes);
+		startTimes.setAll(snapshot.startTimes);
+		finishTimes.setAll(snapshot.finishTimes);
+		additionalTaskFlag = snapshot.additionalTaskFlag;
+		this.allocatedWorkerList.clear();
+		this.allocatedWorkerList.addAll(allocatedWorkerList);
+		this.allocatedFacility = allocatedFacility;
+		finishType = FinishType.values()[snapshot.finishTypeInt];
+		System.arraycopy(snapshot.ticksBeforeNextError, 0, ticksBeforeNextError, 0, ticksBeforeNextError.length);
+		errorSamplingProbability = snapshot.errorSamplingProbability;
+		random.copyState(snapshot.random);
+		progressCount = snapshot.progressCount;
+		notifyChanged();
+	}
+	
 	/**
 	 * Check whether the state of this task is NONE.
 	 * @return
@@ -353,7 +547,7 @@ public class BaseTask {
 	 * @return the nodeId
 	 */
 	public String getNodeId() {
-		return nodeId;
+		return template.getNodeId();
 	}
 
 	/**
@@ -361,7 +555,7 @@ public class BaseTask {
 	 * @return the name
 	 */
 	public String getName() {
-		return name;
+		return template.getName();
 	}
 	
 	/**
@@ -369,7 +563,7 @@ public class BaseTask {
 	 * @return the defaultWorkAmount
 	 */
 	public double getDefaultWorkAmount() {
-		return defaultWorkAmount;
+		return template.getDefaultWorkAmount();
 	}
 	
 	/**
@@ -377,6 +571,15 @@ public class BaseTask {
 	 * @return the defaultAdditionalWorkAmount
 	 */
 	public double getDefaultAdditionalWorkAmount() {
+		return template.getAdditionalWorkAmount();
+	}
+	
+	/**
+	 * Get the additional work amount of this run.<br>
+	 * This is sampled in initialize() if the distribution of additional work amount is given.
+	 * @return the additionalWorkAmount
+	 */
+	public double getAdditionalWorkAmount() {
 		return additionalWorkAmount;
 	}
 
@@ -385,47 +588,47 @@ public class BaseTask {
 	 * @return the needFacility
 	 */
 	public boolean isNeedFacility() {
-		return needFacility;
+		return template.isNeedFacility();
 	}
 
 	/**
 	 * Get the list of target component.
-	 * @return the targetComponentList
+	 * @return unmodifiable list
 	 */
 	public List<BaseComponent> getTargetComponentList() {
-		return targetComponentList;
+		return new PositionList<BaseComponent>(productComponentList, template.getTargetComponentPositions());
 	}
 
 	/**
 	 * Get allocated team list of this task.
-	 * @return the allocatedTeam
+	 * @return unmodifiable list
 	 */
 	public List<BaseTeam> getAllocatedTeamList() {
-		return allocatedTeamList;
-	}
-
-	/**
-	 * Add allocated team of this task.
-	 * @param allocatedTeam the allocatedTeam to set
-	 */
-	public void addAllocatedTeam(BaseTeam allocatedTeam) {
-		this.allocatedTeamList.add(allocatedTeam);
+		return template.getAllocatedTeamList();
 	}
 
 	/**
 	 * Get the list of input tasks.
-	 * @return the inputTaskList
+	 * @return unmodifiable list
 	 */
 	public List<BaseTask> getInputTaskList() {
-		return inputTaskList;
+		return new PositionList<BaseTask>(workflowTaskList, template.getInputTaskPositions());
 	}
 
 	/**
 	 * GEt the list of output tasks.
-	 * @return the outputTaskList
+	 * @return unmodifiable list
 	 */
 	public List<BaseTask> getOutputTaskList() {
-		return outputTaskList;
+		return new PositionList<BaseTask>(workflowTaskList, template.getOutputTaskPositions());
+	}
+	
+	/**
+	 * Get the template of this task shared by all copies.
+	 * @return the template
+	 */
+	public TaskTemplate getTemplate() {
+		return template;
 	}
 
 	/**
@@ -441,7 +644,9 @@ public class BaseTask {
 	 * @param dueDate the dueDate to set
 	 */
 	public void setDueDate(int dueDate) {
+		if (this.dueDate == dueDate) return;
 		this.dueDate = dueDate;
+		notifyChanged();
 	}
 
 	/**
@@ -457,7 +662,9 @@ public class BaseTask {
 	 * @param est the est to set
 	 */
 	public void setEst(double est) {
+		if (this.est == est) return;
 		this.est = est;
+		notifyChanged();
 	}
 
 	/**
@@ -473,7 +680,9 @@ public class BaseTask {
 	 * @param eft the eft to set
 	 */
 	public void setEft(double eft) {
+		if (this.eft == eft) return;
 		this.eft = eft;
+		notifyChanged();
 	}
 
 	/**
@@ -489,7 +698,9 @@ public class BaseTask {
 	 * @param lst the lst to set
 	 */
 	public void setLst(double lst) {
+		if (this.lst == lst) return;
 		this.lst = lst;
+		notifyChanged();
 	}
 
 	/**
@@ -505,7 +716,9 @@ public class BaseTask {
 	 * @param lft the lft to set
 	 */
 	public void setLft(double lft) {
+		if (this.lft == lft) return;
 		this.lft = lft;
+		notifyChanged();
 	}
 	/**
 	 * Get the remaining work amount.
@@ -525,6 +738,15 @@ public class BaseTask {
 	
 	
 
+	/**
+	 * Get the number of changes of the state and remaining work amount of this task.<br>
+	 * This value only increases, so it can be used for checking whether this task progresses or not.
+	 * @return the progressCount
+	 */
+	public long getProgressCount() {
+		return progressCount;
+	}
+
 	/**
 	 * Get the state(int) of this task.
 	 * @return the stateInt
@@ -535,26 +757,50 @@ public class BaseTask {
 	
 	/**
 	 * Get the ready time list
-	 * @return the readyTimeList
+	 * @return read-only view of ready times
 	 */
 	public List<Integer> getReadyTimeList() {
-		return readyTimeList;
+		return readyTimes.asList();
 	}
 	
 	/**
 	 * Get the start time list.
-	 * @return the startTimeList
+	 * @return read-only view of start times
 	 */
 	public List<Integer> getStartTimeList() {
-		return startTimeList;
+		return startTimes.asList();
 	}
 	
 	/**
 	 * Get the finish time.
-	 * @return the finishTimeList
+	 * @return read-only view of finish times
 	 */
 	public List<Integer> getFinishTimeList() {
-		return finishTimeList;
+		return finishTimes.asList();
+	}
+	
+	/**
+	 * Get the ready times without boxing.
+	 * @return
+	 */
+	public IntStream getReadyTimeStream() {
+		return readyTimes.stream();
+	}
+	
+	/**
+	 * Get the start times without boxing.
+	 * @return
+	 */
+	public IntStream getStartTimeStream() {
+		return startTimes.stream();
+	}
+	
+	/**
+	 * Get the finish times without boxing.
+	 * @return
+	 */
+	public IntStream getFinishTimeStream() {
+		return finishTimes.stream();
 	}
 	
 	/**
@@ -562,7 +808,7 @@ public class BaseTask {
 	 * @param time
 	 */
 	public void addReadyTime(int time) {
-		readyTimeList.add(time);
+		readyTimes.add(time);
 	}
 	
 	/**
@@ -570,7 +816,7 @@ public class BaseTask {
 	 * @param time
 	 */
 	public void addStartTime(int time) {
-		startTimeList.add(time);
+		startTimes.add(time);
 	}
 	
 	/**
@@ -578,7 +824,7 @@ public class BaseTask {
 	 * @param time
 	 */
 	public void addFinishTime(int time) {
-		finishTimeList.add(time);
+		finishTimes.add(time);
 	}
 	
 	/**
@@ -595,7 +841,7 @@ public class BaseTask {
 	 * @return
 	 */
 	public boolean isAlreadyAssigned(BaseWorker worker) {
-		return allocatedWorkerList.stream().map(w -> w.getId()).anyMatch(worker.getId()::equals);
+		return allocatedWorkerList.contains(worker);
 	}
 
 	/**
@@ -622,13 +868,94 @@ public class BaseTask {
 		this.allocatedFacility = allocatedFacility;
 	}
 	
+	/**
+	 * Get the dense index of this task in the project.
+	 * @return the index
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Set the dense index of this task in the project.
+	 * @param index the index to set
+	 */
+	public void setIndex(int index) {
+		this.index = index;
+	}
+	
+	/**
+	 * Check whether the ticks before the next error are sampled by geometric distribution or not.
+	 * @return the geometricErrorSampling
+	 */
+	public boolean isGeometricErrorSampling() {
+		return geometricErrorSampling;
+	}
+	
+	/**
+	 * Set whether the ticks before the next error are sampled by geometric distribution or not.
+	 * @param geometricErrorSampling the geometricErrorSampling to set
+	 */
+	public void setGeometricErrorSampling(boolean geometricErrorSampling) {
+		this.geometricErrorSampling = geometricErrorSampling;
+	}
+	
+	/**
+	 * Set the seed of the random numbers of this task.<br>
+	 * This is used for drawing the same random numbers in the same run of different scenarios.
+	 * @param seed
+	 */
+	public void setRandomSeed(long seed) {
+		random.setSeed(seed);
+	}
+	
+	/**
+	 * Get the random number generator of this task.
+	 * @return the random
+	 */
+	public ReplicationRandom getRandom() {
+		return random;
+	}
+	
+	/**
+	 * Add the listener which is notified when the state, PERT data or remaining work amount of this task is changed.
+	 * @param changeListener
+	 */
+	public void addChangeListener(Consumer<BaseTask> changeListener) {
+		changeListenerList.add(changeListener);
+	}
+	
+	/**
+	 * Add the listener which is notified when the progress count of this task is increased.<br>
+	 * The listener may be called by the thread performing the workflow of this task.
+	 * @param progressListener
+	 */
+	public void addProgressListener(Runnable progressListener) {
+		progressListenerList.add(progressListener);
+	}
+	
+	/**
+	 * Increase the progress count of this task and notify the listeners.
+	 */
+	private void addProgress() {
+		progressCount++;
+		for (Runnable progressListener : progressListenerList) progressListener.run();
+	}
+	
+	/**
+	 * Notify the listeners that this task is changed.
+	 */
+	private void notifyChanged() {
+		for (Consumer<BaseTask> changeListener : changeListenerList) changeListener.accept(this);
+	}
+	
 	/**
 	 * Transfer to text data.
 	 */
 	public String toString() {
 		String worker = (allocatedWorkerList.size() > 0) ? String.join(",", allocatedWorkerList.stream().map(w -> w.getName()).collect(Collectors.toList())) : "";
 		String facility = (allocatedFacility != null) ? allocatedFacility.getName() : "";
-		String inputTaskNames = String.join(",", inputTaskList.stream().map(t -> t.getName()).collect(Collectors.toList())); // DEBUG
-		return String.format("[%s] %s WA=%f team=%s w=%s f=%s in=%s", name, state, remainingWorkAmount, allocatedTeamList.stream().map(BaseTeam::getName).collect(Collectors.joining(",")), worker, facility, inputTaskNames);
+		String inputTaskNames = String.join(",", this.getInputTaskList().stream().map(t -> t.getName()).collect(Collectors.toList())); // DEBUG
+		return String.format("[%s] %s WA=%f team=%s w=%s f=%s in=%s", this.getName(), state, remainingWorkAmount, this.getAllocatedTeamList().stream().map(BaseTeam::getName).collect(Collectors.joining(",")), worker, facility, inputTaskNames);
 	}
 }
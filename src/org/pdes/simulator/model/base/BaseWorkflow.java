@@ -29,7 +29,6 @@
 package org.pdes.simulator.model.base;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -344,14 +343,31 @@ public class BaseWorkflow {
 		return taskList;
 	}
 
+	/**
+	 * Get the critical path length used for the latest finish time of tail tasks.
+	 * @return the criticalPathLength
+	 */
+	public double getCriticalPathLength() {
+		return criticalPathLength;
+	}
+
+	/**
+	 * Set the critical path length used for the latest finish time of tail tasks.<br>
+	 * This is only for restoring the snapshot of simulation.
+	 * @param criticalPathLength the criticalPathLength to set
+	 */
+	public void setCriticalPathLength(double criticalPathLength) {
+		this.criticalPathLength = criticalPathLength;
+	}
+
 	/**
 	 * Get the duration.
 	 * @return the duration
 	 */
 	public int getDuration() {
 		return this.taskList.stream()
-				.mapToInt(t -> t.getFinishTimeList().stream()
-						.max(Comparator.naturalOrder())
+				.mapToInt(t -> t.getFinishTimeStream()
+						.max()
 						.orElse(0))
 				.max()
 				.orElse(0);
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.model.base;
+
+import org.pdes.rcp.model.ComponentNode;
+
+/**
+ * This is the immutable information of a component shared by all copies of the product.<br>
+ * Depending components, depended components and targeted tasks are kept as the positions in the component list of a product
+ * and the task list of a workflow, so they can be resolved in any copy.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class ComponentTemplate {
+	
+	private final int position; // position in the component list of each product
+	private final String nodeId; // ComponentNode ID
+	private final String name;
+	private final double errorTolerance;
+	private final int[] dependingComponentPositions;
+	private final int[] dependedComponentPositions;
+	private final int[] targetedTaskPositions;
+	
+	/**
+	 * This is the constructor.
+	 * @param position
+	 * @param componentNode
+	 * @param dependingComponentPositions
+	 * @param dependedComponentPositions
+	 * @param targetedTaskPositions
+	 */
+	ComponentTemplate(int position, ComponentNode componentNode, int[] dependingComponentPositions, int[] dependedComponentPositions, int[] targetedTaskPositions) {
+		this.position = position;
+		this.nodeId = componentNode.getId();
+		this.name = componentNode.getName();
+		this.errorTolerance = componentNode.getErrorTolerance();
+		this.dependingComponentPositions = dependingComponentPositions;
+		this.dependedComponentPositions = dependedComponentPositions;
+		this.targetedTaskPositions = targetedTaskPositions;
+	}
+
+	/**
+	 * Get the position in the component list of each product.
+	 * @return the position
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Get the node id.
+	 * @return the nodeId
+	 */
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	/**
+	 * Get the name.
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get error tolerance.
+	 * @return the errorTolerance
+	 */
+	public double getErrorTolerance() {
+		return errorTolerance;
+	}
+
+	/**
+	 * Get the positions of directly depending components. This array must not be changed.
+	 * @return the dependingComponentPositions
+	 */
+	public int[] getDependingComponentPositions() {
+		return dependingComponentPositions;
+	}
+
+	/**
+	 * Get the positions of directly depended components. This array must not be changed.
+	 * @return the dependedComponentPositions
+	 */
+	public int[] getDependedComponentPositions() {
+		return dependedComponentPositions;
+	}
+
+	/**
+	 * Get the positions of targeted tasks. This array must not be changed.
+	 * @return the targetedTaskPositions
+	 */
+	public int[] getTargetedTaskPositions() {
+		return targetedTaskPositions;
+	}
+}
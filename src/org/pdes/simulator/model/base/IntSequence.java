@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.model.base;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.stream.IntStream;
+
+/**
+ * This is the growable sequence of primitive int values for recording the timeline of tasks and resources.<br>
+ * Adding a value never creates a wrapper object.
+ * Callers get the values by IntStream, array or read-only List<Integer> view.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class IntSequence {
+	
+	private static final int[] EMPTY = new int[0];
+	
+	private int[] values = EMPTY;
+	private int size = 0;
+	private final List<Integer> listView = new ListView();
+	
+	/**
+	 * Add "value" to the end of this sequence.
+	 * @param value
+	 */
+	public void add(int value) {
+		if (size == values.length) values = Arrays.copyOf(values, Math.max(4, size * 2));
+		values[size++] = value;
+	}
+	
+	/**
+	 * Get the value at "index".
+	 * @param index
+	 * @return
+	 */
+	public int get(int index) {
+		if (index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		return values[index];
+	}
+	
+	/**
+	 * Get the number of values.
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Check whether this sequence has no value or not.
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * Remove all values. The capacity is kept for reuse.
+	 */
+	public void clear() {
+		size = 0;
+	}
+	
+	/**
+	 * Replace all values of this sequence with "values".
+	 * @param values
+	 */
+	public void setAll(int[] values) {
+		if (values.length > this.values.length) this.values = Arrays.copyOf(values, values.length);
+		else System.arraycopy(values, 0, this.values, 0, values.length);
+		size = values.length;
+	}
+	
+	/**
+	 * Get the values as IntStream.
+	 * @return
+	 */
+	public IntStream stream() {
+		return Arrays.stream(values, 0, size);
+	}
+	
+	/**
+	 * Get the copy of values as array.
+	 * @return
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+	
+	/**
+	 * Get the read-only List<Integer> view of this sequence.<br>
+	 * The view reflects the later changes of this sequence.
+	 * @return
+	 */
+	public List<Integer> asList() {
+		return listView;
+	}
+	
+	/**
+	 * This is the read-only List<Integer> view of IntSequence.
+	 */
+	private class ListView extends AbstractList<Integer> implements RandomAccess {
+		
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.AbstractList#get(int)
+		 */
+		@Override
+		public Integer get(int index) {
+			return IntSequence.this.get(index);
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.AbstractCollection#size()
+		 */
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+}
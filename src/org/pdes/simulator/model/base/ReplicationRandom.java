@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.model.base;
+
+import java.util.Random;
+
+/**
+ * This is the random number generator of one task or component for variance reduction across replications.<br>
+ * Replications are divided into blocks, and the uniform random numbers drawn by nextDouble() are correlated inside a block as follows:<br>
+ * MONTE_CARLO: independent.<br>
+ * ANTITHETIC: the second run of each pair (block size is 2) draws 1-U where the first run draws U.<br>
+ * LATIN_HYPERCUBE: the k-th random numbers of the runs in a block are stratified, so each of "blockSize" strata of [0,1) is drawn exactly once.<br>
+ * The linear congruential generator is the same as java.util.Random, but its state is kept in this class so that it can be copied by copyState().
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class ReplicationRandom extends Random {
+	
+	private static final long serialVersionUID = -2290743860391458046L;
+	private static final long MULTIPLIER = 0x5DEECE66DL;
+	private static final long ADDEND = 0xBL;
+	private static final long MASK = (1L << 48) - 1;
+	
+	public enum Mode {
+		/** Independent random numbers */
+		MONTE_CARLO,
+		/** Antithetic pairs of random numbers */
+		ANTITHETIC,
+		/** Latin hypercube stratification across replications */
+		LATIN_HYPERCUBE,
+	}
+	
+	private Mode mode = Mode.MONTE_CARLO;
+	private long blockKey = 0; // key of this stream shared by all runs of one block, for the permutation of strata
+	private int position = 0; // position of the run in the block
+	private int blockSize = 1;
+	private long drawCount = 0; // the number of random numbers drawn after setting the seed
+	private long seed; // state of the linear congruential generator (set by setSeed() in the constructor of Random)
+	
+	/**
+	 * Set the replication of the next run.<br>
+	 * The seed has to be set after this method. In ANTITHETIC, both runs of a pair have to use the same seed.
+	 * @param mode
+	 * @param blockKey key of this stream shared by all runs of the block
+	 * @param position position of the run in the block
+	 * @param blockSize the number of runs in the block
+	 */
+	public void setReplication(Mode mode, long blockKey, int position, int blockSize) {
+		this.mode = mode;
+		this.blockKey = blockKey;
+		this.position = position;
+		this.blockSize = blockSize;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.util.Random#setSeed(long)
+	 */
+	@Override
+	public synchronized void setSeed(long seed) {
+		super.setSeed(seed);
+		this.seed = (seed ^ MULTIPLIER) & MASK;
+		drawCount = 0;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.util.Random#next(int)
+	 */
+	@Override
+	protected int next(int bits) {
+		seed = (seed * MULTIPLIER + ADDEND) & MASK;
+		return (int) (seed >>> (48 - bits));
+	}
+	
+	/**
+	 * Copy the state of "other" to this random number generator, including the replication.<br>
+	 * After copying, this generator draws the same random numbers as "other" (except nextGaussian()).
+	 * @param other
+	 */
+	public synchronized void copyState(ReplicationRandom other) {
+		this.mode = other.mode;
+		this.blockKey = other.blockKey;
+		this.position = other.position;
+		this.blockSize = other.blockSize;
+		this.drawCount = other.drawCount;
+		this.seed = other.seed;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.util.Random#nextDouble()
+	 */
+	@Override
+	public double nextDouble() {
+		double u = super.nextDouble();
+		if (mode == Mode.ANTITHETIC && position % 2 == 1) {
+			u = 1.0 - u;
+		} else if (mode == Mode.LATIN_HYPERCUBE && blockSize > 1) {
+			u = (getStratum(drawCount) + u) / blockSize;
+		}
+		drawCount++;
+		return u < 1.0 ? u : Math.nextDown(1.0);
+	}
+	
+	/**
+	 * Get the stratum of the k-th random number of this run.<br>
+	 * The strata of the runs in a block are a permutation "(a * position + b) mod blockSize" which "a" and "b" are decided by "blockKey" and "k".
+	 * @param k
+	 * @return
+	 */
+	private int getStratum(long k) {
+		long h = mix(blockKey + mix(k));
+		long a = 1 + Long.remainderUnsigned(h, blockSize);
+		while (gcd(a, blockSize) != 1) a++;
+		long b = Long.remainderUnsigned(mix(h), blockSize);
+		return (int) ((a * position + b) % blockSize);
+	}
+	
+	/**
+	 * Get the greatest common divisor.
+	 * @param a
+	 * @param b
+	 * @return
+	 */
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+	
+	/**
+	 * Mix the bits of "z" (the finalizer of SplitMix64).
+	 * @param z
+	 * @return
+	 */
+	public static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Get the sampling mode.
+	 * @return the mode
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.model.base;
+
+/**
+ * This is the snapshot of the changeable variables of one worker or facility at a moment of simulation.<br>
+ * Assigned tasks are recorded by their indexes in the project, so they can be resolved in another copy of the project.
+ * This is created by BaseResource#takeSnapshot() and restored by BaseResource#restoreSnapshot().
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class ResourceSnapshot {
+	
+	// Changeable variable on simulation
+	boolean working;
+	double totalCost;
+	int workingStartTime;
+	int[] startTimes;
+	int[] finishTimes;
+	int[] assignedTaskIndexes; // BaseTask#getIndex() of assigned tasks
+	
+	/**
+	 * Check whether the resource is working or not.
+	 * @return the working
+	 */
+	public boolean isWorking() {
+		return working;
+	}
+	
+	/**
+	 * Get the indexes of assigned tasks in the project.
+	 * @return the assignedTaskIndexes
+	 */
+	public int[] getAssignedTaskIndexes() {
+		return assignedTaskIndexes.clone();
+	}
+}
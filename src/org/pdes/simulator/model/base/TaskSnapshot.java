@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.model.base;
+
+/**
+ * This is the snapshot of the changeable variables of one task at a moment of simulation.<br>
+ * Allocated resources are recorded by their indexes in the organization, so they can be resolved in another organization.
+ * This is created by BaseTask#takeSnapshot() and restored by BaseTask#restoreSnapshot().
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class TaskSnapshot {
+	
+	// Changeable variable on simulation
+	double est;
+	double eft;
+	double lst;
+	double lft;
+	double remainingWorkAmount;
+	double actualWorkAmount;
+	double additionalWorkAmount;
+	int stateInt;
+	int[] readyTimes;
+	int[] startTimes;
+	int[] finishTimes;
+	boolean additionalTaskFlag;
+	int[] allocatedWorkerIndexes; // BaseResource#getIndex() of allocated workers
+	int allocatedFacilityIndex = -1; // -1 if no facility is allocated
+	int finishTypeInt;
+	int[] ticksBeforeNextError;
+	double errorSamplingProbability;
+	
+	//Other
+	final ReplicationRandom random = new ReplicationRandom();
+	long progressCount;
+	
+	/**
+	 * Get the state of the task.
+	 * @return the state (0:NONE, 1:READY, 2:WORKING, 3:WORKING_ADDITIONALLY, 4:FINISHED)
+	 */
+	public int getStateInt() {
+		return stateInt;
+	}
+	
+	/**
+	 * Get the remaining work amount of the task.
+	 * @return the remainingWorkAmount
+	 */
+	public double getRemainingWorkAmount() {
+		return remainingWorkAmount;
+	}
+	
+	/**
+	 * Get the indexes of allocated workers in the organization.
+	 * @return the allocatedWorkerIndexes
+	 */
+	public int[] getAllocatedWorkerIndexes() {
+		return allocatedWorkerIndexes.clone();
+	}
+	
+	/**
+	 * Get the index of allocated facility in the organization.
+	 * @return the allocatedFacilityIndex (-1 if no facility is allocated)
+	 */
+	public int getAllocatedFacilityIndex() {
+		return allocatedFacilityIndex;
+	}
+}
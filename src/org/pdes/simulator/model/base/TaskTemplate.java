@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.model.base;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.pdes.rcp.model.TaskNode;
+
+/**
+ * This is the immutable information of a task shared by all copies of the workflow.<br>
+ * Input tasks, output tasks and target components are kept as the positions in the task list of a workflow
+ * and the component list of a product, so they can be resolved in any copy.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class TaskTemplate {
+	
+	private final int position; // position in the task list of each workflow
+	private final String nodeId; // TaskNode ID
+	private final String name;
+	private final double defaultWorkAmount;
+	private final double progress;
+	private final double additionalWorkAmount;
+	private final boolean needFacility;
+	private final WorkAmountSampler workAmountSampler; // null if work amount is fixed
+	private final WorkAmountSampler additionalWorkAmountSampler; // null if additional work amount is fixed
+	private final int[] inputTaskPositions;
+	private final int[] outputTaskPositions;
+	private final int[] targetComponentPositions;
+	private final List<BaseTeam> allocatedTeamList;
+	
+	/**
+	 * This is the constructor.
+	 * @param position
+	 * @param taskNode
+	 * @param inputTaskPositions
+	 * @param outputTaskPositions
+	 * @param targetComponentPositions
+	 * @param allocatedTeamList
+	 */
+	TaskTemplate(int position, TaskNode taskNode, int[] inputTaskPositions, int[] outputTaskPositions, int[] targetComponentPositions, List<BaseTeam> allocatedTeamList) {
+		this.position = position;
+		this.nodeId = taskNode.getId();
+		this.name = taskNode.getName();
+		this.defaultWorkAmount = taskNode.getWorkAmount();
+		this.progress = taskNode.getProgress();
+		this.additionalWorkAmount = taskNode.getAdditionalWorkAmount();
+		this.needFacility = taskNode.isNeedFacility();
+		this.workAmountSampler = taskNode.getWorkAmountDistribution() == null ? null : new WorkAmountSampler(taskNode.getWorkAmountDistribution());
+		this.additionalWorkAmountSampler = taskNode.getAdditionalWorkAmountDistribution() == null ? null : new WorkAmountSampler(taskNode.getAdditionalWorkAmountDistribution());
+		this.inputTaskPositions = inputTaskPositions;
+		this.outputTaskPositions = outputTaskPositions;
+		this.targetComponentPositions = targetComponentPositions;
+		this.allocatedTeamList = Collections.unmodifiableList(allocatedTeamList);
+	}
+
+	/**
+	 * Get the position in the task list of each workflow.
+	 * @return the position
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Get the node id.
+	 * @return the nodeId
+	 */
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	/**
+	 * Get the name.
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get the default or initial work amount.
+	 * @return the defaultWorkAmount
+	 */
+	public double getDefaultWorkAmount() {
+		return defaultWorkAmount;
+	}
+
+	/**
+	 * Get the progress at the beginning of simulation.
+	 * @return the progress
+	 */
+	public double getProgress() {
+		return progress;
+	}
+
+	/**
+	 * Get the additional work amount.
+	 * @return the additionalWorkAmount
+	 */
+	public double getAdditionalWorkAmount() {
+		return additionalWorkAmount;
+	}
+
+	/**
+	 * Need facility or not for performing this task.
+	 * @return the needFacility
+	 */
+	public boolean isNeedFacility() {
+		return needFacility;
+	}
+
+	/**
+	 * Get the sampler of work amount.
+	 * @return the workAmountSampler, or null if work amount is fixed
+	 */
+	public WorkAmountSampler getWorkAmountSampler() {
+		return workAmountSampler;
+	}
+
+	/**
+	 * Get the sampler of additional work amount.
+	 * @return the additionalWorkAmountSampler, or null if additional work amount is fixed
+	 */
+	public WorkAmountSampler getAdditionalWorkAmountSampler() {
+		return additionalWorkAmountSampler;
+	}
+
+	/**
+	 * Get the positions of input tasks. This array must not be changed.
+	 * @return the inputTaskPositions
+	 */
+	public int[] getInputTaskPositions() {
+		return inputTaskPositions;
+	}
+
+	/**
+	 * Get the positions of output tasks. This array must not be changed.
+	 * @return the outputTaskPositions
+	 */
+	public int[] getOutputTaskPositions() {
+		return outputTaskPositions;
+	}
+
+	/**
+	 * Get the positions of target components. This array must not be changed.
+	 * @return the targetComponentPositions
+	 */
+	public int[] getTargetComponentPositions() {
+		return targetComponentPositions;
+	}
+
+	/**
+	 * Get the list of allocated teams.
+	 * @return unmodifiable list
+	 */
+	public List<BaseTeam> getAllocatedTeamList() {
+		return allocatedTeamList;
+	}
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.model.base;
+
+import java.util.Random;
+
+import org.pdes.rcp.model.WorkAmountDistribution;
+
+/**
+ * This is the fast sampler of work amount by the precomputed table of the inverse cumulative distribution function.<br>
+ * The quantiles at i/TABLE_SIZE (i = 0, ..., TABLE_SIZE) are calculated once, and a sample is the linear interpolation of the table at a uniform random number,
+ * so one sample costs one random number and a few arithmetic operations for any distribution.
+ * The first and last intervals of LOGNORMAL are unbounded, so the exact quantile is calculated only in these intervals.<br>
+ * This is immutable and shared by all copies of a task.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class WorkAmountSampler {
+	
+	private static final int TABLE_SIZE = 1024;
+	private static final int PERT_GRID_SIZE = 1 << 14; // grid for integrating the density of beta distribution
+	
+	private final WorkAmountDistribution distribution;
+	private final double[] quantiles = new double[TABLE_SIZE + 1];
+	private final boolean unboundedTails;
+	private final double mu; // LOGNORMAL only
+	private final double sigma; // LOGNORMAL only
+	
+	/**
+	 * This is the constructor.
+	 * @param distribution
+	 */
+	public WorkAmountSampler(WorkAmountDistribution distribution) {
+		this.distribution = distribution;
+		if (distribution.getType() == WorkAmountDistribution.Type.LOGNORMAL) {
+			double mean = distribution.getMean();
+			double sd = distribution.getStandardDeviation();
+			double variance = Math.log(1.0 + (sd * sd) / (mean * mean));
+			this.sigma = Math.sqrt(variance);
+			this.mu = Math.log(mean) - variance / 2.0;
+			this.unboundedTails = sigma > 0;
+			for (int i = 1; i < TABLE_SIZE; i++) quantiles[i] = getLognormalQuantile((double) i / TABLE_SIZE);
+			quantiles[0] = getLognormalQuantile(0.0);
+			quantiles[TABLE_SIZE] = getLognormalQuantile(1.0);
+		} else {
+			this.sigma = 0;
+			this.mu = 0;
+			this.unboundedTails = false;
+			if (distribution.getType() == WorkAmountDistribution.Type.PERT) setPertQuantiles();
+			else setTriangularQuantiles();
+		}
+	}
+	
+	/**
+	 * Sample the work amount.
+	 * @param random
+	 * @return
+	 */
+	public double sample(Random random) {
+		return getQuantile(random.nextDouble());
+	}
+	
+	/**
+	 * Get the quantile at the cumulative probability "p" by the table.
+	 * @param p
+	 * @return
+	 */
+	public double getQuantile(double p) {
+		double x = Math.min(Math.max(p, 0.0), 1.0) * TABLE_SIZE;
+		int i = (int) x;
+		if (unboundedTails && (i == 0 || i >= TABLE_SIZE - 1)) return getLognormalQuantile(p);
+		if (i >= TABLE_SIZE) return quantiles[TABLE_SIZE];
+		return quantiles[i] + (x - i) * (quantiles[i + 1] - quantiles[i]);
+	}
+	
+	/**
+	 * Set the quantiles of triangular distribution.
+	 */
+	private void setTriangularQuantiles() {
+		double min = distribution.getMinimum();
+		double mode = distribution.getMode();
+		double max = distribution.getMaximum();
+		double range = max - min;
+		double modeProbability = range > 0 ? (mode - min) / range : 0;
+		for (int i = 0; i <= TABLE_SIZE; i++) {
+			double p = (double) i / TABLE_SIZE;
+			if (p < modeProbability) quantiles[i] = min + Math.sqrt(p * range * (mode - min));
+			else quantiles[i] = max - Math.sqrt((1.0 - p) * range * (max - mode));
+		}
+	}
+	
+	/**
+	 * Set the quantiles of PERT-beta distribution.<br>
+	 * The density of beta(alpha, beta) is integrated on a fine grid, and the cumulative distribution is inverted by linear interpolation.
+	 */
+	private void setPertQuantiles() {
+		double min = distribution.getMinimum();
+		double mode = distribution.getMode();
+		double max = distribution.getMaximum();
+		double range = max - min;
+		if (range <= 0) {
+			for (int i = 0; i <= TABLE_SIZE; i++) quantiles[i] = min;
+			return;
+		}
+		double alpha = 1.0 + 4.0 * (mode - min) / range;
+		double beta = 1.0 + 4.0 * (max - mode) / range;
+		double[] cumulative = new double[PERT_GRID_SIZE + 1];
+		double previousDensity = getBetaDensity(0.0, alpha, beta);
+		for (int j = 1; j <= PERT_GRID_SIZE; j++) {
+			double density = getBetaDensity((double) j / PERT_GRID_SIZE, alpha, beta);
+			cumulative[j] = cumulative[j - 1] + (previousDensity + density) / 2.0;
+			previousDensity = density;
+		}
+		double total = cumulative[PERT_GRID_SIZE];
+		int j = 0;
+		for (int i = 0; i <= TABLE_SIZE; i++) {
+			double target = total * i / TABLE_SIZE;
+			while (j < PERT_GRID_SIZE - 1 && cumulative[j + 1] < target) j++;
+			double width = cumulative[j + 1] - cumulative[j];
+			double x = (j + (width > 0 ? Math.min(1.0, Math.max(0.0, (target - cumulative[j]) / width)) : 0.0)) / PERT_GRID_SIZE;
+			quantiles[i] = min + x * range;
+		}
+		quantiles[0] = min;
+		quantiles[TABLE_SIZE] = max;
+	}
+	
+	/**
+	 * Get the unnormalized density of beta distribution.
+	 * @param x
+	 * @param alpha
+	 * @param beta
+	 * @return
+	 */
+	private static double getBetaDensity(double x, double alpha, double beta) {
+		return Math.pow(x, alpha - 1.0) * Math.pow(1.0 - x, beta - 1.0);
+	}
+	
+	/**
+	 * Get the exact quantile of lognormal distribution.
+	 * @param p
+	 * @return
+	 */
+	private double getLognormalQuantile(double p) {
+		if (sigma == 0) return Math.exp(mu);
+		if (p <= 0.0) return 0.0;
+		if (p >= 1.0) return Double.MAX_VALUE;
+		return Math.exp(mu + sigma * getStandardNormalQuantile(p));
+	}
+	
+	/**
+	 * Get the quantile of standard normal distribution by the rational approximation of Acklam (relative error is less than 1.2e-9).
+	 * @param p 0 &lt; p &lt; 1
+	 * @return
+	 */
+	private static double getStandardNormalQuantile(double p) {
+		final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02, 1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+		final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02, 6.680131188771972e+01, -1.328068155288572e+01};
+		final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00, -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+		final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00};
+		final double low = 0.02425;
+		if (p < low) {
+			double q = Math.sqrt(-2.0 * Math.log(p));
+			return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1.0);
+		}
+		if (p > 1.0 - low) {
+			double q = Math.sqrt(-2.0 * Math.log(1.0 - p));
+			return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1.0);
+		}
+		double q = p - 0.5;
+		double r = q * q;
+		return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1.0);
+	}
+
+	/**
+	 * Get the distribution.
+	 * @return the distribution
+	 */
+	public WorkAmountDistribution getDistribution() {
+		return distribution;
+	}
+}
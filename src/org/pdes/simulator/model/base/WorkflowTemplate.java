@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2016, Design Engineering Laboratory, The University of Tokyo.
+ * All rights reserved. 
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the project nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE PROJECT AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE PROJECT OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package org.pdes.simulator.model.base;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pdes.rcp.model.ComponentNode;
+import org.pdes.rcp.model.ProjectDiagram;
+import org.pdes.rcp.model.TaskNode;
+import org.pdes.rcp.model.base.Link;
+
+/**
+ * This is the immutable structure of workflow and product shared by all copies in aggregate mode.<br>
+ * Names, work amounts, task dependency, allocation and component hierarchy are built once from ProjectDiagram,
+ * and each copy of BaseTask and BaseComponent only has its own changeable variables.
+ * Links are resolved by the maps of node IDs, so this template is built in linear time of the size of the diagram.
+ * @author Taiga Mitsuyuki <mitsuyuki@sys.t.u-tokyo.ac.jp>
+ */
+public class WorkflowTemplate {
+	
+	private final List<TaskTemplate> taskTemplateList;
+	private final List<ComponentTemplate> componentTemplateList;
+	
+	/**
+	 * This is the constructor.
+	 * @param diagram
+	 * @param organization the organization for allocation information, or null if tasks are not allocated
+	 */
+	public WorkflowTemplate(ProjectDiagram diagram, BaseOrganization organization) {
+		List<TaskNode> taskNodeList = diagram.getTaskNodeList();
+		List<ComponentNode> componentNodeList = diagram.getComponentNodeList();
+		Map<String, Integer> taskPositionMap = this.getPositionMap(taskNodeList.stream().map(TaskNode::getId).toArray(String[]::new));
+		Map<String, Integer> componentPositionMap = this.getPositionMap(componentNodeList.stream().map(ComponentNode::getId).toArray(String[]::new));
+		
+		// Task dependency
+		List<List<Integer>> inputTaskPositionList = this.createEmptyLists(taskNodeList.size());
+		List<List<Integer>> outputTaskPositionList = this.createEmptyLists(taskNodeList.size());
+		for (Link link : diagram.getTaskLinkList()) {
+			Integer destination = taskPositionMap.get(link.getDestinationNode().getId());
+			Integer origin = taskPositionMap.get(link.getOriginNode().getId());
+			if (destination == null || origin == null) continue; // Link with SubWorkflowNode
+			inputTaskPositionList.get(destination).add(origin);
+			outputTaskPositionList.get(origin).add(destination);
+		}
+		
+		// Component hierarchy
+		List<List<Integer>> dependingComponentPositionList = this.createEmptyLists(componentNodeList.size());
+		List<List<Integer>> dependedComponentPositionList = this.createEmptyLists(componentNodeList.size());
+		for (Link link : diagram.getComponentLinkList()) {
+			Integer destination = componentPositionMap.get(link.getDestinationNode().getId());
+			Integer origin = componentPositionMap.get(link.getOriginNode().getId());
+			if (destination == null || origin == null) continue; // Link with SubWorkflowNode
+			dependedComponentPositionList.get(destination).add(origin);
+			dependingComponentPositionList.get(origin).add(destination);
+		}
+		
+		// Target components
+		List<List<Integer>> targetComponentPositionList = this.createEmptyLists(taskNodeList.size());
+		List<List<Integer>> targetedTaskPositionList = this.createEmptyLists(componentNodeList.size());
+		for (Link link : diagram.getTargetComponentLinkList()) {
+			int task = taskPositionMap.get(link.getDestinationNode().getId());
+			int component = componentPositionMap.get(link.getOriginNode().getId());
+			targetComponentPositionList.get(task).add(component);
+			targetedTaskPositionList.get(component).add(task);
+		}
+		
+		// Allocation
+		List<List<BaseTeam>> allocatedTeamList = this.createEmptyLists(taskNodeList.size());
+		if (organization != null) {
+			Map<String, BaseTeam> teamMap = new HashMap<String, BaseTeam>();
+			organization.getTeamList().forEach(team -> teamMap.putIfAbsent(team.getNodeId(), team));
+			for (Link link : diagram.getAllocationLinkList()) {
+				allocatedTeamList.get(taskPositionMap.get(link.getDestinationNode().getId())).add(teamMap.get(link.getOriginNode().getId()));
+			}
+		}
+		
+		List<TaskTemplate> taskTemplateList = new ArrayList<TaskTemplate>(taskNodeList.size());
+		for (int i = 0; i < taskNodeList.size(); i++) {
+			taskTemplateList.add(new TaskTemplate(i, taskNodeList.get(i),
+					this.toArray(inputTaskPositionList.get(i)),
+					this.toSortedArray(outputTaskPositionList.get(i)),
+					this.toArray(targetComponentPositionList.get(i)),
+					allocatedTeamList.get(i)));
+		}
+		List<ComponentTemplate> componentTemplateList = new ArrayList<ComponentTemplate>(componentNodeList.size());
+		for (int i = 0; i < componentNodeList.size(); i++) {
+			componentTemplateList.add(new ComponentTemplate(i, componentNodeList.get(i),
+					this.toSortedArray(dependingComponentPositionList.get(i)),
+					this.toArray(dependedComponentPositionList.get(i)),
+					this.toSortedArray(targetedTaskPositionList.get(i))));
+		}
+		this.taskTemplateList = Collections.unmodifiableList(taskTemplateList);
+		this.componentTemplateList = Collections.unmodifiableList(componentTemplateList);
+	}
+	
+	/**
+	 * Get the map from node ID to the position. If some nodes have the same ID, the first one is used.
+	 * @param idArray
+	 * @return
+	 */
+	private Map<String, Integer> getPositionMap(String[] idArray) {
+		Map<String, Integer> positionMap = new HashMap<String, Integer>(idArray.length * 2);
+		for (int i = 0; i < idArray.length; i++) positionMap.putIfAbsent(idArray[i], i);
+		return positionMap;
+	}
+	
+	/**
+	 * Create the list of "size" empty lists.
+	 * @param size
+	 * @return
+	 */
+	private <T> List<List<T>> createEmptyLists(int size) {
+		List<List<T>> lists = new ArrayList<List<T>>(size);
+		for (int i = 0; i < size; i++) lists.add(new ArrayList<T>(0));
+		return lists;
+	}
+	
+	/**
+	 * Transfer the list of positions to array.
+	 * @param positionList
+	 * @return
+	 */
+	private int[] toArray(List<Integer> positionList) {
+		return positionList.stream().mapToInt(Integer::intValue).toArray();
+	}
+	
+	/**
+	 * Transfer the list of positions to array sorted by position.<br>
+	 * The positions of the destinations of Links from a NodeElement do not depend on the order of Links in the diagram.
+	 * @param positionList
+	 * @return
+	 */
+	private int[] toSortedArray(List<Integer> positionList) {
+		return positionList.stream().mapToInt(Integer::intValue).sorted().toArray();
+	}
+
+	/**
+	 * Get the list of task templates in the order of tasks in each workflow.
+	 * @return unmodifiable list
+	 */
+	public List<TaskTemplate> getTaskTemplateList() {
+		return taskTemplateList;
+	}
+
+	/**
+	 * Get the list of component templates in the order of components in each product.
+	 * @return unmodifiable list
+	 */
+	public List<ComponentTemplate> getComponentTemplateList() {
+		return componentTemplateList;
+	}
+}